@@ -25,6 +25,7 @@ import us.ihmc.robotics.math.frames.YoFrameVector;
 import us.ihmc.robotics.screwTheory.FloatingInverseDynamicsJoint;
 import us.ihmc.robotics.screwTheory.InverseDynamicsCalculator;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.ScrewTools;
 import us.ihmc.robotics.screwTheory.SpatialAccelerationCalculator;
@@ -46,6 +47,7 @@ public class WholeBodyControlCoreToolbox
 
    private final JointIndexHandler jointIndexHandler;
    private final double totalRobotMass;
+   private final MotionSubspaceCache motionSubspaceCache = new MotionSubspaceCache();
    private final CentroidalMomentumHandler centroidalMomentumHandler;
    private final InverseDynamicsCalculator inverseDynamicsCalculator;
    private final SpatialAccelerationCalculator spatialAccelerationCalculator;
@@ -125,7 +127,7 @@ public class WholeBodyControlCoreToolbox
       rootBody = ScrewTools.getRootBody(controlledJoints[0].getPredecessor());
       jointIndexHandler = new JointIndexHandler(controlledJoints);
       totalRobotMass = TotalMassCalculator.computeSubTreeMass(rootBody);
-      centroidalMomentumHandler = new CentroidalMomentumHandler(rootBody, centerOfMassFrame);
+      centroidalMomentumHandler = new CentroidalMomentumHandler(rootBody, centerOfMassFrame, motionSubspaceCache);
       inverseDynamicsCalculator = new InverseDynamicsCalculator(rootBody, gravityZ);
       spatialAccelerationCalculator = inverseDynamicsCalculator.getSpatialAccelerationCalculator();
 
@@ -307,6 +309,22 @@ public class WholeBodyControlCoreToolbox
       return centroidalMomentumHandler;
    }
 
+   /**
+    * Gets the cache of joint motion subspaces shared by all the modules of the controller core
+    * computing Jacobians.
+    * <p>
+    * The {@link WholeBodyControllerCore} advances its tick once per control cycle. Users of this
+    * toolbox that do not go through the controller core have to call
+    * {@link MotionSubspaceCache#nextTick()} themselves after updating the robot configuration.
+    * </p>
+    * 
+    * @return the motion subspace cache.
+    */
+   public MotionSubspaceCache getMotionSubspaceCache()
+   {
+      return motionSubspaceCache;
+   }
+
    public FloatingInverseDynamicsJoint getRootJoint()
    {
       return rootJoint;
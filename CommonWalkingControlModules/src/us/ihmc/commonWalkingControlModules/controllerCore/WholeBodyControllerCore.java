@@ -18,6 +18,7 @@ import us.ihmc.yoVariables.registry.YoVariableRegistry;
 import us.ihmc.yoVariables.variable.YoEnum;
 import us.ihmc.yoVariables.variable.YoInteger;
 import us.ihmc.robotics.screwTheory.FloatingInverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.time.ExecutionTimer;
 
@@ -32,6 +33,7 @@ public class WholeBodyControllerCore
    private final WholeBodyInverseDynamicsSolver inverseDynamicsSolver;
    private final WholeBodyInverseKinematicsSolver inverseKinematicsSolver;
    private final WholeBodyVirtualModelControlSolver virtualModelControlSolver;
+   private final MotionSubspaceCache motionSubspaceCache;
 
    private final ControllerCoreOutput controllerCoreOutput;
    private final YoRootJointDesiredConfigurationData yoRootJointDesiredConfigurationData;
@@ -43,6 +45,7 @@ public class WholeBodyControllerCore
 
    public WholeBodyControllerCore(WholeBodyControlCoreToolbox toolbox, FeedbackControlCommandList allPossibleCommands, YoVariableRegistry parentRegistry)
    {
+      motionSubspaceCache = toolbox.getMotionSubspaceCache();
       feedbackController = new WholeBodyFeedbackController(toolbox, allPossibleCommands, registry);
 
       if (toolbox.isEnableInverseDynamicsModule())
@@ -187,6 +190,9 @@ public class WholeBodyControllerCore
    public void compute()
    {
       controllerCoreComputeTimer.startMeasurement();
+      // The robot configuration is updated once per control cycle, before the controller core is called.
+      motionSubspaceCache.nextTick();
+
       switch (currentMode.getEnumValue())
       {
       case INVERSE_DYNAMICS:
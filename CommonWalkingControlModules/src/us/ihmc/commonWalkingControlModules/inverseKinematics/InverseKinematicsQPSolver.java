@@ -4,6 +4,7 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
 
 import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.MotionQPInput;
+import us.ihmc.commonWalkingControlModules.momentumBasedController.optimization.SparseMotionQPInputAssembler;
 import us.ihmc.convexOptimization.quadraticProgram.ActiveSetQPSolver;
 import us.ihmc.robotics.linearAlgebra.MatrixTools;
 import us.ihmc.tools.exceptions.NoConvergenceException;
@@ -40,6 +41,8 @@ public class InverseKinematicsQPSolver
    private final YoDouble jointVelocityRegularization = new YoDouble("jointVelocityRegularization", registry);
    private final YoDouble jointAccelerationRegularization = new YoDouble("jointAccelerationRegularization", registry);
 
+   private final SparseMotionQPInputAssembler sparseMotionQPInputAssembler;
+
    private final int numberOfDoFs;
 
    public InverseKinematicsQPSolver(ActiveSetQPSolver qpSolver, int numberOfDoFs, YoVariableRegistry parentRegistry)
@@ -67,6 +70,7 @@ public class InverseKinematicsQPSolver
       jointAccelerationRegularization.set(10.0);
 
       desiredJointVelocities = new DenseMatrix64F(numberOfDoFs, 1);
+      sparseMotionQPInputAssembler = new SparseMotionQPInputAssembler(numberOfDoFs);
 
       parentRegistry.addChild(registry);
    }
@@ -104,6 +108,8 @@ public class InverseKinematicsQPSolver
    {
       if (input.isMotionConstraint())
          addMotionConstraint(input.taskJacobian, input.taskObjective);
+      else if (input.isColumnSparse())
+         sparseMotionQPInputAssembler.addMotionTask(input, solverInput_H, solverInput_f);
       else if (input.useWeightScalar())
          addMotionTask(input.taskJacobian, input.taskObjective, input.getWeightScalar());
       else
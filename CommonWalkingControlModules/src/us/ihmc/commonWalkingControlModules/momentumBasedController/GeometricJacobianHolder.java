@@ -1,36 +1,42 @@
 package us.ihmc.commonWalkingControlModules.momentumBasedController;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import gnu.trove.map.hash.TLongLongHashMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.euclid.utils.NameBasedHashCodeTools;
 import us.ihmc.robotics.screwTheory.GeometricJacobian;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.ScrewTools;
 
-/*
- * Change the strategy to be less expensive in terms of computation.
- * The method compute() should be replaced a method reset() which should flip a boolean somehow linked to each jacobian indicating that they need to be updated.
- * When a getter is called, call GeometricJacobian.compute() only if needed.
- * That should allow the user to create as many jacobian as needed and update only the ones that are actually being used.
+/**
+ * Holds the Jacobians shared by the different modules of a controller.
+ * <p>
+ * The Jacobians are updated lazily: they are marked as outdated whenever the tick of the given
+ * {@link MotionSubspaceCache} is advanced by its owner, once per control tick. A Jacobian is then
+ * computed only when requested via {@link #getJacobian(long)}, and at most once per tick, such that
+ * as many Jacobians as needed can be created while only the ones actually being used are updated.
+ * The Jacobians also share the motion subspaces of their joints through the cache, such that the
+ * columns common to several Jacobians expressed in the same frame are computed only once.
+ * </p>
  */
 public class GeometricJacobianHolder
 {
    public static final long NULL_JACOBIAN_ID = NameBasedHashCodeTools.NULL_HASHCODE;
 
    private final TLongObjectHashMap<GeometricJacobian> nameBasedHashCodeToJacobianMap = new TLongObjectHashMap<GeometricJacobian>();
-   private final List<GeometricJacobian> geometricJacobians = new ArrayList<GeometricJacobian>();
+   private final TLongLongHashMap nameBasedHashCodeToLastComputedTickMap = new TLongLongHashMap();
+   private final MotionSubspaceCache motionSubspaceCache;
    private final InverseDynamicsJoint[] temporaryToStoreJointPath = new InverseDynamicsJoint[30];
 
-   public void compute()
+   /**
+    * @param motionSubspaceCache the cache shared with the other modules of the controller. Its tick
+    *           is advanced by its owner once per control tick.
+    */
+   public GeometricJacobianHolder(MotionSubspaceCache motionSubspaceCache)
    {
-      for (int i = 0; i < geometricJacobians.size(); i++)
-      {
-         geometricJacobians.get(i).compute();
-      }
+      this.motionSubspaceCache = motionSubspaceCache;
    }
 
    /**
@@ -70,7 +76,7 @@ public class GeometricJacobianHolder
       boolean allowChangeFrame = false;
 
       long jacobianId = ScrewTools.computeGeometricJacobianNameBasedHashCode(joints, 0, numberOfJointsToConsider - 1, jacobianFrame, allowChangeFrame);
-      GeometricJacobian jacobian = getJacobian(jacobianId);
+      GeometricJacobian jacobian = jacobianId == NULL_JACOBIAN_ID ? null : nameBasedHashCodeToJacobianMap.get(jacobianId);
 
       if (jacobian == null)
       {
@@ -84,9 +90,8 @@ public class GeometricJacobianHolder
             System.arraycopy(joints, 0, jointsForNewJacobian, 0, numberOfJointsToConsider);
             jacobian = new GeometricJacobian(jointsForNewJacobian, jacobianFrame, allowChangeFrame);
          }
-         jacobian.compute(); // Compute in case you need it right away
-         geometricJacobians.add(jacobian);
          nameBasedHashCodeToJacobianMap.put(jacobian.getNameBasedHashCode(), jacobian);
+         nameBasedHashCodeToLastComputedTickMap.put(jacobian.getNameBasedHashCode(), motionSubspaceCache.getTick() - 1);
       }
 
       return jacobian.getNameBasedHashCode();
@@ -94,6 +99,7 @@ public class GeometricJacobianHolder
 
    /**
     * Return a jacobian previously created with the getOrCreate method using a jacobianId.
+    * The jacobian is computed if it has not been yet during the current tick of the motion subspace cache.
     * @param jacobianId
     * @return
     */
@@ -101,7 +107,15 @@ public class GeometricJacobianHolder
    {
       if (jacobianId == NULL_JACOBIAN_ID)
          return null;
-      else
-         return nameBasedHashCodeToJacobianMap.get(jacobianId);
+
+      GeometricJacobian jacobian = nameBasedHashCodeToJacobianMap.get(jacobianId);
+
+      if (jacobian != null && nameBasedHashCodeToLastComputedTickMap.get(jacobianId) != motionSubspaceCache.getTick())
+      {
+         jacobian.compute(motionSubspaceCache);
+         nameBasedHashCodeToLastComputedTickMap.put(jacobianId, motionSubspaceCache.getTick());
+      }
+
+      return jacobian;
    }
 }
@@ -14,6 +14,7 @@ import us.ihmc.robotics.linearAlgebra.MatrixTools;
 import us.ihmc.robotics.screwTheory.CentroidalMomentumRateTermCalculator;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
 import us.ihmc.robotics.screwTheory.Momentum;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.ScrewTools;
 import us.ihmc.robotics.screwTheory.SpatialForceVector;
@@ -41,6 +42,11 @@ public class CentroidalMomentumHandler
    private final double robotMass;
 
    public CentroidalMomentumHandler(RigidBody rootBody, ReferenceFrame centerOfMassFrame)
+   {
+      this(rootBody, centerOfMassFrame, null);
+   }
+
+   public CentroidalMomentumHandler(RigidBody rootBody, ReferenceFrame centerOfMassFrame, MotionSubspaceCache motionSubspaceCache)
    {
       this.jointsInOrder = ScrewTools.computeSupportAndSubtreeJoints(rootBody);
 
@@ -59,7 +65,7 @@ public class CentroidalMomentumHandler
       this.centerOfMassFrame = centerOfMassFrame;
 
       robotMass = TotalMassCalculator.computeSubTreeMass(rootBody);
-      this.centroidalMomentumRateTermCalculator = new CentroidalMomentumRateTermCalculator(rootBody, centerOfMassFrame, v, robotMass);
+      this.centroidalMomentumRateTermCalculator = new CentroidalMomentumRateTermCalculator(rootBody, centerOfMassFrame, v, robotMass, motionSubspaceCache);
    }
 
    public void initialize()
@@ -8,6 +8,7 @@ import org.ejml.ops.CommonOps;
 import us.ihmc.commonWalkingControlModules.wrenchDistribution.WrenchMatrixCalculator;
 import us.ihmc.humanoidRobotics.bipedSupportPolygons.ContactablePlaneBody;
 import us.ihmc.robotics.screwTheory.GeometricJacobianCalculator;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.RigidBody;
 
 public class ContactWrenchMatrixCalculator
@@ -16,6 +17,8 @@ public class ContactWrenchMatrixCalculator
    private final List<? extends ContactablePlaneBody> contactablePlaneBodies;
    private final JointIndexHandler jointIndexHandler;
    private final GeometricJacobianCalculator jacobianCalculator = new GeometricJacobianCalculator();
+   /** Shares the columns of the joints common to the contactable bodies, such as the floating joint. */
+   private final MotionSubspaceCache motionSubspaceCache;
    private final DenseMatrix64F contactableBodyJacobianMatrix = new DenseMatrix64F(6, 12);
 
    private final RigidBody rootBody;
@@ -27,9 +30,10 @@ public class ContactWrenchMatrixCalculator
    private final DenseMatrix64F tmpContactJacobianMatrix;
 
    public ContactWrenchMatrixCalculator(RigidBody rootBody, List<? extends ContactablePlaneBody> contactablePlaneBodies, WrenchMatrixCalculator wrenchMatrixCalculator,
-         JointIndexHandler jointIndexHandler)
+         JointIndexHandler jointIndexHandler, MotionSubspaceCache motionSubspaceCache)
    {
       this.rootBody = rootBody;
+      this.motionSubspaceCache = motionSubspaceCache;
       this.contactablePlaneBodies = contactablePlaneBodies;
       this.wrenchMatrixCalculator = wrenchMatrixCalculator;
       this.jointIndexHandler = jointIndexHandler;
@@ -51,7 +55,7 @@ public class ContactWrenchMatrixCalculator
          jacobianCalculator.clear();
          jacobianCalculator.setKinematicChain(rootBody, rigidBody);
          jacobianCalculator.setJacobianFrame(wrenchMatrixCalculator.getJacobianFrame());
-         jacobianCalculator.computeJacobianMatrix();
+         jacobianCalculator.computeJacobianMatrix(motionSubspaceCache);
          jacobianCalculator.getJacobianMatrix(contactableBodyJacobianMatrix);
 
          DenseMatrix64F rhoJacobianMatrix = wrenchMatrixCalculator.getRhoJacobianMatrix(rigidBody);
@@ -307,4 +307,19 @@ public interface ControllerCoreOptimizationSettings
    {
       return new SimpleEfficientActiveSetQPSolver();
    }
+
+   /**
+    * Whether the QP solver of the inverse dynamics mode should start from the active set of the
+    * previous control tick.
+    * <p>
+    * The active set rarely changes from one tick to the next, warm starting then saves most of the
+    * active set iterations.
+    * </p>
+    * 
+    * @return whether to warm start the QP solver. By default it is {@code false}.
+    */
+   default boolean useWarmStartInSolver()
+   {
+      return false;
+   }
 }
\ No newline at end of file
@@ -132,6 +132,7 @@ public class InverseDynamicsOptimizationControlModule
       qpSolver.setAccelerationRegularizationWeight(optimizationSettings.getJointAccelerationWeight());
       qpSolver.setJerkRegularizationWeight(optimizationSettings.getJointJerkWeight());
       qpSolver.setJointTorqueWeight(optimizationSettings.getJointTorqueWeight());
+      qpSolver.setUseWarmStart(optimizationSettings.useWarmStartInSolver());
 
       parentRegistry.addChild(registry);
    }
@@ -26,6 +26,7 @@ public class InverseDynamicsQPSolver
    private final YoFrameVector wrenchEquilibriumTorqueError;
 
    private final YoBoolean firstCall = new YoBoolean("firstCall", registry);
+   private final YoBoolean useWarmStart = new YoBoolean("useWarmStart", registry);
    private final ActiveSetQPSolver qpSolver;
 
    private final DenseMatrix64F solverInput_H;
@@ -55,6 +56,7 @@ public class InverseDynamicsQPSolver
    private final DenseMatrix64F tempJtW;
    private final DenseMatrix64F tempMotionTask_H;
    private final DenseMatrix64F tempMotionTask_f;
+   private final SparseMotionQPInputAssembler sparseMotionQPInputAssembler;
    private final DenseMatrix64F tempRhoTask_H;
    private final DenseMatrix64F tempRhoTask_f;
    private final DenseMatrix64F tempTorqueTask_H;
@@ -96,6 +98,7 @@ public class InverseDynamicsQPSolver
       tempJtW = new DenseMatrix64F(problemSize, problemSize);
       tempMotionTask_H = new DenseMatrix64F(numberOfDoFs, numberOfDoFs);
       tempMotionTask_f = new DenseMatrix64F(numberOfDoFs, 1);
+      sparseMotionQPInputAssembler = new SparseMotionQPInputAssembler(numberOfDoFs);
 
       tempRhoTask_H = new DenseMatrix64F(rhoSize, rhoSize);
       tempRhoTask_f = new DenseMatrix64F(rhoSize, 1);
@@ -142,6 +145,14 @@ public class InverseDynamicsQPSolver
       jointTorqueWeight.set(weight);
    }
 
+   /**
+    * Sets whether the QP solver starts from the active set of the previous control tick.
+    */
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      this.useWarmStart.set(useWarmStart);
+   }
+
    public void setRhoRegularizationWeight(DenseMatrix64F weight)
    {
       CommonOps.insert(weight, regularizationMatrix, numberOfDoFs, numberOfDoFs);
@@ -181,6 +192,8 @@ public class InverseDynamicsQPSolver
    {
       if (input.isMotionConstraint())
          addMotionConstraint(input.taskJacobian, input.taskObjective);
+      else if (input.isColumnSparse())
+         sparseMotionQPInputAssembler.addMotionTask(input, solverInput_H, solverInput_f);
       else if (input.useWeightScalar())
          addMotionTask(input.taskJacobian, input.taskObjective, input.getWeightScalar());
       else
@@ -370,6 +383,7 @@ public class InverseDynamicsQPSolver
       qpSolverTimer.startMeasurement();
 
       qpSolver.clear();
+      qpSolver.setUseWarmStart(useWarmStart.getBooleanValue());
 
       qpSolver.setQuadraticCostFunction(solverInput_H, solverInput_f, 0.0);
       qpSolver.setVariableBounds(solverInput_lb, solverInput_ub);
@@ -383,7 +397,10 @@ public class InverseDynamicsQPSolver
       hasWrenchesEquilibriumConstraintBeenSetup = false;
 
       if (MatrixTools.containsNaN(solverOutput))
+      {
+         qpSolver.resetActiveConstraints();
          throw new NoConvergenceException(numberOfIterations.getIntegerValue());
+      }
 
       CommonOps.extract(solverOutput, 0, numberOfDoFs, 0, 1, solverOutput_jointAccelerations, 0, 0);
       CommonOps.extract(solverOutput, numberOfDoFs, problemSize, 0, 1, solverOutput_rhos, 0, 0);
@@ -2,6 +2,8 @@ package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization
 
 import org.ejml.data.DenseMatrix64F;
 
+import gnu.trove.list.array.TIntArrayList;
+
 public class MotionQPInput
 {
    public final DenseMatrix64F taskJacobian;
@@ -12,6 +14,10 @@ public class MotionQPInput
    private boolean isMotionConstraint = false;
    private final int numberOfDoFs;
 
+   /** Columns of the task Jacobian that can be non-zero, as indexed by the {@link JointIndexHandler}. */
+   private final TIntArrayList nonZeroColumnIndices = new TIntArrayList();
+   private boolean isColumnSparse = false;
+
    /**
     * <p>
     *    Motion objective input into the QP solver.
@@ -37,11 +43,50 @@ public class MotionQPInput
       taskJacobian.reshape(taskSize, numberOfDoFs);
       taskObjective.reshape(taskSize, 1);
       taskWeightMatrix.reshape(taskSize, taskSize);
+
+      nonZeroColumnIndices.reset();
+      isColumnSparse = false;
+   }
+
+   /**
+    * Declares that the given columns of the task Jacobian can be non-zero. Once this is called, all
+    * the other columns have to be zero until the next {@link #reshape(int)}, which allows the QP
+    * solver to only compute the non-zero blocks of J<sup>T</sup>WJ.
+    * 
+    * @param columnIndices the column indices of a joint as given by
+    *           {@link JointIndexHandler#getJointIndices(us.ihmc.robotics.screwTheory.InverseDynamicsJoint)}.
+    */
+   public void addNonZeroColumns(int[] columnIndices)
+   {
+      isColumnSparse = true;
+
+      for (int i = 0; i < columnIndices.length; i++)
+      {
+         if (!nonZeroColumnIndices.contains(columnIndices[i]))
+            nonZeroColumnIndices.add(columnIndices[i]);
+      }
+   }
+
+   /**
+    * @return whether the non-zero columns of the task Jacobian are known. When {@code false}, the
+    *         task Jacobian has to be considered dense.
+    */
+   public boolean isColumnSparse()
+   {
+      return isColumnSparse;
+   }
+
+   public TIntArrayList getNonZeroColumnIndices()
+   {
+      return nonZeroColumnIndices;
    }
 
    public void setTaskJacobian(DenseMatrix64F taskJacobian)
    {
       this.taskJacobian.set(taskJacobian);
+      // The new Jacobian can be dense.
+      nonZeroColumnIndices.reset();
+      isColumnSparse = false;
    }
 
    public void setTaskObjective(DenseMatrix64F taskObjective)
@@ -264,6 +264,7 @@ public class MotionQPInputCalculator
 
       // Step 2: The small Jacobian matrix into the full Jacobian matrix. Proper indexing has to be ensured, so it is handled by the jointIndexHandler.
       jointIndexHandler.compactBlockToFullBlockIgnoreUnindexedJoints(jointsUsedInTask, tempTaskJacobian, motionQPInputToPack.taskJacobian);
+      declareNonZeroColumns(jointsUsedInTask, motionQPInputToPack);
 
       if (primaryBase == null)
       { // No primary base provided for this task.
@@ -378,6 +379,7 @@ public class MotionQPInputCalculator
 
       // Step 2: The small Jacobian matrix into the full Jacobian matrix. Proper indexing has to be ensured, so it is handled by the jointIndexHandler.
       jointIndexHandler.compactBlockToFullBlockIgnoreUnindexedJoints(jointsUsedInTask, tempTaskJacobian, motionQPInputToPack.taskJacobian);
+      declareNonZeroColumns(jointsUsedInTask, motionQPInputToPack);
 
       if (primaryBase == null)
       { // No primary base provided for this task.
@@ -540,6 +542,7 @@ public class MotionQPInputCalculator
             return false;
 
          CommonOps.insert(commandToConvert.getDesiredAcceleration(jointIndex), motionQPInputToPack.taskObjective, row, 0);
+         motionQPInputToPack.addNonZeroColumns(columns);
          for (int column : columns)
          {
             motionQPInputToPack.taskJacobian.set(row, column, 1.0);
@@ -580,6 +583,7 @@ public class MotionQPInputCalculator
             return false;
 
          CommonOps.insert(commandToConvert.getDesiredVelocity(jointIndex), motionQPInputToPack.taskObjective, row, 0);
+         motionQPInputToPack.addNonZeroColumns(columns);
          for (int column : columns)
          {
             motionQPInputToPack.taskJacobian.set(row, column, 1.0);
@@ -592,6 +596,21 @@ public class MotionQPInputCalculator
       return true;
    }
 
+   /**
+    * Declares the columns of the joints used in a task as the only non-zero columns of the task
+    * Jacobian, such that the QP solver only computes the non-zero blocks of J<sup>T</sup>WJ.
+    */
+   private void declareNonZeroColumns(List<InverseDynamicsJoint> jointsUsedInTask, MotionQPInput motionQPInputToPack)
+   {
+      for (int i = 0; i < jointsUsedInTask.size(); i++)
+      {
+         int[] jointIndices = jointIndexHandler.getJointIndices(jointsUsedInTask.get(i));
+
+         if (jointIndices != null) // Same as compactBlockToFullBlockIgnoreUnindexedJoints
+            motionQPInputToPack.addNonZeroColumns(jointIndices);
+      }
+   }
+
    private void recordTaskJacobian(DenseMatrix64F taskJacobian)
    {
       int taskSize = taskJacobian.getNumRows();
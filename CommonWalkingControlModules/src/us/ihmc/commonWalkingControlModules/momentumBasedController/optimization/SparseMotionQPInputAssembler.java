@@ -0,0 +1,89 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+import us.ihmc.robotics.screwTheory.SpatialAccelerationVector;
+
+/**
+ * Adds the cost of a motion task to the QP cost function using only the non-zero columns of the
+ * task Jacobian.
+ * <p>
+ * A task on a hand only involves the joints of the arm and maybe of the spine, so most of the
+ * columns of its Jacobian are zero. Instead of computing the dense J<sup>T</sup>WJ which costs
+ * O(m n<sup>2</sup>), the k non-zero columns are gathered in a compact Jacobian, the k-by-k
+ * compact Hessian is computed in O(m k<sup>2</sup>), and then scattered into the full Hessian.
+ * </p>
+ * The non-zero columns are declared in the {@link MotionQPInput} by the
+ * {@link MotionQPInputCalculator} using the {@link JointIndexHandler}.
+ */
+public class SparseMotionQPInputAssembler
+{
+   private final DenseMatrix64F compactJacobian;
+   private final DenseMatrix64F compactJtW;
+   private final DenseMatrix64F compactHessian;
+   private final DenseMatrix64F compactGradient;
+
+   public SparseMotionQPInputAssembler(int numberOfDoFs)
+   {
+      compactJacobian = new DenseMatrix64F(SpatialAccelerationVector.SIZE, numberOfDoFs);
+      compactJtW = new DenseMatrix64F(numberOfDoFs, SpatialAccelerationVector.SIZE);
+      compactHessian = new DenseMatrix64F(numberOfDoFs, numberOfDoFs);
+      compactGradient = new DenseMatrix64F(numberOfDoFs, 1);
+   }
+
+   /**
+    * Computes H += J<sup>T</sup>WJ and f += -J<sup>T</sup>W objective over the non-zero columns
+    * of the task Jacobian.
+    *
+    * @param input the motion task to add, its non-zero columns have to be known, see
+    *           {@link MotionQPInput#isColumnSparse()}.
+    * @param hessianToAddTo the QP Hessian to which the cost of the task is added. Only the
+    *           top-left block is modified.
+    * @param gradientToAddTo the QP gradient to which the cost of the task is added.
+    */
+   public void addMotionTask(MotionQPInput input, DenseMatrix64F hessianToAddTo, DenseMatrix64F gradientToAddTo)
+   {
+      TIntArrayList columns = input.getNonZeroColumnIndices();
+      DenseMatrix64F taskJacobian = input.taskJacobian;
+      int taskSize = taskJacobian.getNumRows();
+      int numberOfColumns = columns.size();
+
+      if (numberOfColumns == 0)
+         return;
+
+      compactJacobian.reshape(taskSize, numberOfColumns);
+      for (int row = 0; row < taskSize; row++)
+      {
+         for (int i = 0; i < numberOfColumns; i++)
+            compactJacobian.unsafe_set(row, i, taskJacobian.unsafe_get(row, columns.get(i)));
+      }
+
+      // J^T W
+      compactJtW.reshape(numberOfColumns, taskSize);
+      if (input.useWeightScalar())
+         MatrixTools.scaleTranspose(input.getWeightScalar(), compactJacobian, compactJtW);
+      else
+         CommonOps.multTransA(compactJacobian, input.taskWeightMatrix, compactJtW);
+
+      // Compute: H += J^T W J
+      compactHessian.reshape(numberOfColumns, numberOfColumns);
+      CommonOps.mult(compactJtW, compactJacobian, compactHessian);
+
+      // Compute: f += - J^T W Objective
+      compactGradient.reshape(numberOfColumns, 1);
+      CommonOps.mult(compactJtW, input.taskObjective, compactGradient);
+
+      for (int i = 0; i < numberOfColumns; i++)
+      {
+         int row = columns.get(i);
+
+         for (int j = 0; j < numberOfColumns; j++)
+            hessianToAddTo.unsafe_set(row, columns.get(j), hessianToAddTo.unsafe_get(row, columns.get(j)) + compactHessian.unsafe_get(i, j));
+
+         gradientToAddTo.unsafe_set(row, 0, gradientToAddTo.unsafe_get(row, 0) - compactGradient.unsafe_get(i, 0));
+      }
+   }
+}
@@ -21,6 +21,7 @@ import us.ihmc.yoVariables.variable.YoDouble;
 import us.ihmc.robotics.math.frames.YoWrench;
 import us.ihmc.robotics.screwTheory.GeometricJacobianCalculator;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.ScrewTools;
@@ -38,6 +39,8 @@ public class VirtualModelController
    private final Map<OneDoFJoint, YoDouble> vmcTorques = new HashMap<>();
 
    private final GeometricJacobianCalculator geometricJacobianCalculator = new GeometricJacobianCalculator();
+   /** Shares the columns of the root body side joints between the chains of the controlled bodies. */
+   private final MotionSubspaceCache motionSubspaceCache;
    private final RigidBody defaultRootBody;
 
    private final Map<InverseDynamicsJoint, Double> jointTorques = new HashMap<>();
@@ -53,9 +56,10 @@ public class VirtualModelController
    private List<RigidBody> allBodies = new ArrayList<>();
 
    public VirtualModelController(RigidBody defaultRootBody, OneDoFJoint[] controlledJoints, YoVariableRegistry parentRegistry,
-                                 YoGraphicsListRegistry yoGraphicsListRegistry)
+                                 MotionSubspaceCache motionSubspaceCache, YoGraphicsListRegistry yoGraphicsListRegistry)
    {
       this.defaultRootBody = defaultRootBody;
+      this.motionSubspaceCache = motionSubspaceCache;
 
       fullJTMatrix.reshape(0, 0);
       fullObjectiveWrench.reshape(0, 0);
@@ -220,7 +224,7 @@ public class VirtualModelController
                      geometricJacobianCalculator.clear();
                      geometricJacobianCalculator.setKinematicChain(vmcDataHandler.getJointsForControl(controlledBody, chainID));
                      geometricJacobianCalculator.setJacobianFrame(defaultRootBody.getBodyFixedFrame());
-                     geometricJacobianCalculator.computeJacobianMatrix();
+                     geometricJacobianCalculator.computeJacobianMatrix(motionSubspaceCache);
 
                      // Apply selection matrix to jacobian
                      int numberOfJoints = vmcDataHandler.jointsInChain(controlledBody, chainID);
@@ -275,7 +279,7 @@ public class VirtualModelController
                geometricJacobianCalculator.clear();
                geometricJacobianCalculator.setKinematicChain(vmcDataHandler.getJointsForControl(controlledBody, 0));
                geometricJacobianCalculator.setJacobianFrame(defaultRootBody.getBodyFixedFrame());
-               geometricJacobianCalculator.computeJacobianMatrix();
+               geometricJacobianCalculator.computeJacobianMatrix(motionSubspaceCache);
 
                // Apply selection matrix to jacobian
                int numberOfJoints = vmcDataHandler.jointsInChain(controlledBody, 0);
@@ -379,6 +379,7 @@ public class DynamicsMatrixCalculatorTest
    private void update()
    {
       fullHumanoidRobotModel.updateFrames();
+      toolbox.getMotionSubspaceCache().nextTick();
 
       wrenchMatrixCalculator.computeMatrices();
       dynamicsMatrixCalculator.compute();
@@ -388,6 +389,7 @@ public class DynamicsMatrixCalculatorTest
    private void solveAndCompare(DenseMatrix64F qddotSolution, DenseMatrix64F rhoSolution, boolean checkRigidBodyDynamics)
    {
       fullHumanoidRobotModel.updateFrames();
+      toolbox.getMotionSubspaceCache().nextTick();
 
       wrenchMatrixCalculator.computeMatrices();
       Map<RigidBody, Wrench> contactWrenches = wrenchMatrixCalculator.computeWrenchesFromRho(rhoSolution);
@@ -0,0 +1,117 @@
+package us.ihmc.commonWalkingControlModules.momentumBasedController.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
+import org.ejml.ops.RandomMatrices;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SparseMotionQPInputAssemblerTest
+{
+   private static final int ITERATIONS = 500;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testSameCostAsDenseAssembly() throws Exception
+   {
+      Random random = new Random(4576L);
+      int numberOfDoFs = 30;
+
+      MotionQPInput motionQPInput = new MotionQPInput(numberOfDoFs);
+      SparseMotionQPInputAssembler assembler = new SparseMotionQPInputAssembler(numberOfDoFs);
+
+      DenseMatrix64F sparseH = new DenseMatrix64F(numberOfDoFs, numberOfDoFs);
+      DenseMatrix64F sparseF = new DenseMatrix64F(numberOfDoFs, 1);
+      DenseMatrix64F denseH = new DenseMatrix64F(numberOfDoFs, numberOfDoFs);
+      DenseMatrix64F denseF = new DenseMatrix64F(numberOfDoFs, 1);
+      DenseMatrix64F jTW = new DenseMatrix64F(numberOfDoFs, 1);
+
+      for (int i = 0; i < ITERATIONS; i++)
+      {
+         int taskSize = 1 + random.nextInt(6);
+         motionQPInput.reshape(taskSize);
+         motionQPInput.taskJacobian.zero();
+
+         // Random chain of joints with one or six DoFs
+         int numberOfJoints = 1 + random.nextInt(5);
+         for (int jointIndex = 0; jointIndex < numberOfJoints; jointIndex++)
+         {
+            int jointDoFs = random.nextInt(4) == 0 ? 6 : 1;
+            int firstColumn = random.nextInt(numberOfDoFs - jointDoFs + 1);
+            int[] columns = new int[jointDoFs];
+            for (int dof = 0; dof < jointDoFs; dof++)
+            {
+               columns[dof] = firstColumn + dof;
+               for (int row = 0; row < taskSize; row++)
+                  motionQPInput.taskJacobian.set(row, columns[dof], random.nextDouble() - 0.5);
+            }
+            motionQPInput.addNonZeroColumns(columns);
+         }
+
+         motionQPInput.taskObjective.set(RandomMatrices.createRandom(taskSize, 1, -1.0, 1.0, random));
+
+         boolean useWeightScalar = random.nextBoolean();
+         motionQPInput.setUseWeightScalar(useWeightScalar);
+         if (useWeightScalar)
+         {
+            motionQPInput.setWeight(random.nextDouble());
+         }
+         else
+         {
+            DenseMatrix64F weightMatrix = RandomMatrices.createSymmPosDef(taskSize, random);
+            motionQPInput.setTaskWeightMatrix(weightMatrix);
+         }
+
+         DenseMatrix64F initialH = RandomMatrices.createSymmPosDef(numberOfDoFs, random);
+         DenseMatrix64F initialF = RandomMatrices.createRandom(numberOfDoFs, 1, -1.0, 1.0, random);
+         sparseH.set(initialH);
+         sparseF.set(initialF);
+         denseH.set(initialH);
+         denseF.set(initialF);
+
+         assertTrue(motionQPInput.isColumnSparse());
+         assembler.addMotionTask(motionQPInput, sparseH, sparseF);
+
+         jTW.reshape(numberOfDoFs, taskSize);
+         if (useWeightScalar)
+         {
+            CommonOps.transpose(motionQPInput.taskJacobian, jTW);
+            CommonOps.scale(motionQPInput.getWeightScalar(), jTW);
+         }
+         else
+         {
+            CommonOps.multTransA(motionQPInput.taskJacobian, motionQPInput.taskWeightMatrix, jTW);
+         }
+         CommonOps.multAdd(jTW, motionQPInput.taskJacobian, denseH);
+         CommonOps.multAdd(-1.0, jTW, motionQPInput.taskObjective, denseF);
+
+         assertTrue(MatrixFeatures.isIdentical(denseH, sparseH, 1.0e-12));
+         assertTrue(MatrixFeatures.isIdentical(denseF, sparseF, 1.0e-12));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testReshapeClearsNonZeroColumns() throws Exception
+   {
+      MotionQPInput motionQPInput = new MotionQPInput(10);
+      motionQPInput.reshape(3);
+      motionQPInput.addNonZeroColumns(new int[] {2, 3});
+      motionQPInput.addNonZeroColumns(new int[] {3, 4});
+
+      assertTrue(motionQPInput.isColumnSparse());
+      assertEquals(3, motionQPInput.getNonZeroColumnIndices().size());
+
+      motionQPInput.reshape(3);
+      assertFalse(motionQPInput.isColumnSparse());
+      assertTrue(motionQPInput.getNonZeroColumnIndices().isEmpty());
+   }
+}
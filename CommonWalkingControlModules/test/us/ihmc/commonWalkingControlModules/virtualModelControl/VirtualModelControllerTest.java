@@ -22,6 +22,7 @@ import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.robotSide.SideDependentList;
 import us.ihmc.robotics.screwTheory.GeometricJacobian;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.ScrewTools;
@@ -559,7 +560,7 @@ public class VirtualModelControllerTest
       CommonOps.invert(transposeJacobianMatrix);
 
       YoVariableRegistry registry = new YoVariableRegistry(this.getClass().getSimpleName());
-      VirtualModelController virtualModelController = new VirtualModelController(pelvis, null, registry, null);
+      VirtualModelController virtualModelController = new VirtualModelController(pelvis, null, registry, new MotionSubspaceCache(), null);
       virtualModelController.registerControlledBody(endEffector, pelvis);
 
       VirtualWrenchCommand virtualWrenchCommand = new VirtualWrenchCommand();
@@ -775,7 +776,7 @@ public class VirtualModelControllerTest
       CommonOps.transpose(jacobianMatrix, transposeJacobianMatrix);
       CommonOps.invert(transposeJacobianMatrix);
 
-      VirtualModelController virtualModelController = new VirtualModelController(base, null, registry, null);
+      VirtualModelController virtualModelController = new VirtualModelController(base, null, registry, new MotionSubspaceCache(), null);
       virtualModelController.registerControlledBody(endEffector, base);
 
       desiredWrench.changeFrame(base.getBodyFixedFrame());
@@ -49,6 +49,7 @@ import us.ihmc.robotics.robotController.RobotController;
 import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.robotSide.SideDependentList;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
+import us.ihmc.robotics.screwTheory.MotionSubspaceCache;
 import us.ihmc.robotics.screwTheory.MovingReferenceFrame;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.screwTheory.RevoluteJoint;
@@ -127,8 +128,9 @@ public class VirtualModelControllerTestHelper
       YoGraphicsListRegistry yoGraphicsListRegistry = new YoGraphicsListRegistry();
       YoVariableRegistry registry = new YoVariableRegistry("robert");
 
+      MotionSubspaceCache motionSubspaceCache = new MotionSubspaceCache();
       VirtualModelController virtualModelController = new VirtualModelController(controllerModel.getElevator(), controllerModel.getOneDoFJoints(),
-            registry, yoGraphicsListRegistry);
+            registry, motionSubspaceCache, yoGraphicsListRegistry);
 
       List<ReferenceFrame> endEffectorFrames = new ArrayList<>();
       List<FramePose> desiredEndEffectorPoses = new ArrayList<>();
@@ -179,7 +181,7 @@ public class VirtualModelControllerTestHelper
       }
 
       DummyArmController armController = new DummyArmController(robotModel, controllerModel, controllerModel.getOneDoFJoints(), forcePointControllers, virtualModelController,
-            endEffectors, desiredWrenches, selectionMatrix);
+            motionSubspaceCache, endEffectors, desiredWrenches, selectionMatrix);
 
       SimulationConstructionSet scs = new SimulationConstructionSet(robotModel, simulationTestingParameters);
       robotModel.setController(armController);
@@ -2618,6 +2620,7 @@ public class VirtualModelControllerTestHelper
       private final OneDoFJoint[] controlledJoints;
 
       private final VirtualModelController virtualModelController;
+      private final MotionSubspaceCache motionSubspaceCache;
 
       private Wrench desiredWrench = new Wrench();
 
@@ -2629,7 +2632,8 @@ public class VirtualModelControllerTestHelper
       private boolean firstTick = true;
 
       public DummyArmController(SCSRobotFromInverseDynamicsRobotModel scsRobot, FullRobotModel controllerModel, OneDoFJoint[] controlledJoints,
-            List<ForcePointController> forcePointControllers, VirtualModelController virtualModelController, List<RigidBody> endEffectors,
+            List<ForcePointController> forcePointControllers, VirtualModelController virtualModelController, MotionSubspaceCache motionSubspaceCache,
+            List<RigidBody> endEffectors,
             List<YoWrench> yoDesiredWrenches, DenseMatrix64F selectionMatrix)
       {
          this.scsRobot = scsRobot;
@@ -2637,6 +2641,7 @@ public class VirtualModelControllerTestHelper
          this.controlledJoints = controlledJoints;
          this.forcePointControllers = forcePointControllers;
          this.virtualModelController = virtualModelController;
+         this.motionSubspaceCache = motionSubspaceCache;
          this.endEffectors = endEffectors;
          this.selectionMatrix = selectionMatrix;
          this.yoDesiredWrenches = yoDesiredWrenches;
@@ -2663,6 +2668,7 @@ public class VirtualModelControllerTestHelper
          scsRobot.updateJointVelocities_SCS_to_ID();
          scsRobot.update();
          controllerModel.updateFrames();
+         motionSubspaceCache.nextTick();
 
          for (ForcePointController forcePointController : forcePointControllers)
             forcePointController.doControl();
@@ -55,4 +55,19 @@ public interface ActiveSetQPSolver
 
    int solve(DenseMatrix64F solutionToPack) throws NoConvergenceException;
 
+   /**
+    * Sets whether the solver should start from the active set of the previous solve. Between two control ticks the active
+    * set rarely changes, so this saves most of the active set iterations. Solvers that do not support warm starting ignore
+    * this.
+    */
+   default void setUseWarmStart(boolean useWarmStart)
+   {
+   }
+
+   /**
+    * Forgets the active set of the previous solve, the next solve will start cold.
+    */
+   default void resetActiveConstraints()
+   {
+   }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.ejml.factory.LinearSolverFactory;
 import org.ejml.interfaces.decomposition.CholeskyDecomposition;
 import org.ejml.interfaces.linsol.LinearSolver;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
 import us.ihmc.robotics.MathTools;
 import us.ihmc.robotics.linearAlgebra.MatrixTools;
 import us.ihmc.tools.exceptions.NoConvergenceException;
@@ -72,6 +73,10 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
 
    private final DenseMatrix64F quadraticCostQMatrix = new DenseMatrix64F(defaultSize, defaultSize);
    private final DenseMatrix64F decomposedQuadraticCostQMatrix = new DenseMatrix64F(defaultSize, defaultSize);
+   // Q from the last decomposition and the inverse of its Cholesky factor, the decomposition is skipped when Q did not change
+   private final DenseMatrix64F factorizedQuadraticCostQMatrix = new DenseMatrix64F(defaultSize, defaultSize);
+   private final DenseMatrix64F inverseCholeskyFactor = new DenseMatrix64F(defaultSize, defaultSize);
+   private boolean isInverseCholeskyFactorValid = false;
    private final DenseMatrix64F quadraticCostQVector = new DenseMatrix64F(defaultSize);
    private double quadraticCostScalar = 0.0;
 
@@ -105,6 +110,15 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
 
    private final DenseMatrix64F computedObjectiveFunctionValue = new DenseMatrix64F(1, 1);
 
+   private boolean useWarmStart = false;
+   // Inequality constraints that were active at the end of the previous solve, they are tried first when warm starting
+   private final TIntArrayList warmStartActiveSetIndices = new TIntArrayList(defaultSize);
+   private int warmStartNumberOfInequalityConstraints = -1;
+   private int warmStartNumberOfLowerBounds = -1;
+   private int warmStartNumberOfUpperBounds = -1;
+
+   private final DenseMatrix64F solution = new DenseMatrix64F(defaultSize, 1);
+
 
 
    @Override
@@ -251,13 +265,29 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
       this.linearInequalityConstraintsDVector.set(linearInequalityConstraintDVector);
    }
 
+   /**
+    * When warm starting, the inequality constraints that were active at the end of the previous solve are added first.
+    * The dual method then only has to add or drop the constraints that changed, instead of rebuilding the whole active
+    * set one constraint at a time and dropping the ones that were added in the wrong order.
+    */
+   @Override
+   public void setUseWarmStart(boolean useWarmStart)
+   {
+      this.useWarmStart = useWarmStart;
+   }
+
+   @Override
+   public void resetActiveConstraints()
+   {
+      warmStartActiveSetIndices.reset();
+   }
+
    @Override
    public int solve(double[] solutionToPack) throws NoConvergenceException
    {
       if (solutionToPack.length != problemSize)
          throw new RuntimeException("solutionToPack.length != numberOfVariables");
 
-      DenseMatrix64F solution = new DenseMatrix64F(problemSize, 1);
       int numberOfIterations;
       try
       {
@@ -290,6 +320,9 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
       reshape();
       zero();
 
+      if (!useWarmStart || warmStartProblemSizeChanged())
+         resetActiveConstraints();
+
       QuadProgStep currentStep = QuadProgStep.step1;
 
       double c1, c2;
@@ -306,15 +339,24 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
       // compute the trace of the original matrix quadraticCostQMatrix
       c1 = CommonOps.trace(quadraticCostQMatrix);
 
-      // decompose the matrix quadraticCostQMatrix in the form L^T L
-      decomposedQuadraticCostQMatrix.set(quadraticCostQMatrix);
-      decomposer.decompose(decomposedQuadraticCostQMatrix);
+      if (!isInverseCholeskyFactorValid || !MatrixFeatures.isIdentical(quadraticCostQMatrix, factorizedQuadraticCostQMatrix, 0.0))
+      {
+         // decompose the matrix quadraticCostQMatrix in the form L^T L
+         decomposedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+         decomposer.decompose(decomposedQuadraticCostQMatrix);
+
+         // compute the inverse of the factorized matrix G^-1, this is the initial value for H //// TODO: 5/14/17 combine this with the decomposition 
+         inverseCholeskyFactor.reshape(problemSize, problemSize);
+         solver.setA(decomposedQuadraticCostQMatrix);
+         solver.invert(inverseCholeskyFactor);
+
+         factorizedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+         isInverseCholeskyFactorValid = true;
+      }
 
       R_norm = 1.0; // this variable will hold the norm of the matrix R
 
-      // compute the inverse of the factorized matrix G^-1, this is the initial value for H //// TODO: 5/14/17 combine this with the decomposition 
-      solver.setA(decomposedQuadraticCostQMatrix);
-      solver.invert(J);
+      J.set(inverseCholeskyFactor);
       c2 = CommonOps.trace(J);
 
       // c1 * c2 is an estimate for cond(G)
@@ -395,6 +437,7 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
 
             if (Math.abs(psi) < numberOfInequalityConstraints * convergenceThreshold * c1 * c2 * 100.0)
             { // numerically there are not infeasibilities anymore
+               saveActiveSetForWarmStart();
                return numberOfIterations;
             }
 
@@ -406,16 +449,32 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
 
          case step2:
             // Step 2: check for feasibility and determine a new S-pair
-            for (int i = 0; i < numberOfInequalityConstraints; i++)
-            { // select the constraint from the inactive set that is most violated
+            boolean foundWarmStartConstraint = false;
+            for (int k = 0; k < warmStartActiveSetIndices.size(); k++)
+            { // when warm starting, select the most violated constraint of the previous active set first
+               int i = warmStartActiveSetIndices.get(k);
                if (inequalityConstraintViolations.get(i) < solutionPairConstraintViolation && inactiveSetIndices.get(i) != -1 && excludeConstraintFromActiveSet.get(i) == TRUE)
                {
                   solutionPairConstraintViolation = inequalityConstraintViolations.get(i);
                   solutionPairConstraintIndex = i;
+                  foundWarmStartConstraint = true;
+               }
+            }
+
+            if (!foundWarmStartConstraint)
+            {
+               for (int i = 0; i < numberOfInequalityConstraints; i++)
+               { // select the constraint from the inactive set that is most violated
+                  if (inequalityConstraintViolations.get(i) < solutionPairConstraintViolation && inactiveSetIndices.get(i) != -1 && excludeConstraintFromActiveSet.get(i) == TRUE)
+                  {
+                     solutionPairConstraintViolation = inequalityConstraintViolations.get(i);
+                     solutionPairConstraintIndex = i;
+                  }
                }
             }
             if (solutionPairConstraintViolation >= 0.0)
             {
+               saveActiveSetForWarmStart();
                return numberOfIterations;
             }
 
@@ -475,6 +534,7 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
          if (!Double.isFinite(minimumStep))
          { // case (i): no step in primal or dual space, QPP is infeasible
             CommonOps.fill(solutionToPack, Double.NaN);
+            resetActiveConstraints();
             throw new NoConvergenceException(numberOfIterations);
          }
          else if (!Double.isFinite(minimumStepInPrimalSpace))
@@ -544,9 +604,34 @@ public class JavaQuadProgSolver implements ActiveSetQPSolver
       }
 
       CommonOps.fill(solutionToPack, Double.NaN);
+      resetActiveConstraints();
       throw new NoConvergenceException(maxNumberOfIterations);
    }
 
+   private boolean warmStartProblemSizeChanged()
+   {
+      boolean sizeChanged = warmStartNumberOfInequalityConstraints != linearInequalityConstraintsDVector.getNumRows();
+      sizeChanged |= warmStartNumberOfLowerBounds != lowerBoundsDVector.getNumRows();
+      sizeChanged |= warmStartNumberOfUpperBounds != upperBoundsDVector.getNumRows();
+
+      warmStartNumberOfInequalityConstraints = linearInequalityConstraintsDVector.getNumRows();
+      warmStartNumberOfLowerBounds = lowerBoundsDVector.getNumRows();
+      warmStartNumberOfUpperBounds = upperBoundsDVector.getNumRows();
+
+      return sizeChanged;
+   }
+
+   private void saveActiveSetForWarmStart()
+   {
+      warmStartActiveSetIndices.reset();
+
+      if (!useWarmStart)
+         return;
+
+      for (int i = numberOfEqualityConstraints; i < numberOfActiveConstraints; i++)
+         warmStartActiveSetIndices.add(activeSetIndices.get(i));
+   }
+
    private void compute_d()
    {
       // compute d = H^T * np
@@ -4,6 +4,7 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.factory.LinearSolverFactory;
 import org.ejml.interfaces.linsol.LinearSolver;
 import org.ejml.ops.CommonOps;
+import org.ejml.ops.MatrixFeatures;
 
 import gnu.trove.list.array.TIntArrayList;
 
@@ -98,6 +99,12 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
    private final DenseMatrix64F computedObjectiveFunctionValue = new DenseMatrix64F(1, 1);
 
    private final LinearSolver<DenseMatrix64F> solver = LinearSolverFactory.linear(0);
+   private final LinearSolver<DenseMatrix64F> choleskySolver = LinearSolverFactory.symmPosDef(0);
+
+   // Q from the last time QInverse was computed, the inversion is skipped when Q did not change
+   private final DenseMatrix64F invertedQuadraticCostQMatrix = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F decomposedQuadraticCostQMatrix = new DenseMatrix64F(0, 0); // The Cholesky solver decomposes in place
+   private boolean isQInverseValid = false;
 
    private boolean useWarmStart = false;
 
@@ -219,16 +226,25 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
       this.linearInequalityConstraintsCMatrixO.set(linearInequalityConstraintCMatrix);
    }
 
+   private final DenseMatrix64F solution = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F lagrangeEqualityConstraintMultipliers = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F lagrangeInequalityConstraintMultipliers = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F lagrangeLowerBoundConstraintMultipliers = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F lagrangeUpperBoundConstraintMultipliers = new DenseMatrix64F(0, 0);
+   private double[] lagrangeLowerBoundMultipliersArray = new double[0];
+   private double[] lagrangeUpperBoundMultipliersArray = new double[0];
+
    @Override
    public int solve(double[] solutionToPack)
    {
-      int numberOfEqualityConstraints = linearEqualityConstraintsAMatrix.getNumRows();
-      int numberOfInequalityConstraints = linearInequalityConstraintsCMatrixO.getNumRows();
+      if (solutionToPack.length != quadraticCostQMatrix.getNumCols())
+         throw new RuntimeException("solutionToPack.length != numberOfVariables");
 
-      double[] lagrangeEqualityConstraintMultipliersToPack = new double[numberOfEqualityConstraints];
-      double[] lagrangeInequalityConstraintMultipliersToPack = new double[numberOfInequalityConstraints];
+      int numberOfIterations = solve(solution, lagrangeEqualityConstraintMultipliers, lagrangeInequalityConstraintMultipliers,
+                                     lagrangeLowerBoundConstraintMultipliers, lagrangeUpperBoundConstraintMultipliers);
+      System.arraycopy(solution.getData(), 0, solutionToPack, 0, solutionToPack.length);
 
-      return solve(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack);
+      return numberOfIterations;
    }
 
    @Override
@@ -237,11 +253,13 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
       int numberOfLowerBoundConstraints = variableLowerBounds.getNumRows();
       int numberOfUpperBoundConstraints = variableUpperBounds.getNumRows();
 
-      double[] lagrangeLowerBoundsConstraintMultipliersToPack = new double[numberOfLowerBoundConstraints];
-      double[] lagrangeUpperBoundsConstraintMultipliersToPack = new double[numberOfUpperBoundConstraints];
+      if (lagrangeLowerBoundMultipliersArray.length != numberOfLowerBoundConstraints)
+         lagrangeLowerBoundMultipliersArray = new double[numberOfLowerBoundConstraints];
+      if (lagrangeUpperBoundMultipliersArray.length != numberOfUpperBoundConstraints)
+         lagrangeUpperBoundMultipliersArray = new double[numberOfUpperBoundConstraints];
 
       return solve(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
-                   lagrangeLowerBoundsConstraintMultipliersToPack, lagrangeUpperBoundsConstraintMultipliersToPack);
+                   lagrangeLowerBoundMultipliersArray, lagrangeUpperBoundMultipliersArray);
    }
 
    @Override
@@ -267,12 +285,6 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
       if (lagrangeUpperBoundsConstraintMultipliersToPack.length != numberOfUpperBoundConstraints)
          throw new RuntimeException("lagrangeUpperBoundsConstraintMultipliersToPack.length != numberOfUpperBoundConstraints");
 
-      DenseMatrix64F solution = new DenseMatrix64F(numberOfVariables, 1);
-      DenseMatrix64F lagrangeEqualityConstraintMultipliers = new DenseMatrix64F(numberOfEqualityConstraints, 1);
-      DenseMatrix64F lagrangeInequalityConstraintMultipliers = new DenseMatrix64F(numberOfInequalityConstraints, 1);
-      DenseMatrix64F lagrangeLowerBoundConstraintMultipliers = new DenseMatrix64F(numberOfLowerBoundConstraints, 1);
-      DenseMatrix64F lagrangeUpperBoundConstraintMultipliers = new DenseMatrix64F(numberOfUpperBoundConstraints, 1);
-
       int numberOfIterations = solve(solution, lagrangeEqualityConstraintMultipliers, lagrangeInequalityConstraintMultipliers,
                                      lagrangeLowerBoundConstraintMultipliers, lagrangeUpperBoundConstraintMultipliers);
 
@@ -356,6 +368,8 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
    {
       if (!useWarmStart || problemSizeChanged())
          resetActiveConstraints();
+      else
+         updateActiveConstraintMatrices(); // The constraints of the previous active set have new values
 
       int numberOfIterations = 0;
 
@@ -439,10 +453,25 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
 
       ATranspose.reshape(linearEqualityConstraintsAMatrix.getNumCols(), linearEqualityConstraintsAMatrix.getNumRows());
       CommonOps.transpose(linearEqualityConstraintsAMatrix, ATranspose);
-      QInverse.reshape(numberOfVariables, numberOfVariables);
+      if (!isQInverseValid || !MatrixFeatures.isIdentical(quadraticCostQMatrix, invertedQuadraticCostQMatrix, 0.0))
+      {
+         QInverse.reshape(numberOfVariables, numberOfVariables);
+
+         // Q is symmetric, use a Cholesky decomposition unless Q is not positive definite
+         decomposedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+         if (choleskySolver.setA(decomposedQuadraticCostQMatrix))
+         {
+            choleskySolver.invert(QInverse);
+         }
+         else
+         {
+            solver.setA(quadraticCostQMatrix);
+            solver.invert(QInverse);
+         }
 
-      solver.setA(quadraticCostQMatrix);
-      solver.invert(QInverse);
+         invertedQuadraticCostQMatrix.set(quadraticCostQMatrix);
+         isQInverseValid = true;
+      }
 
       AQInverse.reshape(numberOfEqualityConstraints, numberOfVariables);
       QInverseATranspose.reshape(numberOfVariables, numberOfEqualityConstraints);
@@ -543,7 +572,6 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
 
       boolean activeSetWasModified = false;
 
-      int numberOfVariables = quadraticCostQMatrix.getNumRows();
       //      int numberOfEqualityConstraints = linearEqualityConstraintsAMatrix.getNumRows();
       int numberOfInequalityConstraints = linearInequalityConstraintsCMatrixO.getNumRows();
       int numberOfLowerBoundConstraints = variableLowerBounds.getNumRows();
@@ -670,6 +698,18 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
          activeUpperBoundIndices.remove(upperBoundIndicesToRemoveFromActiveSet.get(i));
       }
 
+      updateActiveConstraintMatrices();
+
+      solveEqualityConstrainedSubproblemEfficiently(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
+                                                    lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
+
+      return true;
+   }
+
+   private void updateActiveConstraintMatrices()
+   {
+      int numberOfVariables = quadraticCostQMatrix.getNumRows();
+
       // Add active set constraints as equality constraints:
       int sizeOfActiveSet = activeInequalityIndices.size();
 
@@ -714,11 +754,6 @@ public class SimpleEfficientActiveSetQPSolver implements SimpleActiveSetQPSolver
          DHat.set(row, 0, variableUpperBounds.get(upperBoundsConstraintIndex));
          row++;
       }
-
-      solveEqualityConstrainedSubproblemEfficiently(solutionToPack, lagrangeEqualityConstraintMultipliersToPack, lagrangeInequalityConstraintMultipliersToPack,
-                                                    lagrangeLowerBoundConstraintMultipliersToPack, lagrangeUpperBoundConstraintMultipliersToPack);
-
-      return true;
    }
 
    private boolean containsNaN(DenseMatrix64F solution)
@@ -0,0 +1,135 @@
+package us.ihmc.convexOptimization.quadraticProgram;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+import us.ihmc.tools.exceptions.NoConvergenceException;
+
+/**
+ * Replays the Kiwi dataset as a sequence of control ticks and reports the latency percentiles of the QP solvers with and
+ * without warm start.
+ *
+ * Every tick the linear cost is moved a little, like it does between two ticks of the controller. With
+ * {@code varyingQuadraticCost} the quadratic cost changes every tick too, as it does in the whole-body controller where it
+ * depends on the robot configuration.
+ */
+public class ActiveSetQPSolverWarmStartBenchmark
+{
+   private static final int NUMBER_OF_WARMUP_TICKS = 20000;
+   private static final int NUMBER_OF_TICKS = 50000;
+
+   private final ActualDatasetFromKiwi20170712 dataset = new ActualDatasetFromKiwi20170712();
+
+   private final DenseMatrix64F costQuadraticMatrix = new DenseMatrix64F(0, 0);
+   private final DenseMatrix64F costLinearVector = new DenseMatrix64F(0, 0);
+   private final double[] phases;
+
+   private final DenseMatrix64F solution = new DenseMatrix64F(0, 0);
+   private final long[] solveTimes = new long[NUMBER_OF_TICKS];
+
+   private final com.sun.management.ThreadMXBean threadMXBean;
+
+   public ActiveSetQPSolverWarmStartBenchmark()
+   {
+      Random random = new Random(1776L);
+      phases = new double[dataset.getProblemSize()];
+      for (int i = 0; i < phases.length; i++)
+         phases[i] = 2.0 * Math.PI * random.nextDouble();
+
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)
+         threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      else
+         threadMXBean = null;
+   }
+
+   public void run(String name, ActiveSetQPSolver solver, boolean useWarmStart, boolean varyingQuadraticCost)
+   {
+      solver.setUseWarmStart(useWarmStart);
+      solver.resetActiveConstraints();
+
+      for (int tick = 0; tick < NUMBER_OF_WARMUP_TICKS; tick++)
+         solve(solver, tick, varyingQuadraticCost);
+
+      int numberOfFailures = 0;
+      long allocatedBytes = getAllocatedBytes();
+
+      for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+      {
+         long startTime = System.nanoTime();
+         boolean success = solve(solver, tick, varyingQuadraticCost);
+         solveTimes[tick] = System.nanoTime() - startTime;
+
+         if (!success)
+            numberOfFailures++;
+      }
+
+      allocatedBytes = getAllocatedBytes() - allocatedBytes;
+
+      Arrays.sort(solveTimes);
+      System.out.println(String.format("%-45s p50 = %7.1f us, p90 = %7.1f us, p99 = %7.1f us, max = %8.1f us, failures = %d, allocated = %d bytes/solve", name,
+                                       percentile(0.5), percentile(0.9), percentile(0.99), solveTimes[NUMBER_OF_TICKS - 1] * 1.0e-3, numberOfFailures,
+                                       allocatedBytes / NUMBER_OF_TICKS));
+   }
+
+   private boolean solve(ActiveSetQPSolver solver, int tick, boolean varyingQuadraticCost)
+   {
+      costQuadraticMatrix.set(dataset.getCostQuadraticMatrix());
+      costLinearVector.set(dataset.getCostLinearVector());
+
+      for (int i = 0; i < costLinearVector.getNumRows(); i++)
+      {
+         double variation = Math.sin(0.01 * tick + phases[i]);
+         costLinearVector.add(i, 0, 0.05 * Math.abs(costLinearVector.get(i, 0)) * variation);
+
+         if (varyingQuadraticCost)
+            costQuadraticMatrix.add(i, i, 1.0e-3 * costQuadraticMatrix.get(i, i) * variation);
+      }
+
+      solver.clear();
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setVariableBounds(dataset.getVariableLowerBounds(), dataset.getVariableUpperBounds());
+
+      try
+      {
+         solver.solve(solution);
+      }
+      catch (NoConvergenceException e)
+      {
+         return false;
+      }
+
+      return !MatrixTools.containsNaN(solution);
+   }
+
+   private double percentile(double percentile)
+   {
+      return solveTimes[(int) (percentile * (NUMBER_OF_TICKS - 1))] * 1.0e-3;
+   }
+
+   private long getAllocatedBytes()
+   {
+      if (threadMXBean == null || !threadMXBean.isThreadAllocatedMemorySupported())
+         return 0;
+      return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+   }
+
+   public static void main(String[] args)
+   {
+      ActiveSetQPSolverWarmStartBenchmark benchmark = new ActiveSetQPSolverWarmStartBenchmark();
+
+      for (boolean varyingQuadraticCost : new boolean[] {false, true})
+      {
+         String cost = varyingQuadraticCost ? "varying Q" : "constant Q";
+         System.out.println("Kiwi dataset, " + benchmark.dataset.getProblemSize() + " variables, " + cost);
+
+         benchmark.run("SimpleEfficientActiveSetQPSolver cold", new SimpleEfficientActiveSetQPSolver(), false, varyingQuadraticCost);
+         benchmark.run("SimpleEfficientActiveSetQPSolver warm", new SimpleEfficientActiveSetQPSolver(), true, varyingQuadraticCost);
+         benchmark.run("JavaQuadProgSolver cold", new JavaQuadProgSolver(), false, varyingQuadraticCost);
+         benchmark.run("JavaQuadProgSolver warm", new JavaQuadProgSolver(), true, varyingQuadraticCost);
+      }
+   }
+}
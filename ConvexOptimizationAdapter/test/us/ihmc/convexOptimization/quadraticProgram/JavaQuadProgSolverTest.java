@@ -1376,6 +1376,61 @@ public class JavaQuadProgSolverTest
       assertFalse(MatrixTools.containsNaN(solution));
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testWarmStartGivesSameSolutionAsColdStart() throws NoConvergenceException
+   {
+      Random random = new Random(1738L);
+
+      int numberOfVariables = 12;
+      int numberOfInequalityConstraints = 4;
+      int numberOfTicks = 200;
+
+      JavaQuadProgSolver coldSolver = new JavaQuadProgSolver();
+      JavaQuadProgSolver warmSolver = new JavaQuadProgSolver();
+      coldSolver.setUseWarmStart(false);
+      warmSolver.setUseWarmStart(true);
+
+      DenseMatrix64F randomMatrix = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, numberOfVariables);
+      DenseMatrix64F costQuadraticMatrix = new DenseMatrix64F(numberOfVariables, numberOfVariables);
+      CommonOps.multTransA(randomMatrix, randomMatrix, costQuadraticMatrix);
+      MatrixTools.addDiagonal(costQuadraticMatrix, 1.0);
+      DenseMatrix64F costLinearVector = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1, -5.0, 5.0);
+      DenseMatrix64F costLinearVectorRate = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1, -0.1, 0.1);
+
+      DenseMatrix64F variableLowerBounds = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F variableUpperBounds = new DenseMatrix64F(numberOfVariables, 1);
+      CommonOps.fill(variableLowerBounds, -1.0);
+      CommonOps.fill(variableUpperBounds, 1.0);
+
+      DenseMatrix64F linearInequalityConstraintsCMatrix = RandomGeometry.nextDenseMatrix64F(random, numberOfInequalityConstraints, numberOfVariables);
+      DenseMatrix64F linearInequalityConstraintsDVector = new DenseMatrix64F(numberOfInequalityConstraints, 1);
+
+      DenseMatrix64F coldSolution = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F warmSolution = new DenseMatrix64F(numberOfVariables, 1);
+
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         CommonOps.addEquals(costLinearVector, costLinearVectorRate);
+         CommonOps.fill(linearInequalityConstraintsDVector, 1.0 + Math.sin(0.05 * tick));
+
+         for (JavaQuadProgSolver solver : new JavaQuadProgSolver[] {coldSolver, warmSolver})
+         {
+            solver.clear();
+            solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+            solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+            solver.setVariableBounds(variableLowerBounds, variableUpperBounds);
+         }
+
+         coldSolver.solve(coldSolution);
+         warmSolver.solve(warmSolution);
+
+         assertFalse(MatrixTools.containsNaN(coldSolution));
+         for (int i = 0; i < numberOfVariables; i++)
+            assertEquals(coldSolution.get(i), warmSolution.get(i), 1e-7);
+      }
+   }
+
    @ContinuousIntegrationTest(estimatedDuration = 0.0)
    @Test(timeout = 30000)
    public void testMaxIterations() throws NoConvergenceException
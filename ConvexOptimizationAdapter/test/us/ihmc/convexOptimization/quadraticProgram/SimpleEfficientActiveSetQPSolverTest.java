@@ -1,5 +1,19 @@
 package us.ihmc.convexOptimization.quadraticProgram;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.linearAlgebra.MatrixTools;
+import us.ihmc.robotics.random.RandomGeometry;
+
 public class SimpleEfficientActiveSetQPSolverTest extends AbstractSimpleActiveSetQPSolverTest
 {
    @Override
@@ -9,4 +23,82 @@ public class SimpleEfficientActiveSetQPSolverTest extends AbstractSimpleActiveSe
       simpleEfficientActiveSetQPSolver.setUseWarmStart(false);
       return simpleEfficientActiveSetQPSolver;
    }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testWarmStartGivesSameSolutionAsColdStart()
+   {
+      Random random = new Random(1738L);
+
+      int numberOfVariables = 12;
+      int numberOfTicks = 200;
+
+      SimpleEfficientActiveSetQPSolver coldSolver = new SimpleEfficientActiveSetQPSolver();
+      SimpleEfficientActiveSetQPSolver warmSolver = new SimpleEfficientActiveSetQPSolver();
+      coldSolver.setUseWarmStart(false);
+      warmSolver.setUseWarmStart(true);
+
+      DenseMatrix64F costQuadraticMatrix = nextPositiveDefiniteMatrix(random, numberOfVariables);
+      DenseMatrix64F costLinearVector = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1, -5.0, 5.0);
+      DenseMatrix64F costLinearVectorRate = RandomGeometry.nextDenseMatrix64F(random, numberOfVariables, 1, -0.1, 0.1);
+
+      DenseMatrix64F lowerBounds = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F upperBounds = new DenseMatrix64F(numberOfVariables, 1);
+      CommonOps.fill(lowerBounds, -1.0);
+      CommonOps.fill(upperBounds, 1.0);
+
+      // sum(x) <= d, with d changing every tick so the active constraint has a new value
+      DenseMatrix64F linearInequalityConstraintsCMatrix = new DenseMatrix64F(1, numberOfVariables);
+      CommonOps.fill(linearInequalityConstraintsCMatrix, 1.0);
+      DenseMatrix64F linearInequalityConstraintsDVector = new DenseMatrix64F(1, 1);
+
+      DenseMatrix64F coldSolution = new DenseMatrix64F(numberOfVariables, 1);
+      DenseMatrix64F warmSolution = new DenseMatrix64F(numberOfVariables, 1);
+
+      int coldIterations = 0;
+      int warmIterations = 0;
+
+      for (int tick = 0; tick < numberOfTicks; tick++)
+      {
+         if (tick == numberOfTicks / 2)
+            costQuadraticMatrix = nextPositiveDefiniteMatrix(random, numberOfVariables);
+
+         CommonOps.addEquals(costLinearVector, costLinearVectorRate);
+         linearInequalityConstraintsDVector.set(0, 0, 2.0 * Math.sin(0.05 * tick));
+
+         coldIterations += solve(coldSolver, costQuadraticMatrix, costLinearVector, linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector,
+                                 lowerBounds, upperBounds, coldSolution);
+         warmIterations += solve(warmSolver, costQuadraticMatrix, costLinearVector, linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector,
+                                 lowerBounds, upperBounds, warmSolution);
+
+         assertFalse(MatrixTools.containsNaN(coldSolution));
+         assertFalse(MatrixTools.containsNaN(warmSolution));
+
+         for (int i = 0; i < numberOfVariables; i++)
+            assertEquals(coldSolution.get(i), warmSolution.get(i), 1e-7);
+      }
+
+      assertTrue("warmIterations = " + warmIterations + ", coldIterations = " + coldIterations, warmIterations <= coldIterations);
+   }
+
+   private static int solve(SimpleEfficientActiveSetQPSolver solver, DenseMatrix64F costQuadraticMatrix, DenseMatrix64F costLinearVector,
+                            DenseMatrix64F linearInequalityConstraintsCMatrix, DenseMatrix64F linearInequalityConstraintsDVector, DenseMatrix64F lowerBounds,
+                            DenseMatrix64F upperBounds, DenseMatrix64F solutionToPack)
+   {
+      solver.clear();
+      solver.setQuadraticCostFunction(costQuadraticMatrix, costLinearVector, 0.0);
+      solver.setLinearInequalityConstraints(linearInequalityConstraintsCMatrix, linearInequalityConstraintsDVector);
+      solver.setVariableBounds(lowerBounds, upperBounds);
+      return solver.solve(solutionToPack);
+   }
+
+   private static DenseMatrix64F nextPositiveDefiniteMatrix(Random random, int size)
+   {
+      DenseMatrix64F randomMatrix = RandomGeometry.nextDenseMatrix64F(random, size, size);
+      DenseMatrix64F positiveDefiniteMatrix = new DenseMatrix64F(size, size);
+      CommonOps.multTransA(randomMatrix, randomMatrix, positiveDefiniteMatrix);
+      for (int i = 0; i < size; i++)
+         positiveDefiniteMatrix.add(i, i, 1.0);
+      return positiveDefiniteMatrix;
+   }
 }
@@ -79,7 +79,7 @@ public class DarpaRoboticsChallengeFinalsEnvironment implements CommonAvatarEnvi
       environment.setCourseOffsetSide(1);
 
       environment.generateTerrains();
-      ArrayList<TerrainObject3D> stairs = ((CombinedTerrainObject3D) environment.getTerrainObject3D()).getTerrainObjects();
+      List<TerrainObject3D> stairs = ((CombinedTerrainObject3D) environment.getTerrainObject3D()).getTerrainObjects();
       for (TerrainObject3D object : stairs)
       {
          if (object instanceof CombinedTerrainObject3D)
@@ -18,6 +18,7 @@ import com.esotericsoftware.kryonet.EndPoint;
 import com.esotericsoftware.kryonet.FrameworkMessage.KeepAlive;
 import com.esotericsoftware.kryonet.Listener;
 
+import us.ihmc.communication.net.SharedPoolObjectDispatcher.BackpressurePolicy;
 import us.ihmc.tools.FormattingTools;
 import us.ihmc.tools.thread.ThreadTools;
 
@@ -32,6 +33,8 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
    
    private final ArrayList<GlobalObjectConsumer> globalListeners = new ArrayList<GlobalObjectConsumer>();
    
+   private volatile SharedPoolObjectDispatcher sharedDispatcher = null;
+   
    // Stuff for data count table 
    private DefaultTableModel dataRateTable;
    private LinkedHashMap<Class<?>, TableData> dataCounts;
@@ -82,6 +85,57 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
 	   }
    }
    
+   /**
+    * Deliver received objects on a shared pool of threads instead of a thread per registered class.
+    * 
+    * Objects of the same class are still delivered in order. Call before connecting.
+    * 
+    * @param numberOfThreads Size of the shared pool
+    */
+   public void enableSharedDispatcher(int numberOfThreads)
+   {
+      if (sharedDispatcher != null)
+      {
+         return;
+      }
+      
+      SharedPoolObjectDispatcher dispatcher = new SharedPoolObjectDispatcher("Kryo" + getClass().getSimpleName() + "Dispatcher", numberOfThreads);
+      for (Class<?> clazz : listenerExecutors.keySet())
+      {
+         dispatcher.registerClass(clazz, object -> notifyListeners(clazz, object));
+      }
+      
+      for (ExecutorService executor : listenerExecutors.values())
+      {
+         executor.shutdown();
+      }
+      sharedDispatcher = dispatcher;
+   }
+   
+   /**
+    * Set the policy for objects of clazz that are received faster than the listeners can handle them. Requires the shared dispatcher.
+    * 
+    * @param clazz Registered class
+    * @param policy Policy when the queue for this class is full
+    * @param capacity Maximum number of queued objects, ignored for UNBOUNDED and LATEST_ONLY
+    */
+   public void setBackpressurePolicy(Class<?> clazz, BackpressurePolicy policy, int capacity)
+   {
+      if (sharedDispatcher == null)
+      {
+         throw new RuntimeException("Backpressure policies require the shared dispatcher, call enableSharedDispatcher first");
+      }
+      sharedDispatcher.setBackpressurePolicy(clazz, policy, capacity);
+   }
+   
+   /**
+    * @return The shared dispatcher, or null if every class has its own listener thread
+    */
+   public SharedPoolObjectDispatcher getSharedDispatcher()
+   {
+      return sharedDispatcher;
+   }
+   
    @Override
    public void attachStateListener(ConnectionStateListener stateListener)
    {
@@ -136,13 +190,16 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
    }
    
    @Override
-   public synchronized void consumeObject(Object object)
+   public void consumeObject(Object object)
    {
       send(object);
    }
 
+   /**
+    * Send an object to all connected communicators. Thread safe, Kryonet serializes writes to the connection.
+    */
    @Override
-   public synchronized int send(Object object)
+   public int send(Object object)
    {
 
       if (!listeners.containsKey(object.getClass()))
@@ -166,16 +223,39 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
    {
       if(dataRateTable != null)
       {
-         if(startTime == 0)
+         synchronized (dataRateTable)
          {
-            startTime = System.nanoTime();
+            if(startTime == 0)
+            {
+               startTime = System.nanoTime();
+            }
+            
+            TableData tableData = dataCounts.get(object.getClass());
+            double wallTime = (System.nanoTime() - startTime) / 1e9;
+            tableData.addData(bytesSend * 8, wallTime);
+            dataRateTable.setValueAt(FormattingTools.toHumanReadable(tableData.getTotalBits()), tableData.getRow(), 1);
+            dataRateTable.setValueAt(FormattingTools.toHumanReadable(tableData.getBitsPerSecond()), tableData.getRow(), 2);         
+         }
+      }
+   }
+   
+   @SuppressWarnings("unchecked")
+   private void notifyListeners(Class<?> classType, Object object)
+   {
+      for(int i = 0; i < globalListeners.size(); i++)
+      {
+         globalListeners.get(i).consumeObject(object);
+      }
+      
+      ArrayList<ObjectConsumer<?>> objectListeners = listeners.get(classType);
+      if (objectListeners != null)
+      {
+         for (int i = 0; i < objectListeners.size(); i++)
+         {
+            @SuppressWarnings("rawtypes")
+            ObjectConsumer listener = objectListeners.get(i);
+            listener.consumeObject(object);
          }
-         
-         TableData tableData = dataCounts.get(object.getClass());
-         double wallTime = (System.nanoTime() - startTime) / 1e9;
-         tableData.addData(bytesSend * 8, wallTime);
-         dataRateTable.setValueAt(FormattingTools.toHumanReadable(tableData.getTotalBits()), tableData.getRow(), 1);
-         dataRateTable.setValueAt(FormattingTools.toHumanReadable(tableData.getBitsPerSecond()), tableData.getRow(), 2);         
       }
    }
    
@@ -184,10 +264,19 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
       Listener listener = new Listener()
       {
          @Override
-         @SuppressWarnings("unchecked")
          public void received(Connection connection, final Object object)
          {
             final Class<? extends Object> classType = object.getClass();
+            
+            if (sharedDispatcher != null)
+            {
+               if (!sharedDispatcher.dispatch(object) && !(object instanceof KeepAlive))
+               {
+                  System.err.println("Received unkown object of class " + classType);
+               }
+               return;
+            }
+            
             ExecutorService executorService = listenerExecutors.get(classType);
             if(executorService != null)
             {
@@ -197,21 +286,7 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
                   @Override
                   public void run()
                   {
-                     for(int i = 0; i < globalListeners.size(); i++)
-                     {
-                        globalListeners.get(i).consumeObject(object);
-                     }
-                     
-                     ArrayList<ObjectConsumer<?>> objectListeners = listeners.get(classType);
-                     if (objectListeners != null)
-                     {
-                        for (int i = 0; i < objectListeners.size(); i++)
-                        {
-                           @SuppressWarnings("rawtypes")
-                           ObjectConsumer listener = objectListeners.get(i);
-                           listener.consumeObject(object);
-                        }
-                     }
+                     notifyListeners(classType, object);
                   }
                });
             }
@@ -269,6 +344,10 @@ public abstract class KryoObjectCommunicator implements NetworkedObjectCommunica
       {
          executor.shutdownNow();
       }
+      if (sharedDispatcher != null)
+      {
+         sharedDispatcher.shutdown();
+      }
    }
    
    protected abstract void openConnection() throws IOException;
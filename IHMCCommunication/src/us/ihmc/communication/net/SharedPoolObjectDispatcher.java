@@ -0,0 +1,252 @@
+package us.ihmc.communication.net;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import us.ihmc.tools.thread.ThreadTools;
+
+/**
+ * Dispatches received objects to their consumers on a fixed pool of threads.
+ *
+ * Every registered class gets a lane with a lock-free queue. A lane is scheduled on the pool when it has work and is
+ * processed by at most one thread at a time, so objects of the same class are delivered in the order they were received.
+ * The number of threads does not depend on the number of registered classes.
+ *
+ * Each lane has its own {@link BackpressurePolicy} that decides what happens when its consumers cannot keep up.
+ */
+public class SharedPoolObjectDispatcher
+{
+   /**
+    * Maximum number of objects delivered by a lane before it yields its thread to other lanes
+    */
+   private static final int MAXIMUM_OBJECTS_PER_RUN = 16;
+
+   public enum BackpressurePolicy
+   {
+      /** Queue all objects. This matches the behavior of a single thread executor per class. */
+      UNBOUNDED,
+      /** Queue up to capacity objects, new objects are dropped when the queue is full */
+      BOUNDED,
+      /** Queue up to capacity objects, the oldest object is dropped when the queue is full */
+      DROP_OLDEST,
+      /** Only keep the latest object */
+      LATEST_ONLY
+   }
+
+   private final ExecutorService executor;
+   private final ConcurrentHashMap<Class<?>, Lane> lanes = new ConcurrentHashMap<>();
+
+   public SharedPoolObjectDispatcher(String name, int numberOfThreads)
+   {
+      executor = Executors.newFixedThreadPool(numberOfThreads, ThreadTools.getNamedThreadFactory(name));
+   }
+
+   /**
+    * Register a class with an unbounded queue.
+    *
+    * @param clazz Class to dispatch
+    * @param consumer Called on a pool thread for every object of clazz
+    */
+   public void registerClass(Class<?> clazz, Consumer<Object> consumer)
+   {
+      lanes.put(clazz, new Lane(consumer));
+   }
+
+   /**
+    * Set the backpressure policy of a registered class. Should be called before objects are dispatched.
+    *
+    * @param clazz Registered class
+    * @param policy Policy to apply when the queue is full
+    * @param capacity Maximum number of queued objects for BOUNDED and DROP_OLDEST, ignored otherwise
+    */
+   public void setBackpressurePolicy(Class<?> clazz, BackpressurePolicy policy, int capacity)
+   {
+      Lane lane = lanes.get(clazz);
+      if (lane == null)
+      {
+         throw new RuntimeException("Class " + clazz.getSimpleName() + " is not registered with the dispatcher");
+      }
+      if ((policy == BackpressurePolicy.BOUNDED || policy == BackpressurePolicy.DROP_OLDEST) && capacity < 1)
+      {
+         throw new IllegalArgumentException("Capacity should be at least 1");
+      }
+      lane.policy = policy;
+      lane.capacity = capacity;
+   }
+
+   public boolean isRegistered(Class<?> clazz)
+   {
+      return lanes.containsKey(clazz);
+   }
+
+   /**
+    * Queue an object for delivery. Never blocks.
+    *
+    * @param object Object to deliver
+    * @return false if the class of the object is not registered
+    */
+   public boolean dispatch(Object object)
+   {
+      Lane lane = lanes.get(object.getClass());
+      if (lane == null)
+      {
+         return false;
+      }
+      lane.offer(object);
+      return true;
+   }
+
+   /**
+    * @return Number of objects of clazz dropped due to the backpressure policy
+    */
+   public long getDroppedObjects(Class<?> clazz)
+   {
+      Lane lane = lanes.get(clazz);
+      return lane == null ? 0 : lane.dropped.get();
+   }
+
+   /**
+    * @return Number of objects of clazz waiting for delivery
+    */
+   public int getQueueDepth(Class<?> clazz)
+   {
+      Lane lane = lanes.get(clazz);
+      return lane == null ? 0 : lane.size.get() + (lane.latest.get() == null ? 0 : 1);
+   }
+
+   public void shutdown()
+   {
+      executor.shutdownNow();
+   }
+
+   /**
+    * Wait for the pool threads to finish after {@link #shutdown()}
+    *
+    * @return true if all threads finished before the timeout
+    */
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+   {
+      return executor.awaitTermination(timeout, unit);
+   }
+
+   private class Lane implements Runnable
+   {
+      private final Consumer<Object> consumer;
+
+      private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+      private final AtomicInteger size = new AtomicInteger();
+      private final AtomicReference<Object> latest = new AtomicReference<>();
+      private final AtomicBoolean scheduled = new AtomicBoolean();
+      private final AtomicLong dropped = new AtomicLong();
+
+      private volatile BackpressurePolicy policy = BackpressurePolicy.UNBOUNDED;
+      private volatile int capacity = Integer.MAX_VALUE;
+
+      private Lane(Consumer<Object> consumer)
+      {
+         this.consumer = consumer;
+      }
+
+      private void offer(Object object)
+      {
+         switch (policy)
+         {
+         case LATEST_ONLY:
+            if (latest.getAndSet(object) != null)
+            {
+               dropped.incrementAndGet();
+            }
+            break;
+         case BOUNDED:
+            if (size.get() >= capacity)
+            {
+               dropped.incrementAndGet();
+               return;
+            }
+            size.incrementAndGet();
+            queue.offer(object);
+            break;
+         case DROP_OLDEST:
+            queue.offer(object);
+            if (size.incrementAndGet() > capacity && queue.poll() != null)
+            {
+               size.decrementAndGet();
+               dropped.incrementAndGet();
+            }
+            break;
+         default:
+            size.incrementAndGet();
+            queue.offer(object);
+            break;
+         }
+
+         schedule();
+      }
+
+      private void schedule()
+      {
+         if (scheduled.compareAndSet(false, true))
+         {
+            try
+            {
+               executor.execute(this);
+            }
+            catch (RejectedExecutionException e)
+            {
+               // Shutting down
+               scheduled.set(false);
+            }
+         }
+      }
+
+      private Object take()
+      {
+         Object object = latest.getAndSet(null);
+         if (object != null)
+         {
+            return object;
+         }
+
+         object = queue.poll();
+         if (object != null)
+         {
+            size.decrementAndGet();
+         }
+         return object;
+      }
+
+      @Override
+      public void run()
+      {
+         try
+         {
+            for (int i = 0; i < MAXIMUM_OBJECTS_PER_RUN; i++)
+            {
+               Object object = take();
+               if (object == null)
+               {
+                  break;
+               }
+               consumer.accept(object);
+            }
+         }
+         finally
+         {
+            scheduled.set(false);
+            if (!queue.isEmpty() || latest.get() != null)
+            {
+               schedule();
+            }
+         }
+      }
+   }
+}
@@ -1,15 +1,16 @@
 package us.ihmc.communication.net.local;
 
-import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
-import gnu.trove.map.hash.TIntObjectHashMap;
 import us.ihmc.tools.thread.ThreadTools;
 
 /* package-private */class IntraprocessCommunicationNetwork
 {
-   private static TIntObjectHashMap<IntraprocessCommunicator> communicators = null;
+   private static final ConcurrentHashMap<Integer, IntraprocessCommunicator> communicators = new ConcurrentHashMap<>();
 
    private static void throwNotConnectedException(int port)
    {
@@ -19,19 +20,10 @@ import us.ihmc.tools.thread.ThreadTools;
 
    /* package-private */ static int sendObject(IntraprocessObjectCommunicator sender, int port, Object object)
    {
-      IntraprocessCommunicator communicator;
-      synchronized (IntraprocessCommunicationNetwork.class)
+      IntraprocessCommunicator communicator = communicators.get(port);
+      if (communicator == null)
       {
-         if (communicators == null)
-         {
-            throwNotConnectedException(port);
-         }
-
-         communicator = communicators.get(port);
-         if (communicator == null)
-         {
-            throwNotConnectedException(port);
-         }
+         throwNotConnectedException(port);
       }
       communicator.send(sender, object);
       return 0;
@@ -39,69 +31,40 @@ import us.ihmc.tools.thread.ThreadTools;
 
    /* package-private */static void connect(IntraprocessObjectCommunicator client, int port)
    {
-
-      synchronized (IntraprocessCommunicationNetwork.class)
+      // A communicator can be closed by the last client disconnecting between the lookup and the connect, in which case a new one is created.
+      IntraprocessCommunicator communicator;
+      do
       {
-         IntraprocessCommunicator communicator;
-         if (communicators == null)
-         {
-            communicators = new TIntObjectHashMap<>();
-         }
-
-         communicator = communicators.get(port);
-         if (communicator == null)
-         {
-            communicator = new IntraprocessCommunicator(port);
-            communicators.put(port, communicator);
-         }
-         communicator.connect(client);
+         communicator = communicators.computeIfAbsent(port, IntraprocessCommunicator::new);
       }
+      while (!communicator.connect(client));
 
+      // Only the listeners are notified outside of the lock, so they can use the network.
+      client.connected();
    }
 
    /* package-private */static void disconnect(IntraprocessObjectCommunicator client, int port)
    {
-
-      synchronized (IntraprocessCommunicationNetwork.class)
+      IntraprocessCommunicator communicator = communicators.get(port);
+      if (communicator == null || !communicator.disconnect(client))
       {
-         if (communicators != null)
-         {
-            IntraprocessCommunicator communicator = communicators.get(port);
-            if (communicator != null)
-            {
-               communicator.disconnect(client);
-               if (!communicator.hasClients())
-               {
-                  communicators.remove(port);
-               }
-               if (communicators.size() == 0)
-               {
-                  communicators = null;
-               }
-            }
-         }
+         return;
+      }
 
+      if (communicator.isClosed())
+      {
+         communicators.remove(port, communicator);
       }
+
+      client.disconnected();
    }
 
-   /* package-private */static synchronized boolean isConnected(IntraprocessObjectCommunicator client, int port)
+   /* package-private */static boolean isConnected(IntraprocessObjectCommunicator client, int port)
    {
-      IntraprocessCommunicator communicator;
-
-      synchronized (IntraprocessCommunicationNetwork.class)
+      IntraprocessCommunicator communicator = communicators.get(port);
+      if (communicator == null)
       {
-         if (communicators != null)
-         {
-            communicator = communicators.get(port);
-            if (communicator == null)
-            {
-               return false;
-            }
-         }
-         else
-         {
-            return false;
-         }
+         return false;
       }
 
       return communicator.isConnected(client);
@@ -110,76 +73,102 @@ import us.ihmc.tools.thread.ThreadTools;
    private static class IntraprocessCommunicator
    {
       private final int port;
-      private final ArrayList<IntraprocessObjectCommunicator> clients = new ArrayList<>();
-      private ExecutorService callBackExecutor;
+      private final CopyOnWriteArrayList<IntraprocessObjectCommunicator> clients = new CopyOnWriteArrayList<>();
+      private final ExecutorService callBackExecutor;
+      private volatile boolean closed = false;
 
       private IntraprocessCommunicator(int port)
       {
          this.port = port;
-         createCallbackExecuter();
-      }
-
-      private void createCallbackExecuter()
-      {
          this.callBackExecutor = Executors.newSingleThreadExecutor(ThreadTools.getNamedThreadFactory("IntraprocessCommunicatorCallback-" + port));
       }
 
-      private synchronized boolean hasClients()
+      private boolean isClosed()
       {
-         return clients.size() != 0;
+         return closed;
       }
 
-      private synchronized void connect(IntraprocessObjectCommunicator client)
+      /**
+       * @return false if this communicator has been closed and can not accept new clients.
+       */
+      private synchronized boolean connect(IntraprocessObjectCommunicator client)
       {
-         clients.add(client);
-         client.connected();
-         
-         if(callBackExecutor.isShutdown())
+         if (closed)
          {
-            createCallbackExecuter();
+            return false;
          }
-      }
 
-      private synchronized void disconnect(IntraprocessObjectCommunicator client)
-      {
-         clients.remove(client);
-         client.disconnected();
-
-         callBackExecutor.shutdownNow();
+         // The inbox has to exist before the client can be reached by the senders of this port.
+         client.openInbox();
+         clients.add(client);
+         return true;
       }
 
-      private synchronized boolean isConnected(IntraprocessObjectCommunicator client)
+      /**
+       * Removes the client and closes this communicator when it was the last one.
+       * 
+       * @return false if the client was not connected to this communicator.
+       */
+      private synchronized boolean disconnect(IntraprocessObjectCommunicator client)
       {
-         for (int i = 0; i < clients.size(); i++)
+         if (!clients.remove(client))
          {
-            if (clients.get(i) == client)
-            {
-               return true;
-            }
+            return false;
          }
 
-         return false;
+         if (clients.isEmpty())
+         {
+            closed = true;
+            callBackExecutor.shutdownNow();
+         }
+         return true;
+      }
+
+      private boolean isConnected(IntraprocessObjectCommunicator client)
+      {
+         return clients.contains(client);
       }
 
-      private synchronized void send(IntraprocessObjectCommunicator sender, final Object object)
+      /**
+       * Deliver an object to all other clients on this port.
+       * 
+       * Objects are only shared by reference when both sender and receiver use zero copy transport, otherwise every
+       * receiver gets its own copy. Zero copy receivers are served from their own lock-free inbox, the others from the
+       * callback thread of this port. Objects sent while the receiver or the port is being disconnected are dropped.
+       */
+      private void send(IntraprocessObjectCommunicator sender, final Object object)
       {
          if (isConnected(sender))
          {
-            for (int i = 0; i < clients.size(); i++)
+            for (IntraprocessObjectCommunicator client : clients)
             {
-               final IntraprocessObjectCommunicator client = clients.get(i);
                if (client != sender)
                {
-                  final Object copy = sender.copyPacket(object);
+                  final Object packet = sender.shareOrCopyPacket(object, client);
                   
-                  callBackExecutor.execute(new Runnable()
+                  IntraprocessInbox inbox = client.getInbox();
+                  if (inbox != null)
                   {
-                     @Override
-                     public void run()
+                     inbox.offer(packet);
+                  }
+                  else
+                  {
+                     try
+                     {
+                        callBackExecutor.execute(new Runnable()
+                        {
+                           @Override
+                           public void run()
+                           {
+                              client.receiveObject(packet);
+                           }
+                        });
+                     }
+                     catch (RejectedExecutionException e)
                      {
-                        client.receiveObject(copy);
+                        // The last receiver disconnected concurrently and the port is closed, drop the object.
                      }
-                  });
+                  }
                }
             }
          }
@@ -191,25 +180,18 @@ import us.ihmc.tools.thread.ThreadTools;
    }
 
    // Helpers for test classes
-   /* package-private */synchronized static int getOpenPorts()
+   /* package-private */static int getOpenPorts()
    {
-      if (communicators == null)
-      {
-         return 0;
-      }
-      else
-      {
-         return communicators.size();
-      }
+      return communicators.size();
    }
 
-   /* package-private */synchronized static boolean hasMap()
+   /* package-private */static boolean hasMap()
    {
-      return communicators != null;
+      return !communicators.isEmpty();
    }
 
-   /* package-private */synchronized static void closeAllConnectionsForMyJUnitTests()
+   /* package-private */static void closeAllConnectionsForMyJUnitTests()
    {
-      communicators = null;
+      communicators.clear();
    }
 }
@@ -0,0 +1,96 @@
+package us.ihmc.communication.net.local;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free inbox of a zero copy intraprocess client.
+ *
+ * Senders append objects to a non-blocking queue and only wake up the delivery thread when it is parked. Every client
+ * has its own delivery thread, so fan-out to multiple clients runs in parallel while objects for a single client are
+ * delivered in the order they were sent.
+ */
+/* package-private */class IntraprocessInbox implements Runnable
+{
+   private final IntraprocessObjectCommunicator client;
+   private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+   private final AtomicBoolean parked = new AtomicBoolean(false);
+   private final Thread thread;
+
+   private volatile boolean running = true;
+
+   /* package-private */IntraprocessInbox(IntraprocessObjectCommunicator client, int port)
+   {
+      this.client = client;
+      this.thread = new Thread(this, "IntraprocessInbox-" + port);
+      this.thread.setDaemon(true);
+   }
+
+   /* package-private */void start()
+   {
+      thread.start();
+   }
+
+   /**
+    * Objects offered after {@link #stop()} are dropped.
+    */
+   /* package-private */void offer(Object object)
+   {
+      if (!running)
+      {
+         return;
+      }
+
+      queue.offer(object);
+      if (parked.get() && parked.compareAndSet(true, false))
+      {
+         LockSupport.unpark(thread);
+      }
+   }
+
+   /**
+    * Stop delivering objects. Objects that are still queued are dropped.
+    */
+   /* package-private */void stop()
+   {
+      running = false;
+      LockSupport.unpark(thread);
+   }
+
+   /* package-private */int getQueueDepth()
+   {
+      return queue.size();
+   }
+
+   @Override
+   public void run()
+   {
+      while (running)
+      {
+         Object object = queue.poll();
+         if (object != null)
+         {
+            try
+            {
+               client.receiveObject(object);
+            }
+            catch (Throwable e)
+            {
+               e.printStackTrace();
+            }
+            continue;
+         }
+
+         parked.set(true);
+         if (!queue.isEmpty() || !running)
+         {
+            parked.set(false);
+            continue;
+         }
+         LockSupport.park(this);
+         parked.set(false);
+      }
+      queue.clear();
+   }
+}
@@ -3,6 +3,8 @@ package us.ihmc.communication.net.local;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.esotericsoftware.kryo.Kryo;
 
@@ -20,7 +22,11 @@ public class IntraprocessObjectCommunicator implements NetworkedObjectCommunicat
    private final ArrayList<GlobalObjectConsumer> globalListeners = new ArrayList<GlobalObjectConsumer>();
    private final ArrayList<ConnectionStateListener> stateListeners = new ArrayList<ConnectionStateListener>();
 
+   private final Set<Class<?>> mutableClasses = ConcurrentHashMap.newKeySet();
+
    private final int port;
+   private final boolean zeroCopy;
+   private volatile IntraprocessInbox inbox = null;
 
    /**
     * Simple client for Interprocess Communication using objects. Will connect to a predefined port, mimicking TCP/UDP. Easily replaceable by an UDP/TCP implementation, but is traceable in debug.
@@ -29,8 +35,28 @@ public class IntraprocessObjectCommunicator implements NetworkedObjectCommunicat
     * @param classList for copying objects
     */
    public IntraprocessObjectCommunicator(int port, NetClassList classList)
+   {
+      this(port, classList, false);
+   }
+
+   /**
+    * Client for Interprocess Communication using objects, optionally without copying objects.
+    * 
+    * In zero copy mode objects sent to other zero copy clients are handed off by reference and every client receives
+    * objects on its own thread from a lock-free queue. Senders should not modify an object after sending it and
+    * receivers should treat received objects as read only. Call {@link #copyPacket(Object)} to get a private copy before
+    * modifying a received object, or register classes that are modified in place with {@link #registerMutableClass(Class)}.
+    * 
+    * Objects sent to or received from clients that do not use zero copy mode are always copied.
+    *  
+    * @param port
+    * @param classList for copying objects
+    * @param zeroCopy hand off objects by reference to other zero copy clients
+    */
+   public IntraprocessObjectCommunicator(int port, NetClassList classList, boolean zeroCopy)
    {
       this.port = port;
+      this.zeroCopy = zeroCopy;
 
       for (Class<?> clazz : classList.getPacketClassList())
       {
@@ -152,6 +178,19 @@ public class IntraprocessObjectCommunicator implements NetworkedObjectCommunicat
       IntraprocessCommunicationNetwork.connect(this, port);
    }
 
+   /**
+    * Creates the inbox of this client when it uses zero copy transport. Called before the client is
+    * added to the port such that no object sent to it is routed to the callback thread instead.
+    */
+   /* package-private */void openInbox()
+   {
+      if (zeroCopy)
+      {
+         inbox = new IntraprocessInbox(this, port);
+         inbox.start();
+      }
+   }
+
    /* package-private */void connected()
    {
       for (ConnectionStateListener stateListener : stateListeners)
@@ -162,6 +201,12 @@ public class IntraprocessObjectCommunicator implements NetworkedObjectCommunicat
 
    /* package-private */void disconnected()
    {
+      if (inbox != null)
+      {
+         inbox.stop();
+         inbox = null;
+      }
+
       for (ConnectionStateListener stateListener : stateListeners)
       {
          stateListener.disconnected();
@@ -177,8 +222,54 @@ public class IntraprocessObjectCommunicator implements NetworkedObjectCommunicat
       }
    }
 
+   /**
+    * Make a deep copy of an object. Thread safe.
+    */
    public Object copyPacket(Object object)
    {
-      return kryo.copy(object);
+      synchronized (kryo)
+      {
+         return kryo.copy(object);
+      }
+   }
+
+   /**
+    * Always copy objects of this class, also between zero copy clients. Use for packets that are modified in place after sending or after receiving.
+    */
+   public void registerMutableClass(Class<?> clazz)
+   {
+      mutableClasses.add(clazz);
+   }
+
+   public boolean isZeroCopy()
+   {
+      return zeroCopy;
+   }
+
+   /**
+    * @return Number of objects waiting to be delivered to the listeners of this zero copy client, 0 otherwise
+    */
+   public int getQueueDepth()
+   {
+      IntraprocessInbox inbox = this.inbox;
+      return inbox == null ? 0 : inbox.getQueueDepth();
+   }
+
+   /* package-private */Object shareOrCopyPacket(Object object, IntraprocessObjectCommunicator receiver)
+   {
+      Class<?> clazz = object.getClass();
+      if (zeroCopy && receiver.zeroCopy && !mutableClasses.contains(clazz) && !receiver.mutableClasses.contains(clazz))
+      {
+         return object;
+      }
+      return copyPacket(object);
+   }
+
+   /**
+    * @return Inbox of this client when it is connected in zero copy mode, null otherwise
+    */
+   /* package-private */IntraprocessInbox getInbox()
+   {
+      return inbox;
    }
 }
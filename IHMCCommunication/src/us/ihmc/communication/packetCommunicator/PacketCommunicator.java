@@ -65,6 +65,15 @@ public class PacketCommunicator implements Connectable
    {
       return new PacketCommunicator("IntraProcess[port=" + port + "]", new IntraprocessObjectCommunicator(port.getPort(), netClassList), netClassList.getPacketClassList());
    }
+
+   /**
+    * Intraprocess communicator that passes packets by reference to other zero copy communicators on the same port.
+    * Packets should not be modified after sending or receiving, see {@link IntraprocessObjectCommunicator#IntraprocessObjectCommunicator(int, NetClassList, boolean)}.
+    */
+   public static PacketCommunicator createZeroCopyIntraprocessPacketCommunicator(NetworkPorts port, NetClassList netClassList)
+   {
+      return new PacketCommunicator("ZeroCopyIntraProcess[port=" + port + "]", new IntraprocessObjectCommunicator(port.getPort(), netClassList, true), netClassList.getPacketClassList());
+   }
    
    public static PacketCommunicator createCustomPacketCommunicator(NetworkedObjectCommunicator objectCommunicator, NetClassList netClassList)
    {
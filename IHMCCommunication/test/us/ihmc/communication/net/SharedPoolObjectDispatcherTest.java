@@ -0,0 +1,121 @@
+package us.ihmc.communication.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import us.ihmc.communication.net.SharedPoolObjectDispatcher.BackpressurePolicy;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class SharedPoolObjectDispatcherTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testOrderPerClass() throws InterruptedException
+   {
+      SharedPoolObjectDispatcher dispatcher = new SharedPoolObjectDispatcher("TestDispatcher", 4);
+      int objects = 10000;
+
+      ArrayList<Integer> integers = new ArrayList<>();
+      ArrayList<Long> longs = new ArrayList<>();
+      CountDownLatch done = new CountDownLatch(2 * objects);
+      dispatcher.registerClass(Integer.class, object -> {
+         integers.add((Integer) object);
+         done.countDown();
+      });
+      dispatcher.registerClass(Long.class, object -> {
+         longs.add((Long) object);
+         done.countDown();
+      });
+
+      for (int i = 0; i < objects; i++)
+      {
+         assertTrue(dispatcher.dispatch(i));
+         assertTrue(dispatcher.dispatch((long) i));
+      }
+      assertFalse(dispatcher.dispatch("Unregistered"));
+
+      assertTrue(done.await(20, TimeUnit.SECONDS));
+      dispatcher.shutdown();
+
+      for (int i = 0; i < objects; i++)
+      {
+         assertEquals(i, integers.get(i).intValue());
+         assertEquals(i, longs.get(i).longValue());
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testBackpressurePolicies() throws InterruptedException
+   {
+      SharedPoolObjectDispatcher dispatcher = new SharedPoolObjectDispatcher("TestDispatcher", 1);
+
+      // Block the only worker thread so objects pile up
+      CountDownLatch blocked = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      dispatcher.registerClass(String.class, object -> {
+         blocked.countDown();
+         await(release);
+      });
+
+      ArrayList<Object> received = new ArrayList<>();
+      dispatcher.registerClass(Integer.class, object -> received.add(object));
+      dispatcher.registerClass(Long.class, object -> received.add(object));
+      dispatcher.registerClass(Short.class, object -> received.add(object));
+
+      dispatcher.setBackpressurePolicy(Integer.class, BackpressurePolicy.BOUNDED, 3);
+      dispatcher.setBackpressurePolicy(Long.class, BackpressurePolicy.DROP_OLDEST, 3);
+      dispatcher.setBackpressurePolicy(Short.class, BackpressurePolicy.LATEST_ONLY, 0);
+
+      dispatcher.dispatch("Block");
+      assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+      for (int i = 0; i < 10; i++)
+      {
+         dispatcher.dispatch(i);
+         dispatcher.dispatch((long) i);
+         dispatcher.dispatch((short) i);
+      }
+
+      assertEquals(3, dispatcher.getQueueDepth(Integer.class));
+      assertEquals(3, dispatcher.getQueueDepth(Long.class));
+      assertEquals(1, dispatcher.getQueueDepth(Short.class));
+      assertEquals(7, dispatcher.getDroppedObjects(Integer.class));
+      assertEquals(7, dispatcher.getDroppedObjects(Long.class));
+      assertEquals(9, dispatcher.getDroppedObjects(Short.class));
+
+      release.countDown();
+      long timeout = System.currentTimeMillis() + 10000;
+      while (System.currentTimeMillis() < timeout && (dispatcher.getQueueDepth(Integer.class) > 0 || dispatcher.getQueueDepth(Long.class) > 0
+            || dispatcher.getQueueDepth(Short.class) > 0))
+      {
+         Thread.sleep(1);
+      }
+      dispatcher.shutdown();
+      dispatcher.awaitTermination(10, TimeUnit.SECONDS);
+
+      assertEquals(7, received.size());
+      assertTrue(received.contains(0) && received.contains(1) && received.contains(2));
+      assertTrue(received.contains(7L) && received.contains(8L) && received.contains(9L));
+      assertTrue(received.contains((short) 9));
+   }
+
+   private static void await(CountDownLatch latch)
+   {
+      try
+      {
+         latch.await();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
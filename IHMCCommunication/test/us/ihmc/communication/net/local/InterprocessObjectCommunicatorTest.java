@@ -2,12 +2,16 @@ package us.ihmc.communication.net.local;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.mutable.MutableDouble;
 import org.apache.commons.lang3.mutable.MutableInt;
@@ -94,6 +98,71 @@ public class InterprocessObjectCommunicatorTest
 
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testZeroCopySending() throws IOException, InterruptedException
+   {
+      IntraprocessObjectCommunicator sender = new IntraprocessObjectCommunicator(512, new TestNetClassList(), true);
+      IntraprocessObjectCommunicator zeroCopyReceiver = new IntraprocessObjectCommunicator(512, new TestNetClassList(), true);
+      IntraprocessObjectCommunicator copyingReceiver = new IntraprocessObjectCommunicator(512, new TestNetClassList());
+
+      sender.registerMutableClass(MutableDouble.class);
+
+      int iterations = 10000;
+      ArrayList<Object> sent = new ArrayList<>();
+      ArrayList<Object> zeroCopyReceived = new ArrayList<>();
+      ArrayList<Object> copyingReceived = new ArrayList<>();
+      CountDownLatch done = new CountDownLatch(4 * iterations);
+
+      zeroCopyReceiver.attachGlobalListener(object -> {
+         zeroCopyReceived.add(object);
+         done.countDown();
+      });
+      copyingReceiver.attachGlobalListener(object -> {
+         copyingReceived.add(object);
+         done.countDown();
+      });
+
+      sender.connect();
+      zeroCopyReceiver.connect();
+      copyingReceiver.connect();
+
+      for (int i = 0; i < iterations; i++)
+      {
+         MutableInt integer = new MutableInt(i);
+         MutableDouble number = new MutableDouble(i);
+         sent.add(integer);
+         sent.add(number);
+         sender.consumeObject(integer);
+         sender.consumeObject(number);
+      }
+
+      assertTrue(done.await(20, TimeUnit.SECONDS));
+
+      sender.disconnect();
+      zeroCopyReceiver.disconnect();
+      copyingReceiver.disconnect();
+
+      for (int i = 0; i < sent.size(); i++)
+      {
+         Object object = sent.get(i);
+         assertEquals(object, zeroCopyReceived.get(i));
+         assertEquals(object, copyingReceived.get(i));
+         assertNotSame(object, copyingReceived.get(i));
+
+         if (object instanceof MutableInt)
+         {
+            assertSame(object, zeroCopyReceived.get(i));
+         }
+         else
+         {
+            assertNotSame(object, zeroCopyReceived.get(i));
+         }
+      }
+
+      assertEquals("Open ports does not equal zero", 0, IntraprocessCommunicationNetwork.getOpenPorts());
+   }
+
    @After
    public void closeNetwork()
    {
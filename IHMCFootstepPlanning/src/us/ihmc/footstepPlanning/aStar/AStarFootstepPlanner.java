@@ -1,5 +1,6 @@
 package us.ihmc.footstepPlanning.aStar;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
@@ -21,6 +22,7 @@ import us.ihmc.robotics.referenceFrames.PoseReferenceFrame;
 import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.robotSide.SideDependentList;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoBoolean;
 import us.ihmc.yoVariables.variable.YoDouble;
 
 public class AStarFootstepPlanner implements FootstepPlanner
@@ -46,6 +48,16 @@ public class AStarFootstepPlanner implements FootstepPlanner
 
    private final YoDouble timeout;
 
+   private final YoBoolean useLatticeSearch;
+   private final FootstepLatticeAStar latticeSearch;
+   private final YoBoolean useIncrementalSearch;
+   private final FootstepLatticeLPAStar incrementalSearch;
+   private final List<FootstepNode> latticePath = new ArrayList<>();
+
+   private final YoBoolean useParallelExpansion;
+   private ParallelFootstepNodeEvaluator parallelNodeEvaluator = null;
+   private final List<FootstepNode> neighborsToEvaluate = new ArrayList<>();
+
    public AStarFootstepPlanner(FootstepNodeChecker nodeChecker, CostToGoHeuristics heuristics, FootstepNodeExpansion expansion, FootstepCost stepCostCalculator,
                                FootstepNodeSnapper snapper, YoVariableRegistry parentRegistry)
    {
@@ -65,6 +77,12 @@ public class AStarFootstepPlanner implements FootstepPlanner
       this.timeout = new YoDouble("timeout", registry);
       timeout.set(Double.POSITIVE_INFINITY);
 
+      this.useLatticeSearch = new YoBoolean("useLatticeSearch", registry);
+      latticeSearch = new FootstepLatticeAStar(nodeChecker, heuristics, nodeExpansion, stepCostCalculator, visualization);
+      this.useIncrementalSearch = new YoBoolean("useIncrementalSearch", registry);
+      incrementalSearch = new FootstepLatticeLPAStar(nodeChecker, heuristics, nodeExpansion, stepCostCalculator, visualization);
+      this.useParallelExpansion = new YoBoolean("useParallelExpansion", registry);
+
       parentRegistry.addChild(registry);
    }
 
@@ -78,6 +96,49 @@ public class AStarFootstepPlanner implements FootstepPlanner
       timeout.set(timeoutInSeconds);
    }
 
+   /**
+    * When enabled, the plan is computed by the {@link FootstepLatticeAStar} which does not allocate
+    * a new graph, open set and closed set for every plan.
+    */
+   public void setUseLatticeSearch(boolean useLatticeSearch)
+   {
+      this.useLatticeSearch.set(useLatticeSearch);
+   }
+
+   /**
+    * When enabled, the plan is computed by the {@link FootstepLatticeLPAStar} which keeps the search
+    * from one plan to the next and only repairs it when the start, or the planar regions change.
+    * Takes precedence over {@link #setUseLatticeSearch(boolean)}.
+    */
+   public void setUseIncrementalSearch(boolean useIncrementalSearch)
+   {
+      this.useIncrementalSearch.set(useIncrementalSearch);
+   }
+
+   /**
+    * When an evaluator is given, the steps to the neighbors of every expanded node are checked and
+    * costed on the threads of the evaluator, see {@link #createRoughTerrainNodeEvaluator}. The
+    * evaluator gets the planar regions of this planner. Giving null goes back to checking the steps
+    * one at a time.
+    */
+   public void setParallelNodeEvaluator(ParallelFootstepNodeEvaluator parallelNodeEvaluator)
+   {
+      this.parallelNodeEvaluator = parallelNodeEvaluator;
+      useParallelExpansion.set(parallelNodeEvaluator != null);
+   }
+
+   /**
+    * @return the number of nodes that were expanded during the last plan.
+    */
+   public int getNumberOfExpandedNodes()
+   {
+      if (useIncrementalSearch.getBooleanValue())
+         return incrementalSearch.getNumberOfExpandedNodes();
+      if (useLatticeSearch.getBooleanValue())
+         return latticeSearch.getNumberOfExpandedNodes();
+      return expandedNodes == null ? 0 : expandedNodes.size();
+   }
+
    @Override
    public void setInitialStanceFoot(FramePose stanceFootPose, RobotSide side)
    {
@@ -107,11 +168,20 @@ public class AStarFootstepPlanner implements FootstepPlanner
    {
       nodeChecker.setPlanarRegions(planarRegionsList);
       snapper.setPlanarRegions(planarRegionsList);
+      incrementalSearch.setPlanarRegions(planarRegionsList);
+      if (parallelNodeEvaluator != null)
+         parallelNodeEvaluator.setPlanarRegions(planarRegionsList);
    }
 
    @Override
    public FootstepPlanningResult plan()
    {
+      latticeSearch.setParallelNodeEvaluator(getParallelNodeEvaluator());
+      incrementalSearch.setParallelNodeEvaluator(getParallelNodeEvaluator());
+
+      if (useIncrementalSearch.getBooleanValue() || useLatticeSearch.getBooleanValue())
+         return planWithLatticeSearch();
+
       initialize();
       planInternal();
       return checkResult();
@@ -120,11 +190,29 @@ public class AStarFootstepPlanner implements FootstepPlanner
    @Override
    public FootstepPlan getPlan()
    {
-      if (!graph.doesNodeExist(goalNode))
-         return null;
+      List<FootstepNode> path;
+      if (useIncrementalSearch.getBooleanValue())
+      {
+         if (!incrementalSearch.hasReachedGoal())
+            return null;
+         incrementalSearch.getPathFromStart(latticePath);
+         path = latticePath;
+      }
+      else if (useLatticeSearch.getBooleanValue())
+      {
+         if (!latticeSearch.hasReachedGoal())
+            return null;
+         latticeSearch.getPathFromStart(latticePath);
+         path = latticePath;
+      }
+      else
+      {
+         if (!graph.doesNodeExist(goalNode))
+            return null;
+         path = graph.getPathFromStart(goalNode);
+      }
 
       FootstepPlan plan = new FootstepPlan();
-      List<FootstepNode> path = graph.getPathFromStart(goalNode);
       for (int i = 1; i < path.size(); i++)
       {
          RobotSide robotSide = path.get(i).getRobotSide();
@@ -142,17 +230,57 @@ public class AStarFootstepPlanner implements FootstepPlanner
       return plan;
    }
 
-   private void initialize()
+   private FootstepPlanningResult planWithLatticeSearch()
+   {
+      checkStartAndGoal();
+
+      if (visualization != null)
+      {
+         visualization.addNode(startNode, true);
+         for (RobotSide side : RobotSide.values)
+            visualization.addNode(goalNodes.get(side), true);
+         visualization.tickAndUpdate();
+      }
+
+      FootstepPlanningResult result;
+      boolean hasReachedGoal;
+      if (useIncrementalSearch.getBooleanValue())
+      {
+         result = incrementalSearch.plan(startNode, goalNodes, timeout.getDoubleValue());
+         hasReachedGoal = incrementalSearch.hasReachedGoal();
+      }
+      else
+      {
+         result = latticeSearch.plan(startNode, goalNodes, timeout.getDoubleValue());
+         hasReachedGoal = latticeSearch.hasReachedGoal();
+      }
+
+      if (visualization != null && hasReachedGoal)
+      {
+         if (useIncrementalSearch.getBooleanValue())
+            incrementalSearch.getPathFromStart(latticePath);
+         else
+            latticeSearch.getPathFromStart(latticePath);
+         for (FootstepNode node : latticePath)
+            visualization.setNodeActive(node);
+         visualization.tickAndUpdate();
+      }
+
+      return result;
+   }
+
+   private ParallelFootstepNodeEvaluator getParallelNodeEvaluator()
+   {
+      return useParallelExpansion.getBooleanValue() ? parallelNodeEvaluator : null;
+   }
+
+   private void checkStartAndGoal()
    {
       if (startNode == null)
          throw new RuntimeException("Need to set initial conditions before planning.");
       if (goalNodes == null)
          throw new RuntimeException("Need to set goal before planning.");
 
-      graph = new FootstepGraph(startNode);
-      NodeComparator nodeComparator = new NodeComparator(graph, goalNodes, heuristics);
-      stack = new PriorityQueue<>(nodeComparator);
-
       boolean validStartNode = nodeChecker.isNodeValid(startNode, null);
       if(!validStartNode)
          throw new RuntimeException("Start node isn't valid");
@@ -163,7 +291,16 @@ public class AStarFootstepPlanner implements FootstepPlanner
          if(!validGoalNode)
             throw new RuntimeException("Goal node isn't valid");
       }
-      
+   }
+
+   private void initialize()
+   {
+      checkStartAndGoal();
+
+      graph = new FootstepGraph(startNode);
+      NodeComparator nodeComparator = new NodeComparator(graph, goalNodes, heuristics);
+      stack = new PriorityQueue<>(nodeComparator);
+
       stack.add(startNode);
       expandedNodes = new HashSet<>();
       goalNode = null;
@@ -203,15 +340,36 @@ public class AStarFootstepPlanner implements FootstepPlanner
          }
 
          HashSet<FootstepNode> neighbors = nodeExpansion.expandNode(nodeToExpand);
-         for (FootstepNode neighbor : neighbors)
+         ParallelFootstepNodeEvaluator parallelNodeEvaluator = getParallelNodeEvaluator();
+         if (parallelNodeEvaluator != null)
          {
-            /** Checks if the footstep (center of the foot) is on a planar region*/
-            if (!nodeChecker.isNodeValid(neighbor, nodeToExpand))
-               continue;
-
-            double cost = stepCostCalculator.compute(nodeToExpand, neighbor);
-            graph.checkAndSetEdge(nodeToExpand, neighbor, cost);
-            stack.add(neighbor);
+            neighborsToEvaluate.clear();
+            neighborsToEvaluate.addAll(neighbors);
+            parallelNodeEvaluator.evaluate(nodeToExpand, neighborsToEvaluate);
+
+            for (int i = 0; i < neighborsToEvaluate.size(); i++)
+            {
+               double cost = parallelNodeEvaluator.getCost(i);
+               if (cost == Double.POSITIVE_INFINITY)
+                  continue;
+
+               FootstepNode neighbor = neighborsToEvaluate.get(i);
+               graph.checkAndSetEdge(nodeToExpand, neighbor, cost);
+               stack.add(neighbor);
+            }
+         }
+         else
+         {
+            for (FootstepNode neighbor : neighbors)
+            {
+               /** Checks if the footstep (center of the foot) is on a planar region*/
+               if (!nodeChecker.isNodeValid(neighbor, nodeToExpand))
+                  continue;
+
+               double cost = stepCostCalculator.compute(nodeToExpand, neighbor);
+               graph.checkAndSetEdge(nodeToExpand, neighbor, cost);
+               stack.add(neighbor);
+            }
          }
 
          long timeInNano = System.nanoTime();
@@ -263,10 +421,21 @@ public class AStarFootstepPlanner implements FootstepPlanner
 
    public static AStarFootstepPlanner createRoughTerrainPlanner(GraphVisualization viz, SideDependentList<ConvexPolygon2D> footPolygons,
                                                                 FootstepNodeExpansion expansion, YoVariableRegistry registry)
+   {
+      SimplePlanarRegionFootstepNodeSnapper planarRegionSnapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons);
+      CachingFootstepNodeSnapper snapper = new CachingFootstepNodeSnapper(planarRegionSnapper, registry);
+      return createRoughTerrainPlanner(viz, footPolygons, expansion, snapper, registry);
+   }
+
+   /**
+    * Creates a rough terrain planner that uses the given snapper. A {@link CachingFootstepNodeSnapper}
+    * can be given to several planners to share the snap results.
+    */
+   public static AStarFootstepPlanner createRoughTerrainPlanner(GraphVisualization viz, SideDependentList<ConvexPolygon2D> footPolygons,
+                                                                FootstepNodeExpansion expansion, FootstepNodeSnapper snapper, YoVariableRegistry registry)
    {
       double yawWeight = 0.1;
 
-      SimplePlanarRegionFootstepNodeSnapper snapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons);
       SnapBasedNodeChecker nodeChecker = new SnapBasedNodeChecker(footPolygons, snapper, registry);
       //SimpleSideBasedExpansion expansion = new SimpleSideBasedExpansion();
 
@@ -278,4 +447,29 @@ public class AStarFootstepPlanner implements FootstepPlanner
       AStarFootstepPlanner planner = new AStarFootstepPlanner(nodeChecker, heuristics, expansion, stepCostCalculator, snapper, viz, registry);
       return planner;
    }
+
+   /**
+    * Creates an evaluator that checks and costs the steps like the given rough terrain planner, with
+    * a snapper, a node checker and a cost calculator per thread. The node checkers and cost
+    * calculators of the threads read the parameters of the planner, so changing them on the planner
+    * also changes them for the evaluator.
+    *
+    * @param roughTerrainPlanner a planner created with {@link #createRoughTerrainPlanner}.
+    */
+   public static ParallelFootstepNodeEvaluator createRoughTerrainNodeEvaluator(SideDependentList<ConvexPolygon2D> footPolygons,
+                                                                              AStarFootstepPlanner roughTerrainPlanner, int parallelism)
+   {
+      if (!(roughTerrainPlanner.nodeChecker instanceof SnapBasedNodeChecker) || !(roughTerrainPlanner.stepCostCalculator instanceof DistanceAndYawBasedCost))
+         throw new RuntimeException("The planner has to be created with createRoughTerrainPlanner.");
+
+      SnapBasedNodeChecker nodeCheckerParameters = (SnapBasedNodeChecker) roughTerrainPlanner.nodeChecker;
+      DistanceAndYawBasedCost stepCostParameters = (DistanceAndYawBasedCost) roughTerrainPlanner.stepCostCalculator;
+
+      return new ParallelFootstepNodeEvaluator(() ->
+      {
+         SimplePlanarRegionFootstepNodeSnapper planarRegionSnapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons);
+         CachingFootstepNodeSnapper snapper = new CachingFootstepNodeSnapper(planarRegionSnapper, new YoVariableRegistry("NodeEvaluatorWorker"));
+         return new SnapBasedNodeChecker(footPolygons, snapper, nodeCheckerParameters);
+      }, () -> new DistanceAndYawBasedCost(stepCostParameters), parallelism);
+   }
 }
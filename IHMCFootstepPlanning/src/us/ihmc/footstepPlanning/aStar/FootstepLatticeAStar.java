@@ -0,0 +1,315 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import us.ihmc.commons.Conversions;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+/**
+ * A* search over the footstep lattice that does not allocate once it is warmed up.
+ *
+ * Every lattice node gets an integer id the first time it is reached, using its lattice key from
+ * {@link FootstepNode#getLatticeKey()}. The search state of a node is kept in arrays indexed by id
+ * and the open set is an {@link IndexedMinHeap} with decrease-key, so there is no graph of edge
+ * objects, no boxed keys and no duplicate entries in the open set.
+ *
+ * The ids and the {@link FootstepNode}s are kept from one plan to the next, nodes do not depend on
+ * the plan. The state of a node is reset lazily the first time the node is reached in a new plan,
+ * which is checked with a search stamp, so starting a plan does not require clearing the arrays.
+ * The pool is cleared when it grows over {@link #setMaximumPoolSize(int)} nodes.
+ *
+ * Unlike {@link FootstepGraph}, the cost of closed nodes is not updated when a cheaper path to them
+ * is found later, which only happens with an inconsistent heuristic.
+ */
+public class FootstepLatticeAStar
+{
+   public static final int DEFAULT_MAXIMUM_POOL_SIZE = 1 << 20;
+
+   private static final int NO_NODE = -1;
+
+   private final FootstepNodeChecker nodeChecker;
+   private final CostToGoHeuristics heuristics;
+   private final FootstepNodeExpansion nodeExpansion;
+   private final FootstepCost stepCostCalculator;
+   private final GraphVisualization visualization;
+
+   private final TLongIntHashMap nodeIds = new TLongIntHashMap(1024, 0.5f, Long.MIN_VALUE, NO_NODE);
+   private FootstepNode[] nodes = new FootstepNode[1024];
+   private int numberOfNodes = 0;
+   private int maximumPoolSize = DEFAULT_MAXIMUM_POOL_SIZE;
+
+   private int[] searchStamps = new int[1024];
+   private int[] expansionStamps = new int[1024];
+   private boolean[] isClosed = new boolean[1024];
+   private double[] costsFromStart = new double[1024];
+   private double[] heuristicCosts = new double[1024];
+   private int[] parentIds = new int[1024];
+
+   private int searchStamp = 0;
+   private int expansionStamp = 0;
+
+   private final IndexedMinHeap openSet = new IndexedMinHeap(1024);
+   private final TLongArrayList neighborKeys = new TLongArrayList();
+
+   private ParallelFootstepNodeEvaluator parallelNodeEvaluator = null;
+   private final TIntArrayList neighborIds = new TIntArrayList();
+   private final List<FootstepNode> neighborsToEvaluate = new ArrayList<>();
+
+   private SideDependentList<FootstepNode> goalNodes;
+   private int lastNodeId = NO_NODE;
+   private FootstepNode goalNode = null;
+   private int numberOfExpandedNodes = 0;
+
+   public FootstepLatticeAStar(FootstepNodeChecker nodeChecker, CostToGoHeuristics heuristics, FootstepNodeExpansion nodeExpansion,
+                               FootstepCost stepCostCalculator, GraphVisualization visualization)
+   {
+      this.nodeChecker = nodeChecker;
+      this.heuristics = heuristics;
+      this.nodeExpansion = nodeExpansion;
+      this.stepCostCalculator = stepCostCalculator;
+      this.visualization = visualization;
+   }
+
+   /**
+    * Sets the number of nodes above which the pool of nodes is cleared before the next plan.
+    */
+   public void setMaximumPoolSize(int maximumPoolSize)
+   {
+      this.maximumPoolSize = maximumPoolSize;
+   }
+
+   /**
+    * When not null, the steps to the neighbors of an expanded node are checked and costed by the
+    * evaluator on several threads instead of with the node checker and cost calculator of this
+    * search.
+    */
+   public void setParallelNodeEvaluator(ParallelFootstepNodeEvaluator parallelNodeEvaluator)
+   {
+      this.parallelNodeEvaluator = parallelNodeEvaluator;
+   }
+
+   /**
+    * Searches for a path from the start node to one of the goal nodes. The start and goal nodes
+    * have to be valid.
+    *
+    * @param timeout in seconds
+    */
+   public FootstepPlanningResult plan(FootstepNode startNode, SideDependentList<FootstepNode> goalNodes, double timeout)
+   {
+      initialize(startNode, goalNodes);
+
+      long planningStartTime = System.nanoTime();
+
+      while (!openSet.isEmpty())
+      {
+         int nodeId = openSet.poll();
+         isClosed[nodeId] = true;
+         numberOfExpandedNodes++;
+
+         FootstepNode nodeToExpand = nodes[nodeId];
+
+         if (visualization != null)
+         {
+            visualization.addNode(nodeToExpand, false);
+            visualization.tickAndUpdate();
+         }
+
+         RobotSide nodeSide = nodeToExpand.getRobotSide();
+         if (nodeToExpand.equals(goalNodes.get(nodeSide)))
+         {
+            lastNodeId = nodeId;
+            goalNode = goalNodes.get(nodeSide.getOppositeSide());
+            return heuristics.getWeight() <= 1.0 ? FootstepPlanningResult.OPTIMAL_SOLUTION : FootstepPlanningResult.SUB_OPTIMAL_SOLUTION;
+         }
+
+         expandNode(nodeId);
+
+         long timeInNano = System.nanoTime();
+         if (Conversions.nanosecondsToSeconds(timeInNano - planningStartTime) > timeout)
+            return FootstepPlanningResult.TIMED_OUT_BEFORE_SOLUTION;
+      }
+
+      return FootstepPlanningResult.NO_PATH_EXISTS;
+   }
+
+   private void initialize(FootstepNode startNode, SideDependentList<FootstepNode> goalNodes)
+   {
+      this.goalNodes = goalNodes;
+
+      if (numberOfNodes > maximumPoolSize)
+      {
+         nodeIds.clear();
+         Arrays.fill(nodes, 0, numberOfNodes, null);
+         numberOfNodes = 0;
+      }
+
+      searchStamp++;
+      if (searchStamp == Integer.MAX_VALUE)
+      { // Once every two billion plans
+         Arrays.fill(searchStamps, 0);
+         searchStamp = 1;
+      }
+
+      openSet.clear();
+      lastNodeId = NO_NODE;
+      goalNode = null;
+      numberOfExpandedNodes = 0;
+
+      int startId = getNodeId(startNode.getLatticeKey());
+      costsFromStart[startId] = 0.0;
+      openSet.addOrUpdate(startId, heuristicCosts[startId]);
+   }
+
+   private void expandNode(int nodeId)
+   {
+      FootstepNode nodeToExpand = nodes[nodeId];
+      double costFromStart = costsFromStart[nodeId];
+
+      nodeExpansion.expandNode(nodeToExpand, neighborKeys);
+      expansionStamp++;
+      neighborIds.reset();
+      neighborsToEvaluate.clear();
+
+      for (int i = 0; i < neighborKeys.size(); i++)
+      {
+         int neighborId = getNodeId(neighborKeys.get(i));
+
+         // Skip closed nodes and nodes that appear twice in the expansion
+         if (isClosed[neighborId] || expansionStamps[neighborId] == expansionStamp)
+            continue;
+         expansionStamps[neighborId] = expansionStamp;
+
+         neighborIds.add(neighborId);
+         neighborsToEvaluate.add(nodes[neighborId]);
+      }
+
+      if (parallelNodeEvaluator != null)
+         parallelNodeEvaluator.evaluate(nodeToExpand, neighborsToEvaluate);
+
+      for (int i = 0; i < neighborIds.size(); i++)
+      {
+         int neighborId = neighborIds.get(i);
+         double stepCost = parallelNodeEvaluator != null ? parallelNodeEvaluator.getCost(i) : computeStepCost(nodeToExpand, nodes[neighborId]);
+         if (stepCost == Double.POSITIVE_INFINITY)
+            continue;
+
+         double neighborCost = costFromStart + stepCost;
+         if (neighborCost >= costsFromStart[neighborId])
+            continue;
+
+         costsFromStart[neighborId] = neighborCost;
+         parentIds[neighborId] = nodeId;
+         openSet.addOrUpdate(neighborId, neighborCost + heuristicCosts[neighborId]);
+      }
+   }
+
+   private double computeStepCost(FootstepNode nodeToExpand, FootstepNode neighbor)
+   {
+      /** Checks if the footstep (center of the foot) is on a planar region*/
+      if (!nodeChecker.isNodeValid(neighbor, nodeToExpand))
+         return Double.POSITIVE_INFINITY;
+      return stepCostCalculator.compute(nodeToExpand, neighbor);
+   }
+
+   /**
+    * Gets the id of the node with the given key, adding the node to the pool if needed, and resets
+    * its search state if it has not been reached yet in this plan.
+    */
+   private int getNodeId(long latticeKey)
+   {
+      int nodeId = nodeIds.get(latticeKey);
+
+      if (nodeId == NO_NODE)
+      {
+         nodeId = numberOfNodes++;
+         ensureCapacity(numberOfNodes);
+         nodes[nodeId] = FootstepNode.createFromLatticeKey(latticeKey);
+         nodeIds.put(latticeKey, nodeId);
+      }
+
+      if (searchStamps[nodeId] != searchStamp)
+      {
+         FootstepNode node = nodes[nodeId];
+         searchStamps[nodeId] = searchStamp;
+         expansionStamps[nodeId] = 0;
+         isClosed[nodeId] = false;
+         costsFromStart[nodeId] = Double.POSITIVE_INFINITY;
+         heuristicCosts[nodeId] = heuristics.compute(node, goalNodes.get(node.getRobotSide()));
+         parentIds[nodeId] = NO_NODE;
+      }
+
+      return nodeId;
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (capacity <= nodes.length)
+         return;
+
+      int newCapacity = Math.max(capacity, 2 * nodes.length);
+      nodes = Arrays.copyOf(nodes, newCapacity);
+      searchStamps = Arrays.copyOf(searchStamps, newCapacity);
+      expansionStamps = Arrays.copyOf(expansionStamps, newCapacity);
+      isClosed = Arrays.copyOf(isClosed, newCapacity);
+      costsFromStart = Arrays.copyOf(costsFromStart, newCapacity);
+      heuristicCosts = Arrays.copyOf(heuristicCosts, newCapacity);
+      parentIds = Arrays.copyOf(parentIds, newCapacity);
+   }
+
+   /**
+    * @return whether the last plan reached the goal
+    */
+   public boolean hasReachedGoal()
+   {
+      return goalNode != null;
+   }
+
+   /**
+    * Packs the nodes from the start node to the goal node of the last plan, both included.
+    */
+   public void getPathFromStart(List<FootstepNode> pathToPack)
+   {
+      pathToPack.clear();
+
+      if (!hasReachedGoal())
+         return;
+
+      pathToPack.add(goalNode);
+      for (int nodeId = lastNodeId; nodeId != NO_NODE; nodeId = parentIds[nodeId])
+         pathToPack.add(nodes[nodeId]);
+
+      for (int i = 0, j = pathToPack.size() - 1; i < j; i++, j--)
+      {
+         FootstepNode node = pathToPack.get(i);
+         pathToPack.set(i, pathToPack.get(j));
+         pathToPack.set(j, node);
+      }
+   }
+
+   /**
+    * @return the cost of the path of the last plan
+    */
+   public double getPathCost()
+   {
+      if (!hasReachedGoal())
+         return Double.NaN;
+      return costsFromStart[lastNodeId];
+   }
+
+   public int getNumberOfExpandedNodes()
+   {
+      return numberOfExpandedNodes;
+   }
+
+   public int getNumberOfNodesInPool()
+   {
+      return numberOfNodes;
+   }
+}
@@ -0,0 +1,652 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import us.ihmc.commons.Conversions;
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+
+/**
+ * Incremental search over the footstep lattice based on Lifelong Planning A* (LPA*).
+ *
+ * The search keeps its state between plans: the nodes, the edges found by the
+ * {@link FootstepNodeExpansion} with their cost and validity, and the cost from the start of
+ * every node. When the next plan has a different start node or different planar regions only the
+ * nodes whose cost changed are processed again, and only the edges near the regions that changed
+ * are checked again with the {@link FootstepNodeChecker}. Nodes are never expanded twice.
+ *
+ * The changed regions are found by comparing the regions of the list with the regions of the
+ * previous plan, see {@link #setPlanarRegions(PlanarRegionsList)}. Edges with a node within
+ * {@link #setRegionChangeMargin(double)} of the bounding box of a changed region are checked
+ * again. The search is restarted when the goal or the heuristic weight changes since the
+ * heuristic costs of all the nodes change.
+ *
+ * The state of a node is its cost from the start g, the one-step lookahead cost rhs computed from
+ * its known predecessors, and its key in the open set if g and rhs differ.
+ */
+public class FootstepLatticeLPAStar
+{
+   public static final int DEFAULT_MAXIMUM_POOL_SIZE = 1 << 20;
+   public static final double DEFAULT_REGION_CHANGE_MARGIN = 0.3;
+
+   private static final double SAME_REGIONS_EPSILON = 1.0e-7;
+   private static final int NO_NODE = -1;
+   private static final int[] NO_SUCCESSORS = new int[0];
+   private static final double[] NO_COSTS = new double[0];
+
+   private final FootstepNodeChecker nodeChecker;
+   private final CostToGoHeuristics heuristics;
+   private final FootstepNodeExpansion nodeExpansion;
+   private final FootstepCost stepCostCalculator;
+   private final GraphVisualization visualization;
+
+   private final TLongIntHashMap nodeIds = new TLongIntHashMap(1024, 0.5f, Long.MIN_VALUE, NO_NODE);
+   private FootstepNode[] nodes = new FootstepNode[1024];
+   private int numberOfNodes = 0;
+   private int maximumPoolSize = DEFAULT_MAXIMUM_POOL_SIZE;
+
+   private double[] costsFromStart = new double[1024];
+   private double[] lookaheadCosts = new double[1024];
+   private double[] heuristicCosts = new double[1024];
+   private int[] heuristicStamps = new int[1024];
+   private int heuristicStamp = 1;
+
+   /** Edges of the expanded nodes, with infinite cost for the steps rejected by the node checker. */
+   private boolean[] isExpanded = new boolean[1024];
+   private int[][] successorIds = new int[1024][];
+   private double[][] successorCosts = new double[1024][];
+   /** For every node, the pairs of predecessor id and index of the edge in the successors of the predecessor. */
+   private TIntArrayList[] predecessors = new TIntArrayList[1024];
+
+   private final IndexedMinHeap openSet = new IndexedMinHeap(1024);
+   private final TLongArrayList neighborKeys = new TLongArrayList();
+
+   private ParallelFootstepNodeEvaluator parallelNodeEvaluator = null;
+   private final List<FootstepNode> neighborsToEvaluate = new ArrayList<>();
+
+   private int startId = NO_NODE;
+   private final int[] goalIds = {NO_NODE, NO_NODE};
+   private SideDependentList<FootstepNode> goalNodes;
+   private double heuristicWeight = Double.NaN;
+
+   private PlanarRegionsList planarRegionsList = null;
+   private PlanarRegionsList checkedPlanarRegions = null;
+   private long checkedPlanarRegionsVersion = 0;
+   private double regionChangeMargin = DEFAULT_REGION_CHANGE_MARGIN;
+   private final TDoubleArrayList changedAreas = new TDoubleArrayList();
+   private boolean[] isMatched = new boolean[0];
+
+   private int lastGoalId = NO_NODE;
+   private int numberOfExpandedNodes = 0;
+   private int numberOfCheckedEdges = 0;
+
+   public FootstepLatticeLPAStar(FootstepNodeChecker nodeChecker, CostToGoHeuristics heuristics, FootstepNodeExpansion nodeExpansion,
+                                 FootstepCost stepCostCalculator, GraphVisualization visualization)
+   {
+      this.nodeChecker = nodeChecker;
+      this.heuristics = heuristics;
+      this.nodeExpansion = nodeExpansion;
+      this.stepCostCalculator = stepCostCalculator;
+      this.visualization = visualization;
+   }
+
+   /**
+    * Sets the number of nodes above which the search is restarted from scratch before the next plan.
+    */
+   public void setMaximumPoolSize(int maximumPoolSize)
+   {
+      this.maximumPoolSize = maximumPoolSize;
+   }
+
+   /**
+    * When not null, the steps to the neighbors of a node expanded for the first time are checked
+    * and costed by the evaluator on several threads instead of with the node checker and cost
+    * calculator of this search.
+    */
+   public void setParallelNodeEvaluator(ParallelFootstepNodeEvaluator parallelNodeEvaluator)
+   {
+      this.parallelNodeEvaluator = parallelNodeEvaluator;
+   }
+
+   /**
+    * Sets how far from a changed planar region the steps are checked again. It should be larger
+    * than the distance from the center of the foot to its farthest vertex.
+    */
+   public void setRegionChangeMargin(double regionChangeMargin)
+   {
+      this.regionChangeMargin = regionChangeMargin;
+   }
+
+   /**
+    * Gives the planar regions used by the node checker. The regions are compared with the regions
+    * of the previous plan at the next plan, so a new list with mostly the same regions only
+    * invalidates the steps near the regions that changed. A list that is modified after it was used
+    * for a plan, which is detected with {@link PlanarRegionsList#getVersion()}, cannot be compared
+    * and restarts the search from scratch.
+    */
+   public void setPlanarRegions(PlanarRegionsList planarRegionsList)
+   {
+      this.planarRegionsList = planarRegionsList;
+   }
+
+   /**
+    * Marks the steps in the given XY area to be checked again at the next plan, for changes that
+    * cannot be detected from the planar regions.
+    */
+   public void notifyAreaChanged(double minimumX, double minimumY, double maximumX, double maximumY)
+   {
+      changedAreas.add(minimumX - regionChangeMargin);
+      changedAreas.add(minimumY - regionChangeMargin);
+      changedAreas.add(maximumX + regionChangeMargin);
+      changedAreas.add(maximumY + regionChangeMargin);
+   }
+
+   /**
+    * Forgets all the nodes and edges, the next plan starts from scratch.
+    */
+   public void clear()
+   {
+      nodeIds.clear();
+      for (int i = 0; i < numberOfNodes; i++)
+      {
+         nodes[i] = null;
+         isExpanded[i] = false;
+         successorIds[i] = null;
+         successorCosts[i] = null;
+         if (predecessors[i] != null)
+            predecessors[i].reset();
+      }
+
+      numberOfNodes = 0;
+      openSet.clear();
+      startId = NO_NODE;
+      goalIds[0] = NO_NODE;
+      goalIds[1] = NO_NODE;
+      changedAreas.reset();
+      lastGoalId = NO_NODE;
+   }
+
+   /**
+    * Searches for a path from the start node to one of the goal nodes, reusing the search of the
+    * previous plan. The start and goal nodes have to be valid.
+    *
+    * @param timeout in seconds
+    */
+   public FootstepPlanningResult plan(FootstepNode startNode, SideDependentList<FootstepNode> goalNodes, double timeout)
+   {
+      long planningStartTime = System.nanoTime();
+      numberOfExpandedNodes = 0;
+      numberOfCheckedEdges = 0;
+      lastGoalId = NO_NODE;
+
+      if (numberOfNodes > maximumPoolSize)
+         clear();
+
+      updatePlanarRegions();
+      updateGoal(goalNodes);
+      updateStart(startNode);
+      updateChangedEdges();
+
+      while (!openSet.isEmpty())
+      {
+         int goalId = getBestGoalId();
+         int topId = openSet.peek();
+         if (!isLess(openSet.getKey(topId), openSet.getSecondaryKey(topId), computeKey(goalId), computeSecondaryKey(goalId))
+               && lookaheadCosts[goalId] == costsFromStart[goalId])
+            break;
+
+         openSet.poll();
+         numberOfExpandedNodes++;
+
+         if (visualization != null)
+         {
+            visualization.addNode(nodes[topId], false);
+            visualization.tickAndUpdate();
+         }
+
+         expandNode(topId);
+
+         if (costsFromStart[topId] > lookaheadCosts[topId])
+         {
+            // Cheaper path found, the node can be used to lower the cost of its successors
+            costsFromStart[topId] = lookaheadCosts[topId];
+            int[] successors = successorIds[topId];
+            double[] costs = successorCosts[topId];
+            for (int i = 0; i < successors.length; i++)
+            {
+               int successorId = successors[i];
+               if (successorId != startId && costsFromStart[topId] + costs[i] < lookaheadCosts[successorId])
+               {
+                  lookaheadCosts[successorId] = costsFromStart[topId] + costs[i];
+                  updateOpenSet(successorId);
+               }
+            }
+         }
+         else
+         {
+            // The path to the node got more expensive, its successors might have to find another one
+            costsFromStart[topId] = Double.POSITIVE_INFINITY;
+            updateNode(topId);
+            int[] successors = successorIds[topId];
+            for (int i = 0; i < successors.length; i++)
+               updateNode(successors[i]);
+         }
+
+         long timeInNano = System.nanoTime();
+         if (Conversions.nanosecondsToSeconds(timeInNano - planningStartTime) > timeout)
+            return FootstepPlanningResult.TIMED_OUT_BEFORE_SOLUTION;
+      }
+
+      int goalId = getBestGoalId();
+      if (costsFromStart[goalId] == Double.POSITIVE_INFINITY || costsFromStart[goalId] != lookaheadCosts[goalId])
+         return FootstepPlanningResult.NO_PATH_EXISTS;
+
+      lastGoalId = goalId;
+      return heuristics.getWeight() <= 1.0 ? FootstepPlanningResult.OPTIMAL_SOLUTION : FootstepPlanningResult.SUB_OPTIMAL_SOLUTION;
+   }
+
+   private void updateGoal(SideDependentList<FootstepNode> goalNodes)
+   {
+      boolean hasGoalChanged = this.goalNodes == null || heuristicWeight != heuristics.getWeight();
+      for (RobotSide robotSide : RobotSide.values)
+         hasGoalChanged |= goalIds[robotSide.ordinal()] == NO_NODE || !nodes[goalIds[robotSide.ordinal()]].equals(goalNodes.get(robotSide));
+
+      this.goalNodes = goalNodes;
+      heuristicWeight = heuristics.getWeight();
+
+      if (!hasGoalChanged)
+         return;
+
+      // All the keys change with the heuristic, restart the search but keep the edges
+      heuristicStamp++;
+      openSet.clear();
+      Arrays.fill(costsFromStart, 0, numberOfNodes, Double.POSITIVE_INFINITY);
+      Arrays.fill(lookaheadCosts, 0, numberOfNodes, Double.POSITIVE_INFINITY);
+      startId = NO_NODE;
+
+      for (RobotSide robotSide : RobotSide.values)
+         goalIds[robotSide.ordinal()] = getNodeId(goalNodes.get(robotSide).getLatticeKey());
+   }
+
+   private void updateStart(FootstepNode startNode)
+   {
+      int newStartId = getNodeId(startNode.getLatticeKey());
+      if (newStartId == startId)
+         return;
+
+      int previousStartId = startId;
+      startId = newStartId;
+      lookaheadCosts[startId] = 0.0;
+      updateOpenSet(startId);
+
+      if (previousStartId != NO_NODE)
+         updateNode(previousStartId);
+   }
+
+   private int getBestGoalId()
+   {
+      int leftGoalId = goalIds[RobotSide.LEFT.ordinal()];
+      int rightGoalId = goalIds[RobotSide.RIGHT.ordinal()];
+      if (isLess(computeKey(rightGoalId), computeSecondaryKey(rightGoalId), computeKey(leftGoalId), computeSecondaryKey(leftGoalId)))
+         return rightGoalId;
+      return leftGoalId;
+   }
+
+   /**
+    * Computes the edges of the node the first time it is expanded.
+    */
+   private void expandNode(int nodeId)
+   {
+      if (isExpanded[nodeId])
+         return;
+      isExpanded[nodeId] = true;
+
+      FootstepNode nodeToExpand = nodes[nodeId];
+      nodeExpansion.expandNode(nodeToExpand, neighborKeys);
+
+      int numberOfSuccessors = 0;
+      int[] successors = new int[neighborKeys.size()];
+      for (int i = 0; i < neighborKeys.size(); i++)
+      {
+         int neighborId = getNodeId(neighborKeys.get(i));
+
+         // Nodes can appear twice in the expansion
+         boolean isDuplicate = neighborId == nodeId;
+         for (int j = 0; j < numberOfSuccessors && !isDuplicate; j++)
+            isDuplicate = successors[j] == neighborId;
+
+         if (!isDuplicate)
+            successors[numberOfSuccessors++] = neighborId;
+      }
+
+      successorIds[nodeId] = numberOfSuccessors == successors.length ? successors : Arrays.copyOf(successors, numberOfSuccessors);
+      successorCosts[nodeId] = new double[numberOfSuccessors];
+
+      if (parallelNodeEvaluator != null)
+      {
+         neighborsToEvaluate.clear();
+         for (int i = 0; i < numberOfSuccessors; i++)
+            neighborsToEvaluate.add(nodes[successorIds[nodeId][i]]);
+         parallelNodeEvaluator.evaluate(nodeToExpand, neighborsToEvaluate);
+         numberOfCheckedEdges += numberOfSuccessors;
+      }
+
+      for (int i = 0; i < numberOfSuccessors; i++)
+      {
+         int successorId = successorIds[nodeId][i];
+         if (parallelNodeEvaluator != null)
+            successorCosts[nodeId][i] = parallelNodeEvaluator.getCost(i);
+         else
+            successorCosts[nodeId][i] = computeEdgeCost(nodeId, successorId);
+
+         if (predecessors[successorId] == null)
+            predecessors[successorId] = new TIntArrayList();
+         predecessors[successorId].add(nodeId);
+         predecessors[successorId].add(i);
+      }
+   }
+
+   private double computeEdgeCost(int nodeId, int successorId)
+   {
+      numberOfCheckedEdges++;
+
+      /** Checks if the footstep (center of the foot) is on a planar region*/
+      if (!nodeChecker.isNodeValid(nodes[successorId], nodes[nodeId]))
+         return Double.POSITIVE_INFINITY;
+      return stepCostCalculator.compute(nodes[nodeId], nodes[successorId]);
+   }
+
+   /**
+    * Recomputes the lookahead cost of the node from its predecessors and puts it in the open set if
+    * it is inconsistent.
+    */
+   private void updateNode(int nodeId)
+   {
+      if (nodeId != startId)
+      {
+         double lookaheadCost = Double.POSITIVE_INFINITY;
+         TIntArrayList nodePredecessors = predecessors[nodeId];
+         for (int i = 0; nodePredecessors != null && i < nodePredecessors.size(); i += 2)
+         {
+            int predecessorId = nodePredecessors.get(i);
+            double cost = costsFromStart[predecessorId] + successorCosts[predecessorId][nodePredecessors.get(i + 1)];
+            lookaheadCost = Math.min(lookaheadCost, cost);
+         }
+         lookaheadCosts[nodeId] = lookaheadCost;
+      }
+
+      updateOpenSet(nodeId);
+   }
+
+   private void updateOpenSet(int nodeId)
+   {
+      if (costsFromStart[nodeId] != lookaheadCosts[nodeId])
+         openSet.addOrUpdate(nodeId, computeKey(nodeId), computeSecondaryKey(nodeId));
+      else
+         openSet.remove(nodeId);
+   }
+
+   private double computeKey(int nodeId)
+   {
+      return Math.min(costsFromStart[nodeId], lookaheadCosts[nodeId]) + getHeuristicCost(nodeId);
+   }
+
+   private double computeSecondaryKey(int nodeId)
+   {
+      return Math.min(costsFromStart[nodeId], lookaheadCosts[nodeId]);
+   }
+
+   private static boolean isLess(double key, double secondaryKey, double otherKey, double otherSecondaryKey)
+   {
+      return key < otherKey || (key == otherKey && secondaryKey < otherSecondaryKey);
+   }
+
+   private double getHeuristicCost(int nodeId)
+   {
+      if (heuristicStamps[nodeId] != heuristicStamp)
+      {
+         FootstepNode node = nodes[nodeId];
+         heuristicCosts[nodeId] = heuristics.compute(node, goalNodes.get(node.getRobotSide()));
+         heuristicStamps[nodeId] = heuristicStamp;
+      }
+      return heuristicCosts[nodeId];
+   }
+
+   /**
+    * Finds the regions that changed since the edges were checked and marks the area they cover.
+    */
+   private void updatePlanarRegions()
+   {
+      if (planarRegionsList == checkedPlanarRegions && (planarRegionsList == null || planarRegionsList.getVersion() == checkedPlanarRegionsVersion))
+         return;
+
+      // Without the previous regions there is no way to tell what changed
+      if (planarRegionsList == null || checkedPlanarRegions == null || checkedPlanarRegions.getVersion() != checkedPlanarRegionsVersion)
+      {
+         clear();
+      }
+      else
+      {
+         markChangedRegions(checkedPlanarRegions, planarRegionsList);
+         markChangedRegions(planarRegionsList, checkedPlanarRegions);
+      }
+
+      checkedPlanarRegions = planarRegionsList;
+      checkedPlanarRegionsVersion = planarRegionsList == null ? 0 : planarRegionsList.getVersion();
+   }
+
+   /**
+    * Marks the area of the regions of the first list that are not in the second list.
+    */
+   private void markChangedRegions(PlanarRegionsList regions, PlanarRegionsList otherRegions)
+   {
+      if (isMatched.length < otherRegions.getNumberOfPlanarRegions())
+         isMatched = new boolean[otherRegions.getNumberOfPlanarRegions()];
+      Arrays.fill(isMatched, false);
+
+      for (int i = 0; i < regions.getNumberOfPlanarRegions(); i++)
+      {
+         PlanarRegion region = regions.getPlanarRegion(i);
+         boolean hasMatch = false;
+
+         for (int j = 0; j < otherRegions.getNumberOfPlanarRegions() && !hasMatch; j++)
+         {
+            if (!isMatched[j] && region.epsilonEquals(otherRegions.getPlanarRegion(j), SAME_REGIONS_EPSILON))
+            {
+               isMatched[j] = true;
+               hasMatch = true;
+            }
+         }
+
+         if (!hasMatch)
+         {
+            BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+            notifyAreaChanged(boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMaxX(), boundingBox.getMaxY());
+         }
+      }
+   }
+
+   /**
+    * Checks again the edges that have a node in a changed area and updates the nodes whose
+    * lookahead cost depends on them.
+    */
+   private void updateChangedEdges()
+   {
+      if (changedAreas.isEmpty())
+         return;
+
+      for (int nodeId = 0; nodeId < numberOfNodes; nodeId++)
+      {
+         if (!isExpanded[nodeId])
+            continue;
+
+         boolean isNodeInChangedArea = isInChangedArea(nodes[nodeId]);
+         int[] successors = successorIds[nodeId];
+         double[] costs = successorCosts[nodeId];
+
+         for (int i = 0; i < successors.length; i++)
+         {
+            int successorId = successors[i];
+            if (!isNodeInChangedArea && !isInChangedArea(nodes[successorId]))
+               continue;
+
+            double cost = computeEdgeCost(nodeId, successorId);
+            if (cost == costs[i])
+               continue;
+
+            costs[i] = cost;
+            updateNode(successorId);
+         }
+      }
+
+      changedAreas.reset();
+   }
+
+   private boolean isInChangedArea(FootstepNode node)
+   {
+      for (int i = 0; i < changedAreas.size(); i += 4)
+      {
+         if (node.getX() >= changedAreas.get(i) && node.getY() >= changedAreas.get(i + 1) && node.getX() <= changedAreas.get(i + 2)
+               && node.getY() <= changedAreas.get(i + 3))
+            return true;
+      }
+      return false;
+   }
+
+   private int getNodeId(long latticeKey)
+   {
+      int nodeId = nodeIds.get(latticeKey);
+
+      if (nodeId == NO_NODE)
+      {
+         nodeId = numberOfNodes++;
+         ensureCapacity(numberOfNodes);
+         nodes[nodeId] = FootstepNode.createFromLatticeKey(latticeKey);
+         nodeIds.put(latticeKey, nodeId);
+         costsFromStart[nodeId] = Double.POSITIVE_INFINITY;
+         lookaheadCosts[nodeId] = Double.POSITIVE_INFINITY;
+         heuristicStamps[nodeId] = 0;
+         successorIds[nodeId] = NO_SUCCESSORS;
+         successorCosts[nodeId] = NO_COSTS;
+      }
+
+      return nodeId;
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (capacity <= nodes.length)
+         return;
+
+      int newCapacity = Math.max(capacity, 2 * nodes.length);
+      nodes = Arrays.copyOf(nodes, newCapacity);
+      costsFromStart = Arrays.copyOf(costsFromStart, newCapacity);
+      lookaheadCosts = Arrays.copyOf(lookaheadCosts, newCapacity);
+      heuristicCosts = Arrays.copyOf(heuristicCosts, newCapacity);
+      heuristicStamps = Arrays.copyOf(heuristicStamps, newCapacity);
+      isExpanded = Arrays.copyOf(isExpanded, newCapacity);
+      successorIds = Arrays.copyOf(successorIds, newCapacity);
+      successorCosts = Arrays.copyOf(successorCosts, newCapacity);
+      predecessors = Arrays.copyOf(predecessors, newCapacity);
+   }
+
+   /**
+    * @return whether the last plan reached the goal
+    */
+   public boolean hasReachedGoal()
+   {
+      return lastGoalId != NO_NODE;
+   }
+
+   /**
+    * Packs the nodes from the start node to the goal node of the last plan, both included.
+    */
+   public void getPathFromStart(List<FootstepNode> pathToPack)
+   {
+      pathToPack.clear();
+
+      if (!hasReachedGoal())
+         return;
+
+      FootstepNode lastNode = nodes[lastGoalId];
+      pathToPack.add(goalNodes.get(lastNode.getRobotSide().getOppositeSide()));
+
+      // Walk back along the cheapest predecessors, the costs are consistent along the path
+      int nodeId = lastGoalId;
+      while (nodeId != NO_NODE)
+      {
+         pathToPack.add(nodes[nodeId]);
+         if (nodeId == startId || pathToPack.size() > numberOfNodes + 1)
+            break;
+         nodeId = getBestPredecessor(nodeId);
+      }
+
+      for (int i = 0, j = pathToPack.size() - 1; i < j; i++, j--)
+      {
+         FootstepNode node = pathToPack.get(i);
+         pathToPack.set(i, pathToPack.get(j));
+         pathToPack.set(j, node);
+      }
+   }
+
+   private int getBestPredecessor(int nodeId)
+   {
+      int bestPredecessorId = NO_NODE;
+      double bestCost = Double.POSITIVE_INFINITY;
+      TIntArrayList nodePredecessors = predecessors[nodeId];
+
+      for (int i = 0; nodePredecessors != null && i < nodePredecessors.size(); i += 2)
+      {
+         int predecessorId = nodePredecessors.get(i);
+         double cost = costsFromStart[predecessorId] + successorCosts[predecessorId][nodePredecessors.get(i + 1)];
+         if (cost < bestCost)
+         {
+            bestCost = cost;
+            bestPredecessorId = predecessorId;
+         }
+      }
+
+      return bestPredecessorId;
+   }
+
+   /**
+    * @return the cost of the path of the last plan
+    */
+   public double getPathCost()
+   {
+      if (!hasReachedGoal())
+         return Double.NaN;
+      return costsFromStart[lastGoalId];
+   }
+
+   /**
+    * @return the number of nodes taken from the open set during the last plan
+    */
+   public int getNumberOfExpandedNodes()
+   {
+      return numberOfExpandedNodes;
+   }
+
+   /**
+    * @return the number of steps checked with the node checker during the last plan
+    */
+   public int getNumberOfCheckedEdges()
+   {
+      return numberOfCheckedEdges;
+   }
+
+   public int getNumberOfNodesInPool()
+   {
+      return numberOfNodes;
+   }
+}
@@ -9,10 +9,16 @@ public class FootstepNode
    public static final double gridSizeY = 0.05;
    public static final double gridSizeYaw = Math.PI / 18.0;
 
+   private static final int LATTICE_POSITION_BITS = 28;
+   private static final int LATTICE_YAW_BITS = 7;
+   private static final long LATTICE_POSITION_MASK = (1L << LATTICE_POSITION_BITS) - 1;
+   private static final long LATTICE_YAW_MASK = (1L << LATTICE_YAW_BITS) - 1;
+
    private final int xIndex;
    private final int yIndex;
    private final int yawIndex;
    private final RobotSide robotSide;
+   private final long latticeKey;
 
    public FootstepNode(double x, double y)
    {
@@ -21,10 +27,90 @@ public class FootstepNode
 
    public FootstepNode(double x, double y, double yaw, RobotSide robotSide)
    {
-      xIndex = (int) Math.round(x / gridSizeX);
-      yIndex = (int) Math.round(y / gridSizeY);
-      yawIndex = (int) Math.round(AngleTools.trimAngleMinusPiToPi(yaw) / gridSizeYaw);
+      xIndex = computeXIndex(x);
+      yIndex = computeYIndex(y);
+      yawIndex = computeYawIndex(yaw);
       this.robotSide = robotSide;
+      latticeKey = packLatticeKey(xIndex, yIndex, yawIndex, robotSide);
+   }
+
+   private FootstepNode(long latticeKey)
+   {
+      xIndex = (int) (latticeKey >> (64 - LATTICE_POSITION_BITS));
+      yIndex = (int) ((latticeKey << LATTICE_POSITION_BITS) >> (64 - LATTICE_POSITION_BITS));
+      yawIndex = (int) ((latticeKey << (2 * LATTICE_POSITION_BITS)) >> (64 - LATTICE_YAW_BITS));
+      robotSide = (latticeKey & 1L) == 0L ? RobotSide.LEFT : RobotSide.RIGHT;
+      this.latticeKey = latticeKey;
+   }
+
+   /**
+    * Creates the node that has the given lattice key.
+    *
+    * @see #getLatticeKey()
+    */
+   public static FootstepNode createFromLatticeKey(long latticeKey)
+   {
+      return new FootstepNode(latticeKey);
+   }
+
+   /**
+    * Computes the lattice key of the node that would be created with the same arguments, without
+    * creating the node.
+    *
+    * @see #getLatticeKey()
+    */
+   public static long computeLatticeKey(double x, double y, double yaw, RobotSide robotSide)
+   {
+      return packLatticeKey(computeXIndex(x), computeYIndex(y), computeYawIndex(yaw), robotSide);
+   }
+
+   private static int computeXIndex(double x)
+   {
+      return (int) Math.round(x / gridSizeX);
+   }
+
+   private static int computeYIndex(double y)
+   {
+      return (int) Math.round(y / gridSizeY);
+   }
+
+   private static int computeYawIndex(double yaw)
+   {
+      return (int) Math.round(AngleTools.trimAngleMinusPiToPi(yaw) / gridSizeYaw);
+   }
+
+   private static long packLatticeKey(int xIndex, int yIndex, int yawIndex, RobotSide robotSide)
+   {
+      long key = (xIndex & LATTICE_POSITION_MASK) << (64 - LATTICE_POSITION_BITS);
+      key |= (yIndex & LATTICE_POSITION_MASK) << (64 - 2 * LATTICE_POSITION_BITS);
+      key |= (yawIndex & LATTICE_YAW_MASK) << 1;
+      key |= robotSide == RobotSide.RIGHT ? 1L : 0L;
+      return key;
+   }
+
+   /**
+    * The lattice key packs the grid indices and the side of this node in a single long. Two nodes
+    * are equal if and only if they have the same lattice key, as long as the position of the nodes
+    * is within about 6700km of the origin.
+    */
+   public long getLatticeKey()
+   {
+      return latticeKey;
+   }
+
+   public int getXIndex()
+   {
+      return xIndex;
+   }
+
+   public int getYIndex()
+   {
+      return yIndex;
+   }
+
+   public int getYawIndex()
+   {
+      return yawIndex;
    }
 
    public double getX()
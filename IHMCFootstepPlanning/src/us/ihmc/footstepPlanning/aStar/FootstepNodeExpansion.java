@@ -2,7 +2,25 @@ package us.ihmc.footstepPlanning.aStar;
 
 import java.util.HashSet;
 
+import gnu.trove.list.array.TLongArrayList;
+
 public interface FootstepNodeExpansion
 {
    public HashSet<FootstepNode> expandNode(FootstepNode node);
+
+   /**
+    * Packs the lattice keys of the neighbors of the node, see {@link FootstepNode#getLatticeKey()}.
+    * The list can contain the same key more than once.
+    * <p>
+    * Used by the {@link FootstepLatticeAStar}. The default implementation goes through
+    * {@link #expandNode(FootstepNode)}, implementations should override it to avoid creating a set
+    * of nodes for every expansion.
+    * </p>
+    */
+   public default void expandNode(FootstepNode node, TLongArrayList neighborKeysToPack)
+   {
+      neighborKeysToPack.reset();
+      for (FootstepNode neighbor : expandNode(node))
+         neighborKeysToPack.add(neighbor.getLatticeKey());
+   }
 }
@@ -0,0 +1,235 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of integer ids with a double key for each id. Ties are broken with an optional
+ * secondary key, which gives the lexicographic ordering used by LPA*.
+ *
+ * The heap keeps track of the position of every id, so the key of an id that is already in the heap can be decreased in
+ * O(log n) instead of adding a duplicate entry. Ids have to be non-negative and should be dense, the heap uses arrays
+ * indexed by id. All arrays are kept when the heap is cleared so it can be reused without allocating.
+ */
+public class IndexedMinHeap
+{
+   private int[] heap;
+   private double[] keys;
+   private double[] secondaryKeys;
+   private int[] positions;
+   private int size = 0;
+
+   public IndexedMinHeap()
+   {
+      this(64);
+   }
+
+   public IndexedMinHeap(int initialCapacity)
+   {
+      initialCapacity = Math.max(1, initialCapacity);
+      heap = new int[initialCapacity];
+      keys = new double[initialCapacity];
+      secondaryKeys = new double[initialCapacity];
+      positions = new int[initialCapacity];
+      Arrays.fill(positions, -1);
+   }
+
+   public void clear()
+   {
+      for (int i = 0; i < size; i++)
+         positions[heap[i]] = -1;
+      size = 0;
+   }
+
+   public boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public boolean contains(int id)
+   {
+      return id < positions.length && positions[id] >= 0;
+   }
+
+   /**
+    * @return the key of an id that is in the heap
+    */
+   public double getKey(int id)
+   {
+      return keys[id];
+   }
+
+   /**
+    * @return the secondary key of an id that is in the heap
+    */
+   public double getSecondaryKey(int id)
+   {
+      return secondaryKeys[id];
+   }
+
+   /**
+    * Adds the id to the heap, or changes its key if it is in the heap already.
+    */
+   public void addOrUpdate(int id, double key)
+   {
+      addOrUpdate(id, key, 0.0);
+   }
+
+   /**
+    * Adds the id to the heap, or changes its keys if it is in the heap already. Ids are ordered by
+    * key first and by secondary key when the keys are equal.
+    */
+   public void addOrUpdate(int id, double key, double secondaryKey)
+   {
+      if (contains(id))
+      {
+         boolean isDecrease = isLess(key, secondaryKey, keys[id], secondaryKeys[id]);
+         keys[id] = key;
+         secondaryKeys[id] = secondaryKey;
+
+         if (isDecrease)
+            siftUp(positions[id]);
+         else
+            siftDown(positions[id]);
+      }
+      else
+      {
+         ensureIdCapacity(id + 1);
+         if (size == heap.length)
+            heap = Arrays.copyOf(heap, 2 * heap.length);
+
+         keys[id] = key;
+         secondaryKeys[id] = secondaryKey;
+         heap[size] = id;
+         positions[id] = size;
+         size++;
+         siftUp(size - 1);
+      }
+   }
+
+   /**
+    * Removes the id from the heap, does nothing if it is not in the heap.
+    */
+   public void remove(int id)
+   {
+      if (!contains(id))
+         return;
+
+      int position = positions[id];
+      positions[id] = -1;
+      size--;
+
+      if (position == size)
+         return;
+
+      int lastId = heap[size];
+      heap[position] = lastId;
+      positions[lastId] = position;
+
+      if (position > 0 && isLess(lastId, heap[(position - 1) >>> 1]))
+         siftUp(position);
+      else
+         siftDown(position);
+   }
+
+   /**
+    * @return the id with the smallest key, without removing it
+    */
+   public int peek()
+   {
+      if (size == 0)
+         throw new RuntimeException("Heap is empty.");
+      return heap[0];
+   }
+
+   /**
+    * Removes and returns the id with the smallest key.
+    */
+   public int poll()
+   {
+      int top = peek();
+      positions[top] = -1;
+      size--;
+
+      if (size > 0)
+      {
+         heap[0] = heap[size];
+         positions[heap[0]] = 0;
+         siftDown(0);
+      }
+
+      return top;
+   }
+
+   private void ensureIdCapacity(int capacity)
+   {
+      if (capacity <= positions.length)
+         return;
+
+      int newCapacity = Math.max(capacity, 2 * positions.length);
+      int previousCapacity = positions.length;
+      positions = Arrays.copyOf(positions, newCapacity);
+      Arrays.fill(positions, previousCapacity, newCapacity, -1);
+      keys = Arrays.copyOf(keys, newCapacity);
+      secondaryKeys = Arrays.copyOf(secondaryKeys, newCapacity);
+   }
+
+   private boolean isLess(int id, int otherId)
+   {
+      return isLess(keys[id], secondaryKeys[id], keys[otherId], secondaryKeys[otherId]);
+   }
+
+   private static boolean isLess(double key, double secondaryKey, double otherKey, double otherSecondaryKey)
+   {
+      return key < otherKey || (key == otherKey && secondaryKey < otherSecondaryKey);
+   }
+
+   private void siftUp(int position)
+   {
+      int id = heap[position];
+
+      while (position > 0)
+      {
+         int parent = (position - 1) >>> 1;
+         int parentId = heap[parent];
+         if (!isLess(id, parentId))
+            break;
+
+         heap[position] = parentId;
+         positions[parentId] = position;
+         position = parent;
+      }
+
+      heap[position] = id;
+      positions[id] = position;
+   }
+
+   private void siftDown(int position)
+   {
+      int id = heap[position];
+      int half = size >>> 1;
+
+      while (position < half)
+      {
+         int child = 2 * position + 1;
+         int right = child + 1;
+         if (right < size && isLess(heap[right], heap[child]))
+            child = right;
+
+         int childId = heap[child];
+         if (!isLess(childId, id))
+            break;
+
+         heap[position] = childId;
+         positions[childId] = position;
+         position = child;
+      }
+
+      heap[position] = id;
+      positions[id] = position;
+   }
+}
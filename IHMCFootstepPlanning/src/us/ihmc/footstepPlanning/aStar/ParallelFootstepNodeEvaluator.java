@@ -0,0 +1,195 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import us.ihmc.robotics.geometry.PlanarRegion;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+
+/**
+ * Checks and computes the cost of the steps from an expanded node to all its neighbors on a
+ * fork/join pool.
+ *
+ * The node checkers, snappers and cost calculators keep temporary objects and YoVariables and the
+ * queries of a {@link PlanarRegionsList} are not thread-safe, so every worker thread gets its own
+ * node checker and cost calculator from the given suppliers and its own list of the shared planar
+ * regions. The regions themselves are only read. The results are stored by neighbor index, so a
+ * planner adding the neighbors in order gets the same plan as when checking them one at a time.
+ *
+ * The evaluator can be shared by several planners as long as they do not plan at the same time.
+ */
+public class ParallelFootstepNodeEvaluator
+{
+   /** The neighbors of a node are split in about that many tasks per thread to balance the load. */
+   private static final int TASKS_PER_THREAD = 4;
+
+   private final ForkJoinPool pool;
+   private final ThreadLocal<Worker> workers;
+
+   private PlanarRegionsList planarRegionsList = null;
+   private long planarRegionsListVersion = 0;
+   private int planarRegionsStamp = 0;
+
+   private FootstepNode nodeToExpand;
+   private List<FootstepNode> neighbors;
+   private double[] costs = new double[0];
+   private int minimumNeighborsPerTask = 1;
+
+   /**
+    * @param nodeCheckerSupplier creates the node checker of a worker thread, it should not share any
+    *           snapper with another node checker.
+    * @param stepCostSupplier creates the cost calculator of a worker thread.
+    * @param parallelism number of worker threads.
+    */
+   public ParallelFootstepNodeEvaluator(Supplier<? extends FootstepNodeChecker> nodeCheckerSupplier, Supplier<? extends FootstepCost> stepCostSupplier,
+                                        int parallelism)
+   {
+      pool = new ForkJoinPool(parallelism);
+      workers = ThreadLocal.withInitial(() -> new Worker(nodeCheckerSupplier.get(), stepCostSupplier.get()));
+   }
+
+   /**
+    * Creates an evaluator with one worker thread per available processor.
+    */
+   public ParallelFootstepNodeEvaluator(Supplier<? extends FootstepNodeChecker> nodeCheckerSupplier, Supplier<? extends FootstepCost> stepCostSupplier)
+   {
+      this(nodeCheckerSupplier, stepCostSupplier, Runtime.getRuntime().availableProcessors());
+   }
+
+   public int getParallelism()
+   {
+      return pool.getParallelism();
+   }
+
+   public void setPlanarRegions(PlanarRegionsList planarRegionsList)
+   {
+      this.planarRegionsList = planarRegionsList;
+      planarRegionsListVersion = planarRegionsList == null ? 0 : planarRegionsList.getVersion();
+      planarRegionsStamp++;
+   }
+
+   /**
+    * Checks the steps from the given node to each of the neighbors and computes their cost, to be
+    * retrieved with {@link #getCost(int)}.
+    */
+   public void evaluate(FootstepNode nodeToExpand, List<FootstepNode> neighbors)
+   {
+      if (planarRegionsList != null && planarRegionsList.getVersion() != planarRegionsListVersion)
+      { // The regions were modified since the workers got them
+         planarRegionsListVersion = planarRegionsList.getVersion();
+         planarRegionsStamp++;
+      }
+
+      int numberOfNeighbors = neighbors.size();
+      if (costs.length < numberOfNeighbors)
+         costs = new double[Math.max(numberOfNeighbors, 2 * costs.length)];
+      Arrays.fill(costs, 0, numberOfNeighbors, Double.NaN);
+
+      if (numberOfNeighbors == 0)
+         return;
+
+      this.nodeToExpand = nodeToExpand;
+      this.neighbors = neighbors;
+      minimumNeighborsPerTask = Math.max(1, numberOfNeighbors / (TASKS_PER_THREAD * pool.getParallelism()));
+
+      // The pool makes the fields above visible to the workers and the costs visible to this thread.
+      pool.invoke(new EvaluationTask(0, numberOfNeighbors));
+
+      this.nodeToExpand = null;
+      this.neighbors = null;
+   }
+
+   /**
+    * @return the cost of the step to the neighbor of the last evaluation, or
+    *         {@link Double#POSITIVE_INFINITY} if the step is not valid.
+    */
+   public double getCost(int neighborIndex)
+   {
+      return costs[neighborIndex];
+   }
+
+   /**
+    * Stops the worker threads. The evaluator cannot be used anymore.
+    */
+   public void shutdown()
+   {
+      pool.shutdown();
+   }
+
+   private class EvaluationTask extends RecursiveAction
+   {
+      private static final long serialVersionUID = 5812493037781284156L;
+
+      private final int start;
+      private final int end;
+
+      private EvaluationTask(int start, int end)
+      {
+         this.start = start;
+         this.end = end;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (end - start > minimumNeighborsPerTask)
+         {
+            int middle = (start + end) >>> 1;
+            invokeAll(new EvaluationTask(start, middle), new EvaluationTask(middle, end));
+            return;
+         }
+
+         Worker worker = workers.get();
+         worker.updatePlanarRegions();
+
+         for (int i = start; i < end; i++)
+            costs[i] = worker.computeCost(nodeToExpand, neighbors.get(i));
+      }
+   }
+
+   private class Worker
+   {
+      private final FootstepNodeChecker nodeChecker;
+      private final FootstepCost stepCost;
+      private int planarRegionsStamp = -1;
+
+      private Worker(FootstepNodeChecker nodeChecker, FootstepCost stepCost)
+      {
+         this.nodeChecker = nodeChecker;
+         this.stepCost = stepCost;
+      }
+
+      private void updatePlanarRegions()
+      {
+         if (planarRegionsStamp == ParallelFootstepNodeEvaluator.this.planarRegionsStamp)
+            return;
+         planarRegionsStamp = ParallelFootstepNodeEvaluator.this.planarRegionsStamp;
+
+         if (planarRegionsList == null)
+         {
+            nodeChecker.setPlanarRegions(null);
+            return;
+         }
+
+         List<PlanarRegion> regions = new ArrayList<>(planarRegionsList.getNumberOfPlanarRegions());
+         for (int i = 0; i < planarRegionsList.getNumberOfPlanarRegions(); i++)
+            regions.add(planarRegionsList.getPlanarRegion(i));
+
+         PlanarRegionsList workerPlanarRegionsList = new PlanarRegionsList(regions);
+         workerPlanarRegionsList.setUseSpatialIndex(planarRegionsList.isUsingSpatialIndex());
+         nodeChecker.setPlanarRegions(workerPlanarRegionsList);
+      }
+
+      private double computeCost(FootstepNode nodeToExpand, FootstepNode neighbor)
+      {
+         /** Checks if the footstep (center of the foot) is on a planar region*/
+         if (!nodeChecker.isNodeValid(neighbor, nodeToExpand))
+            return Double.POSITIVE_INFINITY;
+         return stepCost.compute(nodeToExpand, neighbor);
+      }
+   }
+}
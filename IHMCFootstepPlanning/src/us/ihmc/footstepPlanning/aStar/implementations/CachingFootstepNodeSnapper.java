@@ -0,0 +1,223 @@
+package us.ihmc.footstepPlanning.aStar.implementations;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.footstepPlanning.aStar.FootstepNode;
+import us.ihmc.footstepPlanning.aStar.FootstepNodeSnapper;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+import us.ihmc.yoVariables.variable.YoInteger;
+import us.ihmc.yoVariables.variable.YoLong;
+
+/**
+ * Remembers the results of another {@link FootstepNodeSnapper} so a node is only snapped once as
+ * long as the planar regions do not change.
+ *
+ * The results are keyed on the lattice key of the node, see {@link FootstepNode#getLatticeKey()},
+ * which is the discretized x, y, yaw and side of the node. The cache is kept from one plan to the
+ * next and is cleared when the snapper is given different planar regions, or when the version of
+ * the list changes, see {@link PlanarRegionsList#getVersion()}. When the cache is full the least
+ * recently used result is dropped.
+ *
+ * A single instance can be given to several planners or node checkers to share the results.
+ */
+public class CachingFootstepNodeSnapper implements FootstepNodeSnapper
+{
+   public static final int DEFAULT_MAXIMUM_SIZE = 1 << 16;
+
+   private static final double SAME_REGIONS_EPSILON = 1.0e-7;
+
+   private final FootstepNodeSnapper snapper;
+   private final int maximumSize;
+
+   private final SnapResultMap snapResults;
+   private final ArrayDeque<SnapResult> unusedSnapResults = new ArrayDeque<>();
+
+   private PlanarRegionsList planarRegionsList = null;
+   private long planarRegionsListVersion = 0;
+
+   private final YoLong snapCacheHits;
+   private final YoLong snapCacheMisses;
+   private final YoDouble snapCacheHitRate;
+   private final YoInteger snapCacheSize;
+
+   public CachingFootstepNodeSnapper(FootstepNodeSnapper snapper, YoVariableRegistry registry)
+   {
+      this(snapper, DEFAULT_MAXIMUM_SIZE, registry);
+   }
+
+   public CachingFootstepNodeSnapper(FootstepNodeSnapper snapper, int maximumSize, YoVariableRegistry registry)
+   {
+      if (maximumSize < 1)
+         throw new IllegalArgumentException("The cache should be able to hold at least one result");
+
+      this.snapper = snapper;
+      this.maximumSize = maximumSize;
+      this.snapResults = new SnapResultMap();
+
+      snapCacheHits = new YoLong("snapCacheHits", registry);
+      snapCacheMisses = new YoLong("snapCacheMisses", registry);
+      snapCacheHitRate = new YoDouble("snapCacheHitRate", registry);
+      snapCacheSize = new YoInteger("snapCacheSize", registry);
+   }
+
+   @Override
+   public void setPlanarRegions(PlanarRegionsList planarRegionsList)
+   {
+      if (!hasSameRegions(planarRegionsList))
+         clear();
+
+      this.planarRegionsList = planarRegionsList;
+      planarRegionsListVersion = planarRegionsList == null ? 0 : planarRegionsList.getVersion();
+      snapper.setPlanarRegions(planarRegionsList);
+   }
+
+   /**
+    * Replanning usually gets a new list from every perception update, so a new list with the same
+    * regions as the previous one keeps the cached results.
+    */
+   private boolean hasSameRegions(PlanarRegionsList planarRegionsList)
+   {
+      if (planarRegionsList == null || this.planarRegionsList == null)
+         return planarRegionsList == this.planarRegionsList;
+      if (this.planarRegionsList.getVersion() != planarRegionsListVersion)
+         return false;
+      if (planarRegionsList == this.planarRegionsList)
+         return true;
+      if (planarRegionsList.getNumberOfPlanarRegions() != this.planarRegionsList.getNumberOfPlanarRegions())
+         return false;
+
+      for (int i = 0; i < planarRegionsList.getNumberOfPlanarRegions(); i++)
+      {
+         if (!planarRegionsList.getPlanarRegion(i).epsilonEquals(this.planarRegionsList.getPlanarRegion(i), SAME_REGIONS_EPSILON))
+            return false;
+      }
+
+      return true;
+   }
+
+   /**
+    * Drops all the cached results.
+    */
+   public void clear()
+   {
+      unusedSnapResults.addAll(snapResults.values());
+      snapResults.clear();
+      snapCacheSize.set(0);
+   }
+
+   /**
+    * Resets the hit and miss counters, the cached results are kept.
+    */
+   public void resetStatistics()
+   {
+      snapCacheHits.set(0);
+      snapCacheMisses.set(0);
+      snapCacheHitRate.set(0.0);
+   }
+
+   @Override
+   public RigidBodyTransform snapFootstepNode(FootstepNode footstepNode, ConvexPolygon2D footholdIntersectionToPack)
+   {
+      if (planarRegionsList != null && planarRegionsList.getVersion() != planarRegionsListVersion)
+      {
+         clear();
+         planarRegionsListVersion = planarRegionsList.getVersion();
+      }
+
+      Long latticeKey = footstepNode.getLatticeKey();
+      SnapResult snapResult = snapResults.get(latticeKey);
+
+      if (snapResult != null)
+      {
+         snapCacheHits.set(snapCacheHits.getLongValue() + 1);
+      }
+      else
+      {
+         snapCacheMisses.set(snapCacheMisses.getLongValue() + 1);
+         snapResult = unusedSnapResults.isEmpty() ? new SnapResult() : unusedSnapResults.poll();
+         snapResult.set(snapper.snapFootstepNode(footstepNode, snapResult.foothold));
+         snapResults.put(latticeKey, snapResult);
+         snapCacheSize.set(snapResults.size());
+      }
+
+      snapCacheHitRate.set((double) snapCacheHits.getLongValue() / (snapCacheHits.getLongValue() + snapCacheMisses.getLongValue()));
+
+      if (!snapResult.isValid)
+         return null;
+
+      if (footholdIntersectionToPack != null)
+         footholdIntersectionToPack.set(snapResult.foothold);
+
+      // The snappers create a new transform for every call, callers can keep or modify it.
+      return new RigidBodyTransform(snapResult.snapTransform);
+   }
+
+   public int getMaximumSize()
+   {
+      return maximumSize;
+   }
+
+   public int getSize()
+   {
+      return snapResults.size();
+   }
+
+   public long getNumberOfHits()
+   {
+      return snapCacheHits.getLongValue();
+   }
+
+   public long getNumberOfMisses()
+   {
+      return snapCacheMisses.getLongValue();
+   }
+
+   public double getHitRate()
+   {
+      return snapCacheHitRate.getDoubleValue();
+   }
+
+   private static class SnapResult
+   {
+      private boolean isValid = false;
+      private final RigidBodyTransform snapTransform = new RigidBodyTransform();
+      private final ConvexPolygon2D foothold = new ConvexPolygon2D();
+
+      private void set(RigidBodyTransform snapTransform)
+      {
+         isValid = snapTransform != null;
+         if (isValid)
+            this.snapTransform.set(snapTransform);
+      }
+   }
+
+   /**
+    * Map in access order that drops the least recently used result when it grows over the maximum
+    * size. Dropped results are reused for the next misses.
+    */
+   private class SnapResultMap extends LinkedHashMap<Long, SnapResult>
+   {
+      private static final long serialVersionUID = -3206463453213893367L;
+
+      private SnapResultMap()
+      {
+         super(16, 0.75f, true);
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, SnapResult> eldest)
+      {
+         if (size() <= maximumSize)
+            return false;
+
+         unusedSnapResults.add(eldest.getValue());
+         return true;
+      }
+   }
+}
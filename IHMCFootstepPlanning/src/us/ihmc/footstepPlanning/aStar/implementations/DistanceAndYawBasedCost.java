@@ -25,6 +25,15 @@ public class DistanceAndYawBasedCost implements FootstepCost
       this.yawWeight.set(yawWeight);
    }
 
+   /**
+    * Creates a cost calculator that uses the yaw weight of another one, such that cost calculators
+    * running on several threads keep the parameters of the planner they work for.
+    */
+   public DistanceAndYawBasedCost(DistanceAndYawBasedCost parameters)
+   {
+      this.yawWeight = parameters.yawWeight;
+   }
+
    @Override
    public double compute(FootstepNode startNode, FootstepNode endNode)
    {
@@ -2,6 +2,7 @@ package us.ihmc.footstepPlanning.aStar.implementations;
 
 import java.util.HashSet;
 
+import gnu.trove.list.array.TLongArrayList;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.footstepPlanning.aStar.FootstepNode;
 import us.ihmc.footstepPlanning.aStar.FootstepNodeExpansion;
@@ -24,10 +25,14 @@ public abstract class ReachableFootstepsBasedExpansion implements FootstepNodeEx
    private double yawStanceFoot;
    private HashSet<FootstepNode> neighbors;
 
+   private FootstepNode stanceNode;
+   private TLongArrayList neighborKeys;
+
    @Override
    public HashSet<FootstepNode> expandNode(FootstepNode node)
    {
       neighbors = new HashSet<>();
+      neighborKeys = null;
 
       /** Get reference frame of stance leg */
       FramePose stanceFootPose = new FramePose(worldFrame);
@@ -45,6 +50,22 @@ public abstract class ReachableFootstepsBasedExpansion implements FootstepNodeEx
       return neighbors;
    }
 
+   @Override
+   public void expandNode(FootstepNode node, TLongArrayList neighborKeysToPack)
+   {
+      neighborKeysToPack.reset();
+      neighborKeys = neighborKeysToPack;
+      neighbors = null;
+
+      stanceNode = node;
+      yawStanceFoot = node.getYaw();
+      stepSide = node.getRobotSide().getOppositeSide();
+
+      addNeighbors();
+
+      neighborKeys = null;
+   }
+
    /**
     * Adds offsets to the current swing foot position to find potential neighbors
     * @param xOffset
@@ -56,6 +77,16 @@ public abstract class ReachableFootstepsBasedExpansion implements FootstepNodeEx
       /** Based on stance foot side, step width sign would change*/
       double ySign = stepSide.negateIfRightSide(1.0);
 
+      if (neighborKeys != null)
+      { // Same as below without the frames
+         double cosYaw = Math.cos(yawStanceFoot);
+         double sinYaw = Math.sin(yawStanceFoot);
+         double x = stanceNode.getX() + cosYaw * xOffset - sinYaw * ySign * yOffset;
+         double y = stanceNode.getY() + sinYaw * xOffset + cosYaw * ySign * yOffset;
+         neighborKeys.add(FootstepNode.computeLatticeKey(x, y, yawStanceFoot + ySign * yawOffset, stepSide));
+         return;
+      }
+
       FramePose step = new FramePose(stanceFrame);
       step.setX(xOffset);
       step.setY(ySign * yOffset);
@@ -2,8 +2,10 @@ package us.ihmc.footstepPlanning.aStar.implementations;
 
 import java.util.HashSet;
 
+import gnu.trove.list.array.TLongArrayList;
 import us.ihmc.footstepPlanning.aStar.FootstepNode;
 import us.ihmc.footstepPlanning.aStar.FootstepNodeExpansion;
+import us.ihmc.robotics.robotSide.RobotSide;
 /**
  * This class expands nodes in a 8 connected way.
  * It does not account for turn footsteps. Yaw angle of potential footstep neighbour by default would be zero.
@@ -28,4 +30,21 @@ public class SimpleGridResolutionBasedExpansion implements FootstepNodeExpansion
       }
       return neighbors;
    }
+
+   @Override
+   public void expandNode(FootstepNode node, TLongArrayList neighborKeysToPack)
+   {
+      neighborKeysToPack.reset();
+      for (int i = -1; i <= 1; i++)
+      {
+         for (int j = -1; j <= 1; j++)
+         {
+            if (i == 0 && j == 0)
+               continue;
+            double xOffset = FootstepNode.gridSizeX * i;
+            double yOffset = FootstepNode.gridSizeY * j;
+            neighborKeysToPack.add(FootstepNode.computeLatticeKey(node.getX() + xOffset, node.getY() + yOffset, 0.0, RobotSide.LEFT));
+         }
+      }
+   }
 }
@@ -2,6 +2,7 @@ package us.ihmc.footstepPlanning.aStar.implementations;
 
 import java.util.HashSet;
 
+import gnu.trove.list.array.TLongArrayList;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.footstepPlanning.aStar.FootstepNode;
 import us.ihmc.footstepPlanning.aStar.FootstepNodeExpansion;
@@ -77,4 +78,48 @@ public class SimpleSideBasedExpansion implements FootstepNodeExpansion
 
       return neighbors;
    }
+
+   @Override
+   public void expandNode(FootstepNode node, TLongArrayList neighborKeysToPack)
+   {
+      neighborKeysToPack.reset();
+
+      double cosYaw = Math.cos(node.getYaw());
+      double sinYaw = Math.sin(node.getYaw());
+
+      RobotSide stepSide = node.getRobotSide().getOppositeSide();
+      double ySign = stepSide.negateIfRightSide(1.0);
+
+      // walk forward and backward
+      for (int i = 0; i < stepLengths.length; i++)
+      {
+         double stepLength = stepLengths[i];
+         for (int j = 0; j < stepYaws.length; j++)
+         {
+            double yaw = node.getYaw() + ySign * stepYaws[j];
+            addNeighborKey(node, cosYaw, sinYaw, stepLength, ySign * defaultStepWidth, yaw, stepSide, neighborKeysToPack);
+            addNeighborKey(node, cosYaw, sinYaw, -stepLength, ySign * defaultStepWidth, yaw, stepSide, neighborKeysToPack);
+         }
+      }
+
+      // side step
+      for (int i = 0; i < stepWidths.length; i++)
+         addNeighborKey(node, cosYaw, sinYaw, 0.0, ySign * stepWidths[i], node.getYaw(), stepSide, neighborKeysToPack);
+
+      // turn in place
+      double turnStepX = -defaultStepWidth * Math.sin(maxYaw) / 2.0;
+      double turnStepY = ySign * defaultStepWidth * (1.0 + Math.cos(maxYaw)) / 2.0;
+      addNeighborKey(node, cosYaw, sinYaw, turnStepX, turnStepY, node.getYaw() + ySign * maxYaw, stepSide, neighborKeysToPack);
+   }
+
+   /**
+    * Same as creating the step in the stance frame and changing it to world, without the frames.
+    */
+   private static void addNeighborKey(FootstepNode stanceNode, double cosYaw, double sinYaw, double xOffset, double yOffset, double yaw, RobotSide stepSide,
+                                      TLongArrayList neighborKeysToPack)
+   {
+      double x = stanceNode.getX() + cosYaw * xOffset - sinYaw * yOffset;
+      double y = stanceNode.getY() + sinYaw * xOffset + cosYaw * yOffset;
+      neighborKeysToPack.add(FootstepNode.computeLatticeKey(x, y, yaw, stepSide));
+   }
 }
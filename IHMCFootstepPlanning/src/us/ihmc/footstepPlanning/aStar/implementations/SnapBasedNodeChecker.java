@@ -35,6 +35,20 @@ public class SnapBasedNodeChecker implements FootstepNodeChecker
       minPercentageFoothold.set(defaultMinPercentageOfFoothold);
    }
 
+   /**
+    * Creates a node checker that uses the parameters of another one, such that node checkers running
+    * on several threads keep the parameters of the planner they work for.
+    */
+   public SnapBasedNodeChecker(SideDependentList<ConvexPolygon2D> footPolygons, FootstepNodeSnapper snapper, SnapBasedNodeChecker parameters)
+   {
+      this.footPolygons = footPolygons;
+      this.snapper = snapper;
+      this.footholdAfterSnap = new ConvexPolygon2D();
+
+      maxStepHeightChange = parameters.maxStepHeightChange;
+      minPercentageFoothold = parameters.minPercentageFoothold;
+   }
+
    @Override
    public void setPlanarRegions(PlanarRegionsList planarRegions)
    {
@@ -0,0 +1,105 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.footstepPlanning.FootstepPlan;
+import us.ihmc.footstepPlanning.FootstepPlannerGoal;
+import us.ihmc.footstepPlanning.FootstepPlannerGoalType;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.footstepPlanning.aStar.implementations.SimpleSideBasedExpansion;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.geometry.FramePose;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+/**
+ * Plans on the terrains of the rough terrain tests with the {@link AStarFootstepPlanner}, with and without the
+ * {@link FootstepLatticeAStar} and with the {@link ParallelFootstepNodeEvaluator}, and reports the time per plan and the
+ * number of node expansions per second.
+ */
+public class AStarFootstepPlannerBenchmark
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   private static final int NUMBER_OF_WARMUP_PLANS = 5;
+   private static final int NUMBER_OF_PLANS = 20;
+
+   private final SideDependentList<ConvexPolygon2D> footPolygons = PlanningTestTools.createDefaultFootPolygons();
+   private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+   public void run(String terrainName, PlanarRegionsList planarRegionsList, FramePose initialStanceFootPose, RobotSide initialStanceSide, FramePose goalPose)
+   {
+      for (int mode = 0; mode < 4; mode++)
+      {
+         boolean useLatticeSearch = mode % 2 == 1;
+         boolean useParallelExpansion = mode >= 2;
+
+         AStarFootstepPlanner planner = AStarFootstepPlanner.createRoughTerrainPlanner(null, footPolygons, new SimpleSideBasedExpansion(),
+                                                                                       new YoVariableRegistry("BenchmarkRegistry"));
+         planner.setUseLatticeSearch(useLatticeSearch);
+         ParallelFootstepNodeEvaluator parallelNodeEvaluator = null;
+         if (useParallelExpansion)
+         {
+            parallelNodeEvaluator = AStarFootstepPlanner.createRoughTerrainNodeEvaluator(footPolygons, planner, parallelism);
+            planner.setParallelNodeEvaluator(parallelNodeEvaluator);
+         }
+
+         FootstepPlannerGoal goal = new FootstepPlannerGoal();
+         goal.setFootstepPlannerGoalType(FootstepPlannerGoalType.POSE_BETWEEN_FEET);
+         goal.setGoalPoseBetweenFeet(goalPose);
+
+         planner.setInitialStanceFoot(initialStanceFootPose, initialStanceSide);
+         planner.setGoal(goal);
+         planner.setPlanarRegions(planarRegionsList);
+
+         for (int i = 0; i < NUMBER_OF_WARMUP_PLANS; i++)
+            planner.plan();
+
+         FootstepPlanningResult result = null;
+         long numberOfExpandedNodes = 0;
+         long startTime = System.nanoTime();
+         for (int i = 0; i < NUMBER_OF_PLANS; i++)
+         {
+            result = planner.plan();
+            numberOfExpandedNodes += planner.getNumberOfExpandedNodes();
+         }
+         double totalTime = (System.nanoTime() - startTime) * 1.0e-9;
+
+         String name = terrainName + (useLatticeSearch ? " lattice" : " graph") + (useParallelExpansion ? " parallel" : "");
+         FootstepPlan plan = planner.getPlan();
+         int numberOfSteps = plan == null ? 0 : plan.getNumberOfSteps();
+         System.out.println(String.format("%-35s %8.2f ms/plan, %10.0f expansions/s, %6d expansions/plan, %3d steps, %s", name,
+                                          1.0e3 * totalTime / NUMBER_OF_PLANS, numberOfExpandedNodes / totalTime, numberOfExpandedNodes / NUMBER_OF_PLANS,
+                                          numberOfSteps, result));
+
+         if (parallelNodeEvaluator != null)
+            parallelNodeEvaluator.shutdown();
+      }
+   }
+
+   public static void main(String[] args)
+   {
+      AStarFootstepPlannerBenchmark benchmark = new AStarFootstepPlannerBenchmark();
+
+      FramePose flatGroundStart = new FramePose(worldFrame);
+      FramePose flatGroundGoal = new FramePose(worldFrame);
+      flatGroundGoal.setPosition(4.0, 0.5, 0.0);
+      benchmark.run("Flat ground", PlanarRegionsListExamples.generateFlatGround(20.0, 20.0), flatGroundStart, RobotSide.LEFT, flatGroundGoal);
+
+      FramePose stairCaseStart = new FramePose(worldFrame);
+      FramePose stairCaseGoal = new FramePose(worldFrame);
+      stairCaseGoal.setPosition(2.0, -0.2, 0.53);
+      benchmark.run("Staircase", PlanarRegionsListExamples.generateStairCase(new Vector3D()), stairCaseStart, RobotSide.LEFT, stairCaseGoal);
+
+      FramePose cinderBlockStart = new FramePose(worldFrame);
+      cinderBlockStart.setPosition(0.0, -0.7, 0.0);
+      FramePose cinderBlockGoal = new FramePose(worldFrame);
+      cinderBlockGoal.setPosition(9.0, 0.0, 0.0);
+      PlanarRegionsList cinderBlockField = PlanarRegionsListExamples.generateCinderBlockField(0.0, 0.0, 0.4, 0.15, 21, 6, 0.1);
+      benchmark.run("Cinder block field", cinderBlockField, cinderBlockStart, RobotSide.RIGHT, cinderBlockGoal);
+   }
+}
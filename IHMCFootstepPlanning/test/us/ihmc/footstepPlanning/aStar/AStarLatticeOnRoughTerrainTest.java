@@ -0,0 +1,18 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import org.junit.Before;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+
+@ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class AStarLatticeOnRoughTerrainTest extends AStarOnRoughTerrainTest
+{
+   @Override
+   @Before
+   public void createPlanner()
+   {
+      super.createPlanner();
+      ((AStarFootstepPlanner) getPlanner()).setUseLatticeSearch(true);
+   }
+}
@@ -0,0 +1,83 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationPlan;
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.continuousIntegration.IntegrationCategory;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.footstepPlanning.aStar.implementations.DistanceAndYawBasedCost;
+import us.ihmc.footstepPlanning.aStar.implementations.SimpleSideBasedExpansion;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+
+@ContinuousIntegrationPlan(categories = IntegrationCategory.FAST)
+public class AStarParallelOnRoughTerrainTest extends AStarOnRoughTerrainTest
+{
+   private ParallelFootstepNodeEvaluator parallelNodeEvaluator;
+
+   @Override
+   @Before
+   public void createPlanner()
+   {
+      super.createPlanner();
+      AStarFootstepPlanner planner = (AStarFootstepPlanner) getPlanner();
+      parallelNodeEvaluator = AStarFootstepPlanner.createRoughTerrainNodeEvaluator(PlanningTestTools.createDefaultFootPolygons(), planner, 4);
+      planner.setParallelNodeEvaluator(parallelNodeEvaluator);
+   }
+
+   @Override
+   @After
+   public void destroyPlanner()
+   {
+      super.destroyPlanner();
+      parallelNodeEvaluator.shutdown();
+      parallelNodeEvaluator = null;
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testEvaluatorUsesThePlannerParameters()
+   {
+      SideDependentList<ConvexPolygon2D> footPolygons = PlanningTestTools.createDefaultFootPolygons();
+      YoVariableRegistry registry = new YoVariableRegistry("ParameterTestRegistry");
+      AStarFootstepPlanner planner = AStarFootstepPlanner.createRoughTerrainPlanner(null, footPolygons, new SimpleSideBasedExpansion(), registry);
+      ParallelFootstepNodeEvaluator evaluator = AStarFootstepPlanner.createRoughTerrainNodeEvaluator(footPolygons, planner, 2);
+      evaluator.setPlanarRegions(PlanarRegionsListExamples.generateFlatGround(20.0, 20.0));
+
+      FootstepNode nodeToExpand = new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT);
+      List<FootstepNode> neighbors = new ArrayList<>();
+      neighbors.add(new FootstepNode(0.3, -0.25, 0.5, RobotSide.RIGHT));
+
+      try
+      {
+         for (double yawWeight : new double[] {0.1, 2.0})
+         {
+            ((YoDouble) registry.getVariable("DistanceAndYawBasedCost_YawWeight")).set(yawWeight);
+            evaluator.evaluate(nodeToExpand, neighbors);
+            double expectedCost = new DistanceAndYawBasedCost(yawWeight, new YoVariableRegistry("Expected")).compute(nodeToExpand, neighbors.get(0));
+            assertEquals(expectedCost, evaluator.getCost(0), 1.0e-12);
+         }
+
+         // A foothold that can never be reached makes every step invalid
+         ((YoDouble) registry.getVariable("minPercentageFoothold")).set(2.0);
+         evaluator.evaluate(nodeToExpand, neighbors);
+         assertEquals(Double.POSITIVE_INFINITY, evaluator.getCost(0), 0.0);
+      }
+      finally
+      {
+         evaluator.shutdown();
+      }
+   }
+}
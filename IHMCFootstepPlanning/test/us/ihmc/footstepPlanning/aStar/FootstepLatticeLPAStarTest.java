@@ -0,0 +1,141 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.footstepPlanning.FootstepPlanningResult;
+import us.ihmc.footstepPlanning.aStar.implementations.DistanceAndYawBasedCost;
+import us.ihmc.footstepPlanning.aStar.implementations.DistanceAndYawBasedHeuristics;
+import us.ihmc.footstepPlanning.aStar.implementations.SimplePlanarRegionFootstepNodeSnapper;
+import us.ihmc.footstepPlanning.aStar.implementations.SimpleSideBasedExpansion;
+import us.ihmc.footstepPlanning.aStar.implementations.SnapBasedNodeChecker;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.geometry.PlanarRegionsListGenerator;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class FootstepLatticeLPAStarTest
+{
+   private static final double yawWeight = 0.1;
+
+   private final SideDependentList<ConvexPolygon2D> footPolygons = PlanningTestTools.createDefaultFootPolygons();
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testReplanningWhileWalkingMatchesPlanningFromScratch()
+   {
+      SearchComponents incrementalComponents = new SearchComponents("Incremental");
+      FootstepLatticeLPAStar incrementalSearch = new FootstepLatticeLPAStar(incrementalComponents.nodeChecker, incrementalComponents.heuristics,
+                                                                            incrementalComponents.expansion, incrementalComponents.stepCost, null);
+      SearchComponents referenceComponents = new SearchComponents("Reference");
+
+      SideDependentList<FootstepNode> goalNodes = new SideDependentList<>(new FootstepNode(2.0, 0.125, 0.0, RobotSide.LEFT),
+                                                                          new FootstepNode(2.0, -0.125, 0.0, RobotSide.RIGHT));
+      FootstepNode startNode = new FootstepNode(0.0, 0.125, 0.0, RobotSide.LEFT);
+      List<FootstepNode> path = new ArrayList<>();
+      int numberOfCheckedEdgesFromScratch = -1;
+
+      for (int step = 0; step < 5; step++)
+      {
+         // Perception sends a new list at every step, a box shows up in front of the robot at the third one
+         PlanarRegionsList planarRegionsList = createTerrain(step >= 2);
+         incrementalComponents.nodeChecker.setPlanarRegions(planarRegionsList);
+         incrementalSearch.setPlanarRegions(planarRegionsList);
+         referenceComponents.nodeChecker.setPlanarRegions(planarRegionsList);
+
+         // The heuristics are consistent so both searches find an optimal path
+         FootstepLatticeAStar referenceSearch = new FootstepLatticeAStar(referenceComponents.nodeChecker, referenceComponents.heuristics,
+                                                                         referenceComponents.expansion, referenceComponents.stepCost, null);
+         assertEquals(FootstepPlanningResult.OPTIMAL_SOLUTION, referenceSearch.plan(startNode, goalNodes, Double.POSITIVE_INFINITY));
+         assertEquals(FootstepPlanningResult.OPTIMAL_SOLUTION, incrementalSearch.plan(startNode, goalNodes, Double.POSITIVE_INFINITY));
+         assertEquals(referenceSearch.getPathCost(), incrementalSearch.getPathCost(), 1.0e-10);
+
+         if (step == 0)
+            numberOfCheckedEdgesFromScratch = incrementalSearch.getNumberOfCheckedEdges();
+         else
+            assertTrue(incrementalSearch.getNumberOfCheckedEdges() < numberOfCheckedEdgesFromScratch);
+
+         incrementalSearch.getPathFromStart(path);
+         assertEquals(startNode, path.get(0));
+         double pathCost = 0.0;
+         for (int i = 1; i < path.size() - 1; i++)
+         {
+            assertTrue(incrementalComponents.nodeChecker.isNodeValid(path.get(i), path.get(i - 1)));
+            pathCost += incrementalComponents.stepCost.compute(path.get(i - 1), path.get(i));
+         }
+         assertEquals(incrementalSearch.getPathCost(), pathCost, 1.0e-10);
+
+         // Take the first step of the plan
+         startNode = path.get(1);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testReplanningWithSameStartDoesNotExpand()
+   {
+      SearchComponents components = new SearchComponents("Incremental");
+      FootstepLatticeLPAStar incrementalSearch = new FootstepLatticeLPAStar(components.nodeChecker, components.heuristics, components.expansion,
+                                                                            components.stepCost, null);
+
+      SideDependentList<FootstepNode> goalNodes = new SideDependentList<>(new FootstepNode(1.0, 0.125, 0.0, RobotSide.LEFT),
+                                                                          new FootstepNode(1.0, -0.125, 0.0, RobotSide.RIGHT));
+      FootstepNode startNode = new FootstepNode(0.0, 0.125, 0.0, RobotSide.LEFT);
+
+      PlanarRegionsList planarRegionsList = createTerrain(false);
+      components.nodeChecker.setPlanarRegions(planarRegionsList);
+      incrementalSearch.setPlanarRegions(planarRegionsList);
+      assertEquals(FootstepPlanningResult.OPTIMAL_SOLUTION, incrementalSearch.plan(startNode, goalNodes, Double.POSITIVE_INFINITY));
+      double pathCost = incrementalSearch.getPathCost();
+
+      // Same regions in a new list
+      planarRegionsList = createTerrain(false);
+      components.nodeChecker.setPlanarRegions(planarRegionsList);
+      incrementalSearch.setPlanarRegions(planarRegionsList);
+      assertEquals(FootstepPlanningResult.OPTIMAL_SOLUTION, incrementalSearch.plan(startNode, goalNodes, Double.POSITIVE_INFINITY));
+      assertEquals(pathCost, incrementalSearch.getPathCost(), 0.0);
+      assertEquals(0, incrementalSearch.getNumberOfExpandedNodes());
+      assertEquals(0, incrementalSearch.getNumberOfCheckedEdges());
+   }
+
+   private static PlanarRegionsList createTerrain(boolean addBox)
+   {
+      PlanarRegionsListGenerator generator = new PlanarRegionsListGenerator();
+      generator.translate(1.0, 0.0, 0.0);
+      generator.addRectangle(6.0, 6.0);
+
+      if (addBox)
+      {
+         generator.identity();
+         generator.translate(1.0, 0.1, 0.0);
+         generator.addCubeReferencedAtBottomMiddle(0.3, 0.3, 0.4);
+      }
+
+      return generator.getPlanarRegionsList();
+   }
+
+   private class SearchComponents
+   {
+      private final SnapBasedNodeChecker nodeChecker;
+      private final CostToGoHeuristics heuristics;
+      private final FootstepNodeExpansion expansion = new SimpleSideBasedExpansion();
+      private final FootstepCost stepCost;
+
+      private SearchComponents(String name)
+      {
+         YoVariableRegistry registry = new YoVariableRegistry(name);
+         nodeChecker = new SnapBasedNodeChecker(footPolygons, new SimplePlanarRegionFootstepNodeSnapper(footPolygons), registry);
+         heuristics = new DistanceAndYawBasedHeuristics(yawWeight, registry);
+         stepCost = new DistanceAndYawBasedCost(yawWeight, registry);
+      }
+   }
+}
@@ -0,0 +1,50 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotics.robotSide.RobotSide;
+
+public class FootstepNodeTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testLatticeKey()
+   {
+      Random random = new Random(2391L);
+
+      for (int i = 0; i < 10000; i++)
+      {
+         double x = 1000.0 * (random.nextDouble() - 0.5);
+         double y = 1000.0 * (random.nextDouble() - 0.5);
+         double yaw = 4.0 * Math.PI * (random.nextDouble() - 0.5);
+         RobotSide robotSide = random.nextBoolean() ? RobotSide.LEFT : RobotSide.RIGHT;
+
+         FootstepNode node = new FootstepNode(x, y, yaw, robotSide);
+         assertEquals(node.getLatticeKey(), FootstepNode.computeLatticeKey(x, y, yaw, robotSide));
+
+         FootstepNode nodeFromKey = FootstepNode.createFromLatticeKey(node.getLatticeKey());
+         assertEquals(node, nodeFromKey);
+         assertEquals(node.getXIndex(), nodeFromKey.getXIndex());
+         assertEquals(node.getYIndex(), nodeFromKey.getYIndex());
+         assertEquals(node.getYawIndex(), nodeFromKey.getYawIndex());
+         assertEquals(node.getRobotSide(), nodeFromKey.getRobotSide());
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testDifferentNodesHaveDifferentLatticeKeys()
+   {
+      FootstepNode node = new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT);
+      assertNotEquals(node.getLatticeKey(), new FootstepNode(0.0, 0.0, 0.0, RobotSide.RIGHT).getLatticeKey());
+      assertNotEquals(node.getLatticeKey(), new FootstepNode(FootstepNode.gridSizeX, 0.0, 0.0, RobotSide.LEFT).getLatticeKey());
+      assertNotEquals(node.getLatticeKey(), new FootstepNode(0.0, -FootstepNode.gridSizeY, 0.0, RobotSide.LEFT).getLatticeKey());
+      assertNotEquals(node.getLatticeKey(), new FootstepNode(0.0, 0.0, -FootstepNode.gridSizeYaw, RobotSide.LEFT).getLatticeKey());
+   }
+}
@@ -0,0 +1,128 @@
+package us.ihmc.footstepPlanning.aStar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class IndexedMinHeapTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testAgainstBruteForce()
+   {
+      Random random = new Random(8952L);
+      int numberOfIds = 500;
+      IndexedMinHeap heap = new IndexedMinHeap(4);
+
+      for (int iteration = 0; iteration < 20; iteration++)
+      {
+         heap.clear();
+         double[] keys = new double[numberOfIds];
+         boolean[] inHeap = new boolean[numberOfIds];
+
+         for (int i = 0; i < 5000; i++)
+         {
+            int id = random.nextInt(numberOfIds);
+            double key = random.nextDouble();
+
+            if (random.nextInt(3) == 0 && !heap.isEmpty())
+            {
+               int top = heap.poll();
+               assertTrue(inHeap[top]);
+               for (int other = 0; other < numberOfIds; other++)
+               {
+                  if (inHeap[other])
+                     assertTrue(keys[top] <= keys[other]);
+               }
+               inHeap[top] = false;
+               assertFalse(heap.contains(top));
+            }
+            else
+            {
+               heap.addOrUpdate(id, key);
+               keys[id] = key;
+               inHeap[id] = true;
+               assertTrue(heap.contains(id));
+               assertEquals(key, heap.getKey(id), 0.0);
+            }
+         }
+
+         int size = 0;
+         for (int id = 0; id < numberOfIds; id++)
+         {
+            if (inHeap[id])
+               size++;
+         }
+         assertEquals(size, heap.size());
+
+         double previousKey = Double.NEGATIVE_INFINITY;
+         while (!heap.isEmpty())
+         {
+            int top = heap.poll();
+            assertTrue(keys[top] >= previousKey);
+            previousKey = keys[top];
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSecondaryKeysAndRemove()
+   {
+      Random random = new Random(1274L);
+      int numberOfIds = 200;
+      IndexedMinHeap heap = new IndexedMinHeap(4);
+
+      double[] keys = new double[numberOfIds];
+      double[] secondaryKeys = new double[numberOfIds];
+      boolean[] inHeap = new boolean[numberOfIds];
+
+      for (int i = 0; i < 5000; i++)
+      {
+         int id = random.nextInt(numberOfIds);
+         int action = random.nextInt(3);
+
+         if (action == 0)
+         {
+            heap.remove(id);
+            inHeap[id] = false;
+            assertFalse(heap.contains(id));
+         }
+         else if (action == 1 && !heap.isEmpty())
+         {
+            int top = heap.poll();
+            assertTrue(inHeap[top]);
+            for (int other = 0; other < numberOfIds; other++)
+            {
+               if (inHeap[other])
+                  assertTrue(keys[top] < keys[other] || (keys[top] == keys[other] && secondaryKeys[top] <= secondaryKeys[other]));
+            }
+            inHeap[top] = false;
+         }
+         else
+         {
+            // Few distinct keys so the secondary keys are used
+            keys[id] = random.nextInt(5);
+            secondaryKeys[id] = random.nextDouble();
+            heap.addOrUpdate(id, keys[id], secondaryKeys[id]);
+            inHeap[id] = true;
+            assertEquals(secondaryKeys[id], heap.getSecondaryKey(id), 0.0);
+         }
+
+         int size = 0;
+         for (int other = 0; other < numberOfIds; other++)
+         {
+            if (inHeap[other])
+               size++;
+            assertEquals(inHeap[other], heap.contains(other));
+         }
+         assertEquals(size, heap.size());
+      }
+   }
+}
@@ -0,0 +1,144 @@
+package us.ihmc.footstepPlanning.aStar.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.footstepPlanning.aStar.FootstepNode;
+import us.ihmc.footstepPlanning.polygonSnapping.PlanarRegionsListExamples;
+import us.ihmc.footstepPlanning.testTools.PlanningTestTools;
+import us.ihmc.robotics.geometry.PlanarRegionsList;
+import us.ihmc.robotics.robotSide.RobotSide;
+import us.ihmc.robotics.robotSide.SideDependentList;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class CachingFootstepNodeSnapperTest
+{
+   private final SideDependentList<ConvexPolygon2D> footPolygons = PlanningTestTools.createDefaultFootPolygons();
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testCachedResultsMatchSnapper()
+   {
+      Random random = new Random(4271L);
+      PlanarRegionsList stairCase = PlanarRegionsListExamples.generateStairCase(new Vector3D());
+
+      SimplePlanarRegionFootstepNodeSnapper snapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons);
+      CachingFootstepNodeSnapper cachingSnapper = new CachingFootstepNodeSnapper(new SimplePlanarRegionFootstepNodeSnapper(footPolygons),
+                                                                                 new YoVariableRegistry("TestRegistry"));
+      snapper.setPlanarRegions(stairCase);
+      cachingSnapper.setPlanarRegions(stairCase);
+
+      FootstepNode[] nodes = new FootstepNode[50];
+      for (int i = 0; i < nodes.length; i++)
+         nodes[i] = new FootstepNode(3.0 * random.nextDouble() - 0.5, random.nextDouble() - 0.5, 0.5 * random.nextDouble(), RobotSide.generateRandomRobotSide(random));
+
+      for (int pass = 0; pass < 2; pass++)
+      {
+         for (FootstepNode node : nodes)
+            assertSameSnap(snapper, cachingSnapper, node);
+      }
+
+      assertEquals(cachingSnapper.getSize(), cachingSnapper.getNumberOfMisses());
+      assertTrue(cachingSnapper.getNumberOfMisses() <= nodes.length);
+      assertEquals(2 * nodes.length, cachingSnapper.getNumberOfHits() + cachingSnapper.getNumberOfMisses());
+      assertTrue(cachingSnapper.getHitRate() >= 0.5);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCacheIsClearedWhenRegionsChange()
+   {
+      PlanarRegionsList flatGround = PlanarRegionsListExamples.generateFlatGround(10.0, 10.0);
+      SimplePlanarRegionFootstepNodeSnapper snapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons);
+      CachingFootstepNodeSnapper cachingSnapper = new CachingFootstepNodeSnapper(new SimplePlanarRegionFootstepNodeSnapper(footPolygons),
+                                                                                 new YoVariableRegistry("TestRegistry"));
+      FootstepNode node = new FootstepNode(1.0, 1.0, 0.0, RobotSide.LEFT);
+
+      snapper.setPlanarRegions(flatGround);
+      cachingSnapper.setPlanarRegions(flatGround);
+      assertSameSnap(snapper, cachingSnapper, node);
+      assertEquals(1, cachingSnapper.getSize());
+      double groundHeight = snapper.snapFootstepNode(node, null).getTranslationZ();
+
+      // A new list with the same regions keeps the results
+      cachingSnapper.setPlanarRegions(flatGround.copy());
+      assertEquals(1, cachingSnapper.getSize());
+      assertSameSnap(snapper, cachingSnapper, node);
+      assertEquals(1, cachingSnapper.getNumberOfHits());
+
+      // Moving the regions changes the version of the list
+      RigidBodyTransform transform = new RigidBodyTransform();
+      transform.setTranslation(0.0, 0.0, 0.3);
+      long version = flatGround.getVersion();
+      flatGround.transform(transform);
+      assertTrue(flatGround.getVersion() != version);
+
+      cachingSnapper.setPlanarRegions(flatGround);
+      assertEquals(0, cachingSnapper.getSize());
+      assertSameSnap(snapper, cachingSnapper, node);
+      assertEquals(groundHeight + 0.3, cachingSnapper.snapFootstepNode(node, null).getTranslationZ(), 1.0e-10);
+
+      // Regions modified during a plan are detected as well
+      flatGround.transform(transform);
+      assertSameSnap(snapper, cachingSnapper, node);
+      assertEquals(groundHeight + 0.6, cachingSnapper.snapFootstepNode(node, null).getTranslationZ(), 1.0e-10);
+
+      cachingSnapper.setPlanarRegions(PlanarRegionsListExamples.generateFlatGround(1.0, 1.0));
+      assertEquals(0, cachingSnapper.getSize());
+      assertNull(cachingSnapper.snapFootstepNode(node, null));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testCacheIsBounded()
+   {
+      int maximumSize = 10;
+      PlanarRegionsList flatGround = PlanarRegionsListExamples.generateFlatGround(20.0, 20.0);
+      SimplePlanarRegionFootstepNodeSnapper snapper = new SimplePlanarRegionFootstepNodeSnapper(footPolygons);
+      CachingFootstepNodeSnapper cachingSnapper = new CachingFootstepNodeSnapper(new SimplePlanarRegionFootstepNodeSnapper(footPolygons), maximumSize,
+                                                                                 new YoVariableRegistry("TestRegistry"));
+      snapper.setPlanarRegions(flatGround);
+      cachingSnapper.setPlanarRegions(flatGround);
+
+      for (int i = 0; i < 5 * maximumSize; i++)
+      {
+         assertSameSnap(snapper, cachingSnapper, new FootstepNode(0.1 * i, 0.0, 0.0, RobotSide.LEFT));
+         assertTrue(cachingSnapper.getSize() <= maximumSize);
+      }
+
+      // The most recent nodes are still cached
+      long misses = cachingSnapper.getNumberOfMisses();
+      assertSameSnap(snapper, cachingSnapper, new FootstepNode(0.1 * (5 * maximumSize - 1), 0.0, 0.0, RobotSide.LEFT));
+      assertEquals(misses, cachingSnapper.getNumberOfMisses());
+
+      // The oldest ones were dropped
+      assertSameSnap(snapper, cachingSnapper, new FootstepNode(0.0, 0.0, 0.0, RobotSide.LEFT));
+      assertEquals(misses + 1, cachingSnapper.getNumberOfMisses());
+   }
+
+   private static void assertSameSnap(SimplePlanarRegionFootstepNodeSnapper snapper, CachingFootstepNodeSnapper cachingSnapper, FootstepNode node)
+   {
+      ConvexPolygon2D expectedFoothold = new ConvexPolygon2D();
+      ConvexPolygon2D foothold = new ConvexPolygon2D();
+      RigidBodyTransform expectedTransform = snapper.snapFootstepNode(node, expectedFoothold);
+      RigidBodyTransform transform = cachingSnapper.snapFootstepNode(node, foothold);
+
+      if (expectedTransform == null)
+      {
+         assertNull(transform);
+         return;
+      }
+
+      assertTrue(expectedTransform.epsilonEquals(transform, 1.0e-10));
+      assertTrue(expectedFoothold.epsilonEquals(foothold, 1.0e-10));
+   }
+}
@@ -57,6 +57,14 @@ public class PointCloudWorldPacket extends Packet<PointCloudWorldPacket>
          groundQuadTreeSupport[3 * i + 2] = (float) point.getZ();
       }
    }
+
+   /**
+    * @param packedPointCloud points packed as x, y, z, x, y, z, ... The array is used as is, not copied.
+    */
+   public void setGroundQuadTreeSupport(float[] packedPointCloud)
+   {
+      groundQuadTreeSupport = packedPointCloud;
+   }
    
    public void setDecayingWorldScan(Point3D[] pointCloud)
    {
@@ -82,6 +90,14 @@ public class PointCloudWorldPacket extends Packet<PointCloudWorldPacket>
       }
    }
 
+   /**
+    * @param packedPointCloud points packed as x, y, z, x, y, z, ... The array is used as is, not copied.
+    */
+   public void setDecayingWorldScan(float[] packedPointCloud)
+   {
+      decayingWorldScan = packedPointCloud;
+   }
+
    public Point3D32[] getGroundQuadTreeSupport()
    {
       
@@ -0,0 +1,228 @@
+package us.ihmc.manipulation.planning.rrt;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental KD-tree over the node data of the nodes of a <RRTTree>.
+ *
+ * Each new node is inserted as a leaf, the splitting axis cycling through the dimensions of the node data with the depth.
+ * As the nodes of a RRT are sampled randomly in the searching boundary, the tree stays balanced enough
+ * without rebuilding it, and a nearest node query costs O(log n) on average instead of O(n) for the linear scan.
+ *
+ * The node data is copied in a flat array when the node is added such that the queries do not have to go through the nodes.
+ * The data of a node should therefore not be modified once it has been added.
+ *
+ * The queries are not recursive and do not allocate once the internal arrays are large enough.
+ * This class is not thread-safe.
+ */
+public class RRTKDTree implements RRTNearestNeighborSearch
+{
+   private static final int NULL_INDEX = -1;
+   private static final int INITIAL_CAPACITY = 256;
+
+   private int dimension = 0;
+   private int numberOfNodes = 0;
+
+   private RRTNode[] nodes = new RRTNode[INITIAL_CAPACITY];
+   private double[] nodeData = new double[0];
+   private int[] leftChildren = new int[INITIAL_CAPACITY];
+   private int[] rightChildren = new int[INITIAL_CAPACITY];
+   private int[] splittingAxes = new int[INITIAL_CAPACITY];
+
+   private int[] searchStack = new int[64];
+   private double[] searchStackSquaredDistances = new double[64];
+
+   public RRTKDTree()
+   {
+   }
+
+   @Override
+   public void addNode(RRTNode node)
+   {
+      if (numberOfNodes == 0)
+      {
+         dimension = node.getDimensionOfNodeData();
+         if (nodeData.length < dimension * nodes.length)
+            nodeData = new double[dimension * nodes.length];
+      }
+      else if (node.getDimensionOfNodeData() != dimension)
+      {
+         throw new RuntimeException("Unexpected dimension of node data: " + node.getDimensionOfNodeData() + ", expected: " + dimension);
+      }
+
+      if (numberOfNodes == nodes.length)
+         grow();
+
+      int newIndex = numberOfNodes;
+      nodes[newIndex] = node;
+      for (int i = 0; i < dimension; i++)
+         nodeData[newIndex * dimension + i] = node.getNodeData(i);
+      leftChildren[newIndex] = NULL_INDEX;
+      rightChildren[newIndex] = NULL_INDEX;
+      numberOfNodes++;
+
+      if (newIndex == 0)
+      {
+         splittingAxes[newIndex] = 0;
+         return;
+      }
+
+      int currentIndex = 0;
+      while (true)
+      {
+         int axis = splittingAxes[currentIndex];
+         boolean goLeft = nodeData[newIndex * dimension + axis] < nodeData[currentIndex * dimension + axis];
+         int childIndex = goLeft ? leftChildren[currentIndex] : rightChildren[currentIndex];
+
+         if (childIndex == NULL_INDEX)
+         {
+            if (goLeft)
+               leftChildren[currentIndex] = newIndex;
+            else
+               rightChildren[currentIndex] = newIndex;
+            splittingAxes[newIndex] = (axis + 1) % dimension;
+            return;
+         }
+
+         currentIndex = childIndex;
+      }
+   }
+
+   @Override
+   public int getNumberOfNodes()
+   {
+      return numberOfNodes;
+   }
+
+   @Override
+   public RRTNode getNearestNode(RRTNode targetNode)
+   {
+      if (numberOfNodes == 0)
+         return null;
+
+      checkDimension(targetNode);
+
+      int optIndex = 0;
+      double optSquaredDistance = Double.POSITIVE_INFINITY;
+
+      int stackSize = 0;
+      searchStack[stackSize] = 0;
+      searchStackSquaredDistances[stackSize] = 0.0;
+      stackSize++;
+
+      while (stackSize > 0)
+      {
+         stackSize--;
+         int currentIndex = searchStack[stackSize];
+
+         // The splitting plane that led to this subtree is further than the best node found so far.
+         if (searchStackSquaredDistances[stackSize] >= optSquaredDistance)
+            continue;
+
+         double curSquaredDistance = computeSquaredDistance(targetNode, currentIndex);
+         if (curSquaredDistance < optSquaredDistance)
+         {
+            optSquaredDistance = curSquaredDistance;
+            optIndex = currentIndex;
+         }
+
+         int axis = splittingAxes[currentIndex];
+         double axisDifference = targetNode.getNodeData(axis) - nodeData[currentIndex * dimension + axis];
+         int nearChild = axisDifference < 0.0 ? leftChildren[currentIndex] : rightChildren[currentIndex];
+         int farChild = axisDifference < 0.0 ? rightChildren[currentIndex] : leftChildren[currentIndex];
+
+         // The far side is pushed first so the near side is explored first and tightens the bound.
+         if (farChild != NULL_INDEX)
+            stackSize = push(stackSize, farChild, axisDifference * axisDifference);
+         if (nearChild != NULL_INDEX)
+            stackSize = push(stackSize, nearChild, 0.0);
+      }
+
+      return nodes[optIndex];
+   }
+
+   @Override
+   public void getNodesWithinRadius(RRTNode targetNode, double radius, List<RRTNode> nodesToPack)
+   {
+      nodesToPack.clear();
+
+      if (numberOfNodes == 0)
+         return;
+
+      checkDimension(targetNode);
+
+      double squaredRadius = radius * radius;
+
+      int stackSize = 0;
+      searchStack[stackSize] = 0;
+      stackSize++;
+
+      while (stackSize > 0)
+      {
+         stackSize--;
+         int currentIndex = searchStack[stackSize];
+
+         if (computeSquaredDistance(targetNode, currentIndex) <= squaredRadius)
+            nodesToPack.add(nodes[currentIndex]);
+
+         int axis = splittingAxes[currentIndex];
+         double axisDifference = targetNode.getNodeData(axis) - nodeData[currentIndex * dimension + axis];
+         int leftChild = leftChildren[currentIndex];
+         int rightChild = rightChildren[currentIndex];
+
+         if (leftChild != NULL_INDEX && axisDifference <= radius)
+            stackSize = push(stackSize, leftChild, 0.0);
+         if (rightChild != NULL_INDEX && axisDifference >= -radius)
+            stackSize = push(stackSize, rightChild, 0.0);
+      }
+   }
+
+   @Override
+   public void clear()
+   {
+      Arrays.fill(nodes, 0, numberOfNodes, null);
+      numberOfNodes = 0;
+   }
+
+   private double computeSquaredDistance(RRTNode targetNode, int index)
+   {
+      double squaredDistance = 0.0;
+      int offset = index * dimension;
+      for (int i = 0; i < dimension; i++)
+      {
+         double difference = targetNode.getNodeData(i) - nodeData[offset + i];
+         squaredDistance += difference * difference;
+      }
+      return squaredDistance;
+   }
+
+   private int push(int stackSize, int index, double squaredDistanceToSplittingPlane)
+   {
+      if (stackSize == searchStack.length)
+      {
+         searchStack = Arrays.copyOf(searchStack, 2 * stackSize);
+         searchStackSquaredDistances = Arrays.copyOf(searchStackSquaredDistances, 2 * stackSize);
+      }
+
+      searchStack[stackSize] = index;
+      searchStackSquaredDistances[stackSize] = squaredDistanceToSplittingPlane;
+      return stackSize + 1;
+   }
+
+   private void checkDimension(RRTNode targetNode)
+   {
+      if (targetNode.getDimensionOfNodeData() != dimension)
+         throw new RuntimeException("Unexpected dimension of node data: " + targetNode.getDimensionOfNodeData() + ", expected: " + dimension);
+   }
+
+   private void grow()
+   {
+      int newCapacity = 2 * nodes.length;
+      nodes = Arrays.copyOf(nodes, newCapacity);
+      nodeData = Arrays.copyOf(nodeData, dimension * newCapacity);
+      leftChildren = Arrays.copyOf(leftChildren, newCapacity);
+      rightChildren = Arrays.copyOf(rightChildren, newCapacity);
+      splittingAxes = Arrays.copyOf(splittingAxes, newCapacity);
+   }
+}
@@ -0,0 +1,32 @@
+package us.ihmc.manipulation.planning.rrt;
+
+import java.util.List;
+
+/**
+ * Incremental index over the nodes of a <RRTTree> used to find the node of the tree nearest to a target node
+ * and the nodes of the tree within a given radius of a target node.
+ *
+ * Nodes are only added to the index, they are never removed.
+ * The distance used by the index is the euclidean distance of the node data, see RRTNode.getDistance(RRTNode).
+ *
+ * @see RRTKDTree
+ */
+public interface RRTNearestNeighborSearch
+{
+   public void addNode(RRTNode node);
+
+   public int getNumberOfNodes();
+
+   /**
+    * @return the indexed node the closest to {@code targetNode}, or null if the index is empty.
+    */
+   public RRTNode getNearestNode(RRTNode targetNode);
+
+   /**
+    * Packs every indexed node whose distance to {@code targetNode} is less than or equal to {@code radius}.
+    * {@code nodesToPack} is cleared first.
+    */
+   public void getNodesWithinRadius(RRTNode targetNode, double radius, List<RRTNode> nodesToPack);
+
+   public void clear();
+}
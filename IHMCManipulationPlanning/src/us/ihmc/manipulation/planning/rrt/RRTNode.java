@@ -85,6 +85,11 @@ public abstract class RRTNode implements RRTInterface
       childNode.setParentNode(this);
    }
 
+   public final boolean removeChildNode(RRTNode childNode)
+   {
+      return childRRTNode.remove(childNode);
+   }
+
    public final void setChildNode(int indexOfChild, RRTNode childNode)
    {
       childRRTNode.set(indexOfChild, childNode);
@@ -7,6 +7,7 @@ import us.ihmc.commons.PrintTools;
 /**
  * This class provides only expanding tree, expanding tree until reaching goal node and updating an optimal path.
  * The optimal path is just displacement minimizing straight-line shortcut.
+ * The near nodes are found with a <RRTKDTree>. Use getRRTTree().enableRewiring(radius) to grow the tree as RRT*.
  *  
  * @author InhoLee 170224
  *
@@ -27,6 +28,7 @@ public class RRTPlanner
 
       rrtTree = new RRTTree(this.rootNode);
       rrtTree.setStepLength(stepLength);
+      rrtTree.setNearestNeighborSearch(new RRTKDTree());
    }
 
    public void expandTreeWhole(int numberOfExpanding)
@@ -1,8 +1,11 @@
 package us.ihmc.manipulation.planning.rrt;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
+import gnu.trove.map.hash.TObjectDoubleHashMap;
 import us.ihmc.commons.PrintTools;
 
 /**
@@ -23,6 +26,13 @@ import us.ihmc.commons.PrintTools;
  * <expandTree> find random node with uniform random value in boundary.
  * Voronoi diagram will be added in near future.
  * 
+ * By default the near node is found by scanning all nodes of the tree with getMatric.
+ * A <RRTNearestNeighborSearch> such as <RRTKDTree> can be set with setNearestNeighborSearch to find it in O(log n) instead,
+ * which is only valid when getMatric is the euclidean distance of the node data.
+ * 
+ * <enableRewiring> switches the tree to RRT*. The parent of a new node is the node within the rewiring radius minimizing the cost from the root node,
+ * and the nodes within the rewiring radius are reconnected to the new node when it shortens their path to the root node.
+ * 
  * @author InhoLee 170217
  *
  */
@@ -41,6 +51,14 @@ public class RRTTree
    public ArrayList<RRTNode> failNodes = new ArrayList<RRTNode>();
 
    protected RRTNode nodeCreator;
+
+   private RRTNearestNeighborSearch nearestNeighborSearch = null;
+
+   private double rewiringRadius = 0.0;
+   private final TObjectDoubleHashMap<RRTNode> costsFromRoot = new TObjectDoubleHashMap<RRTNode>();
+   private final ArrayList<RRTNode> nodesWithinRewiringRadius = new ArrayList<RRTNode>();
+   private final ArrayList<RRTNode> nodesWithUnknownCost = new ArrayList<RRTNode>();
+   private final ArrayDeque<RRTNode> subtreeNodesToUpdate = new ArrayDeque<RRTNode>();
    
    // numberOfNodes, ArrayList<RRTNode> nodes. every node of the nodes has its parent node.
 
@@ -71,6 +89,49 @@ public class RRTTree
       this.lowerBoundNode = lowerBoundNode;
    }
 
+   /**
+    * Sets the index used to find the near node and the nodes within a radius. When null, every node of the tree is scanned.
+    * The index uses the euclidean distance of the node data, it should not be used when getMatric is overridden with another distance.
+    */
+   public void setNearestNeighborSearch(RRTNearestNeighborSearch nearestNeighborSearch)
+   {
+      this.nearestNeighborSearch = nearestNeighborSearch;
+      if (nearestNeighborSearch != null)
+         nearestNeighborSearch.clear();
+   }
+
+   public RRTNearestNeighborSearch getNearestNeighborSearch()
+   {
+      return nearestNeighborSearch;
+   }
+
+   /**
+    * Enables the RRT* mode: new nodes are connected to the node minimizing their cost from the root node among the nodes within {@code rewiringRadius},
+    * and these nodes are reconnected to the new node when it reduces their cost.
+    * The radius is typically a few step lengths.
+    */
+   public void enableRewiring(double rewiringRadius)
+   {
+      if (rewiringRadius <= 0.0)
+         throw new RuntimeException("The rewiring radius should be positive, was: " + rewiringRadius);
+      this.rewiringRadius = rewiringRadius;
+   }
+
+   public void disableRewiring()
+   {
+      rewiringRadius = 0.0;
+   }
+
+   public boolean isRewiringEnabled()
+   {
+      return rewiringRadius > 0.0;
+   }
+
+   public double getRewiringRadius()
+   {
+      return rewiringRadius;
+   }
+
    // User can override
    public double getMatric(RRTNode nodeOne, RRTNode nodeTwo)
    {
@@ -109,6 +170,13 @@ public class RRTTree
 
    public void updateNearNodeForTargetNode(RRTNode targetNode)
    {
+      if (nearestNeighborSearch != null)
+      {
+         updateNearestNeighborSearch();
+         this.nearNode = nearestNeighborSearch.getNearestNode(targetNode);
+         return;
+      }
+
       RRTNode optNode = this.wholeNodes.get(0);
       RRTNode curNode;
 
@@ -128,7 +196,38 @@ public class RRTTree
       
       this.nearNode = optNode;
    }
-   
+
+   /**
+    * Packs the nodes of the tree for which getMatric(node, targetNode) is less than or equal to {@code radius}.
+    */
+   public void getNodesWithinRadius(RRTNode targetNode, double radius, List<RRTNode> nodesToPack)
+   {
+      if (nearestNeighborSearch != null)
+      {
+         updateNearestNeighborSearch();
+         nearestNeighborSearch.getNodesWithinRadius(targetNode, radius, nodesToPack);
+         return;
+      }
+
+      nodesToPack.clear();
+      for (int i = 0; i < this.wholeNodes.size(); i++)
+      {
+         RRTNode curNode = this.wholeNodes.get(i);
+         if (getMatric(curNode, targetNode) <= radius)
+            nodesToPack.add(curNode);
+      }
+   }
+
+   /**
+    * The index is filled lazily from wholeNodes such that the nodes added by subclasses directly to wholeNodes are indexed as well.
+    */
+   private void updateNearestNeighborSearch()
+   {
+      for (int i = nearestNeighborSearch.getNumberOfNodes(); i < this.wholeNodes.size(); i++)
+      {
+         nearestNeighborSearch.addNode(this.wholeNodes.get(i));
+      }
+   }
 
    public RRTNode getNewNode(RRTNode targetNode)
    {
@@ -152,6 +251,11 @@ public class RRTTree
    {
       if (this.newNode.isValidNode() == true)
       {
+         if (isRewiringEnabled())
+         {
+            return addNewNodeAndRewire();
+         }
+
          RRTValidConnection rrtValidConnection = new RRTValidConnection(this.nearNode, this.newNode);
          if (rrtValidConnection.isValidConnection())
          {
@@ -167,6 +271,105 @@ public class RRTTree
       return false;
    }
 
+   private boolean addNewNodeAndRewire()
+   {
+      getNodesWithinRadius(this.newNode, rewiringRadius, nodesWithinRewiringRadius);
+
+      RRTNode optParentNode = null;
+      double optCost = Double.MAX_VALUE;
+
+      if (new RRTValidConnection(this.nearNode, this.newNode).isValidConnection())
+      {
+         optParentNode = this.nearNode;
+         optCost = getCostFromRoot(this.nearNode) + getMatric(this.nearNode, this.newNode);
+      }
+
+      for (int i = 0; i < nodesWithinRewiringRadius.size(); i++)
+      {
+         RRTNode curNode = nodesWithinRewiringRadius.get(i);
+         if (curNode == this.nearNode)
+            continue;
+
+         double curCost = getCostFromRoot(curNode) + getMatric(curNode, this.newNode);
+         if (curCost < optCost && new RRTValidConnection(curNode, this.newNode).isValidConnection())
+         {
+            optCost = curCost;
+            optParentNode = curNode;
+         }
+      }
+
+      if (optParentNode == null)
+         return false;
+
+      this.nearNode = optParentNode;
+      nearNode.addChildNode(this.newNode);
+      wholeNodes.add(newNode);
+      costsFromRoot.put(newNode, optCost);
+
+      for (int i = 0; i < nodesWithinRewiringRadius.size(); i++)
+      {
+         RRTNode curNode = nodesWithinRewiringRadius.get(i);
+         if (curNode == optParentNode || curNode == rootNode)
+            continue;
+
+         double curCost = optCost + getMatric(this.newNode, curNode);
+         if (curCost < getCostFromRoot(curNode) && new RRTValidConnection(this.newNode, curNode).isValidConnection())
+         {
+            curNode.getParentNode().removeChildNode(curNode);
+            this.newNode.addChildNode(curNode);
+            costsFromRoot.put(curNode, curCost);
+            updateCostsOfDescendants(curNode);
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * @return the sum of getMatric along the branches from the root node to the given node.
+    */
+   public double getCostFromRoot(RRTNode node)
+   {
+      RRTNode curNode = node;
+      nodesWithUnknownCost.clear();
+
+      while (curNode != rootNode && !costsFromRoot.containsKey(curNode))
+      {
+         nodesWithUnknownCost.add(curNode);
+         curNode = curNode.getParentNode();
+      }
+
+      double cost = curNode == rootNode ? 0.0 : costsFromRoot.get(curNode);
+
+      for (int i = nodesWithUnknownCost.size() - 1; i >= 0; i--)
+      {
+         RRTNode childNode = nodesWithUnknownCost.get(i);
+         cost = cost + getMatric(childNode.getParentNode(), childNode);
+         costsFromRoot.put(childNode, cost);
+      }
+
+      return cost;
+   }
+
+   private void updateCostsOfDescendants(RRTNode node)
+   {
+      subtreeNodesToUpdate.clear();
+      subtreeNodesToUpdate.add(node);
+
+      while (!subtreeNodesToUpdate.isEmpty())
+      {
+         RRTNode parentNode = subtreeNodesToUpdate.poll();
+         double parentCost = costsFromRoot.get(parentNode);
+
+         for (int i = 0; i < parentNode.getNumberOfChild(); i++)
+         {
+            RRTNode childNode = parentNode.getChildNode(i);
+            costsFromRoot.put(childNode, parentCost + getMatric(parentNode, childNode));
+            subtreeNodesToUpdate.add(childNode);
+         }
+      }
+   }
+
    public void updatePathNode(RRTNode endNodeOfPath)
    {
       this.pathNode.clear();
@@ -0,0 +1,208 @@
+package us.ihmc.manipulation.planning.rrt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class RRTKDTreeTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testNearestNodeAgainstLinearScan()
+   {
+      Random random = new Random(1776L);
+
+      for (int dimension = 1; dimension <= 6; dimension++)
+      {
+         RRTKDTree kdTree = new RRTKDTree();
+         ArrayList<RRTNode> nodes = new ArrayList<RRTNode>();
+
+         for (int i = 0; i < 2000; i++)
+         {
+            RRTNode node = createRandomNode(random, dimension);
+            kdTree.addNode(node);
+            nodes.add(node);
+
+            RRTNode targetNode = createRandomNode(random, dimension);
+            RRTNode expectedNode = nodes.get(0);
+            for (int j = 1; j < nodes.size(); j++)
+            {
+               if (nodes.get(j).getDistance(targetNode) < expectedNode.getDistance(targetNode))
+                  expectedNode = nodes.get(j);
+            }
+
+            assertEquals(expectedNode.getDistance(targetNode), kdTree.getNearestNode(targetNode).getDistance(targetNode), 1.0e-12);
+         }
+
+         assertEquals(nodes.size(), kdTree.getNumberOfNodes());
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testNodesWithinRadiusAgainstLinearScan()
+   {
+      Random random = new Random(1777L);
+      int dimension = 3;
+      RRTKDTree kdTree = new RRTKDTree();
+      ArrayList<RRTNode> nodes = new ArrayList<RRTNode>();
+      ArrayList<RRTNode> nodesWithinRadius = new ArrayList<RRTNode>();
+
+      for (int i = 0; i < 5000; i++)
+      {
+         RRTNode node = createRandomNode(random, dimension);
+         kdTree.addNode(node);
+         nodes.add(node);
+      }
+
+      for (int i = 0; i < 500; i++)
+      {
+         RRTNode targetNode = createRandomNode(random, dimension);
+         double radius = random.nextDouble() * 3.0;
+         kdTree.getNodesWithinRadius(targetNode, radius, nodesWithinRadius);
+
+         int expectedNumberOfNodes = 0;
+         for (int j = 0; j < nodes.size(); j++)
+         {
+            if (nodes.get(j).getDistance(targetNode) <= radius)
+            {
+               expectedNumberOfNodes++;
+               assertTrue(nodesWithinRadius.contains(nodes.get(j)));
+            }
+         }
+         assertEquals(expectedNumberOfNodes, nodesWithinRadius.size());
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testTreeGrowsTheSameWithAndWithoutKDTree()
+   {
+      RRTTree linearTree = createTree(new RRTNode2D(0.0, 0.0));
+      RRTTree kdTreeTree = createTree(new RRTNode2D(0.0, 0.0));
+      kdTreeTree.setNearestNeighborSearch(new RRTKDTree());
+
+      Random random = new Random(1778L);
+      for (int i = 0; i < 1000; i++)
+      {
+         double px = -5.0 + 10.0 * random.nextDouble();
+         double py = -4.0 + 8.0 * random.nextDouble();
+         // Each tree gets its own target node as it may become the new node of the tree.
+         RRTNode2D targetNode = new RRTNode2D(px, py);
+         assertEquals(linearTree.expandTree(new RRTNode2D(px, py)), kdTreeTree.expandTree(targetNode));
+         assertEquals(linearTree.getNearNode().getDistance(targetNode), kdTreeTree.getNearNode().getDistance(targetNode), 1.0e-12);
+      }
+
+      assertEquals(linearTree.getWholeNode().size(), kdTreeTree.getWholeNode().size());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testRewiringKeepsConsistentCosts()
+   {
+      RRTTree tree = createTree(new RRTNode2D(0.0, 0.0));
+      tree.setNearestNeighborSearch(new RRTKDTree());
+      tree.enableRewiring(1.0);
+      RRTTree plainTree = createTree(new RRTNode2D(0.0, 0.0));
+      plainTree.setNearestNeighborSearch(new RRTKDTree());
+
+      Random random = new Random(1779L);
+      for (int i = 0; i < 2000; i++)
+      {
+         double px = -5.0 + 10.0 * random.nextDouble();
+         double py = -4.0 + 8.0 * random.nextDouble();
+         tree.expandTree(new RRTNode2D(px, py));
+         plainTree.expandTree(new RRTNode2D(px, py));
+      }
+
+      ArrayList<RRTNode> wholeNodes = tree.getWholeNode();
+      int numberOfNodesInTree = 1;
+      for (int i = 0; i < wholeNodes.size(); i++)
+      {
+         RRTNode node = wholeNodes.get(i);
+         numberOfNodesInTree += node.getNumberOfChild();
+
+         if (node == tree.getRootNode())
+         {
+            assertEquals(0.0, tree.getCostFromRoot(node), 0.0);
+            continue;
+         }
+
+         RRTNode parentNode = node.getParentNode();
+         assertEquals(tree.getCostFromRoot(parentNode) + parentNode.getDistance(node), tree.getCostFromRoot(node), 1.0e-9);
+         // The cost from root can not be lower than the straight line distance.
+         assertTrue(tree.getCostFromRoot(node) >= tree.getRootNode().getDistance(node) - 1.0e-9);
+      }
+
+      // Every node has exactly one parent after the rewiring.
+      assertEquals(wholeNodes.size(), numberOfNodesInTree);
+
+      // Fed with the same samples, the rewired tree reaches the goal region at a lower cost than the plain tree.
+      RRTNode2D goalNode = new RRTNode2D(4.0, 3.0);
+      double goalRadius = 0.5;
+      double cost = getLowestCostWithinRadius(tree, goalNode, goalRadius);
+      double plainCost = getLowestCostWithinRadius(plainTree, goalNode, goalRadius);
+      assertTrue(cost < Double.POSITIVE_INFINITY);
+      assertTrue(plainCost < Double.POSITIVE_INFINITY);
+      assertTrue("RRT* cost: " + cost + ", RRT cost: " + plainCost, cost <= plainCost);
+   }
+
+   private static double getLowestCostWithinRadius(RRTTree tree, RRTNode targetNode, double radius)
+   {
+      ArrayList<RRTNode> nodesWithinRadius = new ArrayList<RRTNode>();
+      tree.getNodesWithinRadius(targetNode, radius, nodesWithinRadius);
+
+      double lowestCost = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < nodesWithinRadius.size(); i++)
+         lowestCost = Math.min(lowestCost, tree.getCostFromRoot(nodesWithinRadius.get(i)));
+      return lowestCost;
+   }
+
+   private static RRTTree createTree(RRTNode rootNode)
+   {
+      RRTTree tree = new RRTTree(rootNode);
+      tree.setStepLength(0.3);
+      tree.setUpperBound(new RRTNode2D(5.0, 4.0));
+      tree.setLowerBound(new RRTNode2D(-5.0, -4.0));
+      return tree;
+   }
+
+   private static RRTNode createRandomNode(Random random, int dimension)
+   {
+      RRTNode node = new RRTNodeND(dimension);
+      for (int i = 0; i < dimension; i++)
+         node.setNodeData(i, -5.0 + 10.0 * random.nextDouble());
+      return node;
+   }
+
+   private static class RRTNodeND extends RRTNode
+   {
+      public RRTNodeND(int dimension)
+      {
+         super(dimension);
+      }
+
+      @Override
+      public boolean isValidNode()
+      {
+         return true;
+      }
+
+      @Override
+      public RRTNode createNode()
+      {
+         return new RRTNodeND(getDimensionOfNodeData());
+      }
+
+      @Override
+      public void setRandomNodeData()
+      {
+      }
+   }
+}
@@ -6,13 +6,17 @@ import us.ihmc.commons.time.Stopwatch;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 
 public class AsyncPointCloudReceiver implements PointCloudDataReceiverInterface
 {
    private final boolean DEBUG = false;
    private Stopwatch timer = DEBUG ? new Stopwatch().start() : null;
 
+   /** Only one of the two is set, depending on how the last point cloud was received. The other is created when asked for. */
    private volatile ArrayList<Point3D> pointsInWorldFrame;
+   /** Packed as x, y, z, x, y, z, ... in double precision so points far from the world origin keep their resolution. */
+   private volatile double[] packedPointsInWorldFrame;
    private volatile double groundHeight;
    private volatile long timestamp;
 
@@ -20,11 +24,7 @@ public class AsyncPointCloudReceiver implements PointCloudDataReceiverInterface
    public void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long[] timestamps, ArrayList<Point3D> points,
          PointCloudSource... sources)
    {
-      if(DEBUG)
-      {
-         System.out.println(getClass().getSimpleName() + ": Received point cloud in " + scanFrame.getName() + " frame @ "
-               + 1.0 / timer.lap() + " FPS from " + Thread.currentThread().getName());
-      }
+      printDebug(scanFrame);
 
       if(timestamps.length > 0)
       {
@@ -42,17 +42,86 @@ public class AsyncPointCloudReceiver implements PointCloudDataReceiverInterface
          synchronized(this)
          {
             pointsInWorldFrame = points;
+            packedPointsInWorldFrame = null;
             groundHeight = localGroundHeight;
             timestamp = timestamps[0];
          }
       }
    }
 
+   @Override
+   public void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, PrimitivePointCloud pointCloud, PointCloudSource... sources)
+   {
+      printDebug(scanFrame);
+
+      if(pointCloud.size() > 0)
+      {
+         lidarFrame.update();
+         double[] packedPoints = new double[3 * pointCloud.size()];
+         pointCloud.transform(lidarFrame.getTransformToWorldFrame(), packedPoints);
+
+         double localGroundHeight = Double.MAX_VALUE;
+         for(int i = 0; i < pointCloud.size(); i++)
+         {
+            if(packedPoints[3 * i + 2] < localGroundHeight) localGroundHeight = packedPoints[3 * i + 2];
+         }
+
+         synchronized(this)
+         {
+            pointsInWorldFrame = null;
+            packedPointsInWorldFrame = packedPoints;
+            groundHeight = localGroundHeight;
+            timestamp = pointCloud.getTimestamp(0);
+         }
+      }
+   }
+
+   private void printDebug(ReferenceFrame scanFrame)
+   {
+      if(DEBUG)
+      {
+         System.out.println(getClass().getSimpleName() + ": Received point cloud in " + scanFrame.getName() + " frame @ "
+               + 1.0 / timer.lap() + " FPS from " + Thread.currentThread().getName());
+      }
+   }
+
    public synchronized ArrayList<Point3D> getPointsInWorldFrame()
    {
+      if (pointsInWorldFrame == null && packedPointsInWorldFrame != null)
+      {
+         int numberOfPoints = packedPointsInWorldFrame.length / 3;
+         ArrayList<Point3D> points = new ArrayList<>(numberOfPoints);
+         for (int i = 0; i < numberOfPoints; i++)
+         {
+            points.add(new Point3D(packedPointsInWorldFrame[3 * i], packedPointsInWorldFrame[3 * i + 1], packedPointsInWorldFrame[3 * i + 2]));
+         }
+         pointsInWorldFrame = points;
+      }
+
       return pointsInWorldFrame;
    }
 
+   /**
+    * @return the points of the last point cloud packed as x, y, z, x, y, z, ... in world frame.
+    */
+   public synchronized double[] getPackedPointsInWorldFrame()
+   {
+      if (packedPointsInWorldFrame == null && pointsInWorldFrame != null)
+      {
+         double[] packedPoints = new double[3 * pointsInWorldFrame.size()];
+         for (int i = 0; i < pointsInWorldFrame.size(); i++)
+         {
+            Point3D point = pointsInWorldFrame.get(i);
+            packedPoints[3 * i] = point.getX();
+            packedPoints[3 * i + 1] = point.getY();
+            packedPoints[3 * i + 2] = point.getZ();
+         }
+         packedPointsInWorldFrame = packedPoints;
+      }
+
+      return packedPointsInWorldFrame;
+   }
+
    public synchronized double getGroundHeight()
    {
       return groundHeight;
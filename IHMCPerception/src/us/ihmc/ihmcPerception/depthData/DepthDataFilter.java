@@ -10,6 +10,9 @@ public class DepthDataFilter extends DepthDataStore
    // See DRCManualLidarTransform and DRCLidarVisualizationManager. This is a bit of a hack but less likely to have unintended consequences.
    private final RigidBodyTransform worldToCorrected = new RigidBodyTransform();
 
+   private final Point3D scanPoint = new Point3D();
+   private double[] quadTreePoints = new double[0];
+
 
    public DepthDataFilter()
    {
@@ -59,6 +62,72 @@ public class DepthDataFilter extends DepthDataStore
       return send;
    }
    
+   /**
+    * Filters the points of a whole scan like {@link #addQuatreePoint(Point3D, Point3D)} and adds the
+    * remaining ones to the quad tree in one batch.
+    *
+    * @param points the scan in world frame, packed as x, y, z, x, y, z, ...
+    */
+   public boolean addQuadTreePoints(double[] points, int numberOfPoints, Point3D sensorOrigin)
+   {
+      int numberOfQuadTreePoints = 0;
+      ensureQuadTreePointsCapacity(numberOfPoints);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         scanPoint.set(points[3 * i], points[3 * i + 1], points[3 * i + 2]);
+         numberOfQuadTreePoints = filterQuadTreePoint(scanPoint, sensorOrigin, numberOfQuadTreePoints);
+      }
+
+      return quadTree.addPoints(quadTreePoints, numberOfQuadTreePoints);
+   }
+
+   /**
+    * Same as {@link #addQuadTreePoints(double[], int, Point3D)} for a scan in single precision.
+    */
+   public boolean addQuadTreePoints(float[] points, int numberOfPoints, Point3D sensorOrigin)
+   {
+      int numberOfQuadTreePoints = 0;
+      ensureQuadTreePointsCapacity(numberOfPoints);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         scanPoint.set(points[3 * i], points[3 * i + 1], points[3 * i + 2]);
+         numberOfQuadTreePoints = filterQuadTreePoint(scanPoint, sensorOrigin, numberOfQuadTreePoints);
+      }
+
+      return quadTree.addPoints(quadTreePoints, numberOfQuadTreePoints);
+   }
+
+   private void ensureQuadTreePointsCapacity(int numberOfPoints)
+   {
+      if (quadTreePoints.length < 3 * numberOfPoints)
+         quadTreePoints = new double[3 * numberOfPoints];
+   }
+
+   /**
+    * Appends the point to the points to add to the quad tree if it passes the same filters as in
+    * {@link #addQuatreePoint(Point3D, Point3D)}.
+    *
+    * @return the new number of points to add.
+    */
+   private int filterQuadTreePoint(Point3D point, Point3D sensorOrigin, int numberOfQuadTreePoints)
+   {
+      if (!pointInRange(point, sensorOrigin))
+         return numberOfQuadTreePoints;
+
+      if (DepthDataFilterParameters.LIDAR_ADJUSTMENT_ACTIVE)
+         worldToCorrected.transform(point);
+
+      if (!isValidPoint(point, sensorOrigin) || !isPossibleGround(point, sensorOrigin))
+         return numberOfQuadTreePoints;
+
+      quadTreePoints[3 * numberOfQuadTreePoints] = point.getX();
+      quadTreePoints[3 * numberOfQuadTreePoints + 1] = point.getY();
+      quadTreePoints[3 * numberOfQuadTreePoints + 2] = point.getZ();
+      return numberOfQuadTreePoints + 1;
+   }
+
    public boolean addPoint(Point3D point,Point3D sensorOrigin)
    {
       return addNearScanPoint(point, sensorOrigin)| addQuatreePoint(point, sensorOrigin);
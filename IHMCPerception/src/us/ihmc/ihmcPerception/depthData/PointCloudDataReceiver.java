@@ -25,6 +25,7 @@ import us.ihmc.humanoidRobotics.communication.packets.sensing.MultisenseTest;
 import us.ihmc.humanoidRobotics.kryo.PPSTimestampOffsetProvider;
 import us.ihmc.robotModels.FullHumanoidRobotModel;
 import us.ihmc.robotModels.FullHumanoidRobotModelFactory;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.robotics.robotSide.RobotSide;
 import us.ihmc.robotics.robotSide.SideDependentList;
 import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
@@ -52,6 +53,16 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
    private final PacketCommunicator sensorSuitePacketCommunicator;
    private boolean DEBUG_WITH_MOCAP = false;
 
+   private final RigidBodyTransform scanFrameToWorld = new RigidBodyTransform();
+   private final Point3D scanPoint = new Point3D();
+   private final Point3D lidarOrigin = new Point3D();
+   /**
+    * Points going to the quad tree, added in one batch for each robot configuration. They are in world frame, so they are
+    * kept in double precision.
+    */
+   private double[] quadTreePoints = new double[3 * 1024];
+   private int numberOfQuadTreePoints = 0;
+
    public PointCloudDataReceiver(FullHumanoidRobotModelFactory modelFactory, CollisionBoxProvider collisionBoxProvider,
          PPSTimestampOffsetProvider ppsTimestampOffsetProvider, RobotContactPointParameters contactPointParameters,
          RobotConfigurationDataBuffer robotConfigurationDataBuffer, PacketCommunicator sensorSuitePacketCommunicator)
@@ -130,7 +141,11 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
                   if(cloudSource == PointCloudSource.NEARSCAN)
                   {
                      Point3D[] points = new Point3D[data.points.size()];
-                     points = data.points.toArray(points);
+                     for (int i = 0; i < points.length; i++)
+                     {
+                        points[i] = new Point3D();
+                        data.points.getPoint(i, points[i]);
+                     }
                      MultisenseMocapExperimentPacket packet = new MultisenseMocapExperimentPacket();
                      packet.setPointCloud(points, MultisenseTest.NEAR_SCAN_IN_POINT_CLOUD_DATA_RECEIVER);
                      sensorSuitePacketCommunicator.send(packet);
@@ -166,13 +181,18 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
             if (data != null && sendData.get())
             {
                long prevTimestamp = -1;
+               PrimitivePointCloud points = data.points;
+               scanFrameToWorld.setIdentity();
+               numberOfQuadTreePoints = 0;
 
-               RigidBodyTransform scanFrameToWorld = new RigidBodyTransform();
-               for (int i = 0; i < data.points.size(); i++)
+               for (int i = 0; i < points.size(); i++)
                {
-                  long nextTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(data.timestamps[i]);
+                  long nextTimestamp = ppsTimestampOffsetProvider.adjustTimeStampToRobotClock(points.getTimestamp(i));
                   if (nextTimestamp != prevTimestamp)
                   {
+                     // The quad tree filter uses the robot configuration, the points seen with the previous one are added first
+                     addQuadTreePoints();
+
                      if (robotConfigurationDataBuffer.updateFullRobotModel(true, nextTimestamp, fullRobotModel, null) == -1)
                      {
                         continue;
@@ -182,34 +202,32 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
                         collisionBoxNode.update();
                      }
                      prevTimestamp = nextTimestamp;
+
+                     if (!data.scanFrame.isWorldFrame())
+                     {
+                        data.scanFrame.getTransformToDesiredFrame(scanFrameToWorld, ReferenceFrame.getWorldFrame());
+                     }
+                     lidarOrigin.setToZero();
+                     data.lidarFrame.getTransformToWorldFrame().transform(lidarOrigin);
                   }
 
-                  Point3D pointInWorld;
+                  points.getPoint(i, scanPoint);
                   if (!data.scanFrame.isWorldFrame())
                   {
-                     data.scanFrame.getTransformToDesiredFrame(scanFrameToWorld, ReferenceFrame.getWorldFrame());
-
-                     pointInWorld = data.points.get(i);
-                     scanFrameToWorld.transform(pointInWorld);
-                  }
-                  else
-                  {
-                     pointInWorld = data.points.get(i);
+                     scanFrameToWorld.transform(scanPoint);
                   }
 
-                  Point3D origin = new Point3D();
-                  data.lidarFrame.getTransformToWorldFrame().transform(origin);
-                  if (collisionBoxNode == null || !collisionBoxNode.contains(pointInWorld) || depthDataFilter.getParameters().boundingBoxScale<=0)
+                  if (collisionBoxNode == null || !collisionBoxNode.contains(scanPoint) || depthDataFilter.getParameters().boundingBoxScale<=0)
                   {
                      for (PointCloudSource cloudSource : data.sources)
                      {
                         switch (cloudSource)
                         {
                         case NEARSCAN:
-                           depthDataFilter.addNearScanPoint(pointInWorld, origin);
+                           depthDataFilter.addNearScanPoint(scanPoint, lidarOrigin);
                            break;
                         case QUADTREE:
-                           depthDataFilter.addQuatreePoint(pointInWorld, origin);
+                           addQuadTreePoint(scanPoint);
                            break;
                         default:
                            System.out.println(getClass().getSimpleName() + " unrecognized cloud source " + cloudSource.name());
@@ -218,6 +236,8 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
                   }
                }
 
+               addQuadTreePoints();
+
                if (sendData.get())
                   pointCloudWorldPacketGenerator.setLidarPose(scanFrameToWorld);
             }
@@ -231,6 +251,30 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
       }
    }
 
+   private void addQuadTreePoint(Point3D point)
+   {
+      if (quadTreePoints.length < 3 * (numberOfQuadTreePoints + 1))
+      {
+         double[] newQuadTreePoints = new double[2 * quadTreePoints.length];
+         System.arraycopy(quadTreePoints, 0, newQuadTreePoints, 0, 3 * numberOfQuadTreePoints);
+         quadTreePoints = newQuadTreePoints;
+      }
+
+      quadTreePoints[3 * numberOfQuadTreePoints] = point.getX();
+      quadTreePoints[3 * numberOfQuadTreePoints + 1] = point.getY();
+      quadTreePoints[3 * numberOfQuadTreePoints + 2] = point.getZ();
+      numberOfQuadTreePoints++;
+   }
+
+   private void addQuadTreePoints()
+   {
+      if (numberOfQuadTreePoints > 0)
+      {
+         depthDataFilter.addQuadTreePoints(quadTreePoints, numberOfQuadTreePoints, lidarOrigin);
+         numberOfQuadTreePoints = 0;
+      }
+   }
+
    /**
     * Receive new data. Data is stored in a queue, so do not reuse!
     * @param scanFrame
@@ -248,7 +292,18 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
          throw new RuntimeException("Number of timestamps does not match number of points");
       }
 
-      dataQueue.offer(new PointCloudData(scanFrame, lidarFrame, timestamps, points, sources));
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud(points.size());
+      pointCloud.addAll(points, timestamps);
+      dataQueue.offer(new PointCloudData(scanFrame, lidarFrame, pointCloud, sources));
+   }
+
+   /**
+    * Receive new data. Data is stored in a queue, so do not reuse!
+    */
+   @Override
+   public void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, PrimitivePointCloud pointCloud, PointCloudSource... sources)
+   {
+      dataQueue.offer(new PointCloudData(scanFrame, lidarFrame, pointCloud, sources));
    }
 
    @Override
@@ -362,14 +417,12 @@ public class PointCloudDataReceiver extends Thread implements ConnectionStateLis
       public PointCloudSource[] sources;
       private ReferenceFrame scanFrame;
       private ReferenceFrame lidarFrame;
-      private long[] timestamps;
-      private ArrayList<Point3D> points;
+      private PrimitivePointCloud points;
 
-      public PointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long[] timestamps, ArrayList<Point3D> points, PointCloudSource[] sources)
+      public PointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, PrimitivePointCloud points, PointCloudSource[] sources)
       {
          this.scanFrame = scanFrame;
          this.lidarFrame = lidarFrame;
-         this.timestamps = timestamps;
          this.points = points;
          this.sources = sources;
       }
@@ -4,9 +4,26 @@ import java.util.ArrayList;
 
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 
 public interface PointCloudDataReceiverInterface
 {
    void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, long[] timestamps, ArrayList<Point3D> points, PointCloudSource... sources);
 
+   /**
+    * Receive new data without one object per point. The point cloud may be kept by the receiver, so
+    * do not reuse it! Receivers that only handle lists of points get a copy of the cloud.
+    */
+   default void receivedPointCloudData(ReferenceFrame scanFrame, ReferenceFrame lidarFrame, PrimitivePointCloud pointCloud, PointCloudSource... sources)
+   {
+      long[] timestamps = new long[pointCloud.size()];
+      ArrayList<Point3D> points = new ArrayList<>(pointCloud.size());
+      for (int i = 0; i < pointCloud.size(); i++)
+      {
+         timestamps[i] = pointCloud.getTimestamp(i);
+         points.add(new Point3D(pointCloud.getX(i), pointCloud.getY(i), pointCloud.getZ(i)));
+      }
+
+      receivedPointCloudData(scanFrame, lidarFrame, timestamps, points, sources);
+   }
 }
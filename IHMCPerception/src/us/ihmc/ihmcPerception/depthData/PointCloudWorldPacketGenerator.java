@@ -1,6 +1,5 @@
 package us.ihmc.ihmcPerception.depthData;
 
-import java.util.ArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -19,7 +18,7 @@ import us.ihmc.euclid.tuple4D.Quaternion;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.DepthDataStateCommand;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.LidarPosePacket;
 import us.ihmc.humanoidRobotics.communication.packets.sensing.PointCloudWorldPacket;
-import us.ihmc.robotics.dataStructures.TimestampedPoint;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.tools.thread.ThreadTools;
 
 public class PointCloudWorldPacketGenerator implements Runnable
@@ -33,6 +32,9 @@ public class PointCloudWorldPacketGenerator implements Runnable
    private PacketDestination packetDestination = PacketDestination.BROADCAST;
    private ScheduledFuture<?> scheduled = null;
 
+   private final PrimitivePointCloud groundPointCloud = new PrimitivePointCloud();
+   private final PrimitivePointCloud nearScanPointCloud = new PrimitivePointCloud();
+
    public PointCloudWorldPacketGenerator(PacketCommunicator sensorSuitePacketCommunicator, ReadLock readLock, DepthDataStore depthDataFilter)
    {
       this.packetCommunicator = sensorSuitePacketCommunicator;
@@ -71,25 +73,19 @@ public class PointCloudWorldPacketGenerator implements Runnable
       this.packetCommunicator = null;
    }
 
-   public PointCloudWorldPacket getPointCloudWorldPacket()
+   public synchronized PointCloudWorldPacket getPointCloudWorldPacket()
    {
       PointCloudWorldPacket packet = new PointCloudWorldPacket();
 
       readLock.lock();
-      ArrayList<Point3D> groundPoints = new ArrayList<>();
-      ArrayList<TimestampedPoint> nearScanTimestampedPoints = depthDataFilter.getNearScan().getPointsCopy();
+      groundPointCloud.clear();
+      depthDataFilter.getNearScan().getPoints(nearScanPointCloud);
       packet.defaultGroundHeight = (float) depthDataFilter.getQuadTree().getDefaultHeightWhenNoPoints();
-      depthDataFilter.getQuadTree().getCellAverageStoredPoints(groundPoints);
+      depthDataFilter.getQuadTree().getCellAverageStoredPoints(groundPointCloud);
       readLock.unlock();
 
-      packet.setGroundQuadTreeSupport(groundPoints.toArray(new Point3D[groundPoints.size()]));
-
-      ArrayList<Point3D> nearScanPoints = new ArrayList<>();
-      for (TimestampedPoint point : nearScanTimestampedPoints)
-      {
-         nearScanPoints.add(new Point3D(point.getX(), point.getY(), point.getZ()));
-      }
-      packet.setDecayingWorldScan(nearScanPoints.toArray(new Point3D[nearScanPoints.size()]));
+      packet.setGroundQuadTreeSupport(groundPointCloud.toPackedArray());
+      packet.setDecayingWorldScan(nearScanPointCloud.toPackedArray());
       packet.timestamp = System.nanoTime();
       return packet;
    }
@@ -1,7 +1,5 @@
 package us.ihmc.ihmcPerception.depthData;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -9,7 +7,7 @@ import java.util.concurrent.TimeUnit;
 
 import us.ihmc.commons.RandomNumbers;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
-import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 
 public class RandomPointCloudGenerator implements Runnable
 {
@@ -18,8 +16,6 @@ public class RandomPointCloudGenerator implements Runnable
    private final double coneHeight = 1.0;
    private final double coneBaseRadius = 0.25;
 
-   private final long[] timestamps = new long[1];
-
    private final PointCloudDataReceiverInterface pointCloudDataReceiver;
 
    private final ReferenceFrame scanFrame;
@@ -34,18 +30,17 @@ public class RandomPointCloudGenerator implements Runnable
 
       ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
       executor.scheduleAtFixedRate(this, 0L, period, timeUnit);
-
-      timestamps[0] = 0L;
    }
 
    @Override
    public void run()
    {
-      timestamps[0] = System.nanoTime();
-      Point3D[] pointCloud = new Point3D[70000];
+      long timestamp = System.nanoTime();
+      int numberOfPoints = 70000;
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud(numberOfPoints);
 
       //TODO: move this to RandomTools
-      for(int i = 0; i < pointCloud.length; i++)
+      for(int i = 0; i < numberOfPoints; i++)
       {
          double distanceFromCamera = RandomNumbers.nextDouble(random, 0.0, coneHeight);
          double angle = RandomNumbers.nextDouble(random, Math.PI);
@@ -54,11 +49,9 @@ public class RandomPointCloudGenerator implements Runnable
          double coneY = distanceFromConeCenter * Math.sin(angle);
          double coneZ = distanceFromConeCenter * Math.cos(angle);
 
-         pointCloud[i] = new Point3D(distanceFromCamera, coneY, coneZ);
+         pointCloud.add(distanceFromCamera, coneY, coneZ, timestamp);
       }
 
-      ArrayList<Point3D> pointCloudArrayList = new ArrayList<>();
-      pointCloudArrayList.addAll(Arrays.asList(pointCloud));
-      pointCloudDataReceiver.receivedPointCloudData(scanFrame, lidarFrame, timestamps, pointCloudArrayList, PointCloudSource.NEARSCAN);
+      pointCloudDataReceiver.receivedPointCloudData(scanFrame, lidarFrame, pointCloud, PointCloudSource.NEARSCAN);
    }
 }
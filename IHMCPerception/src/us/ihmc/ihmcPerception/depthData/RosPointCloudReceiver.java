@@ -1,12 +1,10 @@
 package us.ihmc.ihmcPerception.depthData;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-
 import sensor_msgs.PointCloud2;
 import us.ihmc.commons.time.Stopwatch;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.utilities.ros.RosMainNode;
 import us.ihmc.utilities.ros.subscriber.RosPointCloudSubscriber;
 
@@ -48,10 +46,9 @@ public class RosPointCloudReceiver extends RosPointCloudSubscriber
 
       UnpackedPointCloud pointCloudData = unpackPointsAndIntensities(pointCloud);
 		Point3D[] points = pointCloudData.getPoints();
-		ArrayList<Point3D> pointsAsArrayList = new ArrayList<Point3D>(Arrays.asList(points));
-	   long[] timestamps = new long[points.length];
 	   long time = pointCloud.getHeader().getStamp().totalNsecs();
-	   Arrays.fill(timestamps, time);
-		pointCloudDataReceiver.receivedPointCloudData(cloudFrame, sensorframe, timestamps, pointsAsArrayList, pointCloudSource);
+	   PrimitivePointCloud primitivePointCloud = new PrimitivePointCloud(points.length);
+	   primitivePointCloud.addAll(points, time);
+		pointCloudDataReceiver.receivedPointCloudData(cloudFrame, sensorframe, primitivePointCloud, pointCloudSource);
 	}
 }
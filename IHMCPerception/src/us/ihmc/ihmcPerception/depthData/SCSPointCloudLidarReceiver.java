@@ -1,14 +1,11 @@
 package us.ihmc.ihmcPerception.depthData;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-
 import us.ihmc.communication.net.ObjectCommunicator;
 import us.ihmc.communication.net.ObjectConsumer;
 import us.ihmc.communication.packets.SimulatedLidarScanPacket;
 import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.euclid.transform.RigidBodyTransform;
-import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.robotics.lidar.LidarScan;
 
 public class SCSPointCloudLidarReceiver implements ObjectConsumer<SimulatedLidarScanPacket>
@@ -39,12 +36,10 @@ public class SCSPointCloudLidarReceiver implements ObjectConsumer<SimulatedLidar
       LidarScan scan = new LidarScan(packet.getLidarScanParameters(), packet.getRanges(), packet.getSensorId());
       // Set the world transforms to nothing, so points are in lidar scan frame
       scan.setWorldTransforms(identityTransform, identityTransform);
-      ArrayList<Point3D> points = scan.getAllPoints();
-
-      long[] timestamps = new long[points.size()];
-      Arrays.fill(timestamps, packet.getScanStartTime());
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud(scan.size());
+      scan.getAllPoints(pointCloud, packet.getScanStartTime());
 
-      pointCloudDataReceiver.receivedPointCloudData(lidarScanFrame, lidarFrame, timestamps, points, PointCloudSource.NEARSCAN,PointCloudSource.QUADTREE);
+      pointCloudDataReceiver.receivedPointCloudData(lidarScanFrame, lidarFrame, pointCloud, PointCloudSource.NEARSCAN,PointCloudSource.QUADTREE);
    }
 
    public void connect()
@@ -0,0 +1,120 @@
+package us.ihmc.robotDataLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Read-only view on a log index file that keeps the index on disk.
+ *
+ * Where {@link LogIndex} copies every (timestamp, offset) pair into heap arrays, this class maps the
+ * index file into memory and answers all queries, including the timestamp seek, directly from the mapping.
+ * Opening a log is therefore independent of its length and only the pages touched by a query are loaded.
+ *
+ * The index file is a sequence of 16 byte records, a long timestamp followed by a long offset into the data file.
+ */
+public class MappedLogIndex
+{
+   private static final int RECORD_SIZE = 16;
+
+   private final LongBuffer index;
+   private final int numberOfEntries;
+   private final long dataSize;
+
+   /**
+    * Map the index file
+    *
+    * @param indexData index file
+    * @param dataSize size of the data file the index refers to, used to calculate the size of the last entry
+    * @throws IOException
+    */
+   public MappedLogIndex(File indexData, long dataSize) throws IOException
+   {
+      try (RandomAccessFile indexFile = new RandomAccessFile(indexData, "r"); FileChannel indexChannel = indexFile.getChannel())
+      {
+         long numberOfRecords = indexChannel.size() / RECORD_SIZE;
+         if (numberOfRecords * RECORD_SIZE > Integer.MAX_VALUE)
+         {
+            throw new IOException("Index file " + indexData.getAbsolutePath() + " is too large to map");
+         }
+
+         // The mapping stays valid after the channel is closed
+         MappedByteBuffer mappedIndex = indexChannel.map(MapMode.READ_ONLY, 0, numberOfRecords * RECORD_SIZE);
+         this.index = mappedIndex.asLongBuffer();
+         this.numberOfEntries = (int) numberOfRecords;
+         this.dataSize = dataSize;
+      }
+   }
+
+   public int getNumberOfEntries()
+   {
+      return numberOfEntries;
+   }
+
+   public long getTimestamp(int position)
+   {
+      return index.get(position * 2);
+   }
+
+   public long getDataOffset(int position)
+   {
+      return index.get(position * 2 + 1);
+   }
+
+   public int getCompressedSize(int position)
+   {
+      if (position == numberOfEntries - 1)
+      {
+         return (int) (dataSize - getDataOffset(position));
+      }
+      else
+      {
+         return (int) (getDataOffset(position + 1) - getDataOffset(position));
+      }
+   }
+
+   public long getInitialTimestamp()
+   {
+      return getTimestamp(0);
+   }
+
+   public long getFinalTimestamp()
+   {
+      return getTimestamp(numberOfEntries - 1);
+   }
+
+   /**
+    * Binary search over the mapped index
+    *
+    * @param inStamp timestamp to seek
+    * @return position of the first entry with a timestamp equal or larger than inStamp, clamped to the last entry. -1 if the index is empty
+    */
+   public int seek(long inStamp)
+   {
+      if (numberOfEntries == 0)
+      {
+         return -1;
+      }
+
+      int head = 0;
+      int tail = numberOfEntries - 1;
+
+      while (head < tail)
+      {
+         int position = (head + tail) >>> 1;
+         if (getTimestamp(position) < inStamp)
+         {
+            head = position + 1;
+         }
+         else
+         {
+            tail = position;
+         }
+      }
+      return head;
+   }
+}
@@ -5,7 +5,9 @@ import java.nio.DoubleBuffer;
 import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
+import gnu.trove.map.hash.TIntObjectHashMap;
 import us.ihmc.robotDataLogger.jointState.JointState;
 import us.ihmc.robotDataLogger.rtps.VariableChangedProducer;
 import us.ihmc.tools.compression.CompressionImplementation;
@@ -19,17 +21,48 @@ public class RegistryDecompressor
    private final List<JointState> jointStates;
    
    private final ByteBuffer decompressBuffer;
-   private final CompressionImplementation compressionImplementation;
+   
+   /**
+    * Decompressors for each segment, keyed by variable offset. Stateful decompressors need to see every frame of a segment in order.
+    */
+   private final TIntObjectHashMap<CompressionImplementation> segmentDecompressors = new TIntObjectHashMap<>();
+   private final Supplier<CompressionImplementation> segmentDecompressorFactory;
+   private long rejectedSegments = 0;
 
    
    public RegistryDecompressor(List<YoVariable<?>> variables, List<JointState> jointStates)
    {
+      this(variables, jointStates, CompressionImplementationFactory::createStreamInstance);
+   }
+   
+   /**
+    * @param segmentDecompressorFactory Creates the decompressor for a single segment
+    */
+   public RegistryDecompressor(List<YoVariable<?>> variables, List<JointState> jointStates, Supplier<CompressionImplementation> segmentDecompressorFactory)
+   {
+      this.segmentDecompressorFactory = segmentDecompressorFactory;
       this.variables = variables;
       this.jointStates = jointStates;
       this.decompressBuffer = ByteBuffer.allocate(variables.size() * 8);
-      
-      this.compressionImplementation = CompressionImplementationFactory.instance();
-
+   }
+   
+   private CompressionImplementation getSegmentDecompressor(int offset)
+   {
+      CompressionImplementation segmentDecompressor = segmentDecompressors.get(offset);
+      if (segmentDecompressor == null)
+      {
+         segmentDecompressor = segmentDecompressorFactory.get();
+         segmentDecompressors.put(offset, segmentDecompressor);
+      }
+      return segmentDecompressor;
+   }
+   
+   /**
+    * @return Number of segments that could not be decompressed because the reference frame of a delta compressed segment was missing
+    */
+   public long getRejectedSegments()
+   {
+      return rejectedSegments;
    }
    
    private void setAndNotify(YoVariable<?> variable, long newValue)
@@ -55,9 +88,19 @@ public class RegistryDecompressor
    
    public void decompressSegment(RegistryReceiveBuffer buffer, int registryOffset)
    {
+      int offset = registryOffset + buffer.getOffset();
+      
       decompressBuffer.clear();
-      compressionImplementation.decompress(buffer.getData(), decompressBuffer, buffer.getNumberOfVariables() * 8);      
+      getSegmentDecompressor(offset).decompress(buffer.getData(), decompressBuffer, buffer.getNumberOfVariables() * 8);      
       decompressBuffer.flip();
+      
+      if(buffer.getNumberOfVariables() > 0 && decompressBuffer.remaining() == 0)
+      {
+         // Delta compressed segment without reference frame, wait for the next keyframe
+         rejectedSegments++;
+         return;
+      }
+      
       LongBuffer longData = decompressBuffer.asLongBuffer();
       
       // Sanity check
@@ -68,7 +111,6 @@ public class RegistryDecompressor
       }
       int numberOfVariables = buffer.getNumberOfVariables();
       
-      int offset = registryOffset + buffer.getOffset();
       for(int i = 0; i < numberOfVariables; i++)
       {
          setAndNotify(variables.get(i + offset), longData.get());
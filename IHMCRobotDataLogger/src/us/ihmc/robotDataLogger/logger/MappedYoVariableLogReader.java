@@ -0,0 +1,236 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import us.ihmc.robotDataLogger.LogProperties;
+import us.ihmc.robotDataLogger.MappedLogIndex;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Random access reader for compressed YoVariable logs.
+ *
+ * Both the index and the data file are memory mapped. Opening a log does not read any data,
+ * seeking is a binary search over the mapped index and reading an entry only decompresses the
+ * Snappy block for that entry.
+ *
+ * The data file is mapped in segments to support logs larger than 2GB. Each segment overlaps the next one by the
+ * maximum compressed size of a single entry, so every block that starts in a segment is completely contained in it.
+ *
+ * The single argument readData functions use buffers internal to this reader and are not thread safe. Use
+ * {@link #readData(int, ByteBuffer, ByteBuffer)} with buffers owned by the calling thread to decode from multiple threads.
+ */
+public class MappedYoVariableLogReader
+{
+   private static final long SEGMENT_SIZE = 1L << 30;
+
+   private final File logDirectory;
+   private final LogProperties logProperties;
+
+   private final int logLineLength;
+   private final int bufferSize;
+   private final int maxCompressedSize;
+
+   private final RandomAccessFile logFile;
+   private final FileChannel logChannel;
+   private final long logSize;
+   private final MappedLogIndex logIndex;
+   private final MappedByteBuffer[] segments;
+
+   private final ByteBuffer compressedData;
+   private final ByteBuffer uncompressedData;
+
+   public MappedYoVariableLogReader(File logDirectory, LogProperties logProperties) throws IOException
+   {
+      this.logDirectory = logDirectory;
+      this.logProperties = logProperties;
+
+      if (!logProperties.getVariables().getCompressed())
+      {
+         throw new IOException("Only compressed logs are supported");
+      }
+
+      File handshake = new File(logDirectory, logProperties.getVariables().getHandshakeAsString());
+      if (!handshake.exists())
+      {
+         throw new RuntimeException("Cannot find " + logProperties.getVariables().getHandshakeAsString());
+      }
+
+      DataInputStream handshakeStream = new DataInputStream(new FileInputStream(handshake));
+      byte[] handshakeData = new byte[(int) handshake.length()];
+      handshakeStream.readFully(handshakeData);
+      handshakeStream.close();
+      logLineLength = YoVariableHandshakeParser.getNumberOfStateVariables(logProperties.getVariables().getHandshakeFileType(), handshakeData);
+
+      File logdata = new File(logDirectory, logProperties.getVariables().getDataAsString());
+      if (!logdata.exists())
+      {
+         throw new RuntimeException("Cannot find " + logProperties.getVariables().getDataAsString());
+      }
+
+      File index = new File(logDirectory, logProperties.getVariables().getIndexAsString());
+      if (!index.exists())
+      {
+         throw new RuntimeException("Cannot find " + logProperties.getVariables().getIndexAsString());
+      }
+
+      logFile = new RandomAccessFile(logdata, "r");
+      logChannel = logFile.getChannel();
+      logSize = logChannel.size();
+      logIndex = new MappedLogIndex(index, logSize);
+
+      bufferSize = logLineLength * 8;
+      maxCompressedSize = SnappyUtils.maxCompressedLength(bufferSize);
+
+      // Mapping does not load any data, the pages are read on first access
+      segments = new MappedByteBuffer[(int) ((logSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+      for (int i = 0; i < segments.length; i++)
+      {
+         long start = i * SEGMENT_SIZE;
+         long length = Math.min(SEGMENT_SIZE + maxCompressedSize, logSize - start);
+         segments[i] = logChannel.map(MapMode.READ_ONLY, start, length);
+      }
+
+      compressedData = ByteBuffer.allocate(maxCompressedSize);
+      uncompressedData = ByteBuffer.allocate(bufferSize);
+   }
+
+   public File getLogDirectory()
+   {
+      return logDirectory;
+   }
+
+   public LogProperties getLogProperties()
+   {
+      return logProperties;
+   }
+
+   public int getNumberOfVariables()
+   {
+      return logLineLength;
+   }
+
+   public int getNumberOfEntries()
+   {
+      return logIndex.getNumberOfEntries();
+   }
+
+   /**
+    * @return Size in bytes of a single decompressed entry
+    */
+   public int getBufferSize()
+   {
+      return bufferSize;
+   }
+
+   /**
+    * @return Maximum size in bytes of a single compressed entry
+    */
+   public int getMaxCompressedSize()
+   {
+      return maxCompressedSize;
+   }
+
+   public MappedLogIndex getLogIndex()
+   {
+      return logIndex;
+   }
+
+   public int getPosition(long timestamp)
+   {
+      return logIndex.seek(timestamp);
+   }
+
+   public long getTimestamp(int position)
+   {
+      return logIndex.getTimestamp(position);
+   }
+
+   public long getDataOffset(int position)
+   {
+      return logIndex.getDataOffset(position);
+   }
+
+   public int getCompressedSize(int position)
+   {
+      return logIndex.getCompressedSize(position);
+   }
+
+   /**
+    * Copy the compressed block at position into compressedData
+    *
+    * @param position Index of the entry
+    * @param compressedData Target buffer, at least {@link #getMaxCompressedSize()} bytes large. Flipped on return.
+    * @return compressedData
+    * @throws IOException
+    */
+   public ByteBuffer readCompressedData(int position, ByteBuffer compressedData) throws IOException
+   {
+      long offset = getDataOffset(position);
+      int size = getCompressedSize(position);
+
+      ByteBuffer block = getSegment(offset).duplicate();
+      int start = (int) (offset % SEGMENT_SIZE);
+      block.limit(start + size);
+      block.position(start);
+
+      compressedData.clear();
+      compressedData.put(block);
+      compressedData.flip();
+      return compressedData;
+   }
+
+   /**
+    * Decompress the entry at position into uncompressedData. Thread safe if the buffers are not shared between threads.
+    *
+    * @param position Index of the entry
+    * @param compressedData Scratch buffer, at least {@link #getMaxCompressedSize()} bytes large
+    * @param uncompressedData Target buffer, at least {@link #getBufferSize()} bytes large. Flipped on return.
+    * @return uncompressedData
+    * @throws IOException
+    */
+   public ByteBuffer readData(int position, ByteBuffer compressedData, ByteBuffer uncompressedData) throws IOException
+   {
+      readCompressedData(position, compressedData);
+      uncompressedData.clear();
+      SnappyUtils.uncompress(compressedData, uncompressedData);
+      uncompressedData.flip();
+      return uncompressedData;
+   }
+
+   public ByteBuffer readCompressedData(int position) throws IOException
+   {
+      return readCompressedData(position, compressedData);
+   }
+
+   public ByteBuffer readData(int position) throws IOException
+   {
+      return readData(position, compressedData, uncompressedData);
+   }
+
+   private MappedByteBuffer getSegment(long offset)
+   {
+      return segments[(int) (offset / SEGMENT_SIZE)];
+   }
+
+   public void close()
+   {
+      try
+      {
+         logChannel.close();
+         logFile.close();
+      }
+      catch (IOException e)
+      {
+         // Nothing to do here
+      }
+   }
+}
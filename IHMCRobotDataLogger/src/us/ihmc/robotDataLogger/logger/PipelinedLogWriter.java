@@ -0,0 +1,339 @@
+package us.ihmc.robotDataLogger.logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import us.ihmc.tools.compression.SnappyUtils;
+
+/**
+ * Three stage pipeline that moves compression and disk IO off the receive thread of the logger.
+ *
+ * Frames are copied into a preallocated ring of buffers by the receive thread. A compression thread
+ * Snappy-compresses the frames in order and a writer thread collects all compressed frames and writes them
+ * with a single gathered write to the data file, followed by a single write of the matching index entries.
+ *
+ * The ring is never resized. When the writer cannot keep up and the ring is full, incoming frames are dropped
+ * and counted instead of blocking the receive thread. Frames that fail to compress are dropped and counted as well.
+ *
+ * {@link #offer(long, ByteBuffer)} should only be called from a single thread.
+ */
+public class PipelinedLogWriter
+{
+   private static final int FLUSH_EVERY_N_PACKETS = 250;
+   private static final int MAXIMUM_BATCH_SIZE = 64;
+   private static final long WAIT_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(1);
+
+   private final FileChannel dataChannel;
+   private final FileChannel indexChannel;
+   private final boolean flushAggressivelyToDisk;
+
+   private final int mask;
+   private final long[] timestamps;
+   private final ByteBuffer[] uncompressedBuffers;
+   private final ByteBuffer[] compressedBuffers;
+   /** Set by the compression thread for frames that could not be compressed, read by the writer thread */
+   private final boolean[] compressionFailed;
+
+   private final ByteBuffer[] batch = new ByteBuffer[MAXIMUM_BATCH_SIZE];
+   private final ByteBuffer indexBuffer = ByteBuffer.allocate(MAXIMUM_BATCH_SIZE * 16);
+
+   /** Sequence of the next frame to be claimed by the receive thread */
+   private final AtomicLong published = new AtomicLong();
+   /** Sequence of the next frame to be compressed */
+   private final AtomicLong compressed = new AtomicLong();
+   /** Sequence of the next frame to be written to disk */
+   private final AtomicLong written = new AtomicLong();
+
+   private final AtomicLong droppedFrames = new AtomicLong();
+   private final AtomicLong writtenFrames = new AtomicLong();
+   private volatile long maximumQueueDepth = 0;
+
+   private final Thread compressionThread;
+   private final Thread writerThread;
+   private volatile boolean running = true;
+   private volatile IOException writerException = null;
+
+   private long framesSinceFlush = 0;
+
+   /**
+    * Create and start a new pipeline
+    *
+    * @param dataChannel Channel to write compressed frames to
+    * @param indexChannel Channel to write (timestamp, offset) index entries to
+    * @param bufferSize Size of an uncompressed frame
+    * @param capacity Number of frames in the ring, rounded up to the next power of two
+    * @param flushAggressivelyToDisk Force data to disk every {@value #FLUSH_EVERY_N_PACKETS} frames
+    */
+   public PipelinedLogWriter(FileChannel dataChannel, FileChannel indexChannel, int bufferSize, int capacity, boolean flushAggressivelyToDisk)
+   {
+      if (capacity < 1)
+      {
+         throw new IllegalArgumentException("Capacity should be at least 1");
+      }
+
+      this.dataChannel = dataChannel;
+      this.indexChannel = indexChannel;
+      this.flushAggressivelyToDisk = flushAggressivelyToDisk;
+
+      int ringSize = Integer.highestOneBit(capacity - 1) << 1;
+      if (capacity == 1)
+      {
+         ringSize = 1;
+      }
+      this.mask = ringSize - 1;
+
+      timestamps = new long[ringSize];
+      uncompressedBuffers = new ByteBuffer[ringSize];
+      compressedBuffers = new ByteBuffer[ringSize];
+      compressionFailed = new boolean[ringSize];
+      int compressedBufferSize = SnappyUtils.maxCompressedLength(bufferSize);
+      for (int i = 0; i < ringSize; i++)
+      {
+         uncompressedBuffers[i] = ByteBuffer.allocate(bufferSize);
+         compressedBuffers[i] = ByteBuffer.allocate(compressedBufferSize);
+      }
+
+      compressionThread = new Thread(this::compressionLoop, "LoggerCompressionThread");
+      writerThread = new Thread(this::writerLoop, "LoggerWriterThread");
+      compressionThread.setDaemon(true);
+      writerThread.setDaemon(true);
+      compressionThread.start();
+      writerThread.start();
+   }
+
+   /**
+    * Copy a frame into the pipeline. Never blocks.
+    *
+    * @param timestamp Timestamp of the frame
+    * @param data Uncompressed frame, from position to limit
+    * @return false if the pipeline was full or stopped and the frame was dropped
+    */
+   public boolean offer(long timestamp, ByteBuffer data)
+   {
+      long sequence = published.get();
+      long depth = sequence - written.get();
+      if (!running || depth > mask)
+      {
+         droppedFrames.incrementAndGet();
+         return false;
+      }
+
+      int slot = (int) (sequence & mask);
+      timestamps[slot] = timestamp;
+      ByteBuffer uncompressed = uncompressedBuffers[slot];
+      uncompressed.clear();
+      uncompressed.put(data);
+      uncompressed.flip();
+
+      published.lazySet(sequence + 1);
+      if (depth + 1 > maximumQueueDepth)
+      {
+         maximumQueueDepth = depth + 1;
+      }
+
+      LockSupport.unpark(compressionThread);
+      return true;
+   }
+
+   private void compressionLoop()
+   {
+      while (running || compressed.get() < published.get())
+      {
+         long sequence = compressed.get();
+         if (sequence == published.get())
+         {
+            LockSupport.parkNanos(this, WAIT_TIMEOUT);
+            continue;
+         }
+
+         int slot = (int) (sequence & mask);
+         ByteBuffer compressedBuffer = compressedBuffers[slot];
+         compressedBuffer.clear();
+         try
+         {
+            SnappyUtils.compress(uncompressedBuffers[slot], compressedBuffer);
+            compressionFailed[slot] = false;
+         }
+         catch (IOException e)
+         {
+            e.printStackTrace();
+            compressionFailed[slot] = true;
+         }
+         compressedBuffer.flip();
+
+         // Publishing the sequence also publishes the failure flag of the slot to the writer thread
+         compressed.lazySet(sequence + 1);
+         LockSupport.unpark(writerThread);
+      }
+   }
+
+   private void writerLoop()
+   {
+      while (running || compressionThread.isAlive() || written.get() < compressed.get())
+      {
+         long start = written.get();
+         long end = Math.min(compressed.get(), start + MAXIMUM_BATCH_SIZE);
+         if (start == end)
+         {
+            LockSupport.parkNanos(this, WAIT_TIMEOUT);
+            continue;
+         }
+
+         try
+         {
+            writeBatch(start, (int) (end - start));
+         }
+         catch (IOException e)
+         {
+            // Keep the pipeline moving so the receive thread does not fill up the ring, the frames are lost
+            if (writerException == null)
+            {
+               e.printStackTrace();
+            }
+            writerException = e;
+         }
+
+         written.lazySet(end);
+      }
+   }
+
+   private void writeBatch(long start, int length) throws IOException
+   {
+      long position = dataChannel.position();
+
+      indexBuffer.clear();
+      int batchLength = 0;
+      for (int i = 0; i < length; i++)
+      {
+         int slot = (int) ((start + i) & mask);
+         if (compressionFailed[slot])
+         {
+            // Writing an empty frame would leave an entry in the index that cannot be decompressed
+            droppedFrames.incrementAndGet();
+            continue;
+         }
+
+         batch[batchLength] = compressedBuffers[slot];
+
+         indexBuffer.putLong(timestamps[slot]);
+         indexBuffer.putLong(position);
+         position += batch[batchLength].remaining();
+         batchLength++;
+      }
+      indexBuffer.flip();
+
+      int offset = 0;
+      while (offset < batchLength)
+      {
+         dataChannel.write(batch, offset, batchLength - offset);
+         while (offset < batchLength && !batch[offset].hasRemaining())
+         {
+            offset++;
+         }
+      }
+      while (indexBuffer.hasRemaining())
+      {
+         indexChannel.write(indexBuffer);
+      }
+
+      writtenFrames.addAndGet(batchLength);
+
+      if (flushAggressivelyToDisk)
+      {
+         framesSinceFlush += batchLength;
+         if (framesSinceFlush >= FLUSH_EVERY_N_PACKETS)
+         {
+            indexChannel.force(false);
+            dataChannel.force(false);
+            framesSinceFlush = 0;
+         }
+      }
+   }
+
+   /**
+    * Wait till all frames that are in the pipeline are written to disk
+    */
+   public void flush()
+   {
+      long target = published.get();
+      while (written.get() < target && writerThread.isAlive())
+      {
+         LockSupport.unpark(compressionThread);
+         LockSupport.unpark(writerThread);
+         LockSupport.parkNanos(WAIT_TIMEOUT);
+      }
+   }
+
+   /**
+    * Stop accepting frames, write all pending frames to disk and stop the pipeline threads.
+    *
+    * The channels are not closed.
+    */
+   public void close()
+   {
+      running = false;
+      LockSupport.unpark(compressionThread);
+      LockSupport.unpark(writerThread);
+      try
+      {
+         compressionThread.join();
+         writerThread.join();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * @return Number of frames that are accepted but not written to disk yet
+    */
+   public long getQueueDepth()
+   {
+      return published.get() - written.get();
+   }
+
+   /**
+    * @return Largest number of frames that have been in the pipeline at the same time
+    */
+   public long getMaximumQueueDepth()
+   {
+      return maximumQueueDepth;
+   }
+
+   /**
+    * @return Number of frames that got dropped because the ring was full or because they could not be compressed
+    */
+   public long getDroppedFrames()
+   {
+      return droppedFrames.get();
+   }
+
+   /**
+    * @return Number of frames written to disk
+    */
+   public long getWrittenFrames()
+   {
+      return writtenFrames.get();
+   }
+
+   /**
+    * @return Number of frames the ring can hold
+    */
+   public int getCapacity()
+   {
+      return mask + 1;
+   }
+
+   /**
+    * @return The last exception thrown while writing to disk, null if all writes succeeded
+    */
+   public IOException getWriterException()
+   {
+      return writerException;
+   }
+}
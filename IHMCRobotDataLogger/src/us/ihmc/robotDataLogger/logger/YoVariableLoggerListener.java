@@ -68,6 +68,8 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
    
    private YoVariableSummarizer yoVariableSummarizer = null;
    
+   private PipelinedLogWriter pipelinedLogWriter = null;
+   
    // Reconstruction variables for disk data format
    private List<YoVariable<?>> variables;
    private List<JointState> jointStates;
@@ -181,6 +183,18 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
                   yoVariableSummarizer.setBuffer(buffer);
                }
                buffer.clear();
+               
+               if(pipelinedLogWriter != null)
+               {
+                  pipelinedLogWriter.offer(timestamp, buffer);
+                  
+                  if(yoVariableSummarizer != null)
+                  {
+                     yoVariableSummarizer.update();
+                  }
+                  return;
+               }
+               
                compressedBuffer.clear();
                SnappyUtils.compress(buffer, compressedBuffer);
                compressedBuffer.flip();
@@ -239,6 +253,13 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
 
    public void disconnected()
    {
+      if(pipelinedLogWriter != null)
+      {
+         pipelinedLogWriter.close();
+         System.out.println("Pipelined logger wrote " + pipelinedLogWriter.getWrittenFrames() + " frames, dropped " + pipelinedLogWriter.getDroppedFrames()
+               + " frames. Maximum queue depth " + pipelinedLogWriter.getMaximumQueueDepth() + "/" + pipelinedLogWriter.getCapacity());
+      }
+      
       try
       {
          dataChannel.close();
@@ -371,6 +392,10 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
             dataChannel = new FileOutputStream(dataFile, false).getChannel();
             indexChannel = new FileOutputStream(indexFile, false).getChannel();
             
+            if(options.isPipelinedLogging())
+            {
+               pipelinedLogWriter = new PipelinedLogWriter(dataChannel, indexChannel, bufferSize, options.getPipelineCapacity(), flushAggressivelyToDisk);
+            }
          }
          catch (FileNotFoundException e)
          {
@@ -439,6 +464,10 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       {
          clearingLog = true;
       }
+      if(pipelinedLogWriter != null)
+      {
+         pipelinedLogWriter.flush();
+      }
       try
       {
          System.out.println("Clearing log.");
@@ -464,6 +493,14 @@ public class YoVariableLoggerListener implements YoVariablesUpdatedListener
       }
    }
 
+   /**
+    * @return The pipelined writer when pipelined logging is enabled and logging has started, null otherwise
+    */
+   public PipelinedLogWriter getPipelinedLogWriter()
+   {
+      return pipelinedLogWriter;
+   }
+
    @Override
    public boolean executeVariableChangedListeners()
    {
@@ -17,6 +17,7 @@ public class YoVariableLoggerOptions
    public final static CodecID defaultCodec = CodecID.AV_CODEC_ID_H264;
    public final static double defaultVideoQuality = 0.75;
    public final static int defaultCRF = 23;
+   public final static int defaultPipelineCapacity = 128;
 
    private String logDirectory = defaultLogDirectory;
    
@@ -27,6 +28,9 @@ public class YoVariableLoggerOptions
    private boolean disableVideo = false;
    
    private boolean flushAggressivelyToDisk = false;
+   
+   private boolean pipelinedLogging = false;
+   private int pipelineCapacity = defaultPipelineCapacity;
 
    public static YoVariableLoggerOptions parse(String[] args) throws JSAPException
    {
@@ -38,7 +42,9 @@ public class YoVariableLoggerOptions
                   "quality", "Video quality for MJPEG"),
             new FlaggedOption("videoCodec", JSAP.STRING_PARSER, String.valueOf(defaultCodec), JSAP.NOT_REQUIRED, 'c', "codec", "Desired video codec. AV_CODEC_ID_H264 or AV_CODEC_ID_MJPEG"),
             new FlaggedOption("crf", JSAP.INTEGER_PARSER, String.valueOf(defaultCRF), JSAP.NOT_REQUIRED, 'r', "crf", "CRF (Constant rate factor) for H264. 0-51, 0 is lossless. Sane values are 18 to 28."),
-            new Switch("flushAggressivelyToDisk", 's', "sync", "Aggressively flush data to disk. Reduces change of data loss but doesn't work on slow platters.") });
+            new Switch("flushAggressivelyToDisk", 's', "sync", "Aggressively flush data to disk. Reduces change of data loss but doesn't work on slow platters."),
+            new Switch("pipelinedLogging", 'p', "pipelined", "Compress and write data on separate threads. Frames are dropped instead of blocking the receive thread when the disk cannot keep up."),
+            new FlaggedOption("pipelineCapacity", JSAP.INTEGER_PARSER, String.valueOf(defaultPipelineCapacity), JSAP.NOT_REQUIRED, 'b', "pipelineCapacity", "Number of frames buffered by the pipelined logger.") });
       JSAPResult config = jsap.parse(args);
       if (jsap.messagePrinted())
       {
@@ -55,6 +61,8 @@ public class YoVariableLoggerOptions
       options.setCrf(config.getInt("crf"));
       
       options.setFlushAggressivelyToDisk(config.getBoolean("flushAggressivelyToDisk"));
+      options.setPipelinedLogging(config.getBoolean("pipelinedLogging"));
+      options.setPipelineCapacity(config.getInt("pipelineCapacity"));
 
       return options;
    }
@@ -99,6 +107,26 @@ public class YoVariableLoggerOptions
       this.flushAggressivelyToDisk = flushAggressivelyToDisk;
    }
 
+   public boolean isPipelinedLogging()
+   {
+      return pipelinedLogging;
+   }
+
+   public void setPipelinedLogging(boolean pipelinedLogging)
+   {
+      this.pipelinedLogging = pipelinedLogging;
+   }
+
+   public int getPipelineCapacity()
+   {
+      return pipelineCapacity;
+   }
+
+   public void setPipelineCapacity(int pipelineCapacity)
+   {
+      this.pipelineCapacity = pipelineCapacity;
+   }
+
    public CodecID getVideoCodec()
    {
       return videoCodec;
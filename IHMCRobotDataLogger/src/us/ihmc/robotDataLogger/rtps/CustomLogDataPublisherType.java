@@ -2,7 +2,9 @@ package us.ihmc.robotDataLogger.rtps;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
+import gnu.trove.map.hash.TLongObjectHashMap;
 import us.ihmc.idl.CDR;
 import us.ihmc.idl.InterchangeSerializer;
 import us.ihmc.pubsub.TopicDataType;
@@ -28,11 +30,27 @@ public class CustomLogDataPublisherType implements TopicDataType<RegistrySendBuf
 
    private final ByteBuffer compressBuffer;
    private final CompressionImplementation compressor;
+   
+   /**
+    * Compressors for each segment, keyed by registry ID and variable offset. Stateful compressors need to see every frame of a segment in order,
+    * and the publishers of all registries share this type.
+    */
+   private final TLongObjectHashMap<CompressionImplementation> segmentCompressors = new TLongObjectHashMap<>();
+   private final Supplier<CompressionImplementation> segmentCompressorFactory;
 
    public CustomLogDataPublisherType(int numberOfVariables, int numberOfStates)
+   {
+      this(numberOfVariables, numberOfStates, CompressionImplementationFactory::createStreamInstance);
+   }
+
+   /**
+    * @param segmentCompressorFactory Creates the compressor for a single segment of a registry
+    */
+   public CustomLogDataPublisherType(int numberOfVariables, int numberOfStates, Supplier<CompressionImplementation> segmentCompressorFactory)
    {
       this.numberOfVariables = numberOfVariables;
       this.numberOfStates = numberOfStates;
+      this.segmentCompressorFactory = segmentCompressorFactory;
 
       compressor = CompressionImplementationFactory.instance();
       if (compressor.supportsDirectOutput())
@@ -53,7 +71,7 @@ public class CustomLogDataPublisherType implements TopicDataType<RegistrySendBuf
     * @param databuffer
     * @param serializedPayload
     */
-   private void compressDirect(ByteBuffer databuffer, SerializedPayload serializedPayload)
+   private void compressDirect(CompressionImplementation compressor, ByteBuffer databuffer, SerializedPayload serializedPayload)
    {
       ByteBuffer serializeBuffer = serializedPayload.getData();
       serializeCDR.write_type_2(0);
@@ -70,7 +88,7 @@ public class CustomLogDataPublisherType implements TopicDataType<RegistrySendBuf
     * @param serializedPayload
     * @throws IOException
     */
-   private void compressJavaBuffer(ByteBuffer databuffer, SerializedPayload serializedPayload) throws IOException
+   private void compressJavaBuffer(CompressionImplementation compressor, ByteBuffer databuffer, SerializedPayload serializedPayload) throws IOException
    {
       compressBuffer.clear();
       compressor.compress(databuffer, compressBuffer);
@@ -103,13 +121,14 @@ public class CustomLogDataPublisherType implements TopicDataType<RegistrySendBuf
 
       if(data.getType() == LogDataType.DATA_PACKET)
       {
-         if (compressor.supportsDirectOutput())
+         CompressionImplementation segmentCompressor = getSegmentCompressor(data.getRegistryID(), data.getOffset());
+         if (segmentCompressor.supportsDirectOutput())
          {
-            compressDirect(data.getBuffer(), serializedPayload);
+            compressDirect(segmentCompressor, data.getBuffer(), serializedPayload);
          }
          else
          {
-            compressJavaBuffer(data.getBuffer(), serializedPayload);
+            compressJavaBuffer(segmentCompressor, data.getBuffer(), serializedPayload);
          }
    
          // Write joint states length
@@ -129,6 +148,18 @@ public class CustomLogDataPublisherType implements TopicDataType<RegistrySendBuf
       serializeCDR.finishSerialize();
    }
 
+   private CompressionImplementation getSegmentCompressor(int registryID, int offset)
+   {
+      long key = ((long) registryID << 32) | (offset & 0xFFFFFFFFL);
+      CompressionImplementation segmentCompressor = segmentCompressors.get(key);
+      if (segmentCompressor == null)
+      {
+         segmentCompressor = segmentCompressorFactory.get();
+         segmentCompressors.put(key, segmentCompressor);
+      }
+      return segmentCompressor;
+   }
+
    @Override
    public void deserialize(SerializedPayload serializedPayload, RegistrySendBuffer data) throws IOException
    {
@@ -206,7 +237,7 @@ public class CustomLogDataPublisherType implements TopicDataType<RegistrySendBuf
    @Override
    public CustomLogDataPublisherType newInstance()
    {
-      return new CustomLogDataPublisherType(numberOfVariables, numberOfStates);
+      return new CustomLogDataPublisherType(numberOfVariables, numberOfStates, segmentCompressorFactory);
    }
 
    @Override
@@ -115,6 +115,19 @@ public class CompressionBenchmark extends YoVariableLogReader
       benchmarkFunction("Copy (Direct)", directSet.length, () -> {
          return benchMarkCopy(directSet);
       });
+      
+      // Delta compression relies on consecutive frames, the sets are in log order
+      for (int keyframeInterval : new int[] { 1, 10, DeltaCompressionImplementation.DEFAULT_KEYFRAME_INTERVAL, 1000 })
+      {
+         benchmarkFunction("Delta XOR (keyframe every " + keyframeInterval + " frames)", set.length, () -> {
+            return benchMarkDelta(new DeltaCompressionImplementation(keyframeInterval), set);
+         });
+      }
+      
+      ByteBuffer[] deltaCompressedSet = compressDelta(set);
+      benchmarkFunction("Delta XOR (decompress)", set.length, () -> {
+         return benchMarkDeltaDecompress(deltaCompressedSet);
+      });
 
    }
 
@@ -192,6 +205,58 @@ public class CompressionBenchmark extends YoVariableLogReader
       return ((double) compressedSize) / ((double) totalSize);
    }
 
+   private double benchMarkDelta(DeltaCompressionImplementation compressor, ByteBuffer[] set)
+   {
+      ByteBuffer target = ByteBuffer.allocate(compressor.maxCompressedLength(getNumberOfVariables() * 8));
+
+      long totalSize = (long) set.length * (long) (getNumberOfVariables() * 8);
+      long compressedSize = 0;
+
+      for (int i = 0; i < set.length; i++)
+      {
+         set[i].clear();
+         target.clear();
+         compressedSize += compressor.compress(set[i], target);
+      }
+
+      return ((double) compressedSize) / ((double) totalSize);
+   }
+
+   private ByteBuffer[] compressDelta(ByteBuffer[] set)
+   {
+      DeltaCompressionImplementation compressor = new DeltaCompressionImplementation();
+      ByteBuffer[] compressedSet = new ByteBuffer[set.length];
+      for (int i = 0; i < set.length; i++)
+      {
+         set[i].clear();
+         compressedSet[i] = ByteBuffer.allocate(compressor.maxCompressedLength(getNumberOfVariables() * 8));
+         compressor.compress(set[i], compressedSet[i]);
+         compressedSet[i].flip();
+      }
+      return compressedSet;
+   }
+
+   /**
+    * @return Fraction of frames that did not decompress to the original frame, should be zero
+    */
+   private double benchMarkDeltaDecompress(ByteBuffer[] compressedSet)
+   {
+      DeltaCompressionImplementation decompressor = new DeltaCompressionImplementation();
+      ByteBuffer target = ByteBuffer.allocate(getNumberOfVariables() * 8);
+      int errors = 0;
+      for (int i = 0; i < compressedSet.length; i++)
+      {
+         compressedSet[i].rewind();
+         target.clear();
+         decompressor.decompress(compressedSet[i], target, getNumberOfVariables() * 8);
+         if (target.position() != target.capacity())
+         {
+            errors++;
+         }
+      }
+      return ((double) errors) / ((double) compressedSet.length);
+   }
+
    private ByteBuffer copyData(int i) throws IOException
    {
       ByteBuffer dataLine = readData(i);
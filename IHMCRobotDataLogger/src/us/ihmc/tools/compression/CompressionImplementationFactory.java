@@ -8,17 +8,63 @@ package us.ihmc.tools.compression;
  */
 public class CompressionImplementationFactory
 {
+   /**
+    * Set this system property to true on both the server and the client to encode YoVariable frames relative to the previous frame.
+    */
+   public static final String DELTA_COMPRESSION_PROPERTY = "us.ihmc.robotDataLogger.deltaCompression";
+
+   private static final boolean useDeltaCompression = Boolean.getBoolean(DELTA_COMPRESSION_PROPERTY);
+
    private static CompressionImplementation instance = null;
 
+   /**
+    * Shared instance of the compression implementation.
+    * 
+    * When delta compression is enabled the shared instance should only be used to calculate buffer sizes,
+    * use {@link #createStreamInstance()} to get an instance to compress data with.
+    * 
+    * @return Shared compression implementation
+    */
    public static synchronized CompressionImplementation instance()
    {
       if (instance == null)
       {
-         instance = new LZ4CompressionImplementation();
+         if (useDeltaCompression)
+         {
+            instance = new DeltaCompressionImplementation();
+         }
+         else
+         {
+            instance = new LZ4CompressionImplementation();
 //         instance = new CopyCompressionImplementation();
+         }
       }
       return instance;
    }
+
+   /**
+    * Get a compression implementation for a single stream of frames.
+    * 
+    * Stateless implementations return the shared instance, a new instance is created for stateful implementations.
+    * 
+    * @return Compression implementation to be used for a single stream
+    */
+   public static CompressionImplementation createStreamInstance()
+   {
+      if (useDeltaCompression)
+      {
+         return new DeltaCompressionImplementation();
+      }
+      else
+      {
+         return instance();
+      }
+   }
+
+   public static boolean isDeltaCompressionEnabled()
+   {
+      return useDeltaCompression;
+   }
    
    /**
     * Disallow construction
@@ -0,0 +1,303 @@
+package us.ihmc.tools.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compression for streams of YoVariable frames that encodes every frame relative to the previous frame of the same stream.
+ *
+ * The frame is treated as an array of longs. Each long is XOR'ed with the value at the same position in the previous frame.
+ * Runs of unchanged slots are stored as a single count, changed slots are stored with their leading zero bytes removed.
+ * At 1kHz only a small fraction of the variables change between frames, so most of the frame collapses into run lengths.
+ *
+ * Because the encoding depends on the previous frame, an instance keeps state and can only be used for a single stream
+ * of frames. Every {@link #getKeyframeInterval()} frames a keyframe is encoded against an all-zero reference, so a
+ * decoder that missed a frame recovers at the next keyframe. Delta frames that do not directly follow the last decoded
+ * frame are rejected; decompress leaves the target untouched in that case.
+ *
+ * Frame layout
+ * <ul>
+ * <li>byte: {@link #KEYFRAME} or {@link #DELTAFRAME}</li>
+ * <li>int: sequence number of this frame</li>
+ * <li>repeated until all slots are filled: varint unchanged slots, varint changed slots, changed slots as
+ * [byte significant bytes, significant bytes of the XOR]</li>
+ * </ul>
+ *
+ * Frame lengths have to be a multiple of 8 bytes.
+ */
+public class DeltaCompressionImplementation implements CompressionImplementation
+{
+   public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+   public static final byte KEYFRAME = 0;
+   public static final byte DELTAFRAME = 1;
+
+   private static final int HEADER_SIZE = 5;
+   private static final int MAXIMUM_VARINT_SIZE = 5;
+
+   private final int keyframeInterval;
+
+   private long[] compressReference = new long[0];
+   private int compressSequence = 0;
+
+   private long[] decompressReference = new long[0];
+   private int decompressSequence = 0;
+   private boolean hasDecompressReference = false;
+
+   private long keyframes = 0;
+   private long rejectedFrames = 0;
+
+   public DeltaCompressionImplementation()
+   {
+      this(DEFAULT_KEYFRAME_INTERVAL);
+   }
+
+   /**
+    * @param keyframeInterval Encode a keyframe every keyframeInterval frames. 1 disables delta encoding.
+    */
+   public DeltaCompressionImplementation(int keyframeInterval)
+   {
+      if (keyframeInterval < 1)
+      {
+         throw new IllegalArgumentException("Keyframe interval should be at least 1");
+      }
+      this.keyframeInterval = keyframeInterval;
+   }
+
+   public int getKeyframeInterval()
+   {
+      return keyframeInterval;
+   }
+
+   @Override
+   public boolean supportsDirectOutput()
+   {
+      return true;
+   }
+
+   @Override
+   public int compress(ByteBuffer src, ByteBuffer target)
+   {
+      int length = src.remaining();
+      checkLength(length);
+      int slots = length / 8;
+
+      if (target.remaining() < maxCompressedLength(length))
+      {
+         throw new IllegalArgumentException("Cannot compress to output buffer, buffer size is: " + target.remaining() + ", need " + maxCompressedLength(length));
+      }
+
+      // The sequence number wraps around, an unsigned remainder keeps the keyframe interval after the wrap
+      boolean keyframe = Integer.remainderUnsigned(compressSequence, keyframeInterval) == 0 || compressReference.length != slots;
+      if (compressReference.length != slots)
+      {
+         compressReference = new long[slots];
+      }
+
+      int targetStart = target.position();
+      target.put(keyframe ? KEYFRAME : DELTAFRAME);
+      target.putInt(compressSequence);
+
+      int srcStart = src.position();
+      int slot = 0;
+      while (slot < slots)
+      {
+         int unchanged = 0;
+         while (slot + unchanged < slots && !keyframe && src.getLong(srcStart + (slot + unchanged) * 8) == compressReference[slot + unchanged])
+         {
+            unchanged++;
+         }
+
+         int changed = 0;
+         while (slot + unchanged + changed < slots)
+         {
+            int index = slot + unchanged + changed;
+            if (!keyframe && src.getLong(srcStart + index * 8) == compressReference[index])
+            {
+               break;
+            }
+            changed++;
+         }
+
+         putVarInt(target, unchanged);
+         putVarInt(target, changed);
+
+         slot += unchanged;
+         for (int i = 0; i < changed; i++, slot++)
+         {
+            long value = src.getLong(srcStart + slot * 8);
+            long xor = keyframe ? value : value ^ compressReference[slot];
+            compressReference[slot] = value;
+            putSignificantBytes(target, xor);
+         }
+      }
+
+      if (keyframe)
+      {
+         keyframes++;
+      }
+
+      src.position(srcStart + length);
+      compressSequence++;
+      return target.position() - targetStart;
+   }
+
+   @Override
+   public void decompress(ByteBuffer src, ByteBuffer target, int decompressedLength)
+   {
+      checkLength(decompressedLength);
+      int slots = decompressedLength / 8;
+
+      if (target.remaining() < decompressedLength)
+      {
+         throw new IllegalArgumentException("Cannot decompress to output buffer, buffer size is: " + target.remaining() + ", need " + decompressedLength);
+      }
+
+      byte type = src.get();
+      int sequence = src.getInt();
+      boolean keyframe = type == KEYFRAME;
+
+      if (!keyframe && (!hasDecompressReference || decompressReference.length != slots || sequence != decompressSequence + 1))
+      {
+         // Missed the reference frame, wait for the next keyframe
+         rejectedFrames++;
+         hasDecompressReference = false;
+         src.position(src.limit());
+         return;
+      }
+
+      if (decompressReference.length != slots)
+      {
+         decompressReference = new long[slots];
+      }
+
+      int slot = 0;
+      while (slot < slots)
+      {
+         int unchanged = getVarInt(src);
+         int changed = getVarInt(src);
+
+         if (keyframe)
+         {
+            for (int i = 0; i < unchanged; i++)
+            {
+               decompressReference[slot + i] = 0;
+            }
+         }
+         slot += unchanged;
+
+         for (int i = 0; i < changed; i++, slot++)
+         {
+            long xor = getSignificantBytes(src);
+            decompressReference[slot] = keyframe ? xor : decompressReference[slot] ^ xor;
+         }
+      }
+
+      for (int i = 0; i < slots; i++)
+      {
+         target.putLong(decompressReference[i]);
+      }
+
+      decompressSequence = sequence;
+      hasDecompressReference = true;
+   }
+
+   @Override
+   public int maxCompressedLength(int uncompressedLength)
+   {
+      return HEADER_SIZE + 2 * MAXIMUM_VARINT_SIZE + (uncompressedLength / 8) * 9;
+   }
+
+   @Override
+   public int minimumDecompressedLength(int compressedLength)
+   {
+      return Math.max(0, (compressedLength - HEADER_SIZE - 2 * MAXIMUM_VARINT_SIZE) / 9) * 8;
+   }
+
+   /**
+    * @return Number of keyframes encoded by this instance
+    */
+   public long getNumberOfKeyframes()
+   {
+      return keyframes;
+   }
+
+   /**
+    * @return Number of delta frames that could not be decoded because the reference frame was missing
+    */
+   public long getNumberOfRejectedFrames()
+   {
+      return rejectedFrames;
+   }
+
+   /**
+    * Forget the reference frames. The next frame will be encoded as keyframe and only a keyframe will be accepted by the decoder.
+    */
+   public void reset()
+   {
+      compressReference = new long[0];
+      compressSequence = 0;
+      hasDecompressReference = false;
+   }
+
+   /**
+    * Set the sequence number of the next compressed frame, used to test the wrap around of the sequence number.
+    */
+   void setCompressSequence(int compressSequence)
+   {
+      this.compressSequence = compressSequence;
+   }
+
+   private static void checkLength(int length)
+   {
+      if (length % 8 != 0)
+      {
+         throw new IllegalArgumentException("Length should be a multiple of 8, got " + length);
+      }
+   }
+
+   private static void putVarInt(ByteBuffer target, int value)
+   {
+      while ((value & ~0x7F) != 0)
+      {
+         target.put((byte) ((value & 0x7F) | 0x80));
+         value >>>= 7;
+      }
+      target.put((byte) value);
+   }
+
+   private static int getVarInt(ByteBuffer src)
+   {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do
+      {
+         b = src.get();
+         value |= (b & 0x7F) << shift;
+         shift += 7;
+      }
+      while ((b & 0x80) != 0);
+      return value;
+   }
+
+   private static void putSignificantBytes(ByteBuffer target, long value)
+   {
+      int bytes = Math.max(1, 8 - Long.numberOfLeadingZeros(value) / 8);
+      target.put((byte) bytes);
+      for (int i = bytes - 1; i >= 0; i--)
+      {
+         target.put((byte) (value >>> (i * 8)));
+      }
+   }
+
+   private static long getSignificantBytes(ByteBuffer src)
+   {
+      int bytes = src.get();
+      long value = 0;
+      for (int i = 0; i < bytes; i++)
+      {
+         value = (value << 8) | (src.get() & 0xFFL);
+      }
+      return value;
+   }
+}
@@ -0,0 +1,69 @@
+package us.ihmc.robotDataLogger;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class MappedLogIndexTest
+{
+   private final Random random = new Random(1596234L);
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testAgainstLogIndex() throws IOException
+   {
+      int entries = 1000 + random.nextInt(1000);
+      long dataSize = 0;
+
+      File indexFile = File.createTempFile("robotData", ".dat");
+      indexFile.deleteOnExit();
+
+      ByteBuffer indexData = ByteBuffer.allocate(entries * 16);
+      long timestamp = random.nextInt(1000);
+      for (int i = 0; i < entries; i++)
+      {
+         timestamp += 1 + random.nextInt(1000);
+         indexData.putLong(timestamp);
+         indexData.putLong(dataSize);
+         dataSize += 1 + random.nextInt(2000);
+      }
+      indexData.flip();
+
+      FileOutputStream indexStream = new FileOutputStream(indexFile);
+      FileChannel indexChannel = indexStream.getChannel();
+      indexChannel.write(indexData);
+      indexChannel.close();
+      indexStream.close();
+
+      LogIndex logIndex = new LogIndex(indexFile, dataSize);
+      MappedLogIndex mappedLogIndex = new MappedLogIndex(indexFile, dataSize);
+
+      assertEquals(logIndex.getNumberOfEntries(), mappedLogIndex.getNumberOfEntries());
+      assertEquals(logIndex.getInitialTimestamp(), mappedLogIndex.getInitialTimestamp());
+
+      for (int i = 0; i < entries; i++)
+      {
+         assertEquals(logIndex.timestamps[i], mappedLogIndex.getTimestamp(i));
+         assertEquals(logIndex.dataOffsets[i], mappedLogIndex.getDataOffset(i));
+         assertEquals(logIndex.compressedSizes[i], mappedLogIndex.getCompressedSize(i));
+
+         assertEquals(i, mappedLogIndex.seek(logIndex.timestamps[i]));
+         if (i > 0)
+         {
+            assertEquals(i, mappedLogIndex.seek(logIndex.timestamps[i - 1] + 1));
+         }
+      }
+
+      assertEquals(0, mappedLogIndex.seek(Long.MIN_VALUE));
+      assertEquals(entries - 1, mappedLogIndex.seek(Long.MAX_VALUE));
+   }
+}
@@ -24,6 +24,8 @@ import us.ihmc.robotDataLogger.rtps.LogParticipantTools;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
 import us.ihmc.robotics.screwTheory.RevoluteJoint;
 import us.ihmc.robotics.screwTheory.RigidBody;
+import us.ihmc.tools.compression.CompressionImplementation;
+import us.ihmc.tools.compression.DeltaCompressionImplementation;
 import us.ihmc.yoVariables.registry.YoVariableRegistry;
 import us.ihmc.yoVariables.variable.YoLong;
 import us.ihmc.yoVariables.variable.YoVariable;
@@ -115,4 +117,76 @@ public class RegistrySendBufferTest
          
       }
    }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDeltaCompressionWithTwoRegistries() throws IOException
+   {
+      Random random = new Random(9812374l);
+      int numberOfVariables = 200;
+      int numberOfRegistries = 2;
+
+      SerializedPayload payload = new SerializedPayload(DataProducerParticipant.getMaximumSynchronousPacketSize());
+      ArrayList<DeltaCompressionImplementation> compressors = new ArrayList<>();
+
+      // All registries share the publisher type, as in YoVariableServer
+      CustomLogDataPublisherType publisherType = new CustomLogDataPublisherType(numberOfVariables, 0, () ->
+      {
+         DeltaCompressionImplementation compressor = new DeltaCompressionImplementation();
+         compressors.add(compressor);
+         return compressor;
+      });
+      CustomLogDataSubscriberType subscriberType = new CustomLogDataSubscriberType(LogParticipantTools.calculateMaximumNumberOfVariables(numberOfVariables, 0), 0);
+
+      ArrayList<YoVariableRegistry> sendRegistries = new ArrayList<>();
+      ArrayList<RegistrySendBuffer> sendBuffers = new ArrayList<>();
+      ArrayList<YoVariable<?>> receiveVariables = new ArrayList<>();
+      YoVariableRegistry receiveRegistry = new YoVariableRegistry("receiveRegistry");
+      for (int r = 0; r < numberOfRegistries; r++)
+      {
+         YoVariableRegistry sendRegistry = new YoVariableRegistry("sendRegistry" + r);
+         for (int v = 0; v < numberOfVariables; v++)
+         {
+            new YoLong("var" + v, sendRegistry).set(random.nextLong());
+            receiveVariables.add(new YoLong("registry" + r + "var" + v, receiveRegistry));
+         }
+         sendRegistries.add(sendRegistry);
+         sendBuffers.add(new RegistrySendBuffer(r + 1, sendRegistry.getAllVariables(), new ArrayList<JointHolder>()));
+      }
+      RegistryDecompressor registryDecompressor = new RegistryDecompressor(receiveVariables, new ArrayList<JointState>(), DeltaCompressionImplementation::new);
+
+      int numberOfFrames = 3 * DeltaCompressionImplementation.DEFAULT_KEYFRAME_INTERVAL;
+      for (int frame = 0; frame < numberOfFrames; frame++)
+      {
+         for (int r = 0; r < numberOfRegistries; r++)
+         {
+            List<YoVariable<?>> sendVariables = sendRegistries.get(r).getAllVariables();
+            for (int c = 0; c < 5; c++)
+            {
+               ((YoLong) sendVariables.get(random.nextInt(numberOfVariables))).set(random.nextLong());
+            }
+
+            RegistrySendBuffer sendBuffer = sendBuffers.get(r);
+            sendBuffer.updateBufferFromVariables(frame, frame, 0, 0, numberOfVariables);
+            payload.getData().clear();
+            publisherType.serialize(sendBuffer, payload);
+
+            RegistryReceiveBuffer receiveBuffer = new RegistryReceiveBuffer(sendBuffer.getTimestamp());
+            subscriberType.deserialize(payload, receiveBuffer);
+            registryDecompressor.decompressSegment(receiveBuffer, r * numberOfVariables);
+
+            for (int v = 0; v < numberOfVariables; v++)
+            {
+               assertEquals(sendVariables.get(v).getValueAsLongBits(), receiveVariables.get(r * numberOfVariables + v).getValueAsLongBits());
+            }
+         }
+      }
+
+      assertEquals(0, registryDecompressor.getRejectedSegments());
+      assertEquals(numberOfRegistries, compressors.size());
+      for (DeltaCompressionImplementation compressor : compressors)
+      {
+         assertEquals(numberOfFrames / DeltaCompressionImplementation.DEFAULT_KEYFRAME_INTERVAL, compressor.getNumberOfKeyframes());
+      }
+   }
 }
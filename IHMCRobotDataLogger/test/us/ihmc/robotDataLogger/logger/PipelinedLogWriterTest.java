@@ -0,0 +1,229 @@
+package us.ihmc.robotDataLogger.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.robotDataLogger.MappedLogIndex;
+import us.ihmc.tools.compression.SnappyLibrary;
+import us.ihmc.tools.compression.SnappyUtils;
+
+public class PipelinedLogWriterTest
+{
+   private final Random random = new Random(4597234L);
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testWriteAndReadBack() throws IOException
+   {
+      int variables = 100 + random.nextInt(100);
+      int bufferSize = variables * 8;
+      int frames = 5000;
+
+      File dataFile = File.createTempFile("robotData", ".bsz");
+      File indexFile = File.createTempFile("robotData", ".dat");
+      dataFile.deleteOnExit();
+      indexFile.deleteOnExit();
+
+      FileOutputStream dataStream = new FileOutputStream(dataFile, false);
+      FileOutputStream indexStream = new FileOutputStream(indexFile, false);
+      FileChannel dataChannel = dataStream.getChannel();
+      FileChannel indexChannel = indexStream.getChannel();
+
+      // Capacity equal to the number of frames, nothing should get dropped
+      PipelinedLogWriter writer = new PipelinedLogWriter(dataChannel, indexChannel, bufferSize, frames, false);
+
+      long[][] data = new long[frames][variables];
+      ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+      for (int i = 0; i < frames; i++)
+      {
+         buffer.clear();
+         for (int v = 0; v < variables; v++)
+         {
+            data[i][v] = random.nextInt(10);
+            buffer.putLong(data[i][v]);
+         }
+         buffer.flip();
+         assertTrue(writer.offer(i * 1000L, buffer));
+      }
+
+      writer.close();
+      assertEquals(0, writer.getDroppedFrames());
+      assertEquals(0, writer.getQueueDepth());
+      assertEquals(frames, writer.getWrittenFrames());
+      assertNull(writer.getWriterException());
+
+      dataChannel.close();
+      indexChannel.close();
+      dataStream.close();
+      indexStream.close();
+
+      MappedLogIndex index = new MappedLogIndex(indexFile, dataFile.length());
+      assertEquals(frames, index.getNumberOfEntries());
+
+      RandomAccessFile dataReader = new RandomAccessFile(dataFile, "r");
+      ByteBuffer compressed = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+      ByteBuffer uncompressed = ByteBuffer.allocate(bufferSize);
+      for (int i = 0; i < frames; i++)
+      {
+         assertEquals(i * 1000L, index.getTimestamp(i));
+
+         compressed.clear();
+         compressed.limit(index.getCompressedSize(i));
+         dataReader.getChannel().read(compressed, index.getDataOffset(i));
+         compressed.flip();
+
+         uncompressed.clear();
+         SnappyUtils.uncompress(compressed, uncompressed);
+         uncompressed.flip();
+
+         assertEquals(bufferSize, uncompressed.remaining());
+         for (int v = 0; v < variables; v++)
+         {
+            assertEquals(data[i][v], uncompressed.getLong());
+         }
+      }
+      dataReader.close();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDropWhenFull() throws IOException
+   {
+      File dataFile = File.createTempFile("robotData", ".bsz");
+      File indexFile = File.createTempFile("robotData", ".dat");
+      dataFile.deleteOnExit();
+      indexFile.deleteOnExit();
+
+      FileOutputStream dataStream = new FileOutputStream(dataFile, false);
+      FileOutputStream indexStream = new FileOutputStream(indexFile, false);
+
+      PipelinedLogWriter writer = new PipelinedLogWriter(dataStream.getChannel(), indexStream.getChannel(), 64, 4, false);
+      assertEquals(4, writer.getCapacity());
+
+      ByteBuffer buffer = ByteBuffer.allocate(64);
+      int offered = 10000;
+      int accepted = 0;
+      for (int i = 0; i < offered; i++)
+      {
+         buffer.clear();
+         if (writer.offer(i, buffer))
+         {
+            accepted++;
+         }
+      }
+      writer.close();
+
+      assertEquals(offered - accepted, writer.getDroppedFrames());
+      assertEquals(accepted, writer.getWrittenFrames());
+      assertTrue(writer.getMaximumQueueDepth() <= writer.getCapacity());
+
+      dataStream.close();
+      indexStream.close();
+
+      assertEquals(accepted * 16, indexFile.length());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testDropFramesThatFailToCompress() throws IOException
+   {
+      int bufferSize = 64;
+      int frames = 100;
+
+      File dataFile = File.createTempFile("robotData", ".bsz");
+      File indexFile = File.createTempFile("robotData", ".dat");
+      dataFile.deleteOnExit();
+      indexFile.deleteOnExit();
+
+      FileOutputStream dataStream = new FileOutputStream(dataFile, false);
+      FileOutputStream indexStream = new FileOutputStream(indexFile, false);
+
+      // Fails to compress every frame whose first long is a multiple of 7
+      SnappyLibrary library = SnappyUtils.snappyLibrary;
+      SnappyUtils.setLibrary(new SnappyLibrary()
+      {
+         @Override
+         public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset) throws IOException
+         {
+            if (ByteBuffer.wrap(input, inputOffset, inputLength).getLong() % 7 == 0)
+            {
+               throw new IOException("Cannot compress");
+            }
+            return super.compress(input, inputOffset, inputLength, output, outputOffset);
+         }
+      });
+
+      int failedFrames = 0;
+      try
+      {
+         PipelinedLogWriter writer = new PipelinedLogWriter(dataStream.getChannel(), indexStream.getChannel(), bufferSize, frames, false);
+         ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+         for (int i = 0; i < frames; i++)
+         {
+            buffer.clear();
+            buffer.putLong(i);
+            buffer.position(bufferSize);
+            buffer.flip();
+            assertTrue(writer.offer(i * 1000L, buffer));
+            if (i % 7 == 0)
+            {
+               failedFrames++;
+            }
+         }
+         writer.close();
+
+         assertEquals(failedFrames, writer.getDroppedFrames());
+         assertEquals(frames - failedFrames, writer.getWrittenFrames());
+         assertNull(writer.getWriterException());
+      }
+      finally
+      {
+         SnappyUtils.setLibrary(library);
+         dataStream.close();
+         indexStream.close();
+      }
+
+      // Only the frames that got compressed are in the log, and every one of them can be decompressed
+      MappedLogIndex index = new MappedLogIndex(indexFile, dataFile.length());
+      assertEquals(frames - failedFrames, index.getNumberOfEntries());
+
+      RandomAccessFile dataReader = new RandomAccessFile(dataFile, "r");
+      ByteBuffer compressed = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+      ByteBuffer uncompressed = ByteBuffer.allocate(bufferSize);
+      int entry = 0;
+      for (int i = 0; i < frames; i++)
+      {
+         if (i % 7 == 0)
+         {
+            continue;
+         }
+
+         assertEquals(i * 1000L, index.getTimestamp(entry));
+         assertTrue(index.getCompressedSize(entry) > 0);
+
+         compressed.clear();
+         compressed.limit(index.getCompressedSize(entry));
+         dataReader.getChannel().read(compressed, index.getDataOffset(entry));
+         compressed.flip();
+
+         uncompressed.clear();
+         SnappyUtils.uncompress(compressed, uncompressed);
+         uncompressed.flip();
+         assertEquals(i, uncompressed.getLong());
+         entry++;
+      }
+      dataReader.close();
+   }
+}
@@ -0,0 +1,193 @@
+package us.ihmc.tools.compression;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+
+public class DeltaCompressionImplementationTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testLength()
+   {
+      DeltaCompressionImplementation impl = new DeltaCompressionImplementation();
+
+      Random random = new Random(12597651l);
+      for (int i = 0; i < 1000; i++)
+      {
+         int test = random.nextInt(65000 / 8) * 8;
+         int max = impl.maxCompressedLength(test);
+         int min = impl.minimumDecompressedLength(max);
+
+         assertEquals(test, min);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testRoundTrip()
+   {
+      Random random = new Random(8723465l);
+      int variables = 1000;
+      DeltaCompressionImplementation compressor = new DeltaCompressionImplementation(25);
+      DeltaCompressionImplementation decompressor = new DeltaCompressionImplementation(25);
+
+      ByteBuffer frame = ByteBuffer.allocate(variables * 8);
+      ByteBuffer compressed = ByteBuffer.allocate(compressor.maxCompressedLength(variables * 8));
+      ByteBuffer decompressed = ByteBuffer.allocate(variables * 8);
+
+      long[] values = new long[variables];
+      for (int i = 0; i < variables; i++)
+      {
+         values[i] = random.nextLong();
+      }
+
+      long compressedSize = 0;
+      for (int f = 0; f < 200; f++)
+      {
+         // Change a few variables each frame
+         for (int c = 0; c < 10; c++)
+         {
+            int variable = random.nextInt(variables);
+            values[variable] = Double.doubleToLongBits(Double.longBitsToDouble(values[variable]) + random.nextDouble());
+         }
+
+         frame.clear();
+         for (int i = 0; i < variables; i++)
+         {
+            frame.putLong(values[i]);
+         }
+         frame.flip();
+
+         compressed.clear();
+         int size = compressor.compress(frame, compressed);
+         compressed.flip();
+         assertEquals(size, compressed.remaining());
+         assertEquals(0, frame.remaining());
+         compressedSize += size;
+
+         decompressed.clear();
+         decompressor.decompress(compressed, decompressed, variables * 8);
+         decompressed.flip();
+
+         assertEquals(variables * 8, decompressed.remaining());
+         for (int i = 0; i < variables; i++)
+         {
+            assertEquals(values[i], decompressed.getLong());
+         }
+      }
+
+      assertEquals(8, compressor.getNumberOfKeyframes());
+      assertTrue("Delta compression did not reduce size", compressedSize < 200L * variables * 8 / 4);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testRecoverFromLostFrame()
+   {
+      int variables = 50;
+      int keyframeInterval = 10;
+      DeltaCompressionImplementation compressor = new DeltaCompressionImplementation(keyframeInterval);
+      DeltaCompressionImplementation decompressor = new DeltaCompressionImplementation(keyframeInterval);
+
+      ByteBuffer frame = ByteBuffer.allocate(variables * 8);
+      ByteBuffer compressed = ByteBuffer.allocate(compressor.maxCompressedLength(variables * 8));
+      ByteBuffer decompressed = ByteBuffer.allocate(variables * 8);
+
+      for (int f = 0; f < 3 * keyframeInterval; f++)
+      {
+         frame.clear();
+         for (int i = 0; i < variables; i++)
+         {
+            frame.putLong(f * i);
+         }
+         frame.flip();
+
+         compressed.clear();
+         compressor.compress(frame, compressed);
+         compressed.flip();
+
+         // Lose frame 3
+         if (f == 3)
+         {
+            continue;
+         }
+
+         decompressed.clear();
+         decompressor.decompress(compressed, decompressed, variables * 8);
+         decompressed.flip();
+
+         if (f > 3 && f < keyframeInterval)
+         {
+            assertEquals(0, decompressed.remaining());
+         }
+         else
+         {
+            assertEquals(variables * 8, decompressed.remaining());
+            for (int i = 0; i < variables; i++)
+            {
+               assertEquals(f * i, decompressed.getLong());
+            }
+         }
+      }
+
+      assertEquals(keyframeInterval - 4, decompressor.getNumberOfRejectedFrames());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSequenceNumberWrapAround()
+   {
+      int variables = 50;
+      int keyframeInterval = 10;
+      DeltaCompressionImplementation compressor = new DeltaCompressionImplementation(keyframeInterval);
+      DeltaCompressionImplementation decompressor = new DeltaCompressionImplementation(keyframeInterval);
+      compressor.setCompressSequence(Integer.MAX_VALUE - 2 * keyframeInterval);
+
+      ByteBuffer frame = ByteBuffer.allocate(variables * 8);
+      ByteBuffer compressed = ByteBuffer.allocate(compressor.maxCompressedLength(variables * 8));
+      ByteBuffer decompressed = ByteBuffer.allocate(variables * 8);
+
+      int framesSinceKeyframe = 0;
+      for (int f = 0; f < 5 * keyframeInterval; f++)
+      {
+         frame.clear();
+         for (int i = 0; i < variables; i++)
+         {
+            frame.putLong(f * i);
+         }
+         frame.flip();
+
+         compressed.clear();
+         compressor.compress(frame, compressed);
+         compressed.flip();
+
+         if (compressed.get(compressed.position()) == DeltaCompressionImplementation.KEYFRAME)
+         {
+            framesSinceKeyframe = 0;
+         }
+         else
+         {
+            framesSinceKeyframe++;
+         }
+         assertTrue("No keyframe for " + framesSinceKeyframe + " frames", framesSinceKeyframe < keyframeInterval);
+
+         decompressed.clear();
+         decompressor.decompress(compressed, decompressed, variables * 8);
+         decompressed.flip();
+
+         assertEquals(variables * 8, decompressed.remaining());
+         for (int i = 0; i < variables; i++)
+         {
+            assertEquals(f * i, decompressed.getLong());
+         }
+      }
+
+      assertEquals(0, decompressor.getNumberOfRejectedFrames());
+   }
+}
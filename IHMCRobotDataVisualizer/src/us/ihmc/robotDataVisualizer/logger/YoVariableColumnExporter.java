@@ -0,0 +1,289 @@
+package us.ihmc.robotDataVisualizer.logger;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogPropertiesReader;
+import us.ihmc.robotDataLogger.logger.MappedYoVariableLogReader;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.robotDataVisualizer.logger.util.FileSelectionDialog;
+import us.ihmc.tools.thread.ThreadTools;
+import us.ihmc.yoVariables.variable.YoVariable;
+
+/**
+ * Transposes a section of a compressed log into one column file per variable.
+ *
+ * The log is read with a {@link MappedYoVariableLogReader} and the Snappy blocks are decoded in parallel, each worker
+ * thread handles a contiguous range of entries and writes the requested variables straight into memory mapped column files.
+ * Only the selected variables are copied, but every block in the range still has to be decompressed once.
+ *
+ * The column files contain the raw long bits of the variable for every entry, in the byte order of the log. A description
+ * file lists the name, type and file of every column. Use {@link YoVariableColumnReader} to load the columns.
+ */
+public class YoVariableColumnExporter
+{
+   public static final String descriptionFilename = "columns.csv";
+   public static final String columnExtension = ".col";
+   public static final String timestampColumn = "timestamp";
+
+   private static final int TASKS_PER_THREAD = 4;
+
+   private final MappedYoVariableLogReader reader;
+   private final List<YoVariable<?>> variables;
+   private final int numberOfThreads;
+
+   /**
+    * @param logDirectory Directory containing the log
+    * @param numberOfThreads Number of threads used for decoding
+    */
+   public YoVariableColumnExporter(File logDirectory, int numberOfThreads) throws IOException
+   {
+      LogPropertiesReader logProperties = new LogPropertiesReader(new File(logDirectory, YoVariableLoggerListener.propertyFile));
+      File handshake = new File(logDirectory, logProperties.getVariables().getHandshakeAsString());
+      if (!handshake.exists())
+      {
+         throw new RuntimeException("Cannot find " + logProperties.getVariables().getHandshakeAsString());
+      }
+
+      DataInputStream handshakeStream = new DataInputStream(new FileInputStream(handshake));
+      byte[] handshakeData = new byte[(int) handshake.length()];
+      handshakeStream.readFully(handshakeData);
+      handshakeStream.close();
+
+      YoVariableHandshakeParser parser = YoVariableHandshakeParser.create(logProperties.getVariables().getHandshakeFileType());
+      parser.parseFrom(handshakeData);
+
+      this.variables = parser.getYoVariablesList();
+      this.reader = new MappedYoVariableLogReader(logDirectory, logProperties);
+      this.numberOfThreads = numberOfThreads;
+   }
+
+   public List<YoVariable<?>> getVariables()
+   {
+      return variables;
+   }
+
+   /**
+    * Find variables by (partial) name
+    *
+    * @param names Variable names. Matches if the full name with namespace of a variable ends with the name.
+    * @return Matching variables, in the order of names
+    */
+   public List<YoVariable<?>> findVariables(String... names)
+   {
+      ArrayList<YoVariable<?>> result = new ArrayList<>();
+      for (String name : names)
+      {
+         boolean found = false;
+         for (int i = 0; i < variables.size(); i++)
+         {
+            if (variables.get(i).getFullNameWithNameSpace().endsWith(name))
+            {
+               result.add(variables.get(i));
+               found = true;
+               break;
+            }
+         }
+
+         if (!found)
+         {
+            System.err.println("Cannot find variable " + name);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Export the complete log
+    */
+   public void export(File destination, List<YoVariable<?>> variablesToExport) throws IOException
+   {
+      if (reader.getNumberOfEntries() == 0)
+      {
+         throw new IOException("Log is empty");
+      }
+      export(destination, variablesToExport, reader.getTimestamp(0), reader.getTimestamp(reader.getNumberOfEntries() - 1));
+   }
+
+   /**
+    * Export all entries between start and end into column files
+    *
+    * @param destination Directory to write the column files to. Created if it does not exist.
+    * @param variablesToExport Variables to export
+    * @param start First timestamp to export
+    * @param end Last timestamp to export
+    * @throws IOException
+    */
+   public void export(File destination, List<YoVariable<?>> variablesToExport, long start, long end) throws IOException
+   {
+      if (reader.getNumberOfEntries() == 0)
+      {
+         throw new IOException("Log is empty");
+      }
+      if (start > end)
+      {
+         throw new IllegalArgumentException("Start timestamp " + start + " is after end timestamp " + end);
+      }
+
+      // Seeking returns the first entry at or after the timestamp, clamped to the last entry
+      int startPosition = reader.getPosition(start);
+      if (reader.getTimestamp(startPosition) < start)
+      {
+         startPosition++;
+      }
+      int endPosition = reader.getPosition(end);
+      if (reader.getTimestamp(endPosition) > end)
+      {
+         endPosition--;
+      }
+
+      int elements = endPosition - startPosition + 1;
+      if (elements <= 0)
+      {
+         throw new IllegalArgumentException("There are no entries between " + start + " and " + end);
+      }
+
+      if (!destination.exists() && !destination.mkdirs())
+      {
+         throw new IOException("Cannot make directory " + destination.getAbsolutePath());
+      }
+
+      // Column 0 is the timestamp, which is the first element of every entry
+      int numberOfColumns = variablesToExport.size() + 1;
+      String[] names = new String[numberOfColumns];
+      String[] types = new String[numberOfColumns];
+      int[] offsets = new int[numberOfColumns];
+
+      names[0] = timestampColumn;
+      types[0] = "LONG";
+      offsets[0] = 0;
+      for (int i = 0; i < variablesToExport.size(); i++)
+      {
+         YoVariable<?> variable = variablesToExport.get(i);
+         int offset = variables.indexOf(variable);
+         if (offset == -1)
+         {
+            throw new IllegalArgumentException("Variable " + variable.getName() + " is not part of this log");
+         }
+         names[i + 1] = variable.getFullNameWithNameSpace();
+         types[i + 1] = variable.getYoVariableType().name();
+         offsets[i + 1] = (offset + 1) * 8;
+      }
+
+      RandomAccessFile[] columnFiles = new RandomAccessFile[numberOfColumns];
+      MappedByteBuffer[] mappedColumns = new MappedByteBuffer[numberOfColumns];
+      LongBuffer[] columns = new LongBuffer[numberOfColumns];
+      for (int c = 0; c < numberOfColumns; c++)
+      {
+         columnFiles[c] = new RandomAccessFile(new File(destination, names[c] + columnExtension), "rw");
+         columnFiles[c].setLength((long) elements * 8);
+         mappedColumns[c] = columnFiles[c].getChannel().map(MapMode.READ_WRITE, 0, (long) elements * 8);
+         columns[c] = mappedColumns[c].asLongBuffer();
+      }
+
+      long startTime = System.nanoTime();
+      ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, ThreadTools.getNamedThreadFactory(getClass().getSimpleName()));
+      try
+      {
+         int numberOfTasks = Math.min(elements, numberOfThreads * TASKS_PER_THREAD);
+         ArrayList<Future<?>> tasks = new ArrayList<>();
+         for (int task = 0; task < numberOfTasks; task++)
+         {
+            int taskStart = startPosition + (int) (((long) elements * task) / numberOfTasks);
+            int taskEnd = startPosition + (int) (((long) elements * (task + 1)) / numberOfTasks);
+            tasks.add(executor.submit(() -> {
+               decode(taskStart, taskEnd, startPosition, offsets, columns);
+               return null;
+            }));
+         }
+
+         for (Future<?> task : tasks)
+         {
+            task.get();
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new IOException(e);
+      }
+      catch (ExecutionException e)
+      {
+         throw new IOException(e.getCause());
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+
+      for (int c = 0; c < numberOfColumns; c++)
+      {
+         mappedColumns[c].force();
+         columnFiles[c].close();
+      }
+
+      PrintWriter description = new PrintWriter(new File(destination, descriptionFilename));
+      for (int c = 0; c < numberOfColumns; c++)
+      {
+         description.println(names[c] + "," + types[c] + "," + names[c] + columnExtension + "," + elements);
+      }
+      description.close();
+
+      System.out.println("Exported " + (numberOfColumns - 1) + " variables with " + elements + " entries in "
+            + Conversions.nanosecondsToSeconds(System.nanoTime() - startTime) + "s");
+   }
+
+   private void decode(int start, int end, int firstPosition, int[] offsets, LongBuffer[] columns) throws IOException
+   {
+      ByteBuffer compressedData = ByteBuffer.allocate(reader.getMaxCompressedSize());
+      ByteBuffer uncompressedData = ByteBuffer.allocate(reader.getBufferSize());
+
+      for (int i = start; i < end; i++)
+      {
+         ByteBuffer data = reader.readData(i, compressedData, uncompressedData);
+         int row = i - firstPosition;
+         for (int c = 0; c < offsets.length; c++)
+         {
+            columns[c].put(row, data.getLong(offsets[c]));
+         }
+      }
+   }
+
+   public void close()
+   {
+      reader.close();
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      if (args.length == 0)
+      {
+         System.err.println("Usage: YoVariableColumnExporter [variable names]");
+         return;
+      }
+
+      File file = FileSelectionDialog.loadDirectoryWithFileNamed(YoVariableLoggerListener.propertyFile);
+      if (file != null)
+      {
+         YoVariableColumnExporter exporter = new YoVariableColumnExporter(file, Runtime.getRuntime().availableProcessors());
+         exporter.export(new File(file, "columns"), exporter.findVariables(args));
+         exporter.close();
+      }
+   }
+}
@@ -0,0 +1,120 @@
+package us.ihmc.robotDataVisualizer.logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Loads column files written by {@link YoVariableColumnExporter}.
+ *
+ * Columns are memory mapped, loading a column only touches the requested file.
+ */
+public class YoVariableColumnReader
+{
+   private final File directory;
+   private final LinkedHashMap<String, String[]> columns = new LinkedHashMap<>();
+
+   public YoVariableColumnReader(File directory) throws IOException
+   {
+      this.directory = directory;
+
+      BufferedReader description = new BufferedReader(new FileReader(new File(directory, YoVariableColumnExporter.descriptionFilename)));
+      String line;
+      while ((line = description.readLine()) != null)
+      {
+         if (line.isEmpty())
+         {
+            continue;
+         }
+         String[] fields = line.split(",");
+         if (fields.length != 4)
+         {
+            description.close();
+            throw new IOException("Invalid column description: " + line);
+         }
+         columns.put(fields[0], fields);
+      }
+      description.close();
+   }
+
+   public List<String> getColumnNames()
+   {
+      return new ArrayList<>(columns.keySet());
+   }
+
+   public int getNumberOfEntries()
+   {
+      return Integer.parseInt(getDescription(YoVariableColumnExporter.timestampColumn)[3]);
+   }
+
+   /**
+    * @return Type of the variable in the column, as given by YoVariableType
+    */
+   public String getType(String name)
+   {
+      return getDescription(name)[1];
+   }
+
+   /**
+    * Map a column into memory
+    *
+    * @param name Full name with namespace of the variable
+    * @return Read only view on the raw long bits of the column
+    * @throws IOException
+    */
+   public LongBuffer mapColumn(String name) throws IOException
+   {
+      String[] description = getDescription(name);
+      try (RandomAccessFile columnFile = new RandomAccessFile(new File(directory, description[2]), "r"); FileChannel channel = columnFile.getChannel())
+      {
+         return channel.map(MapMode.READ_ONLY, 0, channel.size()).asLongBuffer();
+      }
+   }
+
+   public long[] getTimestamps() throws IOException
+   {
+      LongBuffer column = mapColumn(YoVariableColumnExporter.timestampColumn);
+      long[] timestamps = new long[column.remaining()];
+      column.get(timestamps);
+      return timestamps;
+   }
+
+   /**
+    * Read a column converted to doubles, for plotting
+    *
+    * @param name Full name with namespace of the variable
+    * @return Value of the variable for every entry
+    * @throws IOException
+    */
+   public double[] getColumnAsDouble(String name) throws IOException
+   {
+      LongBuffer column = mapColumn(name);
+      boolean isDouble = "DOUBLE".equals(getType(name));
+
+      double[] values = new double[column.remaining()];
+      for (int i = 0; i < values.length; i++)
+      {
+         long bits = column.get(i);
+         values[i] = isDouble ? Double.longBitsToDouble(bits) : bits;
+      }
+      return values;
+   }
+
+   private String[] getDescription(String name)
+   {
+      String[] description = columns.get(name);
+      if (description == null)
+      {
+         throw new IllegalArgumentException("Cannot find column " + name);
+      }
+      return description;
+   }
+}
@@ -0,0 +1,233 @@
+package us.ihmc.robotDataVisualizer.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.idl.serializers.extra.YAMLSerializer;
+import us.ihmc.robotDataLogger.HandshakeFileType;
+import us.ihmc.robotDataLogger.HandshakePubSubType;
+import us.ihmc.robotDataLogger.dataBuffers.RegistrySendBufferBuilder;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandShakeBuilder;
+import us.ihmc.robotDataLogger.handshake.YoVariableHandshakeParser;
+import us.ihmc.robotDataLogger.logger.LogPropertiesWriter;
+import us.ihmc.robotDataLogger.logger.YoVariableLoggerListener;
+import us.ihmc.tools.compression.SnappyUtils;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+import us.ihmc.yoVariables.variable.YoDouble;
+import us.ihmc.yoVariables.variable.YoVariable;
+
+public class YoVariableColumnExporterTest
+{
+   private static final int NUMBER_OF_ENTRIES = 100;
+   private static final int NUMBER_OF_VARIABLES = 10;
+   private static final long TIMESTAMP_INCREMENT = 1000;
+
+   private File logDirectory;
+   private YoVariableColumnExporter exporter;
+
+   @Before
+   public void writeLog() throws IOException
+   {
+      logDirectory = Files.createTempDirectory("columnExporterLog").toFile();
+
+      YoVariableRegistry root = new YoVariableRegistry("root");
+      YoVariableRegistry registry = new YoVariableRegistry("exported");
+      root.addChild(registry);
+      for (int v = 0; v < NUMBER_OF_VARIABLES; v++)
+      {
+         new YoDouble("variable" + v, registry);
+      }
+
+      YoVariableHandShakeBuilder handShakeBuilder = new YoVariableHandShakeBuilder(root.getName(), 0.001);
+      handShakeBuilder.addRegistryBuffer(new RegistrySendBufferBuilder(registry, null, null));
+      File handshakeFile = new File(logDirectory, "handshake.yaml");
+      new YAMLSerializer<>(new HandshakePubSubType()).serialize(handshakeFile, handShakeBuilder.getHandShake());
+
+      LogPropertiesWriter logProperties = new LogPropertiesWriter(new File(logDirectory, YoVariableLoggerListener.propertyFile));
+      logProperties.getVariables().setHandshake(handshakeFile.getName());
+      logProperties.getVariables().setData("robotData.bsz");
+      logProperties.getVariables().setCompressed(true);
+      logProperties.getVariables().setTimestamped(true);
+      logProperties.getVariables().setIndex("robotData.dat");
+      logProperties.getVariables().setHandshakeFileType(HandshakeFileType.IDL_YAML);
+      logProperties.store();
+
+      byte[] handshakeData = Files.readAllBytes(handshakeFile.toPath());
+      int bufferSize = YoVariableHandshakeParser.getNumberOfStateVariables(HandshakeFileType.IDL_YAML, handshakeData) * 8;
+
+      FileOutputStream dataStream = new FileOutputStream(new File(logDirectory, "robotData.bsz"));
+      FileOutputStream indexStream = new FileOutputStream(new File(logDirectory, "robotData.dat"));
+      FileChannel dataChannel = dataStream.getChannel();
+      FileChannel indexChannel = indexStream.getChannel();
+
+      ByteBuffer uncompressed = ByteBuffer.allocate(bufferSize);
+      ByteBuffer compressed = ByteBuffer.allocate(SnappyUtils.maxCompressedLength(bufferSize));
+      ByteBuffer indexEntry = ByteBuffer.allocate(16);
+      for (int i = 0; i < NUMBER_OF_ENTRIES; i++)
+      {
+         uncompressed.clear();
+         uncompressed.putLong(getTimestamp(i));
+         for (int v = 0; v < NUMBER_OF_VARIABLES; v++)
+         {
+            uncompressed.putLong(Double.doubleToLongBits(getValue(i, v)));
+         }
+         while (uncompressed.hasRemaining())
+         {
+            uncompressed.putLong(0);
+         }
+         uncompressed.flip();
+
+         compressed.clear();
+         SnappyUtils.compress(uncompressed, compressed);
+         compressed.flip();
+
+         indexEntry.clear();
+         indexEntry.putLong(getTimestamp(i));
+         indexEntry.putLong(dataChannel.position());
+         indexEntry.flip();
+         indexChannel.write(indexEntry);
+         dataChannel.write(compressed);
+      }
+
+      dataChannel.close();
+      indexChannel.close();
+      dataStream.close();
+      indexStream.close();
+
+      exporter = new YoVariableColumnExporter(logDirectory, 4);
+   }
+
+   @After
+   public void deleteLog()
+   {
+      exporter.close();
+      deleteRecursively(logDirectory);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testExportCompleteLog() throws IOException
+   {
+      List<YoVariable<?>> variables = exporter.findVariables("variable3", "variable7");
+      File destination = new File(logDirectory, "columns");
+      exporter.export(destination, variables);
+
+      assertColumns(destination, variables, 0, NUMBER_OF_ENTRIES - 1);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testExportBounds() throws IOException
+   {
+      List<YoVariable<?>> variables = exporter.findVariables("variable0", "variable9");
+
+      // Bounds on entries
+      File destination = new File(logDirectory, "exactBounds");
+      exporter.export(destination, variables, getTimestamp(10), getTimestamp(20));
+      assertColumns(destination, variables, 10, 20);
+
+      // Bounds between entries, only the entries inside the bounds are exported
+      destination = new File(logDirectory, "betweenBounds");
+      exporter.export(destination, variables, getTimestamp(10) + TIMESTAMP_INCREMENT / 2, getTimestamp(20) + TIMESTAMP_INCREMENT / 2);
+      assertColumns(destination, variables, 11, 20);
+
+      // Bounds beyond the log
+      destination = new File(logDirectory, "beyondBounds");
+      exporter.export(destination, variables, getTimestamp(0) - TIMESTAMP_INCREMENT, getTimestamp(NUMBER_OF_ENTRIES - 1) + TIMESTAMP_INCREMENT);
+      assertColumns(destination, variables, 0, NUMBER_OF_ENTRIES - 1);
+
+      // Single entry
+      destination = new File(logDirectory, "singleEntry");
+      exporter.export(destination, variables, getTimestamp(42), getTimestamp(42));
+      assertColumns(destination, variables, 42, 42);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testInvalidBounds() throws IOException
+   {
+      List<YoVariable<?>> variables = exporter.findVariables("variable0");
+
+      assertExportFails(variables, getTimestamp(20), getTimestamp(10));
+      assertExportFails(variables, getTimestamp(10) + 1, getTimestamp(11) - 1);
+      assertExportFails(variables, getTimestamp(NUMBER_OF_ENTRIES - 1) + 1, getTimestamp(NUMBER_OF_ENTRIES - 1) + TIMESTAMP_INCREMENT);
+      assertExportFails(variables, getTimestamp(0) - TIMESTAMP_INCREMENT, getTimestamp(0) - 1);
+   }
+
+   private void assertExportFails(List<YoVariable<?>> variables, long start, long end) throws IOException
+   {
+      try
+      {
+         exporter.export(new File(logDirectory, "invalid"), variables, start, end);
+         fail("Exporting from " + start + " to " + end + " should fail");
+      }
+      catch (IllegalArgumentException e)
+      {
+         // Expected
+      }
+   }
+
+   private void assertColumns(File destination, List<YoVariable<?>> variables, int firstEntry, int lastEntry) throws IOException
+   {
+      YoVariableColumnReader reader = new YoVariableColumnReader(destination);
+      int numberOfEntries = lastEntry - firstEntry + 1;
+      assertEquals(numberOfEntries, reader.getNumberOfEntries());
+      assertEquals(variables.size() + 1, reader.getColumnNames().size());
+
+      long[] timestamps = reader.getTimestamps();
+      assertEquals(numberOfEntries, timestamps.length);
+      for (int i = 0; i < numberOfEntries; i++)
+      {
+         assertEquals(getTimestamp(firstEntry + i), timestamps[i]);
+      }
+
+      for (YoVariable<?> variable : variables)
+      {
+         int v = Integer.parseInt(variable.getName().substring("variable".length()));
+         assertEquals("DOUBLE", reader.getType(variable.getFullNameWithNameSpace()));
+
+         double[] values = reader.getColumnAsDouble(variable.getFullNameWithNameSpace());
+         assertEquals(numberOfEntries, values.length);
+         for (int i = 0; i < numberOfEntries; i++)
+         {
+            assertEquals(getValue(firstEntry + i, v), values[i], 0.0);
+         }
+      }
+   }
+
+   private static long getTimestamp(int entry)
+   {
+      return 5000 + entry * TIMESTAMP_INCREMENT;
+   }
+
+   private static double getValue(int entry, int variable)
+   {
+      return entry + 0.01 * variable;
+   }
+
+   private static void deleteRecursively(File file)
+   {
+      File[] children = file.listFiles();
+      if (children != null)
+      {
+         for (File child : children)
+         {
+            deleteRecursively(child);
+         }
+      }
+      file.delete();
+   }
+}
@@ -193,6 +193,24 @@ public class DecayingResolutionFilter
       return copy;
    }
 
+   /**
+    * Thread-safely copies the points and their timestamps into the given point cloud, which is
+    * cleared first.
+    */
+   public void getPoints(PrimitivePointCloud pointCloudToPack)
+   {
+      pointCloudToPack.clear();
+
+      synchronized (list)
+      {
+         pointCloudToPack.ensureCapacity(list.size());
+         for (TimestampedPoint point : list)
+         {
+            pointCloudToPack.add(point.getX32(), point.getY32(), point.getZ32(), point.timestamp);
+         }
+      }
+   }
+
    public Point3D32 getNearestIntersection(Point3D32 origin, Vector3D32 direction)
    {
       ArrayList<TimestampedPoint> points = getPointsCopy();
@@ -0,0 +1,314 @@
+package us.ihmc.robotics.dataStructures;
+
+import java.util.List;
+
+import gnu.trove.set.hash.TLongHashSet;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.interfaces.Point3DReadOnly;
+
+/**
+ * Point cloud stored as one primitive array per coordinate, plus the timestamp of each point, so a
+ * scan can be passed around, transformed, filtered and downsampled without one object per point.
+ * The arrays only grow, a cloud that is cleared and filled again does not allocate.
+ * <p>
+ * The coordinates are stored in single precision. The resolution is about 0.1 mm at 1 km from the
+ * origin and gets coarser further out, so points that are far from the origin of their frame, like
+ * world frame points of a robot that walked far, should be kept in double precision instead.
+ * </p>
+ */
+public class PrimitivePointCloud
+{
+   private static final int BITS_PER_AXIS = 21;
+   private static final long AXIS_MASK = (1L << BITS_PER_AXIS) - 1;
+   private static final long AXIS_OFFSET = 1L << (BITS_PER_AXIS - 1);
+
+   public interface PointFilter
+   {
+      public boolean isValid(float x, float y, float z);
+   }
+
+   private float[] x;
+   private float[] y;
+   private float[] z;
+   private long[] timestamps;
+   private int size = 0;
+
+   private TLongHashSet occupiedVoxels = null;
+
+   public PrimitivePointCloud()
+   {
+      this(16);
+   }
+
+   public PrimitivePointCloud(int initialCapacity)
+   {
+      x = new float[initialCapacity];
+      y = new float[initialCapacity];
+      z = new float[initialCapacity];
+      timestamps = new long[initialCapacity];
+   }
+
+   public void clear()
+   {
+      size = 0;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public boolean isEmpty()
+   {
+      return size == 0;
+   }
+
+   public void ensureCapacity(int capacity)
+   {
+      if (x.length >= capacity)
+         return;
+
+      int newCapacity = Math.max(capacity, 2 * x.length);
+      x = copyOf(x, newCapacity);
+      y = copyOf(y, newCapacity);
+      z = copyOf(z, newCapacity);
+      long[] newTimestamps = new long[newCapacity];
+      System.arraycopy(timestamps, 0, newTimestamps, 0, size);
+      timestamps = newTimestamps;
+   }
+
+   private float[] copyOf(float[] array, int newCapacity)
+   {
+      float[] newArray = new float[newCapacity];
+      System.arraycopy(array, 0, newArray, 0, size);
+      return newArray;
+   }
+
+   public void add(double x, double y, double z, long timestamp)
+   {
+      add((float) x, (float) y, (float) z, timestamp);
+   }
+
+   public void add(float x, float y, float z, long timestamp)
+   {
+      ensureCapacity(size + 1);
+      this.x[size] = x;
+      this.y[size] = y;
+      this.z[size] = z;
+      timestamps[size] = timestamp;
+      size++;
+   }
+
+   public void addAll(Point3DReadOnly[] points, long timestamp)
+   {
+      ensureCapacity(size + points.length);
+      for (Point3DReadOnly point : points)
+         add(point.getX(), point.getY(), point.getZ(), timestamp);
+   }
+
+   public void addAll(List<? extends Point3DReadOnly> points, long[] timestamps)
+   {
+      if (timestamps.length != points.size())
+         throw new RuntimeException("Number of timestamps does not match number of points");
+
+      ensureCapacity(size + points.size());
+      for (int i = 0; i < points.size(); i++)
+      {
+         Point3DReadOnly point = points.get(i);
+         add(point.getX(), point.getY(), point.getZ(), timestamps[i]);
+      }
+   }
+
+   public void set(PrimitivePointCloud other)
+   {
+      size = 0;
+      ensureCapacity(other.size);
+      System.arraycopy(other.x, 0, x, 0, other.size);
+      System.arraycopy(other.y, 0, y, 0, other.size);
+      System.arraycopy(other.z, 0, z, 0, other.size);
+      System.arraycopy(other.timestamps, 0, timestamps, 0, other.size);
+      size = other.size;
+   }
+
+   public void set(int index, float x, float y, float z)
+   {
+      checkIndex(index);
+      this.x[index] = x;
+      this.y[index] = y;
+      this.z[index] = z;
+   }
+
+   public float getX(int index)
+   {
+      checkIndex(index);
+      return x[index];
+   }
+
+   public float getY(int index)
+   {
+      checkIndex(index);
+      return y[index];
+   }
+
+   public float getZ(int index)
+   {
+      checkIndex(index);
+      return z[index];
+   }
+
+   public long getTimestamp(int index)
+   {
+      checkIndex(index);
+      return timestamps[index];
+   }
+
+   public void getPoint(int index, Point3D pointToPack)
+   {
+      checkIndex(index);
+      pointToPack.set(x[index], y[index], z[index]);
+   }
+
+   private void checkIndex(int index)
+   {
+      if (index < 0 || index >= size)
+         throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+   }
+
+   public void applyTransform(RigidBodyTransform transform)
+   {
+      applyTransform(transform, 0, size);
+   }
+
+   /**
+    * Transforms the points in [start, end) in place.
+    */
+   public void applyTransform(RigidBodyTransform transform, int start, int end)
+   {
+      if (start < 0 || end > size || start > end)
+         throw new IndexOutOfBoundsException("Range: [" + start + ", " + end + "), size: " + size);
+
+      double m00 = transform.getM00(), m01 = transform.getM01(), m02 = transform.getM02(), m03 = transform.getM03();
+      double m10 = transform.getM10(), m11 = transform.getM11(), m12 = transform.getM12(), m13 = transform.getM13();
+      double m20 = transform.getM20(), m21 = transform.getM21(), m22 = transform.getM22(), m23 = transform.getM23();
+
+      for (int i = start; i < end; i++)
+      {
+         double px = x[i];
+         double py = y[i];
+         double pz = z[i];
+         x[i] = (float) (m00 * px + m01 * py + m02 * pz + m03);
+         y[i] = (float) (m10 * px + m11 * py + m12 * pz + m13);
+         z[i] = (float) (m20 * px + m21 * py + m22 * pz + m23);
+      }
+   }
+
+   /**
+    * Transforms all the points without modifying this cloud and packs the result in double
+    * precision as x, y, z, x, y, z, ... such that points far from the origin of the new frame do
+    * not lose resolution.
+    *
+    * @param packedPointsToPack array of at least 3 * {@link #size()} elements. Modified.
+    */
+   public void transform(RigidBodyTransform transform, double[] packedPointsToPack)
+   {
+      if (packedPointsToPack.length < 3 * size)
+         throw new IllegalArgumentException("Array too small: " + packedPointsToPack.length + ", expected at least " + 3 * size);
+
+      double m00 = transform.getM00(), m01 = transform.getM01(), m02 = transform.getM02(), m03 = transform.getM03();
+      double m10 = transform.getM10(), m11 = transform.getM11(), m12 = transform.getM12(), m13 = transform.getM13();
+      double m20 = transform.getM20(), m21 = transform.getM21(), m22 = transform.getM22(), m23 = transform.getM23();
+
+      for (int i = 0; i < size; i++)
+      {
+         double px = x[i];
+         double py = y[i];
+         double pz = z[i];
+         packedPointsToPack[3 * i] = m00 * px + m01 * py + m02 * pz + m03;
+         packedPointsToPack[3 * i + 1] = m10 * px + m11 * py + m12 * pz + m13;
+         packedPointsToPack[3 * i + 2] = m20 * px + m21 * py + m22 * pz + m23;
+      }
+   }
+
+   /**
+    * Removes the points that are not valid for the filter, the remaining points keep their order.
+    *
+    * @return the number of points removed.
+    */
+   public int filter(PointFilter filter)
+   {
+      int newSize = 0;
+
+      for (int i = 0; i < size; i++)
+      {
+         if (filter.isValid(x[i], y[i], z[i]))
+            move(i, newSize++);
+      }
+
+      int numberOfRemovedPoints = size - newSize;
+      size = newSize;
+      return numberOfRemovedPoints;
+   }
+
+   /**
+    * Keeps only the first point in each cubic voxel of the given size, the remaining points keep
+    * their order.
+    *
+    * @return the number of points removed.
+    */
+   public int downsample(double resolution)
+   {
+      if (occupiedVoxels == null)
+         occupiedVoxels = new TLongHashSet(size);
+      else
+         occupiedVoxels.clear();
+
+      double inverseResolution = 1.0 / resolution;
+      int newSize = 0;
+
+      for (int i = 0; i < size; i++)
+      {
+         long voxel = voxelAxisKey(x[i], inverseResolution) << 2 * BITS_PER_AXIS;
+         voxel |= voxelAxisKey(y[i], inverseResolution) << BITS_PER_AXIS;
+         voxel |= voxelAxisKey(z[i], inverseResolution);
+
+         if (occupiedVoxels.add(voxel))
+            move(i, newSize++);
+      }
+
+      int numberOfRemovedPoints = size - newSize;
+      size = newSize;
+      return numberOfRemovedPoints;
+   }
+
+   private static long voxelAxisKey(float coordinate, double inverseResolution)
+   {
+      return ((long) Math.floor(coordinate * inverseResolution) + AXIS_OFFSET) & AXIS_MASK;
+   }
+
+   private void move(int from, int to)
+   {
+      if (from == to)
+         return;
+
+      x[to] = x[from];
+      y[to] = y[from];
+      z[to] = z[from];
+      timestamps[to] = timestamps[from];
+   }
+
+   /**
+    * @return a new array with the coordinates of the points packed as x, y, z, x, y, z, ...
+    */
+   public float[] toPackedArray()
+   {
+      float[] packedPoints = new float[3 * size];
+      for (int i = 0; i < size; i++)
+      {
+         packedPoints[3 * i] = x[i];
+         packedPoints[3 * i + 1] = y[i];
+         packedPoints[3 * i + 2] = z[i];
+      }
+      return packedPoints;
+   }
+}
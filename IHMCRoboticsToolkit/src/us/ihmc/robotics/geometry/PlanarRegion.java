@@ -749,6 +749,11 @@ public class PlanarRegion
       updateBoundingBox();
    }
 
+   public double getBoundingBoxEpsilon()
+   {
+      return boundingBoxEpsilon;
+   }
+
    private void updateBoundingBox()
    {
       boundingBox3dInWorld.set(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
@@ -3,6 +3,7 @@ package us.ihmc.robotics.geometry;
 import java.util.ArrayList;
 import java.util.List;
 
+import gnu.trove.list.array.TIntArrayList;
 import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
 import us.ihmc.euclid.geometry.LineSegment2D;
@@ -15,6 +16,11 @@ public class PlanarRegionsList
 {
    private final List<PlanarRegion> regions;
 
+   private PlanarRegionsListSpatialIndex spatialIndex = null;
+   private boolean isSpatialIndexUpToDate = false;
+   private final TIntArrayList candidateRegionIndices = new TIntArrayList();
+   private long version = 0;
+
    public PlanarRegionsList(PlanarRegion... planarRegions)
    {
       regions = new ArrayList<>();
@@ -36,6 +42,82 @@ public class PlanarRegionsList
    public void addPlanarRegion(PlanarRegion region)
    {
       regions.add(region);
+      notifyRegionsModified();
+   }
+
+   /**
+    * Enables a grid over the XY bounding boxes of the regions to speed up the queries of this list.
+    * The grid is built at the first query and rebuilt after a region is added, polled, or the list
+    * is transformed.
+    * <p>
+    * Regions modified directly, for instance with {@link PlanarRegion#transform(RigidBodyTransform)},
+    * require a call to {@link #notifyRegionsModified()}.
+    * </p>
+    * 
+    * @param useSpatialIndex whether to use the grid or to test every region.
+    */
+   public void setUseSpatialIndex(boolean useSpatialIndex)
+   {
+      if (useSpatialIndex && spatialIndex == null)
+         spatialIndex = new PlanarRegionsListSpatialIndex();
+      else if (!useSpatialIndex)
+         spatialIndex = null;
+      isSpatialIndexUpToDate = false;
+   }
+
+   public boolean isUsingSpatialIndex()
+   {
+      return spatialIndex != null;
+   }
+
+   /**
+    * Needs to be called after modifying a region of this list directly. Increments the version of
+    * this list and forces the spatial index to be rebuilt at the next query.
+    */
+   public void notifyRegionsModified()
+   {
+      isSpatialIndexUpToDate = false;
+      version++;
+   }
+
+   /**
+    * The version is incremented every time a region is added or polled, the list is transformed, or
+    * {@link #notifyRegionsModified()} is called. It can be used to tell if results computed from this
+    * list are still valid.
+    */
+   public long getVersion()
+   {
+      return version;
+   }
+
+   /**
+    * Finds the regions whose XY bounding box might overlap the given box. Without spatial index,
+    * all the regions are candidates.
+    * 
+    * @return the number of candidates, to be retrieved with {@link #getCandidateRegion(int)}.
+    */
+   private int findCandidateRegions(double minimumX, double minimumY, double maximumX, double maximumY)
+   {
+      if (spatialIndex == null)
+         return regions.size();
+
+      // The list given at construction can be modified from outside
+      if (!isSpatialIndexUpToDate || spatialIndex.getNumberOfRegions() != regions.size())
+      {
+         spatialIndex.build(regions);
+         isSpatialIndexUpToDate = true;
+      }
+
+      spatialIndex.findCandidateRegions(minimumX, minimumY, maximumX, maximumY, candidateRegionIndices);
+      return candidateRegionIndices.size();
+   }
+
+   private PlanarRegion getCandidateRegion(int candidateIndex)
+   {
+      if (spatialIndex == null)
+         return regions.get(candidateIndex);
+      else
+         return regions.get(candidateRegionIndices.get(candidateIndex));
    }
 
    /**
@@ -48,9 +130,21 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      double minimumX = Double.POSITIVE_INFINITY, minimumY = Double.POSITIVE_INFINITY;
+      double maximumX = Double.NEGATIVE_INFINITY, maximumY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < convexPolygon.getNumberOfVertices(); i++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         Point2DReadOnly vertex = convexPolygon.getVertex(i);
+         minimumX = Math.min(minimumX, vertex.getX());
+         minimumY = Math.min(minimumY, vertex.getY());
+         maximumX = Math.max(maximumX, vertex.getX());
+         maximumY = Math.max(maximumY, vertex.getY());
+      }
+
+      int numberOfCandidates = findCandidateRegions(minimumX, minimumY, maximumX, maximumY);
+      for (int i = 0; i < numberOfCandidates; i++)
+      {
+         PlanarRegion candidateRegion = getCandidateRegion(i);
          if (candidateRegion.isVertical()) continue;
 
          if (candidateRegion.isPolygonIntersecting(convexPolygon))
@@ -72,9 +166,14 @@ public class PlanarRegionsList
     */
    public void findPlanarRegionsIntersectingLineSegment(LineSegment2D lineSegmentInWorld, ArrayList<PlanarRegion> intersectingRegionsToPack)
    {
-      for (int i = 0; i < regions.size(); i++)
+      Point2DReadOnly firstEndpoint = lineSegmentInWorld.getFirstEndpoint();
+      Point2DReadOnly secondEndpoint = lineSegmentInWorld.getSecondEndpoint();
+      int numberOfCandidates = findCandidateRegions(Math.min(firstEndpoint.getX(), secondEndpoint.getX()), Math.min(firstEndpoint.getY(), secondEndpoint.getY()),
+                                                    Math.max(firstEndpoint.getX(), secondEndpoint.getX()), Math.max(firstEndpoint.getY(), secondEndpoint.getY()));
+
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = getCandidateRegion(i);
          if (isLineSegmentObviouslyOutsideBoundingBox(candidateRegion, lineSegmentInWorld)) continue;
 
          if (candidateRegion.isVertical()) continue;
@@ -123,9 +222,12 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      // A point within the orthogonal distance of a region is at most that far from the region in XY
+      double distance = Math.abs(maximumOrthogonalDistance);
+      int numberOfCandidates = findCandidateRegions(point.getX() - distance, point.getY() - distance, point.getX() + distance, point.getY() + distance);
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = getCandidateRegion(i);
          if (candidateRegion.isPointInside(point, maximumOrthogonalDistance))
          {
             if (containers == null)
@@ -159,9 +261,10 @@ public class PlanarRegionsList
    {
       List<PlanarRegion> containers = null;
 
-      for (int i = 0; i < regions.size(); i++)
+      int numberOfCandidates = findCandidateRegions(x, y, x, y);
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         PlanarRegion candidateRegion = regions.get(i);
+         PlanarRegion candidateRegion = getCandidateRegion(i);
          if (candidateRegion.isPointInsideByProjectionOntoXYPlane(x, y))
          {
             if (containers == null)
@@ -206,6 +309,7 @@ public class PlanarRegionsList
    /** Retrieves the i<sup>th</sup> planar region of this list and removes it from this list. */
    public PlanarRegion pollPlanarRegion(int index)
    {
+      notifyRegionsModified();
       return regions.remove(index);
    }
 
@@ -231,7 +335,9 @@ public class PlanarRegionsList
       for (int i = 0; i < getNumberOfPlanarRegions(); i++)
          planarRegionsCopy.add(regions.get(i).copy());
 
-      return new PlanarRegionsList(planarRegionsCopy);
+      PlanarRegionsList copy = new PlanarRegionsList(planarRegionsCopy);
+      copy.setUseSpatialIndex(isUsingSpatialIndex());
+      return copy;
    }
    
    /**
@@ -244,5 +350,6 @@ public class PlanarRegionsList
       {
          regions.get(i).transform(rigidBodyTransform);
       }
+      notifyRegionsModified();
    }
 }
@@ -0,0 +1,324 @@
+package us.ihmc.robotics.geometry;
+
+import java.util.Arrays;
+import java.util.List;
+
+import gnu.trove.list.array.TIntArrayList;
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Uniform grid over the bounding boxes of planar regions projected onto the XY-plane.
+ *
+ * Every region is put in the grid cells its XY bounding box overlaps, a query then only has to look at the regions in the
+ * cells the query overlaps. Regions that would cover more than {@link #getMaximumCellsPerRegion()} cells, like the
+ * ground, and regions without a valid bounding box are not put in the grid and are returned by every query.
+ *
+ * The cells are stored in a compressed layout: the regions of cell {@code c} are
+ * {@code cellEntries[cellStarts[c]]...cellEntries[cellStarts[c + 1] - 1]}. Rebuilding and querying reuse the arrays
+ * and do not allocate once the index has grown to the size of the list of regions.
+ */
+public class PlanarRegionsListSpatialIndex
+{
+   public static final int DEFAULT_MAXIMUM_CELLS_PER_REGION = 64;
+
+   /** Margin added to the bounding boxes to be robust to the round-off of the region transforms. */
+   private static final double BOUNDING_BOX_MARGIN = 1.0e-7;
+
+   private final double requestedCellSize;
+   private final int maximumCellsPerRegion;
+
+   private double cellSize;
+   private int numberOfRegions = 0;
+
+   private double[] minimumXs = new double[0];
+   private double[] minimumYs = new double[0];
+   private double[] maximumXs = new double[0];
+   private double[] maximumYs = new double[0];
+   private boolean[] isInGrid = new boolean[0];
+   private int[] queryStamps = new int[0];
+   private int queryStamp = 0;
+
+   private int[] regionsNotInGrid = new int[0];
+   private int numberOfRegionsNotInGrid = 0;
+
+   private double gridMinimumX;
+   private double gridMinimumY;
+   private int numberOfCellsX = 0;
+   private int numberOfCellsY = 0;
+   private int[] cellStarts = new int[1];
+   private int[] cellEntries = new int[0];
+
+   /**
+    * Creates an index that picks the cell size from the size of the regions when it is built.
+    */
+   public PlanarRegionsListSpatialIndex()
+   {
+      this(Double.NaN, DEFAULT_MAXIMUM_CELLS_PER_REGION);
+   }
+
+   /**
+    * @param cellSize size of the grid cells, or {@link Double#NaN} to use the average size of the regions.
+    * @param maximumCellsPerRegion regions that overlap more cells are tested by every query instead of being put in the
+    *           grid.
+    */
+   public PlanarRegionsListSpatialIndex(double cellSize, int maximumCellsPerRegion)
+   {
+      if (cellSize <= 0.0)
+         throw new IllegalArgumentException("Cell size should be positive");
+
+      this.requestedCellSize = cellSize;
+      this.maximumCellsPerRegion = maximumCellsPerRegion;
+   }
+
+   public double getCellSize()
+   {
+      return cellSize;
+   }
+
+   public int getMaximumCellsPerRegion()
+   {
+      return maximumCellsPerRegion;
+   }
+
+   /**
+    * @return the number of regions the index was last built with.
+    */
+   public int getNumberOfRegions()
+   {
+      return numberOfRegions;
+   }
+
+   /**
+    * @return the number of regions that are not in the grid and are returned by every query.
+    */
+   public int getNumberOfRegionsNotInGrid()
+   {
+      return numberOfRegionsNotInGrid;
+   }
+
+   /**
+    * Rebuilds the index from the current bounding boxes of the regions.
+    */
+   public void build(List<PlanarRegion> regions)
+   {
+      numberOfRegions = regions.size();
+      ensureCapacity(numberOfRegions);
+
+      double sizeSum = 0.0;
+      int numberOfValidRegions = 0;
+
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         PlanarRegion region = regions.get(i);
+         BoundingBox3D boundingBox = region.getBoundingBox3dInWorld();
+         double margin = Math.max(region.getBoundingBoxEpsilon(), 0.0) + BOUNDING_BOX_MARGIN;
+         minimumXs[i] = boundingBox.getMinX() - margin;
+         minimumYs[i] = boundingBox.getMinY() - margin;
+         maximumXs[i] = boundingBox.getMaxX() + margin;
+         maximumYs[i] = boundingBox.getMaxY() + margin;
+
+         if (isValid(i))
+         {
+            sizeSum += Math.max(maximumXs[i] - minimumXs[i], maximumYs[i] - minimumYs[i]);
+            numberOfValidRegions++;
+         }
+      }
+
+      if (Double.isNaN(requestedCellSize))
+         cellSize = numberOfValidRegions == 0 ? 1.0 : Math.max(sizeSum / numberOfValidRegions, 1.0e-3);
+      else
+         cellSize = requestedCellSize;
+
+      // Coarsen the grid until it has a reasonable number of cells for the number of regions
+      while (!computeGridBounds() || (long) numberOfCellsX * numberOfCellsY > 4L * numberOfRegions + 1024L)
+         cellSize *= 2.0;
+
+      fillCells();
+   }
+
+   private boolean isValid(int region)
+   {
+      return Double.isFinite(minimumXs[region]) && Double.isFinite(minimumYs[region]) && Double.isFinite(maximumXs[region])
+            && Double.isFinite(maximumYs[region]);
+   }
+
+   /**
+    * Decides which regions go in the grid and computes the extent of the grid.
+    * @return false if the grid would have too many cells to be indexed with an int.
+    */
+   private boolean computeGridBounds()
+   {
+      numberOfRegionsNotInGrid = 0;
+      gridMinimumX = Double.POSITIVE_INFINITY;
+      gridMinimumY = Double.POSITIVE_INFINITY;
+      double gridMaximumX = Double.NEGATIVE_INFINITY;
+      double gridMaximumY = Double.NEGATIVE_INFINITY;
+
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         double cellsX = Math.floor(maximumXs[i] / cellSize) - Math.floor(minimumXs[i] / cellSize) + 1.0;
+         double cellsY = Math.floor(maximumYs[i] / cellSize) - Math.floor(minimumYs[i] / cellSize) + 1.0;
+         isInGrid[i] = isValid(i) && cellsX * cellsY <= maximumCellsPerRegion;
+
+         if (!isInGrid[i])
+         {
+            regionsNotInGrid[numberOfRegionsNotInGrid++] = i;
+            continue;
+         }
+
+         gridMinimumX = Math.min(gridMinimumX, minimumXs[i]);
+         gridMinimumY = Math.min(gridMinimumY, minimumYs[i]);
+         gridMaximumX = Math.max(gridMaximumX, maximumXs[i]);
+         gridMaximumY = Math.max(gridMaximumY, maximumYs[i]);
+      }
+
+      if (numberOfRegionsNotInGrid == numberOfRegions)
+      {
+         numberOfCellsX = 0;
+         numberOfCellsY = 0;
+         return true;
+      }
+
+      double cellsX = Math.floor((gridMaximumX - gridMinimumX) / cellSize) + 1.0;
+      double cellsY = Math.floor((gridMaximumY - gridMinimumY) / cellSize) + 1.0;
+      if (cellsX * cellsY > Integer.MAX_VALUE - 1)
+         return false;
+
+      numberOfCellsX = (int) cellsX;
+      numberOfCellsY = (int) cellsY;
+      return true;
+   }
+
+   private void fillCells()
+   {
+      int numberOfCells = numberOfCellsX * numberOfCellsY;
+      if (cellStarts.length < numberOfCells + 1)
+         cellStarts = new int[numberOfCells + 1];
+      Arrays.fill(cellStarts, 0, numberOfCells + 1, 0);
+
+      // First pass counts the regions in every cell, second pass fills the cells
+      int numberOfEntries = 0;
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         if (!isInGrid[i])
+            continue;
+
+         for (int y = toCellY(minimumYs[i]); y <= toCellY(maximumYs[i]); y++)
+         {
+            for (int x = toCellX(minimumXs[i]); x <= toCellX(maximumXs[i]); x++)
+            {
+               cellStarts[y * numberOfCellsX + x + 1]++;
+               numberOfEntries++;
+            }
+         }
+      }
+
+      for (int cell = 0; cell < numberOfCells; cell++)
+         cellStarts[cell + 1] += cellStarts[cell];
+
+      if (cellEntries.length < numberOfEntries)
+         cellEntries = new int[numberOfEntries];
+
+      // Regions are added in increasing order, so every cell is sorted
+      for (int i = 0; i < numberOfRegions; i++)
+      {
+         if (!isInGrid[i])
+            continue;
+
+         for (int y = toCellY(minimumYs[i]); y <= toCellY(maximumYs[i]); y++)
+         {
+            for (int x = toCellX(minimumXs[i]); x <= toCellX(maximumXs[i]); x++)
+            {
+               cellEntries[cellStarts[y * numberOfCellsX + x]++] = i;
+            }
+         }
+      }
+
+      // The fill moved every start to the start of the next cell
+      for (int cell = numberOfCells; cell > 0; cell--)
+         cellStarts[cell] = cellStarts[cell - 1];
+      cellStarts[0] = 0;
+   }
+
+   private int toCellX(double x)
+   {
+      int cell = (int) Math.floor((x - gridMinimumX) / cellSize);
+      return Math.max(0, Math.min(numberOfCellsX - 1, cell));
+   }
+
+   private int toCellY(double y)
+   {
+      int cell = (int) Math.floor((y - gridMinimumY) / cellSize);
+      return Math.max(0, Math.min(numberOfCellsY - 1, cell));
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (isInGrid.length >= capacity)
+         return;
+
+      minimumXs = new double[capacity];
+      minimumYs = new double[capacity];
+      maximumXs = new double[capacity];
+      maximumYs = new double[capacity];
+      isInGrid = new boolean[capacity];
+      queryStamps = new int[capacity];
+      regionsNotInGrid = new int[capacity];
+      queryStamp = 0;
+   }
+
+   /**
+    * Finds the regions whose XY bounding box overlaps the given box. The regions returned are a superset of the regions
+    * intersecting the query, they still have to be tested.
+    *
+    * @param candidatesToPack the indices of the candidate regions in the list, in increasing order.
+    */
+   public void findCandidateRegions(double minimumX, double minimumY, double maximumX, double maximumY, TIntArrayList candidatesToPack)
+   {
+      candidatesToPack.reset();
+
+      if (++queryStamp == Integer.MAX_VALUE)
+      {
+         Arrays.fill(queryStamps, 0);
+         queryStamp = 1;
+      }
+
+      if (numberOfCellsX > 0 && maximumX >= gridMinimumX && maximumY >= gridMinimumY)
+      {
+         int maximumCellX = (int) Math.min(numberOfCellsX - 1, Math.floor((maximumX - gridMinimumX) / cellSize));
+         int maximumCellY = (int) Math.min(numberOfCellsY - 1, Math.floor((maximumY - gridMinimumY) / cellSize));
+
+         for (int y = toCellY(minimumY); y <= maximumCellY; y++)
+         {
+            for (int x = toCellX(minimumX); x <= maximumCellX; x++)
+            {
+               int cell = y * numberOfCellsX + x;
+               for (int entry = cellStarts[cell]; entry < cellStarts[cell + 1]; entry++)
+               {
+                  int region = cellEntries[entry];
+                  if (queryStamps[region] == queryStamp)
+                     continue;
+                  queryStamps[region] = queryStamp;
+
+                  if (overlaps(region, minimumX, minimumY, maximumX, maximumY))
+                     candidatesToPack.add(region);
+               }
+            }
+         }
+      }
+
+      for (int i = 0; i < numberOfRegionsNotInGrid; i++)
+      {
+         int region = regionsNotInGrid[i];
+         if (!isValid(region) || overlaps(region, minimumX, minimumY, maximumX, maximumY))
+            candidatesToPack.add(region);
+      }
+
+      candidatesToPack.sort();
+   }
+
+   private boolean overlaps(int region, double minimumX, double minimumY, double maximumX, double maximumY)
+   {
+      return minimumXs[region] <= maximumX && minimumX <= maximumXs[region] && minimumYs[region] <= maximumY && minimumY <= maximumYs[region];
+   }
+}
@@ -106,7 +106,27 @@ public class NumericalInverseKinematicsCalculator implements InverseKinematicsCa
       this.minRandomSearchScalar = minRandomSearchScalar;
       this.maxRandomSearchScalar = maxRandomSearchScalar;
    }
-  
+
+   /**
+    * Creates a new calculator with the same parameters, selection matrix and joint angle limiting
+    * as this one, for instance to solve on a copy of the kinematic chain of this calculator.
+    *
+    * @param jacobian the Jacobian the new calculator operates on. Its joints have to match the joints
+    *           of this calculator's Jacobian.
+    * @return the new calculator.
+    */
+   public NumericalInverseKinematicsCalculator duplicate(GeometricJacobian jacobian)
+   {
+      if (jacobian.getNumberOfColumns() != numberOfDoF)
+         throw new RuntimeException("The Jacobian has " + jacobian.getNumberOfColumns() + " columns, expected: " + numberOfDoF);
+
+      NumericalInverseKinematicsCalculator duplicate = new NumericalInverseKinematicsCalculator(jacobian, lambdaLeastSquares, tolerance, maxIterations,
+                                                                                                maxStepSize, minRandomSearchScalar, maxRandomSearchScalar);
+      duplicate.setSelectionMatrix(inverseJacobianCalculator.getSelectionMatrix());
+      duplicate.setLimitJointAngles(limitJointAngles);
+      return duplicate;
+   }
+
    @Override
    public void attachInverseKinematicsStepListener(InverseKinematicsStepListener stepListener)
    {
@@ -1,12 +1,25 @@
 package us.ihmc.robotics.kinematics;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.ejml.data.DenseMatrix64F;
 
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
 import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Vector3D;
 import us.ihmc.robotics.screwTheory.GeometricJacobian;
+import us.ihmc.robotics.screwTheory.InverseDynamicsJoint;
 import us.ihmc.robotics.screwTheory.OneDoFJoint;
+import us.ihmc.robotics.screwTheory.PrismaticJoint;
+import us.ihmc.robotics.screwTheory.RevoluteJoint;
+import us.ihmc.robotics.screwTheory.RigidBody;
 import us.ihmc.robotics.screwTheory.ScrewTestTools;
 import us.ihmc.robotics.screwTheory.ScrewTools;
 
@@ -14,6 +27,7 @@ public class RandomRestartInverseKinematicsCalculator implements InverseKinemati
 {
    private final Random random = new Random(1984L);
    private final NumericalInverseKinematicsCalculator inverseKinematicsCalculator;
+   private final GeometricJacobian jacobian;
    private final OneDoFJoint[] joints;;
    private final int maxRestarts;
    private final double restartTolerance; 
@@ -21,17 +35,77 @@ public class RandomRestartInverseKinematicsCalculator implements InverseKinemati
    private double bestErrorScalar;
    private final DenseMatrix64F best = new DenseMatrix64F(1, 1);
 
+   private ForkJoinPool forkJoinPool;
+   private final List<MultiStartSolver> multiStartSolvers = new ArrayList<>();
+   private final AtomicInteger restartCounter = new AtomicInteger();
+   private final DenseMatrix64F initialJointAngles = new DenseMatrix64F(1, 1);
+   private boolean multiStartSolutionFound;
+   private int bestNumberOfIterations;
+
    public RandomRestartInverseKinematicsCalculator(int maxRestarts, double restartTolerance, GeometricJacobian jacobian, NumericalInverseKinematicsCalculator inverseKinematicsCalculator)
    {
       this.inverseKinematicsCalculator = inverseKinematicsCalculator;
+      this.jacobian = jacobian;
       this.joints = ScrewTools.filterJoints(jacobian.getJointsInOrder(), OneDoFJoint.class);
       this.maxRestarts = maxRestarts;
       this.restartTolerance = restartTolerance;
    }
-   
+
+   /**
+    * Enables the parallel multi-start mode using the common fork/join pool.
+    *
+    * @param numberOfSolvers the number of solvers running restarts concurrently.
+    * @see #enableParallelMultiStart(int, ForkJoinPool)
+    */
+   public void enableParallelMultiStart(int numberOfSolvers)
+   {
+      enableParallelMultiStart(numberOfSolvers, ForkJoinPool.commonPool());
+   }
+
+   /**
+    * Enables the parallel multi-start mode: instead of trying the restarts one after the other, the
+    * restarts are distributed over {@code numberOfSolvers} independent solvers running on
+    * {@code forkJoinPool}. Each solver works on its own copy of the kinematic chain, such that the
+    * joints of the original chain are only modified once the solution is known.
+    * <p>
+    * The first restart starts from the current joint configuration, the other ones from random
+    * configurations. As soon as one solver converges, the solvers stop starting new restarts and its
+    * solution is used. When none converges, the solution with the smallest error is used.
+    * </p>
+    * <p>
+    * The solvers are created with the current parameters of the {@link NumericalInverseKinematicsCalculator}
+    * given at construction, including its selection matrix. The step listener is not notified in this
+    * mode. The kinematic chain has to be composed of consecutive {@link RevoluteJoint}s and
+    * {@link PrismaticJoint}s.
+    * </p>
+    *
+    * @param numberOfSolvers the number of solvers running restarts concurrently.
+    * @param forkJoinPool the pool the solvers are run on.
+    */
+   public void enableParallelMultiStart(int numberOfSolvers, ForkJoinPool forkJoinPool)
+   {
+      if (numberOfSolvers < 1)
+         throw new RuntimeException("The number of solvers has to be at least 1, was: " + numberOfSolvers);
+
+      this.forkJoinPool = forkJoinPool;
+      multiStartSolvers.clear();
+
+      for (int solverIndex = 0; solverIndex < numberOfSolvers; solverIndex++)
+         multiStartSolvers.add(new MultiStartSolver(solverIndex));
+   }
+
+   public void disableParallelMultiStart()
+   {
+      forkJoinPool = null;
+      multiStartSolvers.clear();
+   }
+
    @Override
    public boolean solve(RigidBodyTransform desiredTransform)
    {
+      if (forkJoinPool != null)
+         return solveInParallel(desiredTransform);
+
       bestErrorScalar = Double.POSITIVE_INFINITY;
       
       boolean foundSolution = false;
@@ -63,15 +137,80 @@ public class RandomRestartInverseKinematicsCalculator implements InverseKinemati
       return foundSolution;
    }
 
+   private boolean solveInParallel(RigidBodyTransform desiredTransform)
+   {
+      bestErrorScalar = Double.POSITIVE_INFINITY;
+      bestNumberOfIterations = 0;
+      multiStartSolutionFound = false;
+      restartCounter.set(0);
+
+      initialJointAngles.reshape(joints.length, 1);
+      for (int i = 0; i < joints.length; i++)
+         initialJointAngles.set(i, 0, joints[i].getQ());
+
+      for (int solverIndex = 0; solverIndex < multiStartSolvers.size(); solverIndex++)
+         multiStartSolvers.get(solverIndex).setDesiredTransform(desiredTransform);
+
+      List<Future<Void>> futures = forkJoinPool.invokeAll(multiStartSolvers);
+
+      for (int solverIndex = 0; solverIndex < futures.size(); solverIndex++)
+      {
+         try
+         {
+            futures.get(solverIndex).get();
+         }
+         catch (InterruptedException | ExecutionException e)
+         {
+            throw new RuntimeException("A multi-start solver failed.", e);
+         }
+      }
+
+      if (bestErrorScalar < Double.POSITIVE_INFINITY)
+      {
+         inverseKinematicsCalculator.setJointAngles(best);
+         for (int i = 0; i < joints.length; i++)
+            joints[i].getFrameAfterJoint().update();
+      }
+      return multiStartSolutionFound;
+   }
+
+   /**
+    * Called by the multi-start solvers at the end of each restart. Keeps the first converged
+    * solution, or the best one when none has converged yet.
+    *
+    * @return whether a solution has been found by any of the solvers.
+    */
+   private synchronized boolean submitRestartResult(NumericalInverseKinematicsCalculator calculator, boolean converged)
+   {
+      if (!multiStartSolutionFound && (converged || calculator.getErrorScalar() < bestErrorScalar))
+      {
+         bestErrorScalar = calculator.getErrorScalar();
+         bestNumberOfIterations = calculator.getNumberOfIterations();
+         calculator.getBest(best);
+         multiStartSolutionFound = converged;
+      }
+
+      return multiStartSolutionFound;
+   }
+
+   private synchronized boolean hasFoundSolution()
+   {
+      return multiStartSolutionFound;
+   }
+
    @Override
    public double getErrorScalar()
    {
+      if (forkJoinPool != null)
+         return bestErrorScalar;
       return inverseKinematicsCalculator.getErrorScalar();
    }
 
    @Override
    public int getNumberOfIterations()
    {
+      if (forkJoinPool != null)
+         return bestNumberOfIterations;
       return inverseKinematicsCalculator.getNumberOfIterations();
    }
 
@@ -85,6 +224,116 @@ public class RandomRestartInverseKinematicsCalculator implements InverseKinemati
    public void setLimitJointAngles(boolean limitJointAngles)
    {
       inverseKinematicsCalculator.setLimitJointAngles(limitJointAngles);
+
+      for (int solverIndex = 0; solverIndex < multiStartSolvers.size(); solverIndex++)
+         multiStartSolvers.get(solverIndex).calculator.setLimitJointAngles(limitJointAngles);
+   }
+
+   private class MultiStartSolver implements Callable<Void>
+   {
+      private final Random random;
+      private final RigidBody rootBody;
+      private final OneDoFJoint[] joints;
+      private final NumericalInverseKinematicsCalculator calculator;
+      private final RigidBodyTransform desiredTransform = new RigidBodyTransform();
+
+      public MultiStartSolver(int solverIndex)
+      {
+         random = new Random(1984L + solverIndex);
+         joints = cloneJointPath(RandomRestartInverseKinematicsCalculator.this.joints, "Solver" + solverIndex);
+         rootBody = joints[0].getPredecessor();
+         RigidBody endEffector = joints[joints.length - 1].getSuccessor();
+         calculator = inverseKinematicsCalculator.duplicate(new GeometricJacobian(joints, endEffector.getBodyFixedFrame()));
+      }
+
+      public void setDesiredTransform(RigidBodyTransform desiredTransform)
+      {
+         this.desiredTransform.set(desiredTransform);
+      }
+
+      @Override
+      public Void call()
+      {
+         while (!hasFoundSolution())
+         {
+            int restart = restartCounter.getAndIncrement();
+            if (restart >= maxRestarts)
+               break;
+
+            if (restart == 0)
+               calculator.setJointAngles(initialJointAngles);
+            else
+               ScrewTestTools.setRandomPositions(joints, random, -Math.PI / 2.0, Math.PI / 2.0);
+            rootBody.updateFramesRecursively();
+
+            boolean converged = calculator.solve(desiredTransform);
+            converged = converged || (calculator.getErrorScalar() < restartTolerance);
+
+            if (submitRestartResult(calculator, converged))
+               break;
+         }
+
+         return null;
+      }
    }
 
+   /**
+    * Creates a copy of the kinematic chain described by {@code originalJoints} attached to a new
+    * root frame. The base body frame of the copy matches the base body frame of the original chain,
+    * and the body frames of the copied bodies match the original ones, such that the transform from
+    * the end-effector to the base is the same for both chains given the same joint angles.
+    */
+   private OneDoFJoint[] cloneJointPath(OneDoFJoint[] originalJoints, String suffix)
+   {
+      RigidBody originalBase = jacobian.getBase();
+      ReferenceFrame originalBaseFrame = originalBase.getBodyFixedFrame();
+      ReferenceFrame rootFrame = ReferenceFrame.constructARootFrame(originalBase.getName() + suffix + "RootFrame");
+      RigidBody predecessor = new RigidBody(originalBase.getName() + suffix, rootFrame);
+      OneDoFJoint[] clonedJoints = new OneDoFJoint[originalJoints.length];
+
+      for (int i = 0; i < originalJoints.length; i++)
+      {
+         OneDoFJoint originalJoint = originalJoints[i];
+         ReferenceFrame originalFrameBeforeJoint = originalJoint.getFrameBeforeJoint();
+         RigidBodyTransform jointOffset = new RigidBodyTransform(originalFrameBeforeJoint.getTransformToParent());
+
+         if (i == 0)
+         {
+            if (originalFrameBeforeJoint.getParent() != originalBaseFrame)
+            {
+               if (originalFrameBeforeJoint.getParent() != originalBaseFrame.getParent())
+                  throw new RuntimeException("Unexpected frame tree at the base of the kinematic chain.");
+
+               RigidBodyTransform transformFromBaseFrameToParent = new RigidBodyTransform(originalBaseFrame.getTransformToParent());
+               transformFromBaseFrameToParent.invert();
+               jointOffset.preMultiply(transformFromBaseFrameToParent);
+            }
+         }
+         else if (originalJoint.getPredecessor() != originalJoints[i - 1].getSuccessor())
+         {
+            throw new RuntimeException("The joints of the kinematic chain have to be consecutive for the parallel multi-start mode.");
+         }
+
+         String jointName = originalJoint.getName() + suffix;
+         OneDoFJoint clonedJoint;
+
+         if (originalJoint instanceof RevoluteJoint)
+            clonedJoint = ScrewTools.addRevoluteJoint(jointName, predecessor, jointOffset, new Vector3D(originalJoint.getJointAxis()));
+         else if (originalJoint instanceof PrismaticJoint)
+            clonedJoint = ScrewTools.addPrismaticJoint(jointName, predecessor, jointOffset, new Vector3D(originalJoint.getJointAxis()));
+         else
+            throw new RuntimeException("Unhandled type of " + InverseDynamicsJoint.class.getSimpleName() + ": " + originalJoint.getClass().getSimpleName());
+
+         clonedJoint.setJointLimitLower(originalJoint.getJointLimitLower());
+         clonedJoint.setJointLimitUpper(originalJoint.getJointLimitUpper());
+
+         RigidBody originalSuccessor = originalJoint.getSuccessor();
+         RigidBodyTransform inertiaPose = new RigidBodyTransform(originalSuccessor.getBodyFixedFrame().getTransformToParent());
+         predecessor = ScrewTools.addRigidBody(originalSuccessor.getName() + suffix, clonedJoint, originalSuccessor.getInertia().getMassMomentOfInertiaPartCopy(),
+                                               originalSuccessor.getInertia().getMass(), inertiaPose);
+         clonedJoints[i] = clonedJoint;
+      }
+
+      return clonedJoints;
+   }
 }
@@ -12,6 +12,7 @@ import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Point3D32;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.robotics.geometry.Ray3d;
 import us.ihmc.robotics.kinematics.TransformInterpolationCalculator;
 
@@ -79,6 +80,28 @@ public class LidarScan
       return points;
    }
 
+   /**
+    * Same as {@link #getAllPoints()}, without creating an object for each point.
+    */
+   public void getAllPoints(PrimitivePointCloud pointCloudToPack, long timestamp)
+   {
+      RigidBodyTransform transform = new RigidBodyTransform();
+      RigidBodyTransform sweepTransform = new RigidBodyTransform();
+      Point3D point = new Point3D();
+
+      pointCloudToPack.ensureCapacity(pointCloudToPack.size() + ranges.length);
+
+      for (int i = 0; i < ranges.length; i++)
+      {
+         point.set(ranges[i], 0.0, 0.0);
+         getInterpolatedTransform(i, transform);
+         getSweepTransform(i, sweepTransform);
+         transform.multiply(sweepTransform);
+         transform.transform(point);
+         pointCloudToPack.add(point.getX(), point.getY(), point.getZ(), timestamp);
+      }
+   }
+
    public int size()
    {
       return ranges.length;
@@ -215,6 +238,13 @@ public class LidarScan
    }
 
    public RigidBodyTransform getSweepTransform(int i)
+   {
+      RigidBodyTransform sweepTransform = new RigidBodyTransform();
+      getSweepTransform(i, sweepTransform);
+      return sweepTransform;
+   }
+
+   public void getSweepTransform(int i, RigidBodyTransform sweepTransform)
    {
       if (i >= params.pointsPerSweep * params.scanHeight)
       {
@@ -224,7 +254,7 @@ public class LidarScan
       double yawPerIndex = (params.sweepYawMax - params.sweepYawMin) / (params.pointsPerSweep - 1);
       double pitchPerIndex = (params.heightPitchMax - params.heightPitchMin) / (params.scanHeight - 1);
 
-      RigidBodyTransform sweepTransform = new RigidBodyTransform();
+      sweepTransform.setIdentity();
       if (params.pointsPerSweep > 1)
       {
          //sweepTransform.rotZ(params.sweepYawMin + yawPerIndex * i);
@@ -234,8 +264,6 @@ public class LidarScan
       {
          sweepTransform.setRotationPitchAndZeroTranslation(params.heightPitchMin + pitchPerIndex * (i / params.pointsPerSweep));
       }
-
-      return sweepTransform;
    }
 
    public long getScanTimeStamp()
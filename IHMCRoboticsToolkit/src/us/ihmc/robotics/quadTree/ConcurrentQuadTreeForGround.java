@@ -0,0 +1,537 @@
+package us.ihmc.robotics.quadTree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.StampedLock;
+
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
+
+/**
+ * A {@link QuadTreeForGround} that can be written and queried from several threads at the same
+ * time.
+ *
+ * The bounds are split in a grid of stripes, the quadrants of the tree at a fixed depth, and each
+ * stripe is a separate tree with its own {@link StampedLock}. A put only locks the stripe the point
+ * falls in, and only for that point, so queries on other stripes are never blocked by the lidar
+ * and queries on the same stripe wait for at most one point. Queries take read locks, so they do
+ * not block each other.
+ *
+ * Nodes larger than 4.1 times the resolution are always divided, so as long as the stripes are
+ * larger than that, which is enforced by reducing the depth of the stripes, this stores the same
+ * points as a {@link QuadTreeForGround} with the same parameters. Queries that span several stripes
+ * see each stripe at a slightly different time.
+ *
+ * When the number of points is limited, the oldest points are removed after the put that pushed
+ * them out, once the lock of the stripe of the put is released, so a put never holds two locks.
+ * {@link QuadTreeForGroundListener}s are not supported.
+ */
+public class ConcurrentQuadTreeForGround
+{
+   public static final int DEFAULT_STRIPE_DEPTH = 3;
+
+   /** Number of points of a batch put before letting the queries waiting on a stripe go. */
+   public static final int MAXIMUM_POINTS_PER_WRITE_LOCK = 256;
+
+   private static final int NW = 0, NE = 1, SE = 2, SW = 3;
+
+   private final Box bounds;
+   private final QuadTreeForGroundParameters quadTreeParameters;
+   private final DeferredEvictionPointLimiter pointLimiter;
+
+   private final int stripeDepth;
+   /** Quadrant boxes of all the levels down to the stripes, in a complete 4-ary heap order. */
+   private final Box[] boxes;
+   private final int firstStripeIndex;
+   private final QuadTreeForGroundNode[] stripes;
+   private final StampedLock[] stripeLocks;
+
+   private final ThreadLocal<QuadTreeForGroundPointBatch> pointBatches = ThreadLocal.withInitial(QuadTreeForGroundPointBatch::new);
+
+   private volatile double defaultHeightWhenNoPoints = Double.NaN;
+
+   public ConcurrentQuadTreeForGround(Box bounds, QuadTreeForGroundParameters quadTreeParameters)
+   {
+      this(bounds, quadTreeParameters, DEFAULT_STRIPE_DEPTH);
+   }
+
+   /**
+    * @param stripeDepth depth of the stripes in the tree, the bounds are split in
+    *           {@code 2^stripeDepth x 2^stripeDepth} stripes. It is reduced if the stripes would
+    *           be too small.
+    */
+   public ConcurrentQuadTreeForGround(Box bounds, QuadTreeForGroundParameters quadTreeParameters, int stripeDepth)
+   {
+      this.bounds = bounds;
+      this.quadTreeParameters = quadTreeParameters;
+
+      if (quadTreeParameters.getMaximumNumberOfPoints() > 0)
+         pointLimiter = new DeferredEvictionPointLimiter(quadTreeParameters.getMaximumNumberOfPoints());
+      else
+         pointLimiter = null;
+
+      double minimumStripeSize = 4.1 * quadTreeParameters.getResolution();
+      while (stripeDepth > 0 && Math.min(bounds.maxX - bounds.minX, bounds.maxY - bounds.minY) / (1 << stripeDepth) <= minimumStripeSize)
+         stripeDepth--;
+      this.stripeDepth = stripeDepth;
+
+      int numberOfStripes = 1 << (2 * stripeDepth);
+      firstStripeIndex = (numberOfStripes - 1) / 3;
+      boxes = new Box[firstStripeIndex + numberOfStripes];
+      boxes[0] = bounds;
+
+      // Same splits as QuadTreeForGroundNode.divide() so the stripes are exactly the nodes of the tree
+      for (int i = 0; i < firstStripeIndex; i++)
+      {
+         Box box = boxes[i];
+         boxes[4 * i + 1 + NW] = new Box(box.minX, box.centreY, box.centreX, box.maxY);
+         boxes[4 * i + 1 + NE] = new Box(box.centreX, box.centreY, box.maxX, box.maxY);
+         boxes[4 * i + 1 + SE] = new Box(box.centreX, box.minY, box.maxX, box.centreY);
+         boxes[4 * i + 1 + SW] = new Box(box.minX, box.minY, box.centreX, box.centreY);
+      }
+
+      stripes = new QuadTreeForGroundNode[numberOfStripes];
+      stripeLocks = new StampedLock[numberOfStripes];
+      ArrayList<QuadTreeForGroundListener> noListeners = new ArrayList<>();
+      for (int stripe = 0; stripe < numberOfStripes; stripe++)
+      {
+         stripes[stripe] = new QuadTreeForGroundNode("stripe" + stripe, boxes[firstStripeIndex + stripe], quadTreeParameters, pointLimiter, null, Double.NaN,
+                                                     noListeners);
+         stripeLocks[stripe] = new StampedLock();
+      }
+   }
+
+   public int getStripeDepth()
+   {
+      return stripeDepth;
+   }
+
+   public int getNumberOfStripes()
+   {
+      return stripes.length;
+   }
+
+   /**
+    * Finds the stripe of a point the same way the nodes of the tree find their child.
+    */
+   private int getStripeIndex(double x, double y)
+   {
+      int index = 0;
+
+      for (int level = 0; level < stripeDepth; level++)
+      {
+         Box box = boxes[index];
+         int quadrant;
+         if (x < box.centreX)
+            quadrant = y < box.centreY ? SW : NW;
+         else
+            quadrant = y < box.centreY ? SE : NE;
+         index = 4 * index + 1 + quadrant;
+      }
+
+      return index - firstStripeIndex;
+   }
+
+   private Box getStripeBounds(int stripe)
+   {
+      return boxes[firstStripeIndex + stripe];
+   }
+
+   public int getNumberOfPoints()
+   {
+      return pointLimiter.size();
+   }
+
+   public QuadTreeForGroundParameters getQuadTreeParameters()
+   {
+      return quadTreeParameters;
+   }
+
+   public void setHeightThreshold(double heightThreshold)
+   {
+      quadTreeParameters.setHeightThreshold(heightThreshold);
+   }
+
+   public QuadTreeForGroundPutResult put(double x, double y, double z)
+   {
+      int stripe = getStripeIndex(x, y);
+      QuadTreeForGroundPutResult putResult;
+
+      long stamp = stripeLocks[stripe].writeLock();
+      try
+      {
+         putResult = stripes[stripe].put(x, y, z);
+      }
+      finally
+      {
+         stripeLocks[stripe].unlockWrite(stamp);
+      }
+
+      if (pointLimiter != null)
+         removeEvictedPoints();
+
+      return putResult;
+   }
+
+   /**
+    * Puts all the points of a scan, sorted in Morton order like
+    * {@link QuadTreeForGround#putAll(double[], int)}. The write lock of a stripe is taken once per
+    * run of points in that stripe, and released every {@value #MAXIMUM_POINTS_PER_WRITE_LOCK} points
+    * so queries do not wait behind the whole scan.
+    *
+    * @param points the coordinates of the points, packed as x, y, z, x, y, z, ...
+    * @return whether the tree changed.
+    */
+   public boolean putAll(double[] points, int numberOfPoints)
+   {
+      QuadTreeForGroundPointBatch batch = pointBatches.get();
+      batch.set(bounds, points, numberOfPoints);
+      boolean treeChanged = false;
+      int i = 0;
+
+      while (i < batch.size())
+      {
+         int stripe = getStripeIndex(batch.getX(i), batch.getY(i));
+         int runEnd = i + 1;
+         int maximumRunEnd = Math.min(batch.size(), i + MAXIMUM_POINTS_PER_WRITE_LOCK);
+         while (runEnd < maximumRunEnd && getStripeIndex(batch.getX(runEnd), batch.getY(runEnd)) == stripe)
+            runEnd++;
+
+         long stamp = stripeLocks[stripe].writeLock();
+         try
+         {
+            treeChanged |= stripes[stripe].putAll(batch, i, runEnd);
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockWrite(stamp);
+         }
+
+         if (pointLimiter != null)
+            removeEvictedPoints();
+
+         i = runEnd;
+      }
+
+      return treeChanged;
+   }
+
+   private void removeEvictedPoints()
+   {
+      QuadTreeForGroundPoint point;
+
+      while ((point = pointLimiter.pollEvictedPoint()) != null)
+      {
+         int stripe = getStripeIndex(point.getX(), point.getY());
+
+         long stamp = stripeLocks[stripe].writeLock();
+         try
+         {
+            // The point may have been replaced or cleared since it was evicted
+            QuadTreeForGroundLeaf leaf = point.getParent();
+            if (leaf != null && leaf.getPoints().contains(point))
+               point.removeFromParent();
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockWrite(stamp);
+         }
+      }
+   }
+
+   public boolean isEmpty()
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            if (!stripes[stripe].isEmpty())
+               return false;
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+
+      return true;
+   }
+
+   public void clear()
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].writeLock();
+         try
+         {
+            stripes[stripe].clear();
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockWrite(stamp);
+         }
+      }
+   }
+
+   public double getHeightAtPoint(double x, double y)
+   {
+      if (!bounds.containsOrEquals(x, y))
+         return Double.NaN;
+
+      Point3D nearestPoint = new Point3D(Double.NaN, Double.NaN, Double.NaN);
+      PointAndDistance pointAndDistance = new PointAndDistance(nearestPoint, quadTreeParameters.getMaxAllowableXYDistanceForAPointToBeConsideredClose());
+      getClosestPointAndDistance(x, y, pointAndDistance);
+
+      double heightToReturn = nearestPoint.getZ();
+
+      if (Double.isNaN(heightToReturn))
+      {
+         heightToReturn = defaultHeightWhenNoPoints;
+      }
+      return heightToReturn;
+   }
+
+   public void getClosestPoint(double xQuery, double yQuery, Point3D pointToPack)
+   {
+      PointAndDistance pointAndDistance = new PointAndDistance(pointToPack, Double.POSITIVE_INFINITY);
+      getClosestPointAndDistance(xQuery, yQuery, pointAndDistance);
+   }
+
+   private void getClosestPointAndDistance(double x, double y, PointAndDistance bestSoFarToUpdate)
+   {
+      // The stripe of the query first, it usually gives a small distance that prunes the others
+      int queryStripe = getStripeIndex(x, y);
+      getClosestPointAndDistance(queryStripe, x, y, bestSoFarToUpdate);
+
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         if (stripe == queryStripe)
+            continue;
+
+         Box stripeBounds = getStripeBounds(stripe);
+         double distance = bestSoFarToUpdate.getDistance();
+         if ((x < stripeBounds.minX - distance) || (x > stripeBounds.maxX + distance) || (y < stripeBounds.minY - distance)
+               || (y > stripeBounds.maxY + distance))
+            continue;
+
+         getClosestPointAndDistance(stripe, x, y, bestSoFarToUpdate);
+      }
+   }
+
+   private void getClosestPointAndDistance(int stripe, double x, double y, PointAndDistance bestSoFarToUpdate)
+   {
+      long stamp = stripeLocks[stripe].readLock();
+      try
+      {
+         stripes[stripe].getClosestPointAndDistance(x, y, bestSoFarToUpdate);
+      }
+      finally
+      {
+         stripeLocks[stripe].unlockRead(stamp);
+      }
+   }
+
+   public void getAllPointsWithinDistance(double x, double y, double distance, ArrayList<Point3D> pointsWithinDistanceToPack)
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         if (getStripeBounds(stripe).calcDist(x, y) > distance)
+            continue;
+
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            stripes[stripe].getAllPointsWithinDistance(x, y, distance, pointsWithinDistanceToPack);
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+   }
+
+   public void getAllPointsWithinBounds(Box bounds, ArrayList<Point3D> pointsWithinBoundsToPack)
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         if (!getStripeBounds(stripe).intersects(bounds))
+            continue;
+
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            stripes[stripe].getAllPointsWithBounds(bounds, pointsWithinBoundsToPack);
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+   }
+
+   public double getMinX()
+   {
+      return bounds.minX;
+   }
+
+   public double getMaxX()
+   {
+      return bounds.maxX;
+   }
+
+   public double getMinY()
+   {
+      return bounds.minY;
+   }
+
+   public double getMaxY()
+   {
+      return bounds.maxY;
+   }
+
+   public int getNumberOfQuads()
+   {
+      int numberOfQuads = 0;
+
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            numberOfQuads += stripes[stripe].getNumberOfChildren();
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+
+      return numberOfQuads;
+   }
+
+   public void setDefaultHeightWhenNoPoints(double defaultHeightWhenNoPoints)
+   {
+      this.defaultHeightWhenNoPoints = defaultHeightWhenNoPoints;
+   }
+
+   public double getDefaultHeightWhenNoPoints()
+   {
+      return defaultHeightWhenNoPoints;
+   }
+
+   public void getStoredPoints(Collection<Point3D> points)
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            stripes[stripe].getAllSubTreePoints(points);
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+   }
+
+   public void getCellAverageStoredPoints(Collection<Point3D> points)
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            stripes[stripe].getCellAverageSubTreePoints(points);
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+   }
+
+   public void getCellAverageStoredPoints(PrimitivePointCloud points)
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            stripes[stripe].getCellAverageSubTreePoints(points);
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+   }
+
+   public void checkRepInvarients()
+   {
+      for (int stripe = 0; stripe < stripes.length; stripe++)
+      {
+         long stamp = stripeLocks[stripe].readLock();
+         try
+         {
+            stripes[stripe].checkRepInvarients();
+         }
+         finally
+         {
+            stripeLocks[stripe].unlockRead(stamp);
+         }
+      }
+   }
+
+   /**
+    * Point limiter shared by the stripes. The oldest points are queued instead of being removed
+    * from their leaf right away, since their stripe may not be locked by the thread adding points.
+    */
+   private static class DeferredEvictionPointLimiter extends QuadTreeForGroundPointLimiter
+   {
+      private static final long serialVersionUID = -6000537383574343286L;
+
+      private final ConcurrentLinkedQueue<QuadTreeForGroundPoint> evictedPoints = new ConcurrentLinkedQueue<>();
+
+      private DeferredEvictionPointLimiter(int maximumSize)
+      {
+         super(maximumSize);
+      }
+
+      @Override
+      public synchronized void add(QuadTreeForGroundPoint point)
+      {
+         super.add(point);
+      }
+
+      @Override
+      public synchronized Object remove(Object point)
+      {
+         return super.remove(point);
+      }
+
+      @Override
+      public synchronized int size()
+      {
+         return super.size();
+      }
+
+      @Override
+      public boolean removeEldestEntry(Map.Entry<QuadTreeForGroundPoint, Object> eldest)
+      {
+         if (size() <= getMaximumSize())
+            return false;
+
+         evictedPoints.add(eldest.getKey());
+         return true;
+      }
+
+      private QuadTreeForGroundPoint pollEvictedPoint()
+      {
+         return evictedPoints.poll();
+      }
+   }
+}
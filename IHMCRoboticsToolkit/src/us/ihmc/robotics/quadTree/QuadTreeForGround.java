@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 
 /**
  * A quad tree for representing ground height maps.
@@ -26,6 +27,7 @@ public class QuadTreeForGround
    private final QuadTreeForGroundParameters quadTreeParameters;
    private final Point3D nearestPointForHeightAt = new Point3D();
    private final QuadTreeForGroundPointLimiter pointLimiter;
+   private final QuadTreeForGroundPointBatch pointBatch = new QuadTreeForGroundPointBatch();
    
    
    public QuadTreeForGround(double minX, double minY, double maxX, double maxY, double resolution, double heightThreshold,
@@ -108,6 +110,28 @@ public class QuadTreeForGround
 
       return root.put(x, y, z);
    }
+
+   /**
+    * Puts all the points of a scan under one lock. The points are sorted in Morton order of their
+    * position and put in that order, walking down the tree once per run of points going to the same
+    * node. Points falling in the same cell keep the order of the array.
+    *
+    * @param points the coordinates of the points, packed as x, y, z, x, y, z, ...
+    * @return whether the tree changed.
+    */
+   public synchronized boolean putAll(double[] points, int numberOfPoints)
+   {
+      for (QuadTreeForGroundListener listener : listeners)
+      {
+         for (int i = 0; i < numberOfPoints; i++)
+         {
+            listener.RawPointAdded((float) points[3 * i], (float) points[3 * i + 1], (float) points[3 * i + 2]);
+         }
+      }
+
+      pointBatch.set(bounds, points, numberOfPoints);
+      return root.putAll(pointBatch, 0, pointBatch.size());
+   }
    
    public boolean isEmpty()
    {
@@ -205,6 +229,11 @@ public class QuadTreeForGround
       root.getCellAverageSubTreePoints(points);
    }
 
+   public synchronized void getCellAverageStoredPoints(PrimitivePointCloud points)
+   {
+      root.getCellAverageSubTreePoints(points);
+   }
+
    public void checkRepInvarients()
    {
       root.checkRepInvarients();
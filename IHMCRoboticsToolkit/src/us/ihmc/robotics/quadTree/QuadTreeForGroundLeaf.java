@@ -19,7 +19,11 @@ public class QuadTreeForGroundLeaf
       this.pointLimiter = pointLimiter;
    }
 
-   public Point3D getAveragePoint()
+   /**
+    * The average is computed lazily, this is synchronized so concurrent readers of a
+    * {@link ConcurrentQuadTreeForGround} do not compute it at the same time.
+    */
+   public synchronized Point3D getAveragePoint()
    {
       if (averagePoint == null)
       {
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 
 public class QuadTreeForGroundNode
 {
@@ -91,6 +92,22 @@ public class QuadTreeForGroundNode
          pointsToPack.add(this.leaf.getAveragePoint());
       }
    }
+
+   public void getCellAverageSubTreePoints(PrimitivePointCloud pointsToPack)
+   {
+      if (hasChildren)
+      {
+         NE.getCellAverageSubTreePoints(pointsToPack);
+         NW.getCellAverageSubTreePoints(pointsToPack);
+         SE.getCellAverageSubTreePoints(pointsToPack);
+         SW.getCellAverageSubTreePoints(pointsToPack);
+      }
+      else if (leaf != null)
+      {
+         Point3D averagePoint = leaf.getAveragePoint();
+         pointsToPack.add(averagePoint.getX(), averagePoint.getY(), averagePoint.getZ(), 0L);
+      }
+   }
    
    
 
@@ -598,13 +615,15 @@ public class QuadTreeForGroundNode
             SE = null;
             SW = null;
             hasChildren = false;
-            parent.merge();
+            if (parent != null)
+               parent.merge();
          }
       }
       else
       {
          leaf = null;
-         parent.merge();
+         if (parent != null)
+            parent.merge();
       }
       
    }
@@ -615,4 +634,39 @@ public class QuadTreeForGroundNode
       return put(point);
    }
 
+   /**
+    * Puts the points of the batch from start to end. They are sorted so the points going to the
+    * same child are next to each other, so the tree is walked down once per run of points in the
+    * same child instead of once per point. The result is the same as putting them one at a time.
+    *
+    * @return whether the tree changed.
+    */
+   boolean putAll(QuadTreeForGroundPointBatch batch, int start, int end)
+   {
+      boolean treeChanged = false;
+      int i = start;
+
+      while (i < end)
+      {
+         // Checked for every run since a put can divide this node
+         if (hasChildren)
+         {
+            QuadTreeForGroundNode child = getChild(batch.getX(i), batch.getY(i));
+            int runEnd = i + 1;
+            while (runEnd < end && getChild(batch.getX(runEnd), batch.getY(runEnd)) == child)
+               runEnd++;
+
+            treeChanged |= child.putAll(batch, i, runEnd);
+            i = runEnd;
+         }
+         else
+         {
+            treeChanged |= put(batch.getX(i), batch.getY(i), batch.getZ(i)).treeChanged;
+            i++;
+         }
+      }
+
+      return treeChanged;
+   }
+
 }
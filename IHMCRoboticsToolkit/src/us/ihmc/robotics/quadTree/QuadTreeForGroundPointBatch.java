@@ -0,0 +1,103 @@
+package us.ihmc.robotics.quadTree;
+
+import java.util.Arrays;
+
+/**
+ * The points of a scan sorted in Morton (Z) order of their cell in the bounds of a quad tree, so
+ * the points falling in any quadrant of the tree are next to each other. Points in the same cell
+ * keep the order they had in the scan. The arrays are kept from one batch to the next.
+ */
+class QuadTreeForGroundPointBatch
+{
+   private static final int BITS_PER_AXIS = 16;
+   private static final int NUMBER_OF_CELLS_PER_AXIS = 1 << BITS_PER_AXIS;
+   /** The index of the point is stored in the lower bits of the sort key. */
+   private static final int INDEX_BITS = 31;
+   private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+   private long[] keys = new long[0];
+   private double[] x = new double[0];
+   private double[] y = new double[0];
+   private double[] z = new double[0];
+   private int size = 0;
+
+   /**
+    * @param points the coordinates of the points, packed as x, y, z, x, y, z, ...
+    */
+   public void set(Box bounds, double[] points, int numberOfPoints)
+   {
+      if (keys.length < numberOfPoints)
+      {
+         keys = new long[numberOfPoints];
+         x = new double[numberOfPoints];
+         y = new double[numberOfPoints];
+         z = new double[numberOfPoints];
+      }
+      size = numberOfPoints;
+
+      double xScale = NUMBER_OF_CELLS_PER_AXIS / (bounds.maxX - bounds.minX);
+      double yScale = NUMBER_OF_CELLS_PER_AXIS / (bounds.maxY - bounds.minY);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         int xCell = toCell((points[3 * i] - bounds.minX) * xScale);
+         int yCell = toCell((points[3 * i + 1] - bounds.minY) * yScale);
+         keys[i] = (interleave(xCell, yCell) << INDEX_BITS) | i;
+      }
+
+      Arrays.sort(keys, 0, numberOfPoints);
+
+      for (int i = 0; i < numberOfPoints; i++)
+      {
+         int index = (int) (keys[i] & INDEX_MASK);
+         x[i] = points[3 * index];
+         y[i] = points[3 * index + 1];
+         z[i] = points[3 * index + 2];
+      }
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public double getX(int i)
+   {
+      return x[i];
+   }
+
+   public double getY(int i)
+   {
+      return y[i];
+   }
+
+   public double getZ(int i)
+   {
+      return z[i];
+   }
+
+   private static int toCell(double position)
+   {
+      if (!(position > 0.0)) // Also catches NaN
+         return 0;
+      return (int) Math.min(position, NUMBER_OF_CELLS_PER_AXIS - 1);
+   }
+
+   /**
+    * @return the bits of x and y interleaved, y being the most significant.
+    */
+   private static long interleave(int xCell, int yCell)
+   {
+      return spreadBits(xCell) | (spreadBits(yCell) << 1);
+   }
+
+   private static long spreadBits(int value)
+   {
+      long bits = value & 0xFFFFL;
+      bits = (bits | (bits << 8)) & 0x00FF00FFL;
+      bits = (bits | (bits << 4)) & 0x0F0F0F0FL;
+      bits = (bits | (bits << 2)) & 0x33333333L;
+      bits = (bits | (bits << 1)) & 0x55555555L;
+      return bits;
+   }
+}
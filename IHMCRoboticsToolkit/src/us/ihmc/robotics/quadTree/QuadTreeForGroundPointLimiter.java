@@ -15,6 +15,11 @@ public class QuadTreeForGroundPointLimiter extends LinkedHashMap<QuadTreeForGrou
       this.maximumSize = maximumSize;
    }
    
+   public int getMaximumSize()
+   {
+      return maximumSize;
+   }
+
    public void add(QuadTreeForGroundPoint point)
    {
       if(!point.isRegistered())
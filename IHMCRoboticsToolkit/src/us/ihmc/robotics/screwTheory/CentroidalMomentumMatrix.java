@@ -18,9 +18,20 @@ public class CentroidalMomentumMatrix
    private final DenseMatrix64F tempMatrix = new DenseMatrix64F(6, 1);
    private final Vector3D zero = new Vector3D();
    private final boolean[][] isAncestorMapping;
+   private final MotionSubspaceCache motionSubspaceCache;
 
    public CentroidalMomentumMatrix(RigidBody rootBody, ReferenceFrame centerOfMassFrame)
    {
+      this(rootBody, centerOfMassFrame, null);
+   }
+
+   /**
+    * @param motionSubspaceCache when not {@code null}, the unit twists of the joints expressed in
+    *           the body frames are obtained from this cache and shared with its other users.
+    */
+   public CentroidalMomentumMatrix(RigidBody rootBody, ReferenceFrame centerOfMassFrame, MotionSubspaceCache motionSubspaceCache)
+   {
+      this.motionSubspaceCache = motionSubspaceCache;
       this.jointList = ScrewTools.computeSupportAndSubtreeJoints(rootBody);
       this.centerOfMassFrame = centerOfMassFrame;
       int nDegreesOfFreedom = ScrewTools.computeDegreesOfFreedom(jointList);
@@ -64,8 +75,15 @@ public class CentroidalMomentumMatrix
                {
                   RigidBody rowRigidBody = jointList[i].getSuccessor();
                   RigidBodyInertia inertia = rowRigidBody.getInertia();
-                  columnJoint.getUnitTwist(k, tempTwist);
-                  tempTwist.changeFrame(inertia.getExpressedInFrame());
+                  if (motionSubspaceCache == null)
+                  {
+                     columnJoint.getUnitTwist(k, tempTwist);
+                     tempTwist.changeFrame(inertia.getExpressedInFrame());
+                  }
+                  else
+                  {
+                     motionSubspaceCache.getUnitTwist(columnJoint, k, inertia.getExpressedInFrame(), tempTwist);
+                  }
                   tempMomentum.compute(inertia, tempTwist);
                   tempMomentum.changeFrame(centerOfMassFrame);
                   unitMomenta[column].add(tempMomentum);
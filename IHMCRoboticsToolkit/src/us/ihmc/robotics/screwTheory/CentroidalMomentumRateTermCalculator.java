@@ -53,9 +53,22 @@ public class CentroidalMomentumRateTermCalculator
    private final Vector3D zero = new Vector3D();
    private final double robotMass;
    private final boolean[][] isAncestorMapping;
+   private final MotionSubspaceCache motionSubspaceCache;
 
    public CentroidalMomentumRateTermCalculator(RigidBody rootBody, ReferenceFrame centerOfMassFrame, DenseMatrix64F v, double robotMass)
    {
+      this(rootBody, centerOfMassFrame, v, robotMass, null);
+   }
+
+   /**
+    * @param motionSubspaceCache cache shared with the other modules computing Jacobians during a
+    *           control tick, its tick is advanced by its owner. Can be {@code null}, in which case
+    *           the unit twists are recomputed at every call to {@link #compute()}.
+    */
+   public CentroidalMomentumRateTermCalculator(RigidBody rootBody, ReferenceFrame centerOfMassFrame, DenseMatrix64F v, double robotMass,
+                                               MotionSubspaceCache motionSubspaceCache)
+   {
+      this.motionSubspaceCache = motionSubspaceCache;
       this.rootBody = rootBody;
       this.jointList = ScrewTools.computeSupportAndSubtreeJoints(rootBody);
       this.centerOfMassFrame = centerOfMassFrame;
@@ -135,8 +148,16 @@ public class CentroidalMomentumRateTermCalculator
             {
                if (isAncestorMapping[i][j])
                {
-                  jointList[j].getUnitTwist(k, tempTwist);
-                  tempTwist.changeFrame(rigidBodies[i].getInertia().getExpressedInFrame());
+                  ReferenceFrame inertiaFrame = rigidBodies[i].getInertia().getExpressedInFrame();
+                  if (motionSubspaceCache != null)
+                  {
+                     motionSubspaceCache.getUnitTwist(jointList[j], k, inertiaFrame, tempTwist);
+                  }
+                  else
+                  {
+                     jointList[j].getUnitTwist(k, tempTwist);
+                     tempTwist.changeFrame(inertiaFrame);
+                  }
 
                   tempTwist.getMatrix(tempSpatialMotionMatrix, 0);
                   CommonOps.mult(denseAdjTimesI[i], tempSpatialMotionMatrix, tempMatrix);
@@ -0,0 +1,808 @@
+package us.ihmc.robotics.screwTheory;
+
+import java.util.LinkedHashMap;
+
+import org.ejml.data.DenseMatrix64F;
+
+import us.ihmc.euclid.matrix.RotationMatrix;
+import us.ihmc.euclid.matrix.interfaces.Matrix3DReadOnly;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.interfaces.Tuple3DReadOnly;
+import us.ihmc.euclid.tuple3D.interfaces.Vector3DReadOnly;
+
+/**
+ * Multi-body dynamics calculator that flattens the kinematic tree once into parent-index arrays
+ * and contiguous double arrays, and then runs forward kinematics, the recursive Newton-Euler
+ * algorithm and the composite rigid body algorithm over these arrays, without going through
+ * reference frames.
+ * <p>
+ * It gives the same joint torques as {@link InverseDynamicsCalculator} with a gravitational root
+ * acceleration and no external wrenches, and the same mass matrix as
+ * {@link CompositeRigidBodyMassMatrixCalculator}. Only {@link RevoluteJoint},
+ * {@link PrismaticJoint} and {@link SixDoFJoint} are supported and the root body has to be
+ * stationary.
+ * </p>
+ * <p>
+ * All the spatial vectors are stored as [angular; linear] and expressed in the frame after the
+ * joint of the body they belong to. Rotations are stored as row-major 3-by-3 matrices.
+ * </p>
+ */
+public class CompiledMultiBodyDynamicsCalculator implements MassMatrixCalculator
+{
+   private static final int REVOLUTE = 0;
+   private static final int PRISMATIC = 1;
+   private static final int SIX_DOF = 2;
+
+   private final InverseDynamicsJoint[] jointsInOrder;
+   private final LinkedHashMap<InverseDynamicsJoint, Integer> jointIndices = new LinkedHashMap<>();
+   private final int numberOfJoints;
+   private final int degreesOfFreedom;
+
+   // Tree structure
+   private final int[] parentIndices;
+   private final int[] jointTypes;
+   private final int[] velocityIndices;
+   private final double[] jointAxes;
+
+   // Constant properties, one entry per joint
+   private final double[] fixedRotations;
+   private final double[] fixedTranslations;
+   private final double[] successorRotations;
+   private final double[] successorTranslations;
+   private final double[] masses;
+   /** Mass times the center of mass position, in the frame after the joint. */
+   private final double[] firstMassMoments;
+   /** Mass moment of inertia about the origin of the frame after the joint. */
+   private final double[] rotationalInertias;
+
+   private final double[] rootRotation = new double[9];
+   private final double[] rootTranslation = new double[3];
+   private final double gravity;
+
+   // State, updated every tick
+   private final RotationMatrix sixDoFJointRotation = new RotationMatrix();
+   /** The joint position for a one DoF joint, the translation for a six DoF joint. */
+   private final double[] jointPositions;
+   private final double[] sixDoFJointRotations;
+   private final DenseMatrix64F jointVelocities;
+   private final DenseMatrix64F jointAccelerations;
+   private final double[] rotations;
+   private final double[] translations;
+   private final double[] rotationsInWorld;
+   private final double[] translationsInWorld;
+
+   // Inverse dynamics
+   private final double[] velocities;
+   private final double[] accelerations;
+   private final double[] forces;
+   private final double[] jointVelocityTwist = new double[6];
+   private final double[] momentum = new double[6];
+   private final DenseMatrix64F jointTorques;
+
+   // Mass matrix
+   private final double[] compositeMasses;
+   private final double[] compositeFirstMassMoments;
+   private final double[] compositeRotationalInertias;
+   private final double[] unitForces = new double[6 * 6];
+   private final double[] unitMotion = new double[6];
+   private final DenseMatrix64F massMatrix;
+
+   public CompiledMultiBodyDynamicsCalculator(RigidBody rootBody, double gravity)
+   {
+      this.gravity = gravity;
+
+      jointsInOrder = ScrewTools.computeSupportAndSubtreeJoints(rootBody);
+      numberOfJoints = jointsInOrder.length;
+
+      parentIndices = new int[numberOfJoints];
+      jointTypes = new int[numberOfJoints];
+      velocityIndices = new int[numberOfJoints];
+      jointAxes = new double[3 * numberOfJoints];
+      fixedRotations = new double[9 * numberOfJoints];
+      fixedTranslations = new double[3 * numberOfJoints];
+      successorRotations = new double[9 * numberOfJoints];
+      successorTranslations = new double[3 * numberOfJoints];
+      masses = new double[numberOfJoints];
+      firstMassMoments = new double[3 * numberOfJoints];
+      rotationalInertias = new double[9 * numberOfJoints];
+
+      RigidBodyTransform transform = new RigidBodyTransform();
+      Twist unitTwist = new Twist();
+      int velocityIndex = 0;
+
+      for (int jointIndex = 0; jointIndex < numberOfJoints; jointIndex++)
+      {
+         InverseDynamicsJoint joint = jointsInOrder[jointIndex];
+         jointIndices.put(joint, jointIndex);
+
+         RigidBody predecessor = joint.getPredecessor();
+         ReferenceFrame parentFrame;
+         if (predecessor == rootBody)
+         {
+            parentIndices[jointIndex] = -1;
+            parentFrame = rootBody.getBodyFixedFrame();
+         }
+         else
+         {
+            Integer parentIndex = jointIndices.get(predecessor.getParentJoint());
+            if (parentIndex == null)
+               throw new RuntimeException("The parent joint of " + joint.getName() + " is not part of the subtree of " + rootBody.getName());
+            parentIndices[jointIndex] = parentIndex;
+            parentFrame = predecessor.getParentJoint().getFrameAfterJoint();
+         }
+
+         velocityIndices[jointIndex] = velocityIndex;
+         velocityIndex += joint.getDegreesOfFreedom();
+
+         if (joint instanceof SixDoFJoint)
+         {
+            jointTypes[jointIndex] = SIX_DOF;
+         }
+         else if (joint instanceof RevoluteJoint || joint instanceof PrismaticJoint)
+         {
+            ((OneDoFJoint) joint).getUnitJointTwist(unitTwist);
+            boolean isRevolute = joint instanceof RevoluteJoint;
+            jointTypes[jointIndex] = isRevolute ? REVOLUTE : PRISMATIC;
+            Vector3DReadOnly jointAxis = isRevolute ? unitTwist.getAngularPart() : unitTwist.getLinearPart();
+            jointAxes[3 * jointIndex] = jointAxis.getX();
+            jointAxes[3 * jointIndex + 1] = jointAxis.getY();
+            jointAxes[3 * jointIndex + 2] = jointAxis.getZ();
+         }
+         else
+         {
+            throw new RuntimeException("Joint type not supported: " + joint.getClass().getSimpleName());
+         }
+
+         // The frame before joint is fixed in the frame after the parent joint, except for the
+         // floating joint that may directly use the frame of the root body.
+         ReferenceFrame frameBeforeJoint = joint.getFrameBeforeJoint();
+         if (frameBeforeJoint == parentFrame)
+         {
+            transform.setIdentity();
+         }
+         else
+         {
+            frameBeforeJoint.getParent().checkReferenceFrameMatch(parentFrame);
+            transform.set(frameBeforeJoint.getTransformToParent());
+         }
+         packTransform(transform, jointIndex, fixedRotations, fixedTranslations);
+
+         RigidBody successor = joint.getSuccessor();
+         successor.getBodyFixedFrame().getParent().checkReferenceFrameMatch(joint.getFrameAfterJoint());
+         transform.set(successor.getBodyFixedFrame().getTransformToParent());
+         packTransform(transform, jointIndex, successorRotations, successorTranslations);
+
+         RigidBodyInertia inertia = successor.getInertia();
+         inertia.getExpressedInFrame().checkReferenceFrameMatch(successor.getBodyFixedFrame());
+         if (!inertia.isCrossPartZero())
+            throw new RuntimeException("The inertia of " + successor.getName() + " should be expressed at its center of mass.");
+         packMatrix(inertia.getMassMomentOfInertiaPartCopy(), jointIndex, rotationalInertias);
+         masses[jointIndex] = inertia.getMass();
+         transformInertia(jointIndex, successorRotations, successorTranslations, masses, firstMassMoments, rotationalInertias, masses, firstMassMoments,
+                          rotationalInertias, jointIndex, false);
+      }
+
+      degreesOfFreedom = velocityIndex;
+
+      rootBody.getBodyFixedFrame().getTransformToDesiredFrame(transform, ReferenceFrame.getWorldFrame());
+      packTransform(transform, 0, rootRotation, rootTranslation);
+
+      jointPositions = new double[3 * numberOfJoints];
+      sixDoFJointRotations = new double[9 * numberOfJoints];
+      jointVelocities = new DenseMatrix64F(degreesOfFreedom, 1);
+      jointAccelerations = new DenseMatrix64F(degreesOfFreedom, 1);
+      rotations = new double[9 * numberOfJoints];
+      translations = new double[3 * numberOfJoints];
+      rotationsInWorld = new double[9 * numberOfJoints];
+      translationsInWorld = new double[3 * numberOfJoints];
+
+      velocities = new double[6 * numberOfJoints];
+      accelerations = new double[6 * numberOfJoints];
+      forces = new double[6 * numberOfJoints];
+      jointTorques = new DenseMatrix64F(degreesOfFreedom, 1);
+
+      compositeMasses = new double[numberOfJoints];
+      compositeFirstMassMoments = new double[3 * numberOfJoints];
+      compositeRotationalInertias = new double[9 * numberOfJoints];
+      massMatrix = new DenseMatrix64F(degreesOfFreedom, degreesOfFreedom);
+   }
+
+   /**
+    * Reads the joint positions, velocities and desired accelerations, and updates the pose of the
+    * frame after each joint with respect to its parent and to world.
+    */
+   public void update()
+   {
+      for (int jointIndex = 0; jointIndex < numberOfJoints; jointIndex++)
+      {
+         InverseDynamicsJoint joint = jointsInOrder[jointIndex];
+         int velocityIndex = velocityIndices[jointIndex];
+         joint.getVelocityMatrix(jointVelocities, velocityIndex);
+         joint.getDesiredAccelerationMatrix(jointAccelerations, velocityIndex);
+
+         if (jointTypes[jointIndex] == SIX_DOF)
+         {
+            SixDoFJoint sixDoFJoint = (SixDoFJoint) joint;
+            sixDoFJoint.getRotation(sixDoFJointRotation);
+            Tuple3DReadOnly translation = sixDoFJoint.getTranslationForReading();
+            packMatrix(sixDoFJointRotation, jointIndex, sixDoFJointRotations);
+            jointPositions[3 * jointIndex] = translation.getX();
+            jointPositions[3 * jointIndex + 1] = translation.getY();
+            jointPositions[3 * jointIndex + 2] = translation.getZ();
+         }
+         else
+         {
+            jointPositions[3 * jointIndex] = ((OneDoFJoint) joint).getQ();
+         }
+      }
+
+      computeForwardKinematics();
+   }
+
+   private void computeForwardKinematics()
+   {
+      for (int jointIndex = 0; jointIndex < numberOfJoints; jointIndex++)
+      {
+         int r = 9 * jointIndex;
+         int t = 3 * jointIndex;
+         double q = jointPositions[t];
+
+         switch (jointTypes[jointIndex])
+         {
+         case REVOLUTE:
+         {
+            double ax = jointAxes[t], ay = jointAxes[t + 1], az = jointAxes[t + 2];
+            double cos = Math.cos(q);
+            double sin = Math.sin(q);
+            double oneMinusCos = 1.0 - cos;
+            double j00 = cos + oneMinusCos * ax * ax, j01 = oneMinusCos * ax * ay - sin * az, j02 = oneMinusCos * ax * az + sin * ay;
+            double j10 = oneMinusCos * ax * ay + sin * az, j11 = cos + oneMinusCos * ay * ay, j12 = oneMinusCos * ay * az - sin * ax;
+            double j20 = oneMinusCos * ax * az - sin * ay, j21 = oneMinusCos * ay * az + sin * ax, j22 = cos + oneMinusCos * az * az;
+            multiplyRotations(fixedRotations, r, j00, j01, j02, j10, j11, j12, j20, j21, j22, rotations, r);
+            translations[t] = fixedTranslations[t];
+            translations[t + 1] = fixedTranslations[t + 1];
+            translations[t + 2] = fixedTranslations[t + 2];
+            break;
+         }
+         case PRISMATIC:
+         {
+            System.arraycopy(fixedRotations, r, rotations, r, 9);
+            transform(fixedRotations, r, q * jointAxes[t], q * jointAxes[t + 1], q * jointAxes[t + 2], translations, t);
+            translations[t] += fixedTranslations[t];
+            translations[t + 1] += fixedTranslations[t + 1];
+            translations[t + 2] += fixedTranslations[t + 2];
+            break;
+         }
+         default:
+         {
+            double[] j = sixDoFJointRotations;
+            multiplyRotations(fixedRotations, r, j[r], j[r + 1], j[r + 2], j[r + 3], j[r + 4], j[r + 5], j[r + 6], j[r + 7], j[r + 8], rotations, r);
+            transform(fixedRotations, r, jointPositions[t], jointPositions[t + 1], jointPositions[t + 2], translations, t);
+            translations[t] += fixedTranslations[t];
+            translations[t + 1] += fixedTranslations[t + 1];
+            translations[t + 2] += fixedTranslations[t + 2];
+            break;
+         }
+         }
+
+         int parentIndex = parentIndices[jointIndex];
+         double[] parentRotation = parentIndex < 0 ? rootRotation : rotationsInWorld;
+         double[] parentTranslation = parentIndex < 0 ? rootTranslation : translationsInWorld;
+         int parentR = parentIndex < 0 ? 0 : 9 * parentIndex;
+         int parentT = parentIndex < 0 ? 0 : 3 * parentIndex;
+
+         double[] l = rotations;
+         multiplyRotations(parentRotation, parentR, l[r], l[r + 1], l[r + 2], l[r + 3], l[r + 4], l[r + 5], l[r + 6], l[r + 7], l[r + 8], rotationsInWorld, r);
+         transform(parentRotation, parentR, translations[t], translations[t + 1], translations[t + 2], translationsInWorld, t);
+         translationsInWorld[t] += parentTranslation[parentT];
+         translationsInWorld[t + 1] += parentTranslation[parentT + 1];
+         translationsInWorld[t + 2] += parentTranslation[parentT + 2];
+      }
+   }
+
+   /**
+    * Computes the joint torques with the recursive Newton-Euler algorithm from the state read in
+    * the last {@link #update()}, and sets them in the joints. For a {@link SixDoFJoint}, the
+    * torque is the wrench on its successor expressed in the successor body-fixed frame.
+    */
+   public void computeInverseDynamics()
+   {
+      double[] qd = jointVelocities.getData();
+      double[] qdd = jointAccelerations.getData();
+
+      // Forward pass: velocities and accelerations, then the net force on each body
+      for (int jointIndex = 0; jointIndex < numberOfJoints; jointIndex++)
+      {
+         int s = 6 * jointIndex;
+         int parentIndex = parentIndices[jointIndex];
+
+         if (parentIndex < 0)
+         {
+            for (int i = 0; i < 6; i++)
+               velocities[s + i] = 0.0;
+            transformMotion(jointIndex, 0.0, 0.0, 0.0, 0.0, 0.0, gravity, accelerations, s);
+         }
+         else
+         {
+            int p = 6 * parentIndex;
+            transformMotion(jointIndex, velocities[p], velocities[p + 1], velocities[p + 2], velocities[p + 3], velocities[p + 4], velocities[p + 5],
+                            velocities, s);
+            transformMotion(jointIndex, accelerations[p], accelerations[p + 1], accelerations[p + 2], accelerations[p + 3], accelerations[p + 4],
+                            accelerations[p + 5], accelerations, s);
+         }
+
+         computeJointMotion(jointIndex, qd, jointVelocityTwist);
+         for (int i = 0; i < 6; i++)
+            velocities[s + i] += jointVelocityTwist[i];
+
+         computeJointMotion(jointIndex, qdd, unitMotion);
+         for (int i = 0; i < 6; i++)
+            accelerations[s + i] += unitMotion[i];
+
+         // a += v x Sqd
+         double wx = velocities[s], wy = velocities[s + 1], wz = velocities[s + 2];
+         double vx = velocities[s + 3], vy = velocities[s + 4], vz = velocities[s + 5];
+         double mwx = jointVelocityTwist[0], mwy = jointVelocityTwist[1], mwz = jointVelocityTwist[2];
+         double mvx = jointVelocityTwist[3], mvy = jointVelocityTwist[4], mvz = jointVelocityTwist[5];
+         accelerations[s] += wy * mwz - wz * mwy;
+         accelerations[s + 1] += wz * mwx - wx * mwz;
+         accelerations[s + 2] += wx * mwy - wy * mwx;
+         accelerations[s + 3] += wy * mvz - wz * mvy + vy * mwz - vz * mwy;
+         accelerations[s + 4] += wz * mvx - wx * mvz + vz * mwx - vx * mwz;
+         accelerations[s + 5] += wx * mvy - wy * mvx + vx * mwy - vy * mwx;
+
+         // f = I a + v x* I v
+         multiplyInertia(masses, firstMassMoments, rotationalInertias, jointIndex, accelerations, s, forces, s);
+         multiplyInertia(masses, firstMassMoments, rotationalInertias, jointIndex, velocities, s, momentum, 0);
+         double hwx = momentum[0], hwy = momentum[1], hwz = momentum[2];
+         double hvx = momentum[3], hvy = momentum[4], hvz = momentum[5];
+         forces[s] += wy * hwz - wz * hwy + vy * hvz - vz * hvy;
+         forces[s + 1] += wz * hwx - wx * hwz + vz * hvx - vx * hvz;
+         forces[s + 2] += wx * hwy - wy * hwx + vx * hvy - vy * hvx;
+         forces[s + 3] += wy * hvz - wz * hvy;
+         forces[s + 4] += wz * hvx - wx * hvz;
+         forces[s + 5] += wx * hvy - wy * hvx;
+      }
+
+      // Backward pass: project on the joint axes and pass the force on to the parent
+      double[] tau = jointTorques.getData();
+
+      for (int jointIndex = numberOfJoints - 1; jointIndex >= 0; jointIndex--)
+      {
+         int s = 6 * jointIndex;
+         int velocityIndex = velocityIndices[jointIndex];
+
+         if (jointTypes[jointIndex] == SIX_DOF)
+            transformForceToSuccessorFrame(jointIndex, forces, s, tau, velocityIndex);
+         else
+            tau[velocityIndex] = projectOnJointAxis(jointIndex, forces, s);
+
+         int parentIndex = parentIndices[jointIndex];
+         if (parentIndex >= 0)
+            addForceToParent(jointIndex, forces, s, forces, 6 * parentIndex);
+
+         jointsInOrder[jointIndex].setJointTorque(jointTorques, velocityIndex);
+      }
+   }
+
+   /**
+    * Computes the mass matrix with the composite rigid body algorithm from the joint positions
+    * read in the last {@link #update()}. The rows and columns are in the same order as
+    * {@link #getJointsInOrder()}.
+    */
+   public void computeMassMatrix()
+   {
+      System.arraycopy(masses, 0, compositeMasses, 0, numberOfJoints);
+      System.arraycopy(firstMassMoments, 0, compositeFirstMassMoments, 0, 3 * numberOfJoints);
+      System.arraycopy(rotationalInertias, 0, compositeRotationalInertias, 0, 9 * numberOfJoints);
+
+      for (int jointIndex = numberOfJoints - 1; jointIndex >= 0; jointIndex--)
+      {
+         int parentIndex = parentIndices[jointIndex];
+         if (parentIndex >= 0)
+         {
+            transformInertia(jointIndex, rotations, translations, compositeMasses, compositeFirstMassMoments, compositeRotationalInertias, compositeMasses,
+                             compositeFirstMassMoments, compositeRotationalInertias, parentIndex, true);
+         }
+      }
+
+      for (int jointIndex = 0; jointIndex < numberOfJoints; jointIndex++)
+      {
+         int numberOfUnitForces = jointsInOrder[jointIndex].getDegreesOfFreedom();
+         int rowStart = velocityIndices[jointIndex];
+
+         for (int i = 0; i < numberOfUnitForces; i++)
+         {
+            computeUnitMotion(jointIndex, i, unitMotion);
+            multiplyInertia(compositeMasses, compositeFirstMassMoments, compositeRotationalInertias, jointIndex, unitMotion, 0, unitForces, 6 * i);
+         }
+
+         setMassMatrixBlock(rowStart, numberOfUnitForces, jointIndex);
+
+         int ancestorIndex = jointIndex;
+         int parentIndex;
+         while ((parentIndex = parentIndices[ancestorIndex]) >= 0)
+         {
+            for (int i = 0; i < numberOfUnitForces; i++)
+               addForceToParent(ancestorIndex, unitForces, 6 * i, unitForces, 6 * i, true);
+            ancestorIndex = parentIndex;
+            setMassMatrixBlock(rowStart, numberOfUnitForces, ancestorIndex);
+         }
+      }
+   }
+
+   private void setMassMatrixBlock(int rowStart, int numberOfUnitForces, int columnJointIndex)
+   {
+      int columnStart = velocityIndices[columnJointIndex];
+      int numberOfColumns = jointsInOrder[columnJointIndex].getDegreesOfFreedom();
+
+      for (int i = 0; i < numberOfUnitForces; i++)
+      {
+         for (int j = 0; j < numberOfColumns; j++)
+         {
+            computeUnitMotion(columnJointIndex, j, unitMotion);
+            double entry = 0.0;
+            for (int k = 0; k < 6; k++)
+               entry += unitForces[6 * i + k] * unitMotion[k];
+            massMatrix.unsafe_set(rowStart + i, columnStart + j, entry);
+            massMatrix.unsafe_set(columnStart + j, rowStart + i, entry);
+         }
+      }
+   }
+
+   @Override
+   public void compute()
+   {
+      update();
+      computeMassMatrix();
+   }
+
+   @Override
+   public DenseMatrix64F getMassMatrix()
+   {
+      return massMatrix;
+   }
+
+   @Override
+   public void getMassMatrix(DenseMatrix64F massMatrixToPack)
+   {
+      massMatrixToPack.set(massMatrix);
+   }
+
+   @Override
+   public InverseDynamicsJoint[] getJointsInOrder()
+   {
+      return jointsInOrder;
+   }
+
+   /**
+    * @return the joint torques computed in the last {@link #computeInverseDynamics()}, in the
+    *         same order as {@link #getJointsInOrder()}.
+    */
+   public DenseMatrix64F getJointTorques()
+   {
+      return jointTorques;
+   }
+
+   public int getNumberOfDegreesOfFreedom()
+   {
+      return degreesOfFreedom;
+   }
+
+   public int getJointIndex(InverseDynamicsJoint joint)
+   {
+      Integer jointIndex = jointIndices.get(joint);
+      if (jointIndex == null)
+         throw new RuntimeException("Joint " + joint.getName() + " is not handled by this calculator.");
+      return jointIndex;
+   }
+
+   /**
+    * Packs the pose of the frame after the given joint in world, as computed in the last
+    * {@link #update()}.
+    */
+   public void getFrameAfterJointTransformToWorld(int jointIndex, RigidBodyTransform transformToPack)
+   {
+      int r = 9 * jointIndex;
+      int t = 3 * jointIndex;
+      double[] m = rotationsInWorld;
+      double[] p = translationsInWorld;
+      transformToPack.set(m[r], m[r + 1], m[r + 2], p[t], m[r + 3], m[r + 4], m[r + 5], p[t + 1], m[r + 6], m[r + 7], m[r + 8], p[t + 2]);
+   }
+
+   /**
+    * Packs the twist of the frame after the given joint with respect to world, expressed in the
+    * frame after the joint as [angular; linear], from the last {@link #computeInverseDynamics()}.
+    */
+   public void getFrameAfterJointVelocity(int jointIndex, double[] velocityToPack)
+   {
+      System.arraycopy(velocities, 6 * jointIndex, velocityToPack, 0, 6);
+   }
+
+   private void computeJointMotion(int jointIndex, double[] jointMotion, double[] motionToPack)
+   {
+      int velocityIndex = velocityIndices[jointIndex];
+
+      if (jointTypes[jointIndex] == SIX_DOF)
+      {
+         System.arraycopy(jointMotion, velocityIndex, motionToPack, 0, 6);
+      }
+      else
+      {
+         computeUnitMotion(jointIndex, 0, motionToPack);
+         double scale = jointMotion[velocityIndex];
+         for (int i = 0; i < 6; i++)
+            motionToPack[i] *= scale;
+      }
+   }
+
+   private void computeUnitMotion(int jointIndex, int dofIndex, double[] motionToPack)
+   {
+      for (int i = 0; i < 6; i++)
+         motionToPack[i] = 0.0;
+
+      switch (jointTypes[jointIndex])
+      {
+      case REVOLUTE:
+         motionToPack[0] = jointAxes[3 * jointIndex];
+         motionToPack[1] = jointAxes[3 * jointIndex + 1];
+         motionToPack[2] = jointAxes[3 * jointIndex + 2];
+         break;
+      case PRISMATIC:
+         motionToPack[3] = jointAxes[3 * jointIndex];
+         motionToPack[4] = jointAxes[3 * jointIndex + 1];
+         motionToPack[5] = jointAxes[3 * jointIndex + 2];
+         break;
+      default:
+         motionToPack[dofIndex] = 1.0;
+         break;
+      }
+   }
+
+   private double projectOnJointAxis(int jointIndex, double[] force, int offset)
+   {
+      int a = 3 * jointIndex;
+      int start = jointTypes[jointIndex] == REVOLUTE ? offset : offset + 3;
+      return jointAxes[a] * force[start] + jointAxes[a + 1] * force[start + 1] + jointAxes[a + 2] * force[start + 2];
+   }
+
+   /**
+    * Transforms a motion vector expressed in the frame after the parent joint to the frame after
+    * the given joint: angular' = R^T angular, linear' = R^T (linear + angular x p).
+    */
+   private void transformMotion(int jointIndex, double wx, double wy, double wz, double vx, double vy, double vz, double[] motionToPack, int offset)
+   {
+      int t = 3 * jointIndex;
+      double px = translations[t], py = translations[t + 1], pz = translations[t + 2];
+      double lx = vx + wy * pz - wz * py;
+      double ly = vy + wz * px - wx * pz;
+      double lz = vz + wx * py - wy * px;
+      inverseTransform(rotations, 9 * jointIndex, wx, wy, wz, motionToPack, offset);
+      inverseTransform(rotations, 9 * jointIndex, lx, ly, lz, motionToPack, offset + 3);
+   }
+
+   private void addForceToParent(int jointIndex, double[] force, int offset, double[] parentForce, int parentOffset)
+   {
+      addForceToParent(jointIndex, force, offset, parentForce, parentOffset, false);
+   }
+
+   /**
+    * Transforms a force vector expressed in the frame after the given joint to the frame after
+    * its parent joint: linear' = R linear, angular' = R angular + p x linear'. The result is
+    * either added to or set in the parent force.
+    */
+   private void addForceToParent(int jointIndex, double[] force, int offset, double[] parentForce, int parentOffset, boolean overwrite)
+   {
+      int r = 9 * jointIndex;
+      int t = 3 * jointIndex;
+      double[] m = rotations;
+      double tx = force[offset], ty = force[offset + 1], tz = force[offset + 2];
+      double fx = force[offset + 3], fy = force[offset + 4], fz = force[offset + 5];
+
+      double rfx = m[r] * fx + m[r + 1] * fy + m[r + 2] * fz;
+      double rfy = m[r + 3] * fx + m[r + 4] * fy + m[r + 5] * fz;
+      double rfz = m[r + 6] * fx + m[r + 7] * fy + m[r + 8] * fz;
+      double px = translations[t], py = translations[t + 1], pz = translations[t + 2];
+      double rtx = m[r] * tx + m[r + 1] * ty + m[r + 2] * tz + py * rfz - pz * rfy;
+      double rty = m[r + 3] * tx + m[r + 4] * ty + m[r + 5] * tz + pz * rfx - px * rfz;
+      double rtz = m[r + 6] * tx + m[r + 7] * ty + m[r + 8] * tz + px * rfy - py * rfx;
+
+      if (overwrite)
+      {
+         parentForce[parentOffset] = rtx;
+         parentForce[parentOffset + 1] = rty;
+         parentForce[parentOffset + 2] = rtz;
+         parentForce[parentOffset + 3] = rfx;
+         parentForce[parentOffset + 4] = rfy;
+         parentForce[parentOffset + 5] = rfz;
+      }
+      else
+      {
+         parentForce[parentOffset] += rtx;
+         parentForce[parentOffset + 1] += rty;
+         parentForce[parentOffset + 2] += rtz;
+         parentForce[parentOffset + 3] += rfx;
+         parentForce[parentOffset + 4] += rfy;
+         parentForce[parentOffset + 5] += rfz;
+      }
+   }
+
+   /**
+    * Transforms a force vector from the frame after the joint to the body-fixed frame of the
+    * successor: linear' = R^T linear, angular' = R^T (angular - p x linear).
+    */
+   private void transformForceToSuccessorFrame(int jointIndex, double[] force, int offset, double[] forceToPack, int offsetToPack)
+   {
+      int t = 3 * jointIndex;
+      double px = successorTranslations[t], py = successorTranslations[t + 1], pz = successorTranslations[t + 2];
+      double fx = force[offset + 3], fy = force[offset + 4], fz = force[offset + 5];
+      double tx = force[offset] - (py * fz - pz * fy);
+      double ty = force[offset + 1] - (pz * fx - px * fz);
+      double tz = force[offset + 2] - (px * fy - py * fx);
+      inverseTransform(successorRotations, 9 * jointIndex, tx, ty, tz, forceToPack, offsetToPack);
+      inverseTransform(successorRotations, 9 * jointIndex, fx, fy, fz, forceToPack, offsetToPack + 3);
+   }
+
+   /**
+    * Computes [J w + h x v; m v - h x w] where m is the mass, h the first mass moment and J the
+    * rotational inertia of the given body.
+    */
+   private static void multiplyInertia(double[] masses, double[] firstMassMoments, double[] rotationalInertias, int index, double[] motion, int offset,
+                                       double[] forceToPack, int offsetToPack)
+   {
+      double mass = masses[index];
+      double hx = firstMassMoments[3 * index], hy = firstMassMoments[3 * index + 1], hz = firstMassMoments[3 * index + 2];
+      double wx = motion[offset], wy = motion[offset + 1], wz = motion[offset + 2];
+      double vx = motion[offset + 3], vy = motion[offset + 4], vz = motion[offset + 5];
+
+      transform(rotationalInertias, 9 * index, wx, wy, wz, forceToPack, offsetToPack);
+      forceToPack[offsetToPack] += hy * vz - hz * vy;
+      forceToPack[offsetToPack + 1] += hz * vx - hx * vz;
+      forceToPack[offsetToPack + 2] += hx * vy - hy * vx;
+      forceToPack[offsetToPack + 3] = mass * vx - (hy * wz - hz * wy);
+      forceToPack[offsetToPack + 4] = mass * vy - (hz * wx - hx * wz);
+      forceToPack[offsetToPack + 5] = mass * vz - (hx * wy - hy * wx);
+   }
+
+   /**
+    * Expresses the inertia of a body in the frame of its parent, given the rotation R and
+    * translation p of the body frame in the parent frame:
+    * m' = m, h' = R h + m p, J' = R J R^T + m ((p.p) I - p p^T) + 2 (p.Rh) I - p (Rh)^T - Rh p^T.
+    * The result is either added to or set in the destination.
+    */
+   private static void transformInertia(int index, double[] rotations, double[] translations, double[] masses, double[] firstMassMoments,
+                                        double[] rotationalInertias, double[] massesToPack, double[] firstMassMomentsToPack,
+                                        double[] rotationalInertiasToPack, int indexToPack, boolean add)
+   {
+      int r = 9 * index;
+      double[] R = rotations;
+      double mass = masses[index];
+      double px = translations[3 * index], py = translations[3 * index + 1], pz = translations[3 * index + 2];
+      double hx = firstMassMoments[3 * index], hy = firstMassMoments[3 * index + 1], hz = firstMassMoments[3 * index + 2];
+      double rhx = R[r] * hx + R[r + 1] * hy + R[r + 2] * hz;
+      double rhy = R[r + 3] * hx + R[r + 4] * hy + R[r + 5] * hz;
+      double rhz = R[r + 6] * hx + R[r + 7] * hy + R[r + 8] * hz;
+
+      // J' = R J R^T
+      double[] J = rotationalInertias;
+      int j = 9 * index;
+      double a00 = R[r] * J[j] + R[r + 1] * J[j + 3] + R[r + 2] * J[j + 6];
+      double a01 = R[r] * J[j + 1] + R[r + 1] * J[j + 4] + R[r + 2] * J[j + 7];
+      double a02 = R[r] * J[j + 2] + R[r + 1] * J[j + 5] + R[r + 2] * J[j + 8];
+      double a10 = R[r + 3] * J[j] + R[r + 4] * J[j + 3] + R[r + 5] * J[j + 6];
+      double a11 = R[r + 3] * J[j + 1] + R[r + 4] * J[j + 4] + R[r + 5] * J[j + 7];
+      double a12 = R[r + 3] * J[j + 2] + R[r + 4] * J[j + 5] + R[r + 5] * J[j + 8];
+      double a20 = R[r + 6] * J[j] + R[r + 7] * J[j + 3] + R[r + 8] * J[j + 6];
+      double a21 = R[r + 6] * J[j + 1] + R[r + 7] * J[j + 4] + R[r + 8] * J[j + 7];
+      double a22 = R[r + 6] * J[j + 2] + R[r + 7] * J[j + 5] + R[r + 8] * J[j + 8];
+
+      double j00 = a00 * R[r] + a01 * R[r + 1] + a02 * R[r + 2];
+      double j01 = a00 * R[r + 3] + a01 * R[r + 4] + a02 * R[r + 5];
+      double j02 = a00 * R[r + 6] + a01 * R[r + 7] + a02 * R[r + 8];
+      double j11 = a10 * R[r + 3] + a11 * R[r + 4] + a12 * R[r + 5];
+      double j12 = a10 * R[r + 6] + a11 * R[r + 7] + a12 * R[r + 8];
+      double j22 = a20 * R[r + 6] + a21 * R[r + 7] + a22 * R[r + 8];
+
+      // Parallel axis terms
+      double pp = px * px + py * py + pz * pz;
+      double pRh = px * rhx + py * rhy + pz * rhz;
+      j00 += mass * (pp - px * px) + 2.0 * pRh - 2.0 * px * rhx;
+      j11 += mass * (pp - py * py) + 2.0 * pRh - 2.0 * py * rhy;
+      j22 += mass * (pp - pz * pz) + 2.0 * pRh - 2.0 * pz * rhz;
+      j01 += -mass * px * py - px * rhy - rhx * py;
+      j02 += -mass * px * pz - px * rhz - rhx * pz;
+      j12 += -mass * py * pz - py * rhz - rhy * pz;
+
+      int k = 9 * indexToPack;
+      int h = 3 * indexToPack;
+      if (!add)
+      {
+         massesToPack[indexToPack] = 0.0;
+         for (int i = 0; i < 3; i++)
+            firstMassMomentsToPack[h + i] = 0.0;
+         for (int i = 0; i < 9; i++)
+            rotationalInertiasToPack[k + i] = 0.0;
+      }
+
+      massesToPack[indexToPack] += mass;
+      firstMassMomentsToPack[h] += rhx + mass * px;
+      firstMassMomentsToPack[h + 1] += rhy + mass * py;
+      firstMassMomentsToPack[h + 2] += rhz + mass * pz;
+
+      double[] K = rotationalInertiasToPack;
+      K[k] += j00;
+      K[k + 1] += j01;
+      K[k + 2] += j02;
+      K[k + 3] += j01;
+      K[k + 4] += j11;
+      K[k + 5] += j12;
+      K[k + 6] += j02;
+      K[k + 7] += j12;
+      K[k + 8] += j22;
+   }
+
+   private static void packTransform(RigidBodyTransform transform, int index, double[] rotationsToPack, double[] translationsToPack)
+   {
+      int r = 9 * index;
+      int t = 3 * index;
+      rotationsToPack[r] = transform.getM00();
+      rotationsToPack[r + 1] = transform.getM01();
+      rotationsToPack[r + 2] = transform.getM02();
+      rotationsToPack[r + 3] = transform.getM10();
+      rotationsToPack[r + 4] = transform.getM11();
+      rotationsToPack[r + 5] = transform.getM12();
+      rotationsToPack[r + 6] = transform.getM20();
+      rotationsToPack[r + 7] = transform.getM21();
+      rotationsToPack[r + 8] = transform.getM22();
+      translationsToPack[t] = transform.getM03();
+      translationsToPack[t + 1] = transform.getM13();
+      translationsToPack[t + 2] = transform.getM23();
+   }
+
+   private static void packMatrix(Matrix3DReadOnly matrix, int index, double[] matricesToPack)
+   {
+      int r = 9 * index;
+      matricesToPack[r] = matrix.getM00();
+      matricesToPack[r + 1] = matrix.getM01();
+      matricesToPack[r + 2] = matrix.getM02();
+      matricesToPack[r + 3] = matrix.getM10();
+      matricesToPack[r + 4] = matrix.getM11();
+      matricesToPack[r + 5] = matrix.getM12();
+      matricesToPack[r + 6] = matrix.getM20();
+      matricesToPack[r + 7] = matrix.getM21();
+      matricesToPack[r + 8] = matrix.getM22();
+   }
+
+   private static void multiplyRotations(double[] a, int offset, double b00, double b01, double b02, double b10, double b11, double b12, double b20,
+                                         double b21, double b22, double[] resultToPack, int offsetToPack)
+   {
+      double a00 = a[offset], a01 = a[offset + 1], a02 = a[offset + 2];
+      double a10 = a[offset + 3], a11 = a[offset + 4], a12 = a[offset + 5];
+      double a20 = a[offset + 6], a21 = a[offset + 7], a22 = a[offset + 8];
+      int o = offsetToPack;
+      resultToPack[o] = a00 * b00 + a01 * b10 + a02 * b20;
+      resultToPack[o + 1] = a00 * b01 + a01 * b11 + a02 * b21;
+      resultToPack[o + 2] = a00 * b02 + a01 * b12 + a02 * b22;
+      resultToPack[o + 3] = a10 * b00 + a11 * b10 + a12 * b20;
+      resultToPack[o + 4] = a10 * b01 + a11 * b11 + a12 * b21;
+      resultToPack[o + 5] = a10 * b02 + a11 * b12 + a12 * b22;
+      resultToPack[o + 6] = a20 * b00 + a21 * b10 + a22 * b20;
+      resultToPack[o + 7] = a20 * b01 + a21 * b11 + a22 * b21;
+      resultToPack[o + 8] = a20 * b02 + a21 * b12 + a22 * b22;
+   }
+
+   private static void transform(double[] m, int offset, double x, double y, double z, double[] resultToPack, int offsetToPack)
+   {
+      resultToPack[offsetToPack] = m[offset] * x + m[offset + 1] * y + m[offset + 2] * z;
+      resultToPack[offsetToPack + 1] = m[offset + 3] * x + m[offset + 4] * y + m[offset + 5] * z;
+      resultToPack[offsetToPack + 2] = m[offset + 6] * x + m[offset + 7] * y + m[offset + 8] * z;
+   }
+
+   private static void inverseTransform(double[] m, int offset, double x, double y, double z, double[] resultToPack, int offsetToPack)
+   {
+      resultToPack[offsetToPack] = m[offset] * x + m[offset + 3] * y + m[offset + 6] * z;
+      resultToPack[offsetToPack + 1] = m[offset + 1] * x + m[offset + 4] * y + m[offset + 7] * z;
+      resultToPack[offsetToPack + 2] = m[offset + 2] * x + m[offset + 5] * y + m[offset + 8] * z;
+   }
+}
@@ -146,6 +146,27 @@ public class GeometricJacobian implements NameBasedHashCodeHolder
       }
    }
 
+   /**
+    * Computes the Jacobian using the motion subspaces stored in the given cache.
+    * <p>
+    * The unit twists of a joint expressed in the frame of this Jacobian are computed at most once
+    * per tick of {@code motionSubspaceCache} and are shared with the other users of the cache. The
+    * frame of this Jacobian is assumed to not move between two ticks of the cache.
+    * </p>
+    * 
+    * @param motionSubspaceCache the cache providing the motion subspaces of the joints.
+    */
+   public void compute(MotionSubspaceCache motionSubspaceCache)
+   {
+      int column = 0;
+      for (int jointIndex = 0; jointIndex < joints.length; jointIndex++)
+      {
+         InverseDynamicsJoint joint = joints[jointIndex];
+         motionSubspaceCache.getMotionSubspace(joint, jacobianFrame, jacobian, column);
+         column += joint.getDegreesOfFreedom();
+      }
+   }
+
    /**
     * Changes the frame in which the resulting twist of the end effector with respect to the base
     * frame will be expressed. The boolean {@code allowChangeFrame} has to be initialize to
@@ -231,6 +231,36 @@ public class GeometricJacobianCalculator
       }
    }
 
+   /**
+    * Computes the Jacobian matrix using the motion subspaces stored in the given cache.
+    * <p>
+    * The unit twists of a joint expressed in the Jacobian frame are computed at most once per tick
+    * of {@code motionSubspaceCache} and are shared with the other users of the cache. The Jacobian
+    * frame is assumed to not move between two ticks of the cache, such that a frame that is
+    * modified for each new task should not be used here.
+    * </p>
+    * 
+    * @param motionSubspaceCache the cache providing the motion subspaces of the joints.
+    * @throws RuntimeException if either the base or the end-effector has not been provided
+    *            beforehand.
+    */
+   public void computeJacobianMatrix(MotionSubspaceCache motionSubspaceCache)
+   {
+      if (base == null || endEffector == null)
+         throw new RuntimeException("The base and end-effector have to be set first.");
+
+      jacobianMatrix.reshape(SpatialMotionVector.SIZE, numberOfDegreesOfFreedom);
+
+      int column = 0;
+
+      for (int jointIndex = 0; jointIndex < jointsFromBaseToEndEffector.size(); jointIndex++)
+      {
+         InverseDynamicsJoint joint = jointsFromBaseToEndEffector.get(jointIndex);
+         motionSubspaceCache.getMotionSubspace(joint, jacobianFrame, jacobianMatrix, column);
+         column += joint.getDegreesOfFreedom();
+      }
+   }
+
    /**
     * Computes the convective term C<sub>6x1</sub> = JDot<sub>6xN</sub> * qDot<sub>Nx1</sub>.<br>
     * where N is the number of degrees of freedom between the {@code base} and {@code endEffector},
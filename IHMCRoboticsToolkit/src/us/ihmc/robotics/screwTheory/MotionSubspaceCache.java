@@ -0,0 +1,160 @@
+package us.ihmc.robotics.screwTheory;
+
+import org.ejml.data.DenseMatrix64F;
+
+import gnu.trove.map.hash.TLongObjectHashMap;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.utils.NameBasedHashCodeTools;
+
+/**
+ * Stores the unit twists of joints expressed in given frames such that the different modules
+ * computing Jacobians during a control tick share the result instead of each of them changing the
+ * frame of the same unit twists.
+ * <p>
+ * The cache relies on a tick counter: {@link #nextTick()} is to be called once per control tick
+ * after the robot configuration has been updated. A cached motion subspace is considered dirty as
+ * soon as the tick it was computed for differs from the current tick, in which case it is
+ * recomputed the next time it is requested.
+ * </p>
+ * <p>
+ * Each entry is identified by the joint and the frame the motion subspace is expressed in. The
+ * robot configuration should not change between two calls to {@link #nextTick()}, otherwise
+ * outdated unit twists will be returned.
+ * </p>
+ */
+public class MotionSubspaceCache
+{
+   private final TLongObjectHashMap<MotionSubspace> motionSubspaces = new TLongObjectHashMap<>();
+   private final Twist tempTwist = new Twist();
+   private long tick = 0;
+
+   /**
+    * Marks all the cached motion subspaces as outdated. To be called once per control tick after
+    * the reference frames of the robot have been updated.
+    */
+   public void nextTick()
+   {
+      tick++;
+   }
+
+   /**
+    * @return the current value of the tick counter.
+    */
+   public long getTick()
+   {
+      return tick;
+   }
+
+   /**
+    * Packs the unit twist of the {@code dofIndex}<sup>th</sup> degree of freedom of the given joint
+    * expressed in {@code expressedInFrame}.
+    *
+    * @param joint the joint to get the unit twist of.
+    * @param dofIndex the index of the degree of freedom of {@code joint}.
+    * @param expressedInFrame the frame in which the unit twist is to be expressed.
+    * @param unitTwistToPack the twist in which the result is stored. Modified.
+    */
+   public void getUnitTwist(InverseDynamicsJoint joint, int dofIndex, ReferenceFrame expressedInFrame, Twist unitTwistToPack)
+   {
+      MotionSubspace motionSubspace = getOrComputeMotionSubspace(joint, expressedInFrame);
+
+      if (motionSubspace == null)
+      {
+         joint.getUnitTwist(dofIndex, unitTwistToPack);
+         unitTwistToPack.changeFrame(expressedInFrame);
+      }
+      else
+      {
+         unitTwistToPack.set(motionSubspace.unitTwists[dofIndex]);
+      }
+   }
+
+   /**
+    * Packs the motion subspace of the given joint expressed in {@code expressedInFrame} in
+    * {@code matrixToPack} starting at the column {@code startColumn}.
+    *
+    * @param joint the joint to get the motion subspace of.
+    * @param expressedInFrame the frame in which the motion subspace is to be expressed.
+    * @param matrixToPack the matrix in which the motion subspace is stored. It is expected to have
+    *           6 rows and enough columns. Modified.
+    * @param startColumn the column index of {@code matrixToPack} where the first unit twist is
+    *           stored.
+    */
+   public void getMotionSubspace(InverseDynamicsJoint joint, ReferenceFrame expressedInFrame, DenseMatrix64F matrixToPack, int startColumn)
+   {
+      MotionSubspace motionSubspace = getOrComputeMotionSubspace(joint, expressedInFrame);
+
+      for (int dofIndex = 0; dofIndex < joint.getDegreesOfFreedom(); dofIndex++)
+      {
+         if (motionSubspace == null)
+         {
+            joint.getUnitTwist(dofIndex, tempTwist);
+            tempTwist.changeFrame(expressedInFrame);
+            tempTwist.getMatrix(matrixToPack, 0, startColumn + dofIndex);
+         }
+         else
+         {
+            motionSubspace.unitTwists[dofIndex].getMatrix(matrixToPack, 0, startColumn + dofIndex);
+         }
+      }
+   }
+
+   /**
+    * Retrieves the motion subspace associated to the pair ({@code joint}, {@code expressedInFrame})
+    * and updates it if it was last computed during a previous tick.
+    *
+    * @return the up-to-date motion subspace or {@code null} if the pair collides with another one,
+    *         in which case the caller has to compute the unit twists itself.
+    */
+   private MotionSubspace getOrComputeMotionSubspace(InverseDynamicsJoint joint, ReferenceFrame expressedInFrame)
+   {
+      long key = NameBasedHashCodeTools.combineHashCodes(joint.getNameBasedHashCode(), expressedInFrame);
+      MotionSubspace motionSubspace = motionSubspaces.get(key);
+
+      if (motionSubspace == null)
+      {
+         motionSubspace = new MotionSubspace(joint, expressedInFrame);
+         motionSubspaces.put(key, motionSubspace);
+      }
+      else if (motionSubspace.joint != joint || motionSubspace.expressedInFrame != expressedInFrame)
+      {
+         return null;
+      }
+
+      if (motionSubspace.tick != tick)
+      {
+         motionSubspace.update();
+         motionSubspace.tick = tick;
+      }
+
+      return motionSubspace;
+   }
+
+   private class MotionSubspace
+   {
+      private final InverseDynamicsJoint joint;
+      private final ReferenceFrame expressedInFrame;
+      private final Twist[] unitTwists;
+      private long tick;
+
+      public MotionSubspace(InverseDynamicsJoint joint, ReferenceFrame expressedInFrame)
+      {
+         this.joint = joint;
+         this.expressedInFrame = expressedInFrame;
+         unitTwists = new Twist[joint.getDegreesOfFreedom()];
+         for (int dofIndex = 0; dofIndex < unitTwists.length; dofIndex++)
+            unitTwists[dofIndex] = new Twist();
+         // Ensures the first request computes the unit twists.
+         tick = MotionSubspaceCache.this.tick - 1;
+      }
+
+      public void update()
+      {
+         for (int dofIndex = 0; dofIndex < unitTwists.length; dofIndex++)
+         {
+            joint.getUnitTwist(dofIndex, unitTwists[dofIndex]);
+            unitTwists[dofIndex].changeFrame(expressedInFrame);
+         }
+      }
+   }
+}
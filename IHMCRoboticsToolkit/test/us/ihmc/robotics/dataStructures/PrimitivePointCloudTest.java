@@ -0,0 +1,194 @@
+package us.ihmc.robotics.dataStructures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.euclid.tuple3D.Point3D;
+
+public class PrimitivePointCloudTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testAddAndGet()
+   {
+      Random random = new Random(1776L);
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud(2);
+      ArrayList<Point3D> points = new ArrayList<>();
+      long[] timestamps = new long[1000];
+
+      for (int i = 0; i < timestamps.length; i++)
+      {
+         points.add(EuclidCoreRandomTools.generateRandomPoint3D(random, 10.0));
+         timestamps[i] = random.nextLong();
+      }
+
+      pointCloud.addAll(points, timestamps);
+      assertEquals(points.size(), pointCloud.size());
+
+      Point3D point = new Point3D();
+      float[] packedPoints = pointCloud.toPackedArray();
+      for (int i = 0; i < points.size(); i++)
+      {
+         pointCloud.getPoint(i, point);
+         assertTrue(point.epsilonEquals(points.get(i), 1.0e-5));
+         assertEquals(timestamps[i], pointCloud.getTimestamp(i));
+         assertEquals(pointCloud.getX(i), packedPoints[3 * i], 0.0f);
+         assertEquals(pointCloud.getY(i), packedPoints[3 * i + 1], 0.0f);
+         assertEquals(pointCloud.getZ(i), packedPoints[3 * i + 2], 0.0f);
+      }
+
+      PrimitivePointCloud copy = new PrimitivePointCloud();
+      copy.set(pointCloud);
+      assertArrayEquals(packedPoints, copy.toPackedArray(), 0.0f);
+
+      pointCloud.clear();
+      assertTrue(pointCloud.isEmpty());
+      assertEquals(points.size(), copy.size());
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000, expected = IndexOutOfBoundsException.class)
+   public void testGetOutsideOfCloud()
+   {
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud(10);
+      pointCloud.add(1.0, 2.0, 3.0, 0L);
+      pointCloud.getX(1);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testApplyTransform()
+   {
+      Random random = new Random(1777L);
+      RigidBodyTransform transform = EuclidCoreRandomTools.generateRandomRigidBodyTransform(random);
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud();
+      ArrayList<Point3D> expectedPoints = new ArrayList<>();
+
+      for (int i = 0; i < 500; i++)
+      {
+         Point3D point = EuclidCoreRandomTools.generateRandomPoint3D(random, 5.0);
+         pointCloud.add(point.getX(), point.getY(), point.getZ(), i);
+         point.set(pointCloud.getX(i), pointCloud.getY(i), pointCloud.getZ(i));
+         expectedPoints.add(point);
+      }
+
+      pointCloud.applyTransform(transform, 100, 300);
+
+      Point3D point = new Point3D();
+      for (int i = 0; i < expectedPoints.size(); i++)
+      {
+         if (i >= 100 && i < 300)
+            transform.transform(expectedPoints.get(i));
+         pointCloud.getPoint(i, point);
+         assertTrue(point.epsilonEquals(expectedPoints.get(i), 1.0e-5));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testTransformInDoublePrecision()
+   {
+      Random random = new Random(1779L);
+      RigidBodyTransform transform = EuclidCoreRandomTools.generateRandomRigidBodyTransform(random);
+      // Far from the origin, where single precision is off by several millimeters
+      transform.setTranslation(1.0e5, -2.0e5, 3.0e4);
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud();
+
+      for (int i = 0; i < 500; i++)
+      {
+         Point3D point = EuclidCoreRandomTools.generateRandomPoint3D(random, 5.0);
+         pointCloud.add(point.getX(), point.getY(), point.getZ(), i);
+      }
+
+      double[] packedPoints = new double[3 * pointCloud.size()];
+      pointCloud.transform(transform, packedPoints);
+
+      Point3D expectedPoint = new Point3D();
+      for (int i = 0; i < pointCloud.size(); i++)
+      {
+         pointCloud.getPoint(i, expectedPoint);
+         transform.transform(expectedPoint);
+         assertEquals(expectedPoint.getX(), packedPoints[3 * i], 1.0e-9);
+         assertEquals(expectedPoint.getY(), packedPoints[3 * i + 1], 1.0e-9);
+         assertEquals(expectedPoint.getZ(), packedPoints[3 * i + 2], 1.0e-9);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testFilter()
+   {
+      Random random = new Random(1778L);
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud();
+      ArrayList<Point3D> expectedPoints = new ArrayList<>();
+      ArrayList<Long> expectedTimestamps = new ArrayList<>();
+
+      for (int i = 0; i < 1000; i++)
+      {
+         Point3D point = EuclidCoreRandomTools.generateRandomPoint3D(random, 1.0);
+         pointCloud.add(point.getX(), point.getY(), point.getZ(), i);
+         if (pointCloud.getZ(i) > 0.0f)
+         {
+            expectedPoints.add(new Point3D(pointCloud.getX(i), pointCloud.getY(i), pointCloud.getZ(i)));
+            expectedTimestamps.add((long) i);
+         }
+      }
+
+      int numberOfRemovedPoints = pointCloud.filter((x, y, z) -> z > 0.0f);
+      assertEquals(1000 - expectedPoints.size(), numberOfRemovedPoints);
+      assertEquals(expectedPoints.size(), pointCloud.size());
+
+      Point3D point = new Point3D();
+      for (int i = 0; i < pointCloud.size(); i++)
+      {
+         pointCloud.getPoint(i, point);
+         assertTrue(point.equals(expectedPoints.get(i)));
+         assertEquals(expectedTimestamps.get(i).longValue(), pointCloud.getTimestamp(i));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testDownsample()
+   {
+      Random random = new Random(1779L);
+      double resolution = 0.1;
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud();
+      HashSet<String> expectedVoxels = new HashSet<>();
+      ArrayList<Long> expectedTimestamps = new ArrayList<>();
+
+      for (int i = 0; i < 5000; i++)
+      {
+         Point3D point = EuclidCoreRandomTools.generateRandomPoint3D(random, 0.5);
+         pointCloud.add(point.getX(), point.getY(), point.getZ(), i);
+         if (expectedVoxels.add(voxel(pointCloud.getX(i), pointCloud.getY(i), pointCloud.getZ(i), resolution)))
+            expectedTimestamps.add((long) i);
+      }
+
+      int numberOfRemovedPoints = pointCloud.downsample(resolution);
+      assertEquals(5000 - expectedVoxels.size(), numberOfRemovedPoints);
+      assertEquals(expectedVoxels.size(), pointCloud.size());
+
+      // The first point of each voxel is kept, in the same order as before
+      for (int i = 0; i < pointCloud.size(); i++)
+         assertEquals(expectedTimestamps.get(i).longValue(), pointCloud.getTimestamp(i));
+
+      assertEquals(0, pointCloud.downsample(resolution));
+   }
+
+   private static String voxel(float x, float y, float z, double resolution)
+   {
+      double inverseResolution = 1.0 / resolution;
+      return (long) Math.floor(x * inverseResolution) + " " + (long) Math.floor(y * inverseResolution) + " " + (long) Math.floor(z * inverseResolution);
+   }
+}
@@ -6,15 +6,18 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
 import us.ihmc.commons.MutationTestFacilitator;
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
+import us.ihmc.euclid.geometry.LineSegment2D;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple2D.Point2D;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.random.RandomGeometry;
 
 public class PlanarRegionsListTest
 {
@@ -174,6 +177,101 @@ public class PlanarRegionsListTest
       assertNull(result);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSpatialIndexGivesSameResults() throws Exception
+   {
+      Random random = new Random(4326L);
+
+      List<PlanarRegion> regions = new ArrayList<>();
+      for (int i = 0; i < 100; i++)
+         regions.add(PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 5));
+      // A large region that does not fit in the grid
+      ConvexPolygon2D groundPolygon = new ConvexPolygon2D();
+      groundPolygon.addVertex(-20.0, -20.0);
+      groundPolygon.addVertex(20.0, -20.0);
+      groundPolygon.addVertex(20.0, 20.0);
+      groundPolygon.addVertex(-20.0, 20.0);
+      groundPolygon.update();
+      regions.add(new PlanarRegion(new RigidBodyTransform(), groundPolygon));
+
+      PlanarRegionsList planarRegionsList = new PlanarRegionsList(regions);
+      PlanarRegionsList indexedPlanarRegionsList = planarRegionsList.copy();
+      indexedPlanarRegionsList.setUseSpatialIndex(true);
+      assertTrue(indexedPlanarRegionsList.isUsingSpatialIndex());
+
+      assertSameQueryResults(random, planarRegionsList, indexedPlanarRegionsList);
+
+      // The index has to be rebuilt after the list changes
+      PlanarRegion newRegion = PlanarRegion.generatePlanarRegionFromRandomPolygonsWithRandomTransform(random, 3, 1.0, 5);
+      planarRegionsList.addPlanarRegion(newRegion);
+      indexedPlanarRegionsList.addPlanarRegion(newRegion.copy());
+      assertSameQueryResults(random, planarRegionsList, indexedPlanarRegionsList);
+
+      planarRegionsList.pollPlanarRegion(10);
+      indexedPlanarRegionsList.pollPlanarRegion(10);
+      assertSameQueryResults(random, planarRegionsList, indexedPlanarRegionsList);
+
+      RigidBodyTransform transform = new RigidBodyTransform(RandomGeometry.nextQuaternion(random, 0.3), RandomGeometry.nextVector3D(random, 5.0));
+      planarRegionsList.transform(transform);
+      indexedPlanarRegionsList.transform(transform);
+      assertSameQueryResults(random, planarRegionsList, indexedPlanarRegionsList);
+   }
+
+   private static void assertSameQueryResults(Random random, PlanarRegionsList expectedList, PlanarRegionsList actualList)
+   {
+      for (int i = 0; i < 1000; i++)
+      {
+         double x = 30.0 * (random.nextDouble() - 0.5);
+         double y = 30.0 * (random.nextDouble() - 0.5);
+
+         assertSameRegions(expectedList, expectedList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y), actualList,
+                           actualList.findPlanarRegionsContainingPointByProjectionOntoXYPlane(x, y));
+
+         Point3D point = new Point3D(x, y, 10.0 * (random.nextDouble() - 0.5));
+         double maximumOrthogonalDistance = 2.0 * random.nextDouble();
+         assertSameRegions(expectedList, expectedList.findPlanarRegionsContainingPoint(point, maximumOrthogonalDistance), actualList,
+                           actualList.findPlanarRegionsContainingPoint(point, maximumOrthogonalDistance));
+
+         ConvexPolygon2D polygon = PlanarRegionTest.translateConvexPolygon(x, y, ConvexPolygon2D.generateRandomConvexPolygon2d(random, 0.5, 5));
+         assertSameRegions(expectedList, expectedList.findPlanarRegionsIntersectingPolygon(polygon), actualList,
+                           actualList.findPlanarRegionsIntersectingPolygon(polygon));
+
+         LineSegment2D lineSegment = new LineSegment2D(new Point2D(x, y), new Point2D(x + 2.0 * (random.nextDouble() - 0.5), y + 2.0 * (random.nextDouble() - 0.5)));
+         ArrayList<PlanarRegion> expectedRegions = new ArrayList<>();
+         ArrayList<PlanarRegion> actualRegions = new ArrayList<>();
+         expectedList.findPlanarRegionsIntersectingLineSegment(lineSegment, expectedRegions);
+         actualList.findPlanarRegionsIntersectingLineSegment(lineSegment, actualRegions);
+         assertSameRegions(expectedList, expectedRegions, actualList, actualRegions);
+      }
+   }
+
+   private static void assertSameRegions(PlanarRegionsList expectedList, List<PlanarRegion> expectedRegions, PlanarRegionsList actualList,
+                                         List<PlanarRegion> actualRegions)
+   {
+      if (expectedRegions == null)
+      {
+         assertNull(actualRegions);
+         return;
+      }
+
+      assertEquals(expectedRegions.size(), actualRegions.size());
+      for (int i = 0; i < expectedRegions.size(); i++)
+      {
+         assertEquals(indexOf(expectedList, expectedRegions.get(i)), indexOf(actualList, actualRegions.get(i)));
+      }
+   }
+
+   private static int indexOf(PlanarRegionsList planarRegionsList, PlanarRegion planarRegion)
+   {
+      for (int i = 0; i < planarRegionsList.getNumberOfPlanarRegions(); i++)
+      {
+         if (planarRegionsList.getPlanarRegion(i) == planarRegion)
+            return i;
+      }
+      return -1;
+   }
+
    public static void main(String[] args)
    {
       MutationTestFacilitator.facilitateMutationTestForClass(PlanarRegionsList.class, PlanarRegionsListTest.class);
@@ -1,5 +1,6 @@
 package us.ihmc.robotics.kinematics;
 
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.List;
@@ -143,6 +144,39 @@ public class NumericalInverseKinematicsCalculatorTest
       printStatistics(iterationStatistics, timeStatistics);
    }
 
+	@ContinuousIntegrationTest(estimatedDuration = 1.0)
+	@Test(timeout = 30000)
+   public void testForwardThenInverseWithParallelMultiStart()
+   {
+      Random random = new Random(125126L);
+      Vector3D[] jointAxes = new Vector3D[]
+      {
+         X, Y, Z, Y, Y, X
+      };
+      ScrewTestTools.RandomFloatingChain randomFloatingChain = new ScrewTestTools.RandomFloatingChain(random, jointAxes);
+      GeometricJacobian jacobian = new GeometricJacobian(randomFloatingChain.getRootJoint().getSuccessor(), randomFloatingChain.getLeafBody(),
+                                      randomFloatingChain.getLeafBody().getBodyFixedFrame());
+
+      RandomRestartInverseKinematicsCalculator calculator = createCalculator(jacobian, 200);
+      calculator.enableParallelMultiStart(4);
+
+      List<RevoluteJoint> revoluteJoints = randomFloatingChain.getRevoluteJoints();
+
+      for (int i = 0; i < 200; i++)
+      {
+         setRandomPositions(random, revoluteJoints, 0.25 * Math.PI);
+         jacobian.compute();
+         RigidBodyTransform desiredTransform = jacobian.getEndEffectorFrame().getTransformToDesiredFrame(jacobian.getBaseFrame());
+
+         setRandomPositions(random, revoluteJoints, 0.25 * Math.PI);
+
+         calculator.solve(desiredTransform);
+         RigidBodyTransform solvedTransform = jacobian.getEndEffectorFrame().getTransformToDesiredFrame(jacobian.getBaseFrame());
+
+         assertTrue(solvedTransform.epsilonEquals(desiredTransform, 0.02));
+      }
+   }
+
    private void printStatistics(SummaryStatistics iterationStatistics, SummaryStatistics timeStatistics)
    {
       System.out.println("max time per solve: " + timeStatistics.getMax() + " [s]");
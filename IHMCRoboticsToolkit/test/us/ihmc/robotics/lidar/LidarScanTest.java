@@ -18,6 +18,7 @@ import us.ihmc.euclid.tools.EuclidCoreRandomTools;
 import us.ihmc.euclid.tools.EuclidCoreTestTools;
 import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 
 public class LidarScanTest
 {
@@ -301,6 +302,17 @@ public class LidarScanTest
               assertEquals(list.get(j).getY(), lidarScan1.getAllPoints3f().get(j).getY(), 1e-3);
               assertEquals(list.get(j).getZ(), lidarScan1.getAllPoints3f().get(j).getZ(), 1e-3);
           }
+
+          PrimitivePointCloud pointCloud = new PrimitivePointCloud();
+          lidarScan1.getAllPoints(pointCloud, 42L);
+          assertEquals(list.size(), pointCloud.size());
+          for(int j = 0; j < list.size(); j++)
+          {
+              assertEquals(list.get(j).getX(), pointCloud.getX(j), 1e-3);
+              assertEquals(list.get(j).getY(), pointCloud.getY(j), 1e-3);
+              assertEquals(list.get(j).getZ(), pointCloud.getZ(j), 1e-3);
+              assertEquals(42L, pointCloud.getTimestamp(j));
+          }
       }
    }
 }
@@ -0,0 +1,257 @@
+package us.ihmc.robotics.quadTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
+
+public class ConcurrentQuadTreeForGroundTest
+{
+   private static final Box bounds = new Box(-10.0, -8.0, 10.0, 12.0);
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSameResultsAsQuadTreeForGround()
+   {
+      Random random = new Random(1776L);
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.1, 0.05, 0.2, 4, 0.5, -1);
+      QuadTreeForGround quadTree = new QuadTreeForGround(bounds, parameters);
+      ConcurrentQuadTreeForGround concurrentQuadTree = new ConcurrentQuadTreeForGround(bounds, parameters);
+      assertEquals(ConcurrentQuadTreeForGround.DEFAULT_STRIPE_DEPTH, concurrentQuadTree.getStripeDepth());
+      assertTrue(concurrentQuadTree.isEmpty());
+
+      for (int i = 0; i < 20000; i++)
+      {
+         double x = randomX(random);
+         double y = randomY(random);
+         double z = 0.1 * Math.sin(x) + 0.05 * random.nextDouble();
+         quadTree.put(x, y, z);
+         concurrentQuadTree.put(x, y, z);
+      }
+
+      assertFalse(concurrentQuadTree.isEmpty());
+      concurrentQuadTree.checkRepInvarients();
+      assertSameStoredPoints(quadTree, concurrentQuadTree);
+
+      for (int i = 0; i < 2000; i++)
+      {
+         double x = randomX(random) + random.nextDouble() - 0.5;
+         double y = randomY(random) + random.nextDouble() - 0.5;
+         assertEquals(quadTree.getHeightAtPoint(x, y), concurrentQuadTree.getHeightAtPoint(x, y), 0.0);
+
+         Point3D expectedClosestPoint = new Point3D();
+         Point3D closestPoint = new Point3D();
+         quadTree.getClosestPoint(x, y, expectedClosestPoint);
+         concurrentQuadTree.getClosestPoint(x, y, closestPoint);
+         assertTrue(expectedClosestPoint.equals(closestPoint));
+
+         ArrayList<Point3D> expectedPoints = new ArrayList<>();
+         ArrayList<Point3D> points = new ArrayList<>();
+         quadTree.getAllPointsWithinDistance(x, y, 0.3, expectedPoints);
+         concurrentQuadTree.getAllPointsWithinDistance(x, y, 0.3, points);
+         assertEquals(toSet(expectedPoints), toSet(points));
+
+         Box queryBounds = new Box(x - 0.4, y - 0.2, x + 0.4, y + 0.2);
+         expectedPoints.clear();
+         points.clear();
+         quadTree.getAllPointsWithinBounds(queryBounds, expectedPoints);
+         concurrentQuadTree.getAllPointsWithinBounds(queryBounds, points);
+         assertEquals(toSet(expectedPoints), toSet(points));
+      }
+
+      concurrentQuadTree.clear();
+      assertTrue(concurrentQuadTree.isEmpty());
+      assertTrue(Double.isNaN(concurrentQuadTree.getHeightAtPoint(0.0, 0.0)));
+      concurrentQuadTree.setDefaultHeightWhenNoPoints(0.3);
+      assertEquals(0.3, concurrentQuadTree.getHeightAtPoint(0.0, 0.0), 0.0);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testPointLimiter()
+   {
+      Random random = new Random(1777L);
+      int maximumNumberOfPoints = 200;
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.1, 0.05, 0.2, 4, 0.5, maximumNumberOfPoints);
+      ConcurrentQuadTreeForGround concurrentQuadTree = new ConcurrentQuadTreeForGround(bounds, parameters);
+
+      for (int i = 0; i < 5000; i++)
+      {
+         concurrentQuadTree.put(randomX(random), randomY(random), 0.1 * random.nextDouble());
+         assertTrue(concurrentQuadTree.getNumberOfPoints() <= maximumNumberOfPoints);
+      }
+
+      ArrayList<Point3D> points = new ArrayList<>();
+      concurrentQuadTree.getStoredPoints(points);
+      assertEquals(maximumNumberOfPoints, concurrentQuadTree.getNumberOfPoints());
+      assertEquals(maximumNumberOfPoints, points.size());
+      concurrentQuadTree.checkRepInvarients();
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.3)
+   @Test(timeout = 30000)
+   public void testPutAll()
+   {
+      Random random = new Random(1779L);
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.1, 0.05, 0.2, 4, 0.5, -1);
+      QuadTreeForGround quadTree = new QuadTreeForGround(bounds, parameters);
+      ConcurrentQuadTreeForGround concurrentQuadTree = new ConcurrentQuadTreeForGround(bounds, parameters);
+
+      for (int scan = 0; scan < 4; scan++)
+      {
+         int numberOfPoints = 5000;
+         double[] points = new double[3 * numberOfPoints];
+         for (int i = 0; i < numberOfPoints; i++)
+         {
+            points[3 * i] = randomX(random);
+            points[3 * i + 1] = randomY(random);
+            points[3 * i + 2] = 0.1 * Math.sin(points[3 * i]) + 0.05 * random.nextDouble();
+         }
+
+         assertEquals(quadTree.putAll(points, numberOfPoints), concurrentQuadTree.putAll(points, numberOfPoints));
+      }
+
+      assertSameStoredPoints(quadTree, concurrentQuadTree);
+
+      for (int i = 0; i < 1000; i++)
+      {
+         double x = randomX(random);
+         double y = randomY(random);
+         assertEquals(quadTree.getHeightAtPoint(x, y), concurrentQuadTree.getHeightAtPoint(x, y), 0.0);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 2.0)
+   @Test(timeout = 30000)
+   public void testConcurrentPutsAndQueries() throws InterruptedException
+   {
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.1, 0.05, 0.2, 4, 0.5, -1);
+      QuadTreeForGround quadTree = new QuadTreeForGround(bounds, parameters);
+      ConcurrentQuadTreeForGround concurrentQuadTree = new ConcurrentQuadTreeForGround(bounds, parameters);
+
+      // Each writer fills one half of the tree, so every stripe gets its points in the same order as the sequential tree
+      int numberOfPointsPerWriter = 20000;
+      double[][] points = new double[2 * numberOfPointsPerWriter][];
+      Random random = new Random(1778L);
+      for (int i = 0; i < points.length; i++)
+      {
+         double x = bounds.maxX * random.nextDouble();
+         if (i >= numberOfPointsPerWriter)
+            x = bounds.minX * random.nextDouble() - 1.0e-3;
+         points[i] = new double[] {x, randomY(random), 0.2 * random.nextDouble()};
+         quadTree.put(points[i][0], points[i][1], points[i][2]);
+      }
+
+      AtomicBoolean isWriting = new AtomicBoolean(true);
+      AtomicReference<Throwable> error = new AtomicReference<>();
+      ArrayList<Thread> threads = new ArrayList<>();
+
+      for (int writer = 0; writer < 2; writer++)
+      {
+         int start = writer * numberOfPointsPerWriter;
+         threads.add(new Thread(() ->
+         {
+            for (int i = start; i < start + numberOfPointsPerWriter; i++)
+               concurrentQuadTree.put(points[i][0], points[i][1], points[i][2]);
+         }));
+      }
+
+      for (int reader = 0; reader < 3; reader++)
+      {
+         long seed = reader;
+         threads.add(new Thread(() ->
+         {
+            Random readerRandom = new Random(seed);
+            while (isWriting.get())
+            {
+               double height = concurrentQuadTree.getHeightAtPoint(randomX(readerRandom), randomY(readerRandom));
+               if (!Double.isNaN(height) && (height < 0.0 || height > 0.2))
+                  throw new RuntimeException("Invalid height " + height);
+
+               ArrayList<Point3D> pointsWithinDistance = new ArrayList<>();
+               concurrentQuadTree.getAllPointsWithinDistance(randomX(readerRandom), randomY(readerRandom), 0.5, pointsWithinDistance);
+            }
+         }));
+      }
+
+      for (Thread thread : threads)
+      {
+         thread.setUncaughtExceptionHandler((t, e) -> error.set(e));
+         thread.start();
+      }
+
+      threads.get(0).join();
+      threads.get(1).join();
+      isWriting.set(false);
+      for (Thread thread : threads)
+         thread.join();
+
+      assertNull(error.get());
+      assertSameStoredPoints(quadTree, concurrentQuadTree);
+   }
+
+   private static void assertSameStoredPoints(QuadTreeForGround quadTree, ConcurrentQuadTreeForGround concurrentQuadTree)
+   {
+      ArrayList<Point3D> expectedPoints = new ArrayList<>();
+      ArrayList<Point3D> points = new ArrayList<>();
+      quadTree.getStoredPoints(expectedPoints);
+      concurrentQuadTree.getStoredPoints(points);
+      assertEquals(expectedPoints.size(), points.size());
+      assertEquals(toSet(expectedPoints), toSet(points));
+
+      expectedPoints.clear();
+      points.clear();
+      quadTree.getCellAverageStoredPoints(expectedPoints);
+      concurrentQuadTree.getCellAverageStoredPoints(points);
+      assertEquals(toSet(expectedPoints), toSet(points));
+
+      PrimitivePointCloud pointCloud = new PrimitivePointCloud();
+      concurrentQuadTree.getCellAverageStoredPoints(pointCloud);
+      points.clear();
+      for (int i = 0; i < pointCloud.size(); i++)
+      {
+         Point3D point = new Point3D();
+         pointCloud.getPoint(i, point);
+         points.add(point);
+      }
+      // The primitive point cloud is in single precision, the averages are internal to the tree and are not modified
+      HashSet<Point3D> expectedSinglePrecisionPoints = new HashSet<>();
+      for (Point3D expectedPoint : expectedPoints)
+         expectedSinglePrecisionPoints.add(new Point3D((float) expectedPoint.getX(), (float) expectedPoint.getY(), (float) expectedPoint.getZ()));
+      assertEquals(expectedPoints.size(), points.size());
+      assertEquals(expectedSinglePrecisionPoints, toSet(points));
+   }
+
+   /**
+    * The points of the quad tree are only equal to themselves, this compares their coordinates.
+    */
+   private static HashSet<Point3D> toSet(ArrayList<Point3D> points)
+   {
+      HashSet<Point3D> set = new HashSet<>();
+      for (Point3D point : points)
+         set.add(new Point3D(point));
+      return set;
+   }
+
+   private static double randomX(Random random)
+   {
+      return bounds.minX + (bounds.maxX - bounds.minX) * random.nextDouble();
+   }
+
+   private static double randomY(Random random)
+   {
+      return bounds.minY + (bounds.maxY - bounds.minY) * random.nextDouble();
+   }
+}
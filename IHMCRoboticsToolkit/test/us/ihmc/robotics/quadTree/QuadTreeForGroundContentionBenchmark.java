@@ -0,0 +1,145 @@
+package us.ihmc.robotics.quadTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Inserts lidar-like batches of points from one thread while several threads query heights, with
+ * the synchronized {@link QuadTreeForGround} and with the {@link ConcurrentQuadTreeForGround}, and
+ * reports the query throughput and latency.
+ */
+public class QuadTreeForGroundContentionBenchmark
+{
+   private static final Box bounds = new Box(-10.0, -10.0, 10.0, 10.0);
+   private static final double RUN_DURATION = 5.0;
+   private static final int POINTS_PER_SCAN = 20000;
+   private static final int MAXIMUM_NUMBER_OF_POINTS = 200000;
+   private static final int MAXIMUM_QUERIES_PER_READER = 2000000;
+
+   private interface HeightMap
+   {
+      public void put(double x, double y, double z);
+
+      public double getHeightAtPoint(double x, double y);
+   }
+
+   public void run(String name, HeightMap heightMap, int numberOfReaders) throws InterruptedException
+   {
+      AtomicBoolean isRunning = new AtomicBoolean(true);
+      long[][] latencies = new long[numberOfReaders][MAXIMUM_QUERIES_PER_READER];
+      int[] numberOfQueries = new int[numberOfReaders];
+      long[] numberOfInsertedPoints = new long[1];
+
+      Thread writer = new Thread(() ->
+      {
+         Random random = new Random(1776L);
+         while (isRunning.get())
+         { // One sweep of the lidar on a slope, inserted in one go like the depth data filter does
+            double yaw = 2.0 * Math.PI * random.nextDouble();
+            for (int i = 0; i < POINTS_PER_SCAN; i++)
+            {
+               double range = 9.0 * random.nextDouble();
+               double angle = yaw + 0.5 * Math.PI * random.nextDouble();
+               double x = range * Math.cos(angle);
+               double y = range * Math.sin(angle);
+               heightMap.put(x, y, 0.1 * x + 0.02 * random.nextDouble());
+            }
+            numberOfInsertedPoints[0] += POINTS_PER_SCAN;
+         }
+      });
+
+      ArrayList<Thread> readers = new ArrayList<>();
+      for (int reader = 0; reader < numberOfReaders; reader++)
+      {
+         int readerIndex = reader;
+         readers.add(new Thread(() ->
+         {
+            Random random = new Random(readerIndex);
+            long[] readerLatencies = latencies[readerIndex];
+            int queries = 0;
+            while (isRunning.get() && queries < MAXIMUM_QUERIES_PER_READER)
+            {
+               double x = 18.0 * random.nextDouble() - 9.0;
+               double y = 18.0 * random.nextDouble() - 9.0;
+               long startTime = System.nanoTime();
+               heightMap.getHeightAtPoint(x, y);
+               readerLatencies[queries++] = System.nanoTime() - startTime;
+            }
+            numberOfQueries[readerIndex] = queries;
+         }));
+      }
+
+      writer.start();
+      for (Thread reader : readers)
+         reader.start();
+
+      Thread.sleep((long) (1000.0 * RUN_DURATION));
+      isRunning.set(false);
+      writer.join();
+      for (Thread reader : readers)
+         reader.join();
+
+      int totalNumberOfQueries = 0;
+      for (int reader = 0; reader < numberOfReaders; reader++)
+         totalNumberOfQueries += numberOfQueries[reader];
+
+      long[] allLatencies = new long[totalNumberOfQueries];
+      int index = 0;
+      for (int reader = 0; reader < numberOfReaders; reader++)
+      {
+         System.arraycopy(latencies[reader], 0, allLatencies, index, numberOfQueries[reader]);
+         index += numberOfQueries[reader];
+      }
+      Arrays.sort(allLatencies);
+
+      double percentile99 = totalNumberOfQueries == 0 ? Double.NaN : allLatencies[(int) (0.99 * (totalNumberOfQueries - 1))] * 1.0e-3;
+      double maximum = totalNumberOfQueries == 0 ? Double.NaN : allLatencies[totalNumberOfQueries - 1] * 1.0e-3;
+      System.out.println(String.format("%-12s %d readers: %10.0f queries/s, 99th %10.1f us, max %10.1f us, %10.0f points/s", name, numberOfReaders,
+                                       totalNumberOfQueries / RUN_DURATION, percentile99, maximum, numberOfInsertedPoints[0] / RUN_DURATION));
+   }
+
+   public static void main(String[] args) throws InterruptedException
+   {
+      QuadTreeForGroundContentionBenchmark benchmark = new QuadTreeForGroundContentionBenchmark();
+      int maximumNumberOfReaders = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+      for (int numberOfReaders = 1; numberOfReaders <= maximumNumberOfReaders; numberOfReaders *= 2)
+      {
+         QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.05, 0.05, 0.1, 4, 0.5, MAXIMUM_NUMBER_OF_POINTS);
+         QuadTreeForGround quadTree = new QuadTreeForGround(bounds, parameters);
+         benchmark.run("synchronized", new HeightMap()
+         {
+            @Override
+            public void put(double x, double y, double z)
+            {
+               quadTree.put(x, y, z);
+            }
+
+            @Override
+            public double getHeightAtPoint(double x, double y)
+            {
+               return quadTree.getHeightAtPoint(x, y);
+            }
+         }, numberOfReaders);
+
+         parameters = new QuadTreeForGroundParameters(0.05, 0.05, 0.1, 4, 0.5, MAXIMUM_NUMBER_OF_POINTS);
+         ConcurrentQuadTreeForGround concurrentQuadTree = new ConcurrentQuadTreeForGround(bounds, parameters);
+         benchmark.run("concurrent", new HeightMap()
+         {
+            @Override
+            public void put(double x, double y, double z)
+            {
+               concurrentQuadTree.put(x, y, z);
+            }
+
+            @Override
+            public double getHeightAtPoint(double x, double y)
+            {
+               return concurrentQuadTree.getHeightAtPoint(x, y);
+            }
+         }, numberOfReaders);
+      }
+   }
+}
@@ -478,6 +478,55 @@ public class QuadTreeForGroundTest
       }
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testPutAll()
+   {
+      Random random = new Random(1985L);
+      Box bounds = new Box(-10.0, -8.0, 10.0, 12.0);
+      QuadTreeForGroundParameters parameters = new QuadTreeForGroundParameters(0.05, 0.02, 0.2, 4, 0.3, 3000);
+
+      for (int scan = 0; scan < 3; scan++)
+      {
+         int numberOfPoints = 5000;
+         double[] points = new double[3 * numberOfPoints];
+         for (int i = 0; i < numberOfPoints; i++)
+         {
+            points[3 * i] = RandomNumbers.nextDouble(random, bounds.minX, bounds.maxX);
+            points[3 * i + 1] = RandomNumbers.nextDouble(random, bounds.minY, bounds.maxY);
+            points[3 * i + 2] = 0.05 * points[3 * i] + RandomNumbers.nextDouble(random, 0.0, 0.05);
+         }
+
+         // The batch puts the points in Morton order, so the reference gets them one at a time in that order
+         QuadTreeForGroundPointBatch batch = new QuadTreeForGroundPointBatch();
+         batch.set(bounds, points, numberOfPoints);
+         QuadTreeForGround expectedQuadTree = new QuadTreeForGround(bounds, parameters);
+         boolean expectedTreeChanged = false;
+         for (int i = 0; i < batch.size(); i++)
+            expectedTreeChanged |= expectedQuadTree.put(batch.getX(i), batch.getY(i), batch.getZ(i)).treeChanged;
+
+         QuadTreeForGround quadTree = new QuadTreeForGround(bounds, parameters);
+         assertEquals(expectedTreeChanged, quadTree.putAll(points, numberOfPoints));
+         assertEquals(expectedQuadTree.getNumberOfPoints(), quadTree.getNumberOfPoints());
+         assertEquals(expectedQuadTree.getNumberOfQuads(), quadTree.getNumberOfQuads());
+
+         ArrayList<Point3D> expectedPoints = new ArrayList<Point3D>();
+         ArrayList<Point3D> storedPoints = new ArrayList<Point3D>();
+         expectedQuadTree.getStoredPoints(expectedPoints);
+         quadTree.getStoredPoints(storedPoints);
+         assertEquals(expectedPoints.size(), storedPoints.size());
+         for (Point3D storedPoint : storedPoints)
+            assertTrue(isPointValueInList(storedPoint, expectedPoints));
+
+         for (int i = 0; i < 500; i++)
+         {
+            double x = RandomNumbers.nextDouble(random, bounds.minX, bounds.maxX);
+            double y = RandomNumbers.nextDouble(random, bounds.minY, bounds.maxY);
+            assertEquals(expectedQuadTree.getHeightAtPoint(x, y), quadTree.getHeightAtPoint(x, y), 0.0);
+         }
+      }
+   }
+
    private boolean isPointValueInList(Point3D pointToCheck, ArrayList<Point3D> pointList)
    {
       for (Point3D pointInList : pointList)
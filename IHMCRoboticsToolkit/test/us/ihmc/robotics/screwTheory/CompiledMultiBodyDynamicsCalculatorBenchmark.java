@@ -0,0 +1,114 @@
+package us.ihmc.robotics.screwTheory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+/**
+ * Compares the per-tick cost of the reference frame based calculators, updating the frames then
+ * running {@link InverseDynamicsCalculator} and {@link CompositeRigidBodyMassMatrixCalculator},
+ * with the {@link CompiledMultiBodyDynamicsCalculator} on random floating robots with the joint
+ * layout of Atlas and Valkyrie.
+ */
+public class CompiledMultiBodyDynamicsCalculatorBenchmark
+{
+   private static final Vector3D X = new Vector3D(1.0, 0.0, 0.0);
+   private static final Vector3D Y = new Vector3D(0.0, 1.0, 0.0);
+   private static final Vector3D Z = new Vector3D(0.0, 0.0, 1.0);
+
+   private static final double GRAVITY = 9.81;
+   private static final int NUMBER_OF_WARMUP_TICKS = 20000;
+   private static final int NUMBER_OF_TICKS = 50000;
+
+   private static final Vector3D[] LEG_AXES = {Z, X, Y, Y, Y, X};
+   private static final Vector3D[] ATLAS_BACK_AXES = {Z, Y, X};
+   private static final Vector3D[] ATLAS_ARM_AXES = {Y, X, Y, X, Y, X, Y};
+   private static final Vector3D[] ATLAS_NECK_AXES = {Y};
+   private static final Vector3D[] VALKYRIE_TORSO_AXES = {Z, Y, X};
+   private static final Vector3D[] VALKYRIE_ARM_AXES = {Y, X, Z, Y, Z, X, Y};
+   private static final Vector3D[] VALKYRIE_NECK_AXES = {Y, Z, Y};
+
+   private static RigidBody createRobot(Random random, Vector3D[] torsoAxes, Vector3D[] armAxes, Vector3D[] neckAxes)
+   {
+      RigidBody elevator = new RigidBody("elevator", ReferenceFrame.getWorldFrame());
+      SixDoFJoint rootJoint = new SixDoFJoint("rootJoint", elevator);
+      RigidBody pelvis = ScrewTestTools.addRandomRigidBody("pelvis", random, rootJoint);
+
+      List<RevoluteJoint> joints = new ArrayList<>();
+      joints.addAll(ScrewTestTools.createRandomChainRobot("leftLeg", pelvis, LEG_AXES, random));
+      joints.addAll(ScrewTestTools.createRandomChainRobot("rightLeg", pelvis, LEG_AXES, random));
+      List<RevoluteJoint> torso = ScrewTestTools.createRandomChainRobot("torso", pelvis, torsoAxes, random);
+      joints.addAll(torso);
+      RigidBody chest = torso.get(torso.size() - 1).getSuccessor();
+      joints.addAll(ScrewTestTools.createRandomChainRobot("leftArm", chest, armAxes, random));
+      joints.addAll(ScrewTestTools.createRandomChainRobot("rightArm", chest, armAxes, random));
+      joints.addAll(ScrewTestTools.createRandomChainRobot("neck", chest, neckAxes, random));
+
+      ScrewTestTools.setRandomPositions(joints, random);
+      ScrewTestTools.setRandomVelocities(joints, random);
+      ScrewTestTools.setRandomDesiredAccelerations(joints, random);
+      elevator.updateFramesRecursively();
+      return elevator;
+   }
+
+   private static void run(String name, RigidBody elevator)
+   {
+      InverseDynamicsCalculator inverseDynamicsCalculator = new InverseDynamicsCalculator(elevator, GRAVITY);
+      CompositeRigidBodyMassMatrixCalculator massMatrixCalculator = new CompositeRigidBodyMassMatrixCalculator(elevator);
+      CompiledMultiBodyDynamicsCalculator compiledCalculator = new CompiledMultiBodyDynamicsCalculator(elevator, GRAVITY);
+      OneDoFJoint[] oneDoFJoints = ScrewTools.filterJoints(compiledCalculator.getJointsInOrder(), OneDoFJoint.class);
+      Random random = new Random(1776L);
+
+      for (int i = 0; i < NUMBER_OF_WARMUP_TICKS; i++)
+      {
+         tickReference(elevator, inverseDynamicsCalculator, massMatrixCalculator, oneDoFJoints, random);
+         tickCompiled(compiledCalculator, oneDoFJoints, random);
+      }
+
+      long startTime = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_TICKS; i++)
+         tickReference(elevator, inverseDynamicsCalculator, massMatrixCalculator, oneDoFJoints, random);
+      double referenceTime = (System.nanoTime() - startTime) * 1.0e-3 / NUMBER_OF_TICKS;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_TICKS; i++)
+         tickCompiled(compiledCalculator, oneDoFJoints, random);
+      double compiledTime = (System.nanoTime() - startTime) * 1.0e-3 / NUMBER_OF_TICKS;
+
+      System.out.println(String.format("%-10s %d DoFs: frames + ID + CRBA %8.2f us/tick, compiled %8.2f us/tick, speedup %5.2f", name,
+                                       compiledCalculator.getNumberOfDegreesOfFreedom(), referenceTime, compiledTime, referenceTime / compiledTime));
+   }
+
+   private static void tickReference(RigidBody elevator, InverseDynamicsCalculator inverseDynamicsCalculator, MassMatrixCalculator massMatrixCalculator,
+                                     OneDoFJoint[] oneDoFJoints, Random random)
+   {
+      ScrewTestTools.setRandomPositions(oneDoFJoints, random, -1.0, 1.0);
+      elevator.updateFramesRecursively();
+      inverseDynamicsCalculator.compute();
+      massMatrixCalculator.compute();
+   }
+
+   private static void tickCompiled(CompiledMultiBodyDynamicsCalculator compiledCalculator, OneDoFJoint[] oneDoFJoints, Random random)
+   {
+      ScrewTestTools.setRandomPositions(oneDoFJoints, random, -1.0, 1.0);
+      compiledCalculator.update();
+      compiledCalculator.computeInverseDynamics();
+      compiledCalculator.computeMassMatrix();
+   }
+
+   public static void main(String[] args)
+   {
+      Random random = new Random(1776L);
+      RigidBody atlas = createRobot(random, ATLAS_BACK_AXES, ATLAS_ARM_AXES, ATLAS_NECK_AXES);
+      RigidBody valkyrie = createRobot(random, VALKYRIE_TORSO_AXES, VALKYRIE_ARM_AXES, VALKYRIE_NECK_AXES);
+
+      for (int i = 0; i < 3; i++)
+      {
+         run("Atlas", atlas);
+         run("Valkyrie", valkyrie);
+      }
+   }
+}
@@ -0,0 +1,156 @@
+package us.ihmc.robotics.screwTheory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.data.DenseMatrix64F;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.robotics.testing.JUnitTools;
+
+public class CompiledMultiBodyDynamicsCalculatorTest
+{
+   private static final double GRAVITY = 9.81;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSameMassMatrixAsCompositeRigidBodyMassMatrixCalculator()
+   {
+      Random random = new Random(1776L);
+
+      for (int i = 0; i < 20; i++)
+      {
+         RigidBody elevator = createRandomFloatingTree(random, 25);
+
+         CompositeRigidBodyMassMatrixCalculator expectedCalculator = new CompositeRigidBodyMassMatrixCalculator(elevator);
+         expectedCalculator.compute();
+
+         CompiledMultiBodyDynamicsCalculator calculator = new CompiledMultiBodyDynamicsCalculator(elevator, GRAVITY);
+         calculator.compute();
+
+         assertEquals(expectedCalculator.getJointsInOrder().length, calculator.getJointsInOrder().length);
+         for (int jointIndex = 0; jointIndex < calculator.getJointsInOrder().length; jointIndex++)
+            assertTrue(expectedCalculator.getJointsInOrder()[jointIndex] == calculator.getJointsInOrder()[jointIndex]);
+         JUnitTools.assertMatrixEquals(expectedCalculator.getMassMatrix(), calculator.getMassMatrix(), 1.0e-10);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.1)
+   @Test(timeout = 30000)
+   public void testSameTorquesAsInverseDynamicsCalculator()
+   {
+      Random random = new Random(1777L);
+
+      for (int i = 0; i < 20; i++)
+      {
+         RigidBody elevator = createRandomFloatingTree(random, 25);
+
+         CompiledMultiBodyDynamicsCalculator calculator = new CompiledMultiBodyDynamicsCalculator(elevator, GRAVITY);
+         InverseDynamicsJoint[] joints = calculator.getJointsInOrder();
+         int degreesOfFreedom = calculator.getNumberOfDegreesOfFreedom();
+
+         InverseDynamicsCalculator expectedCalculator = new InverseDynamicsCalculator(elevator, GRAVITY);
+         expectedCalculator.compute();
+         DenseMatrix64F expectedTorques = getJointTorques(joints, degreesOfFreedom);
+
+         ScrewTestTools.setRandomTorques(Arrays.asList(ScrewTools.filterJoints(joints, OneDoFJoint.class)), random);
+         calculator.update();
+         calculator.computeInverseDynamics();
+
+         JUnitTools.assertMatrixEquals(expectedTorques, calculator.getJointTorques(), 1.0e-8);
+         JUnitTools.assertMatrixEquals(expectedTorques, getJointTorques(joints, degreesOfFreedom), 1.0e-8);
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testForwardKinematics()
+   {
+      Random random = new Random(1778L);
+      RigidBody elevator = createRandomFloatingTree(random, 25);
+
+      CompiledMultiBodyDynamicsCalculator calculator = new CompiledMultiBodyDynamicsCalculator(elevator, GRAVITY);
+      InverseDynamicsJoint[] joints = calculator.getJointsInOrder();
+      RigidBodyTransform transform = new RigidBodyTransform();
+
+      for (int i = 0; i < 10; i++)
+      {
+         setRandomState(random, joints);
+         elevator.updateFramesRecursively();
+         calculator.update();
+
+         for (InverseDynamicsJoint joint : joints)
+         {
+            calculator.getFrameAfterJointTransformToWorld(calculator.getJointIndex(joint), transform);
+            assertTrue(transform.epsilonEquals(joint.getFrameAfterJoint().getTransformToWorldFrame(), 1.0e-10));
+         }
+      }
+   }
+
+   private static RigidBody createRandomFloatingTree(Random random, int numberOfOneDoFJoints)
+   {
+      RigidBody elevator = new RigidBody("elevator", ReferenceFrame.getWorldFrame());
+      SixDoFJoint rootJoint = new SixDoFJoint("rootJoint", elevator);
+      RigidBody pelvis = ScrewTestTools.addRandomRigidBody("pelvis", random, rootJoint);
+      List<OneDoFJoint> oneDoFJoints = ScrewTestTools.createRandomTreeRobotWithOneDoFJoints("", pelvis, numberOfOneDoFJoints, random);
+
+      setRandomState(random, ScrewTools.computeSubtreeJoints(elevator));
+      ScrewTestTools.setRandomDesiredAccelerations(oneDoFJoints, random);
+      elevator.updateFramesRecursively();
+      return elevator;
+   }
+
+   private static void setRandomState(Random random, InverseDynamicsJoint[] joints)
+   {
+      for (InverseDynamicsJoint joint : joints)
+      {
+         if (joint instanceof SixDoFJoint)
+         {
+            SixDoFJoint sixDoFJoint = (SixDoFJoint) joint;
+            sixDoFJoint.setPositionAndRotation(EuclidCoreRandomTools.generateRandomRigidBodyTransform(random));
+
+            Twist jointTwist = new Twist();
+            sixDoFJoint.getJointTwist(jointTwist);
+            jointTwist.setLinearPart(EuclidCoreRandomTools.generateRandomVector3D(random));
+            jointTwist.setAngularPart(EuclidCoreRandomTools.generateRandomVector3D(random));
+            sixDoFJoint.setJointTwist(jointTwist);
+
+            SpatialAccelerationVector jointAcceleration = new SpatialAccelerationVector();
+            sixDoFJoint.getDesiredJointAcceleration(jointAcceleration);
+            jointAcceleration.setLinearPart(EuclidCoreRandomTools.generateRandomVector3D(random));
+            jointAcceleration.setAngularPart(EuclidCoreRandomTools.generateRandomVector3D(random));
+            sixDoFJoint.setDesiredAcceleration(jointAcceleration);
+         }
+         else
+         {
+            OneDoFJoint oneDoFJoint = (OneDoFJoint) joint;
+            ScrewTestTools.setRandomPosition(oneDoFJoint, random, -Math.PI, Math.PI);
+            ScrewTestTools.setRandomVelocity(oneDoFJoint, random);
+         }
+      }
+   }
+
+   private static DenseMatrix64F getJointTorques(InverseDynamicsJoint[] joints, int degreesOfFreedom)
+   {
+      DenseMatrix64F jointTorques = new DenseMatrix64F(degreesOfFreedom, 1);
+      int index = 0;
+
+      for (InverseDynamicsJoint joint : joints)
+      {
+         DenseMatrix64F jointTorque = new DenseMatrix64F(joint.getDegreesOfFreedom(), 1);
+         joint.getTauMatrix(jointTorque);
+         for (int i = 0; i < joint.getDegreesOfFreedom(); i++)
+            jointTorques.set(index++, 0, jointTorque.get(i, 0));
+      }
+
+      return jointTorques;
+   }
+}
@@ -0,0 +1,123 @@
+package us.ihmc.robotics.screwTheory;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.Random;
+
+import org.ejml.ops.MatrixFeatures;
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.referenceFrame.ReferenceFrame;
+import us.ihmc.euclid.tools.EuclidCoreRandomTools;
+import us.ihmc.robotics.referenceFrames.CenterOfMassReferenceFrame;
+import us.ihmc.robotics.testing.JUnitTools;
+
+public class MotionSubspaceCacheTest
+{
+   private static final ReferenceFrame worldFrame = ReferenceFrame.getWorldFrame();
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSameJacobiansAsWithoutCache()
+   {
+      Random random = new Random(1776L);
+      RigidBody elevator = new RigidBody("elevator", worldFrame);
+      SixDoFJoint rootJoint = new SixDoFJoint("rootJoint", elevator);
+      RigidBody pelvis = ScrewTestTools.addRandomRigidBody("pelvis", random, rootJoint);
+      List<OneDoFJoint> joints = ScrewTestTools.createRandomTreeRobotWithOneDoFJoints("", pelvis, 20, random);
+
+      MotionSubspaceCache motionSubspaceCache = new MotionSubspaceCache();
+      GeometricJacobian[] expectedJacobians = new GeometricJacobian[joints.size()];
+      GeometricJacobian[] cachedJacobians = new GeometricJacobian[joints.size()];
+      GeometricJacobianCalculator jacobianCalculator = new GeometricJacobianCalculator();
+
+      for (int i = 0; i < joints.size(); i++)
+      {
+         RigidBody endEffector = joints.get(i).getSuccessor();
+         expectedJacobians[i] = new GeometricJacobian(elevator, endEffector, pelvis.getBodyFixedFrame());
+         cachedJacobians[i] = new GeometricJacobian(elevator, endEffector, pelvis.getBodyFixedFrame());
+      }
+
+      for (int tick = 0; tick < 10; tick++)
+      {
+         rootJoint.setPositionAndRotation(EuclidCoreRandomTools.generateRandomRigidBodyTransform(random));
+         ScrewTestTools.setRandomPositions(joints, random);
+         elevator.updateFramesRecursively();
+         motionSubspaceCache.nextTick();
+
+         for (int i = 0; i < joints.size(); i++)
+         {
+            expectedJacobians[i].compute();
+            cachedJacobians[i].compute(motionSubspaceCache);
+            JUnitTools.assertMatrixEquals(expectedJacobians[i].getJacobianMatrix(), cachedJacobians[i].getJacobianMatrix(), 1.0e-12);
+
+            jacobianCalculator.clear();
+            jacobianCalculator.setKinematicChain(elevator, joints.get(i).getSuccessor());
+            jacobianCalculator.setJacobianFrame(pelvis.getBodyFixedFrame());
+            jacobianCalculator.computeJacobianMatrix(motionSubspaceCache);
+            JUnitTools.assertMatrixEquals(expectedJacobians[i].getJacobianMatrix(), jacobianCalculator.getJacobianMatrix(), 1.0e-12);
+         }
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testUpdatedOnlyAfterNextTick()
+   {
+      Random random = new Random(1777L);
+      List<RevoluteJoint> joints = ScrewTestTools.createRandomChainRobot(10, random);
+      RigidBody elevator = joints.get(0).getPredecessor();
+      RigidBody endEffector = joints.get(joints.size() - 1).getSuccessor();
+      elevator.updateFramesRecursively();
+
+      MotionSubspaceCache motionSubspaceCache = new MotionSubspaceCache();
+      GeometricJacobian expectedJacobian = new GeometricJacobian(elevator, endEffector, worldFrame);
+      GeometricJacobian cachedJacobian = new GeometricJacobian(elevator, endEffector, worldFrame);
+      expectedJacobian.compute();
+      cachedJacobian.compute(motionSubspaceCache);
+      JUnitTools.assertMatrixEquals(expectedJacobian.getJacobianMatrix(), cachedJacobian.getJacobianMatrix(), 1.0e-12);
+
+      ScrewTestTools.setRandomPositions(joints, random);
+      elevator.updateFramesRecursively();
+      expectedJacobian.compute();
+
+      // Same tick: the motion subspaces computed before the configuration change are still used.
+      cachedJacobian.compute(motionSubspaceCache);
+      assertFalse(MatrixFeatures.isEquals(expectedJacobian.getJacobianMatrix(), cachedJacobian.getJacobianMatrix(), 1.0e-12));
+
+      motionSubspaceCache.nextTick();
+      cachedJacobian.compute(motionSubspaceCache);
+      JUnitTools.assertMatrixEquals(expectedJacobian.getJacobianMatrix(), cachedJacobian.getJacobianMatrix(), 1.0e-12);
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testSameCentroidalMomentumMatrixAsWithoutCache()
+   {
+      Random random = new Random(1778L);
+      RigidBody elevator = new RigidBody("elevator", worldFrame);
+      SixDoFJoint rootJoint = new SixDoFJoint("rootJoint", elevator);
+      RigidBody pelvis = ScrewTestTools.addRandomRigidBody("pelvis", random, rootJoint);
+      List<OneDoFJoint> joints = ScrewTestTools.createRandomTreeRobotWithOneDoFJoints("", pelvis, 20, random);
+      CenterOfMassReferenceFrame centerOfMassFrame = new CenterOfMassReferenceFrame("centerOfMass", worldFrame, elevator);
+
+      MotionSubspaceCache motionSubspaceCache = new MotionSubspaceCache();
+      CentroidalMomentumMatrix expectedMatrix = new CentroidalMomentumMatrix(elevator, centerOfMassFrame);
+      CentroidalMomentumMatrix cachedMatrix = new CentroidalMomentumMatrix(elevator, centerOfMassFrame, motionSubspaceCache);
+
+      for (int tick = 0; tick < 10; tick++)
+      {
+         rootJoint.setPositionAndRotation(EuclidCoreRandomTools.generateRandomRigidBodyTransform(random));
+         ScrewTestTools.setRandomPositions(joints, random);
+         elevator.updateFramesRecursively();
+         centerOfMassFrame.update();
+         motionSubspaceCache.nextTick();
+
+         expectedMatrix.compute();
+         cachedMatrix.compute();
+         JUnitTools.assertMatrixEquals(expectedMatrix.getMatrix(), cachedMatrix.getMatrix(), 1.0e-12);
+      }
+   }
+}
@@ -203,6 +203,23 @@ public class GeneticAlgorithm implements ParameterOptimizer
       return ret;
    }
 
+   /**
+    * Evolves the latest population in place using steady-state evolution, see {@link Population#evolveSteadyState(int, double, double)}.
+    * Requires an {@link IndividualEvaluationEngine} to be set in the {@link PopulationParameters}.
+    *
+    * @param numberOfIndividualsToEvaluate the number of new individuals to breed and evaluate.
+    * @return the evolved population.
+    */
+   public Population evolveSteadyState(int numberOfIndividualsToEvaluate)
+   {
+      Population pop = (Population) populations.get(populations.size() - 1);
+      pop.evolveSteadyState(numberOfIndividualsToEvaluate, crossoverRate, mutationRate);
+
+      notifyGeneticAlgorithmChangedListeners();
+
+      return pop;
+   }
+
    public void addGeneticAlgorithmChangedListener(GeneticAlgorithmChangedListener listener)
    {
       listeners.add(listener);
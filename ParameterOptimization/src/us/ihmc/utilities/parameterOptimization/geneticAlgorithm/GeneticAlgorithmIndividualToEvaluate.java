@@ -25,6 +25,7 @@ public class GeneticAlgorithmIndividualToEvaluate
    private final IndividualToEvaluate individualToEvaluate;
    
    private Genotype genotype;
+   private volatile boolean fitnessEvaluated = false;
 
    public GeneticAlgorithmIndividualToEvaluate(IndividualToEvaluate individualToEvaluate)
    {
@@ -61,6 +62,19 @@ public class GeneticAlgorithmIndividualToEvaluate
    {
       return individualToEvaluate.getFitness();
    }
+
+   /**
+    * @return whether this individual has been evaluated and its fitness computed by an {@link IndividualEvaluationEngine}.
+    */
+   public boolean isFitnessEvaluated()
+   {
+      return fitnessEvaluated;
+   }
+
+   void setFitnessEvaluated()
+   {
+      fitnessEvaluated = true;
+   }
    
    
    public String toString()
@@ -0,0 +1,192 @@
+package us.ihmc.utilities.parameterOptimization.geneticAlgorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates {@link GeneticAlgorithmIndividualToEvaluate}s on a fixed number of worker threads.
+ * <p>
+ * Individuals are submitted with {@link #submit(GeneticAlgorithmIndividualToEvaluate)} and retrieved in the order in which their evaluation
+ * completes with {@link #takeEvaluatedIndividual()}, such that the caller can react to each result as soon as it is available instead of
+ * waiting on the individuals one after the other.
+ * </p>
+ * <p>
+ * A worker starts the evaluation of an individual, waits for it to be done, and computes its fitness. Individuals evaluating in
+ * {@link GeneticAlgorithmIndividualToEvaluate#startEvaluation()} are therefore never polled. Individuals evaluating asynchronously are polled
+ * by the worker every {@value #ASYNCHRONOUS_EVALUATION_POLLING_PERIOD_IN_MILLISECONDS}ms.
+ * </p>
+ * <p>
+ * When an evaluation fails, all the other pending evaluations are cancelled such that the engine can be used again right away.
+ * </p>
+ * <p>
+ * This class is meant to be used from a single thread, typically the one running the genetic algorithm.
+ * </p>
+ */
+public class IndividualEvaluationEngine
+{
+   public static final long ASYNCHRONOUS_EVALUATION_POLLING_PERIOD_IN_MILLISECONDS = 10;
+
+   private final int numberOfWorkers;
+   private final ExecutorService executor;
+   private final ExecutorCompletionService<GeneticAlgorithmIndividualToEvaluate> completionService;
+   private final List<Future<GeneticAlgorithmIndividualToEvaluate>> pendingEvaluations = new ArrayList<>();
+
+   /**
+    * @param numberOfWorkers the number of individuals evaluated concurrently.
+    */
+   public IndividualEvaluationEngine(int numberOfWorkers)
+   {
+      if (numberOfWorkers < 1)
+         throw new RuntimeException("The number of workers has to be at least 1, was: " + numberOfWorkers);
+
+      this.numberOfWorkers = numberOfWorkers;
+      executor = Executors.newFixedThreadPool(numberOfWorkers, new EvaluationThreadFactory());
+      completionService = new ExecutorCompletionService<>(executor);
+   }
+
+   /**
+    * Creates an engine with one worker per available processor.
+    */
+   public IndividualEvaluationEngine()
+   {
+      this(Runtime.getRuntime().availableProcessors());
+   }
+
+   public int getNumberOfWorkers()
+   {
+      return numberOfWorkers;
+   }
+
+   /**
+    * @return the number of individuals submitted that have not been taken yet.
+    */
+   public int getNumberOfPendingEvaluations()
+   {
+      return pendingEvaluations.size();
+   }
+
+   /**
+    * Schedules the evaluation of the given individual on one of the workers.
+    */
+   public void submit(GeneticAlgorithmIndividualToEvaluate individual)
+   {
+      pendingEvaluations.add(completionService.submit(() -> evaluate(individual)));
+   }
+
+   /**
+    * Waits for the next evaluation to complete.
+    *
+    * @return the individual whose evaluation completed first among the pending ones.
+    * @throws RuntimeException if there is no pending evaluation, if the evaluation failed, or if the calling thread is interrupted. When the
+    *            evaluation failed, the other pending evaluations are cancelled.
+    */
+   public GeneticAlgorithmIndividualToEvaluate takeEvaluatedIndividual()
+   {
+      if (pendingEvaluations.isEmpty())
+         throw new RuntimeException("There is no pending evaluation.");
+
+      Future<GeneticAlgorithmIndividualToEvaluate> evaluation;
+
+      try
+      {
+         evaluation = completionService.take();
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Interrupted while waiting for an evaluation to complete.", e);
+      }
+
+      pendingEvaluations.remove(evaluation);
+
+      try
+      {
+         return evaluation.get();
+      }
+      catch (InterruptedException e)
+      { // The evaluation is done, get() does not wait
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Interrupted while waiting for an evaluation to complete.", e);
+      }
+      catch (ExecutionException e)
+      {
+         cancelPendingEvaluations();
+         throw new RuntimeException("The evaluation of an individual failed.", e.getCause());
+      }
+   }
+
+   /**
+    * Cancels all the pending evaluations and discards the ones that have completed but have not been taken yet. Individuals evaluating in
+    * {@link GeneticAlgorithmIndividualToEvaluate#startEvaluation()} are interrupted but may run until the end of their evaluation, in which
+    * case their result is ignored.
+    */
+   public void cancelPendingEvaluations()
+   {
+      for (int i = 0; i < pendingEvaluations.size(); i++)
+         pendingEvaluations.get(i).cancel(true);
+
+      // Every pending evaluation is queued exactly once. The cancelled ones are queued right away, the ones that were completing when
+      // cancelled are queued as soon as their result is set.
+      boolean interrupted = false;
+
+      while (!pendingEvaluations.isEmpty())
+      {
+         try
+         {
+            pendingEvaluations.remove(completionService.take());
+         }
+         catch (InterruptedException e)
+         {
+            interrupted = true;
+         }
+      }
+
+      if (interrupted)
+         Thread.currentThread().interrupt();
+   }
+
+   /**
+    * Stops the workers. Pending evaluations are cancelled.
+    */
+   public void shutdown()
+   {
+      executor.shutdownNow();
+   }
+
+   private static GeneticAlgorithmIndividualToEvaluate evaluate(GeneticAlgorithmIndividualToEvaluate individual) throws InterruptedException
+   {
+      if (!individual.isEvaluationDone())
+         individual.startEvaluation();
+
+      while (!individual.isEvaluationDone())
+         Thread.sleep(ASYNCHRONOUS_EVALUATION_POLLING_PERIOD_IN_MILLISECONDS);
+
+      // Computing the fitness here such that it is not done lazily by the thread sorting the population.
+      individual.getFitness();
+      individual.setFitnessEvaluated();
+      return individual;
+   }
+
+   private static class EvaluationThreadFactory implements ThreadFactory
+   {
+      private static final AtomicInteger engineCounter = new AtomicInteger();
+
+      private final int engineIndex = engineCounter.getAndIncrement();
+      private final AtomicInteger threadCounter = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable runnable)
+      {
+         Thread thread = new Thread(runnable, "IndividualEvaluationEngine-" + engineIndex + "-" + threadCounter.getAndIncrement());
+         thread.setDaemon(true);
+         return thread;
+      }
+   }
+}
@@ -34,8 +34,10 @@ public class Population
    private final int popNumber;
 
    private final Comparator<GeneticAlgorithmIndividualToEvaluate> comparator;
+   private final IndividualEvaluationEngine evaluationEngine;
    
    private boolean allIndividualsEvaluated = false;
+   private int numberOfSteadyStateChildren = 0;
 
    private int probabilities[];
    private int totalIndividualsProgessionSum;
@@ -57,6 +59,7 @@ public class Population
       this.popName = name;
       this.popNumber = popNumber;
       this.comparator = comparator;
+      this.evaluationEngine = populationParameters.getEvaluationEngine();
       
       generation = new GeneticAlgorithmIndividualToEvaluate[numIndividuals];
 
@@ -112,13 +115,15 @@ public class Population
 //      // evaluateAllIndividuals();
 //   }
 
-   private Population(Random random, int numberOfIndividuals, Comparator<GeneticAlgorithmIndividualToEvaluate> comparator, String name, int popNumber)
+   private Population(Random random, int numberOfIndividuals, Comparator<GeneticAlgorithmIndividualToEvaluate> comparator, String name, int popNumber,
+                      IndividualEvaluationEngine evaluationEngine)
    {
       this.random = random;
       
       this.popName = name;
       this.popNumber = popNumber;
       this.comparator = comparator;
+      this.evaluationEngine = evaluationEngine;
       
       generation = new GeneticAlgorithmIndividualToEvaluate[numberOfIndividuals];
 
@@ -147,6 +152,12 @@ public class Population
       if (allIndividualsEvaluated)
          return;
 
+      if (evaluationEngine != null)
+      {
+         evaluateAllIndividualsConcurrently();
+         return;
+      }
+
       // System.out.println("Starting the Evals");
       for (int i = 0; i < generation.length; i++)
       {
@@ -174,6 +185,119 @@ public class Population
 
       allIndividualsEvaluated = true;
    }
+
+   private void evaluateAllIndividualsConcurrently()
+   {
+      try
+      {
+         for (int i = 0; i < generation.length; i++)
+         {
+            if (generation[i].isFitnessEvaluated())
+               notifyEvaluatedIndividualListeners(generation[i].getIndividualToEvaluate());
+            else
+               evaluationEngine.submit(generation[i]);
+         }
+
+         while (evaluationEngine.getNumberOfPendingEvaluations() > 0)
+         {
+            GeneticAlgorithmIndividualToEvaluate evaluatedIndividual = evaluationEngine.takeEvaluatedIndividual();
+            notifyEvaluatedIndividualListeners(evaluatedIndividual.getIndividualToEvaluate());
+         }
+      }
+      catch (RuntimeException e)
+      { // A listener can fail as well, the evaluations of this generation are not to be left behind for the next user of the engine.
+         evaluationEngine.cancelPendingEvaluations();
+         throw e;
+      }
+
+      allIndividualsEvaluated = true;
+   }
+
+   /**
+    * Evolves this population in place using steady-state evolution: instead of breeding a whole new generation and waiting for all of its
+    * individuals to be evaluated, a new child is bred as soon as the evaluation of another one completes, such that all the workers of the
+    * evaluation engine are kept busy. Each evaluated child replaces the least fit individual of this population if it is fitter.
+    *
+    * @param numberOfIndividualsToEvaluate the number of children to breed and evaluate.
+    * @param crossoverRate the probability for a child to be bred by crossover of its two parents rather than being a mutated copy of one parent.
+    * @param mutationRate the probability for each bit of the genotype of a child to be flipped.
+    * @throws RuntimeException if this population has no evaluation engine.
+    */
+   public void evolveSteadyState(int numberOfIndividualsToEvaluate, double crossoverRate, double mutationRate)
+   {
+      if (evaluationEngine == null)
+         throw new RuntimeException("Steady-state evolution requires an " + IndividualEvaluationEngine.class.getSimpleName() + ".");
+
+      evaluateAndSortByFitness();
+
+      int numberOfSubmittedChildren = 0;
+
+      try
+      {
+         while (numberOfSubmittedChildren < numberOfIndividualsToEvaluate
+               && evaluationEngine.getNumberOfPendingEvaluations() < evaluationEngine.getNumberOfWorkers())
+         {
+            evaluationEngine.submit(breedSteadyStateChild(crossoverRate, mutationRate));
+            numberOfSubmittedChildren++;
+         }
+
+         while (evaluationEngine.getNumberOfPendingEvaluations() > 0)
+         {
+            GeneticAlgorithmIndividualToEvaluate child = evaluationEngine.takeEvaluatedIndividual();
+            notifyEvaluatedIndividualListeners(child.getIndividualToEvaluate());
+            replaceLeastFitIndividualIfFitter(child);
+
+            if (numberOfSubmittedChildren < numberOfIndividualsToEvaluate)
+            {
+               evaluationEngine.submit(breedSteadyStateChild(crossoverRate, mutationRate));
+               numberOfSubmittedChildren++;
+            }
+         }
+      }
+      catch (RuntimeException e)
+      {
+         evaluationEngine.cancelPendingEvaluations();
+         throw e;
+      }
+   }
+
+   private GeneticAlgorithmIndividualToEvaluate breedSteadyStateChild(double crossoverRate, double mutationRate)
+   {
+      GeneticAlgorithmIndividualToEvaluate parent1 = selectRandomParent();
+      GeneticAlgorithmIndividualToEvaluate child;
+
+      if (crossoverRate > random.nextDouble())
+      {
+         GeneticAlgorithmIndividualToEvaluate parent2 = selectRandomParent();
+         child = GeneticAlgorithmIndividualToEvaluate.mate(random, parent1, parent2, mutationRate)[0];
+      }
+      else
+      {
+         child = parent1.makeCopyOfIndividualAndMutate(random, mutationRate);
+      }
+
+      child.setName(this.popName + "_" + this.popNumber + "_" + (generation.length + numberOfSteadyStateChildren++));
+      return child;
+   }
+
+   /**
+    * Keeps the generation sorted from the fittest to the least fit individual.
+    */
+   private void replaceLeastFitIndividualIfFitter(GeneticAlgorithmIndividualToEvaluate child)
+   {
+      int index = generation.length - 1;
+
+      if (comparator.compare(child, generation[index]) >= 0)
+         return;
+
+      while (index > 0 && comparator.compare(child, generation[index - 1]) < 0)
+      {
+         generation[index] = generation[index - 1];
+         index--;
+      }
+
+      generation[index] = child;
+   }
    
 
    public int getNumberOfIndividuals()
@@ -199,7 +323,7 @@ public class Population
 
    public Population breed(double crossoverRate, double mutationRate)
    {
-      Population retPop = new Population(this.random, generation.length, this.comparator, this.popName, this.popNumber + 1);
+      Population retPop = new Population(this.random, generation.length, this.comparator, this.popName, this.popNumber + 1, this.evaluationEngine);
 
       GeneticAlgorithmIndividualToEvaluate parent1, parent2;
       GeneticAlgorithmIndividualToEvaluate[] children = new GeneticAlgorithmIndividualToEvaluate[2];
@@ -17,6 +17,8 @@ public class PopulationParameters
    
    private int numberOfSeedIndividualsToCopyIntoFirstPopulation = 0;
    private double mutationRateForCopiedIndividuals = 0.0;
+
+   private IndividualEvaluationEngine evaluationEngine;
    
    public PopulationParameters(String name, Random random, int populationSize)
    {
@@ -75,6 +77,20 @@ public class PopulationParameters
    {
       return random;
    }
+
+   public IndividualEvaluationEngine getEvaluationEngine()
+   {
+      return evaluationEngine;
+   }
+
+   /**
+    * Sets the engine used to evaluate the individuals of the populations concurrently. When not set, the individuals are evaluated one after
+    * the other.
+    */
+   public void setEvaluationEngine(IndividualEvaluationEngine evaluationEngine)
+   {
+      this.evaluationEngine = evaluationEngine;
+   }
   
 
 }
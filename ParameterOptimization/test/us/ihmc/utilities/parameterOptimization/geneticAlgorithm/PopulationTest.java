@@ -3,13 +3,16 @@ package us.ihmc.utilities.parameterOptimization.geneticAlgorithm;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Comparator;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.utilities.parameterOptimization.IndividualToEvaluate;
 
 public class PopulationTest
 {
@@ -92,4 +95,174 @@ public class PopulationTest
       assertTrue("bestFitness = " + bestFitness, bestFitness > 13.0);
    }
 
+	@ContinuousIntegrationTest(estimatedDuration = 0.3)
+	@Test(timeout = 30000)
+   public void testConcurrentEvaluation()
+   {
+      Random random = new Random(1777L);
+      int populationSize = 200;
+      IndividualEvaluationEngine evaluationEngine = new IndividualEvaluationEngine(4);
+
+      PopulationParameters populationParameters = new PopulationParameters("test", random, populationSize);
+      populationParameters.setComparator(new MaximizationIndividualComparator());
+      populationParameters.setSeedIndividualToEvaluate(new ExampleIndividualToEvaluateOne());
+      populationParameters.setEvaluationEngine(evaluationEngine);
+
+      Population population = new Population(populationParameters, 0);
+      int[] numberOfEvaluatedIndividuals = new int[1];
+      population.attachEvaluatedIndividualListener(individual -> numberOfEvaluatedIndividuals[0]++);
+
+      for (int generation = 0; generation < 20; generation++)
+      {
+         numberOfEvaluatedIndividuals[0] = 0;
+         assertFalse(population.allIndividualsEvaluated());
+         population.evaluateAndSortByFitness();
+         assertTrue(population.allIndividualsEvaluated());
+         assertEquals(populationSize, numberOfEvaluatedIndividuals[0]);
+
+         for (int i = 0; i < populationSize; i++)
+         {
+            assertTrue(population.getIndividual(i).isFitnessEvaluated());
+            if (i > 0)
+               assertTrue(population.getIndividual(i - 1).getFitness() >= population.getIndividual(i).getFitness());
+         }
+
+         Population newPopulation = population.breed(0.6, 0.01);
+         newPopulation.attachEvaluatedIndividualListener(individual -> numberOfEvaluatedIndividuals[0]++);
+         population = newPopulation;
+      }
+
+      evaluationEngine.shutdown();
+   }
+
+	@ContinuousIntegrationTest(estimatedDuration = 0.3)
+	@Test(timeout = 30000)
+   public void testSteadyStateEvolution()
+   {
+      Random random = new Random(1778L);
+      int populationSize = 100;
+      int numberOfIndividualsToEvaluate = 5000;
+      IndividualEvaluationEngine evaluationEngine = new IndividualEvaluationEngine(4);
+
+      PopulationParameters populationParameters = new PopulationParameters("test", random, populationSize);
+      populationParameters.setComparator(new MaximizationIndividualComparator());
+      populationParameters.setSeedIndividualToEvaluate(new ExampleIndividualToEvaluateOne());
+      populationParameters.setEvaluationEngine(evaluationEngine);
+
+      Population population = new Population(populationParameters, 0);
+      int[] numberOfEvaluatedIndividuals = new int[1];
+      population.attachEvaluatedIndividualListener(individual -> numberOfEvaluatedIndividuals[0]++);
+
+      double initialMaximumFitness = population.getMaximumFitness();
+      population.evolveSteadyState(numberOfIndividualsToEvaluate, 0.6, 0.01);
+
+      assertEquals(populationSize + numberOfIndividualsToEvaluate, numberOfEvaluatedIndividuals[0]);
+      assertEquals(0, evaluationEngine.getNumberOfPendingEvaluations());
+      assertEquals(populationSize, population.getNumberOfIndividuals());
+      assertTrue(population.getMaximumFitness() > initialMaximumFitness);
+
+      for (int i = 1; i < populationSize; i++)
+         assertTrue(population.getIndividual(i - 1).getFitness() >= population.getIndividual(i).getFitness());
+
+      evaluationEngine.shutdown();
+   }
+
+	@ContinuousIntegrationTest(estimatedDuration = 0.3)
+	@Test(timeout = 30000)
+   public void testFailingEvaluationCancelsPendingEvaluations()
+   {
+      Random random = new Random(1779L);
+      int populationSize = 200;
+      IndividualEvaluationEngine evaluationEngine = new IndividualEvaluationEngine(4);
+      AtomicInteger numberOfStartedEvaluations = new AtomicInteger();
+
+      PopulationParameters populationParameters = new PopulationParameters("test", random, populationSize);
+      populationParameters.setComparator(new MaximizationIndividualComparator());
+      populationParameters.setSeedIndividualToEvaluate(new FailingIndividualToEvaluate(numberOfStartedEvaluations, 10));
+      populationParameters.setEvaluationEngine(evaluationEngine);
+
+      Population population = new Population(populationParameters, 0);
+
+      try
+      {
+         population.evaluateAndSortByFitness();
+         fail("The failing evaluation should have been reported");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+
+      assertFalse(population.allIndividualsEvaluated());
+      assertEquals(0, evaluationEngine.getNumberOfPendingEvaluations());
+
+      // The engine can be used right away, without any result of the failed generation showing up
+      populationParameters.setSeedIndividualToEvaluate(new ExampleIndividualToEvaluateOne());
+      Population otherPopulation = new Population(populationParameters, 1);
+      int[] numberOfEvaluatedIndividuals = new int[1];
+      otherPopulation.attachEvaluatedIndividualListener(individual ->
+      {
+         assertTrue(individual instanceof ExampleIndividualToEvaluateOne && !(individual instanceof FailingIndividualToEvaluate));
+         numberOfEvaluatedIndividuals[0]++;
+      });
+      otherPopulation.evaluateAndSortByFitness();
+      assertEquals(populationSize, numberOfEvaluatedIndividuals[0]);
+      assertEquals(0, evaluationEngine.getNumberOfPendingEvaluations());
+
+      // Same with steady-state evolution, the children of the failing individuals fail as well
+      // Cancelled evaluations of the first population may still be running, using a new counter such that they are not counted.
+      populationParameters.setSeedIndividualToEvaluate(new FailingIndividualToEvaluate(new AtomicInteger(), populationSize + 10));
+      Population steadyStatePopulation = new Population(populationParameters, 2);
+
+      try
+      {
+         steadyStatePopulation.evolveSteadyState(1000, 0.6, 0.01);
+         fail("The failing evaluation should have been reported");
+      }
+      catch (RuntimeException e)
+      {
+         // Expected
+      }
+
+      assertEquals(0, evaluationEngine.getNumberOfPendingEvaluations());
+
+      evaluationEngine.shutdown();
+   }
+
+   /**
+    * Throws in the evaluation started in the given position among all the individuals sharing the counter.
+    */
+   private static class FailingIndividualToEvaluate extends ExampleIndividualToEvaluateOne
+   {
+      private final AtomicInteger numberOfStartedEvaluations;
+      private final int failingEvaluation;
+
+      public FailingIndividualToEvaluate(AtomicInteger numberOfStartedEvaluations, int failingEvaluation)
+      {
+         this.numberOfStartedEvaluations = numberOfStartedEvaluations;
+         this.failingEvaluation = failingEvaluation;
+      }
+
+      @Override
+      public IndividualToEvaluate createNewIndividual()
+      {
+         return new FailingIndividualToEvaluate(numberOfStartedEvaluations, failingEvaluation);
+      }
+
+      private volatile boolean evaluationDone = false;
+
+      @Override
+      public void startEvaluation()
+      {
+         if (numberOfStartedEvaluations.incrementAndGet() == failingEvaluation)
+            throw new RuntimeException("Failing evaluation for testing");
+         evaluationDone = true;
+      }
+
+      @Override
+      public boolean isEvaluationDone()
+      {
+         return evaluationDone;
+      }
+   }
 }
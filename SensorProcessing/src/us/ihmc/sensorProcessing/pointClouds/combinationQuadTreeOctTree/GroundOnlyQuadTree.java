@@ -6,6 +6,7 @@ import java.util.List;
 
 import us.ihmc.euclid.geometry.BoundingBox2D;
 import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.robotics.geometry.InclusionFunction;
 import us.ihmc.robotics.hyperCubeTree.ConstantResolutionProvider;
 import us.ihmc.robotics.hyperCubeTree.HyperCubeLeaf;
@@ -453,6 +454,18 @@ public class GroundOnlyQuadTree extends HyperCubeTree<GroundAirDescriptor, Groun
       }
       
    }
+
+   @Override
+   public void getCellAverageStoredPoints(PrimitivePointCloud points)
+   {
+      List<RecursableHyperTreeNode<GroundAirDescriptor, GroundOnlyQuadTreeData>> leaves = listAllLeafNodes();
+      for (RecursableHyperTreeNode<GroundAirDescriptor, GroundOnlyQuadTreeData> leaf : leaves)
+      {
+         HyperCubeLeaf<GroundAirDescriptor> leafData = leaf.getLeaf();
+         if (leafData != null)
+            points.add(leafData.getLocation()[0], leafData.getLocation()[1], leafData.getValue().getHeight(), 0L);
+      }
+   }
    
 
    public void clearTree(double defaultGroundHeight)
@@ -47,6 +47,34 @@ public class QuadTreeForGroundHeightMap extends QuadTreeForGround implements Qua
       return result.treeChanged;
    }
 
+   /**
+    * Adds the points of a scan under one lock, see {@link QuadTreeForGround#putAll(double[], int)}.
+    */
+   @Override
+   public boolean addPoints(double[] points, int numberOfPoints)
+   {
+      if (numberOfPoints == 0)
+         return false;
+
+      lock();
+      if (readerAndWriter != null)
+      {
+         for (int i = 0; i < numberOfPoints; i++)
+            readerAndWriter.writePoint(points[3 * i], points[3 * i + 1], points[3 * i + 2]);
+      }
+
+      // Set the default height to the first point you see if it were not set (ie NaN)
+      if (super.isEmpty() && Double.isNaN(super.getDefaultHeightWhenNoPoints()))
+      {
+         super.setDefaultHeightWhenNoPoints(points[2]);
+      }
+
+      boolean treeChanged = putAll(points, numberOfPoints);
+
+      unlock();
+      return treeChanged;
+   }
+
    @Override
    public boolean addToQuadtree(double x, double y, double z)
    {
@@ -4,6 +4,7 @@ import java.util.Collection;
 
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.robotics.dataStructures.HeightMapWithPoints;
+import us.ihmc.robotics.dataStructures.PrimitivePointCloud;
 import us.ihmc.robotics.hyperCubeTree.HyperCubeTreeListener;
 import us.ihmc.robotics.quadTree.QuadTreeForGroundListener;
 
@@ -24,9 +25,23 @@ public interface QuadTreeHeightMapInterface extends HeightMapWithPoints
    public abstract void addQuadTreeListener(QuadTreeForGroundListener jmeGroundONlyQuadTreeVisualizer);
 
 	public abstract boolean addToQuadtree(double x, double y, double z);
+
+   /**
+    * Adds all the points of a scan, packed as x, y, z, x, y, z, ...
+    *
+    * @return whether the tree changed.
+    */
+   public default boolean addPoints(double[] points, int numberOfPoints)
+   {
+      boolean treeChanged = false;
+      for (int i = 0; i < numberOfPoints; i++)
+         treeChanged |= addToQuadtree(points[3 * i], points[3 * i + 1], points[3 * i + 2]);
+      return treeChanged;
+   }
 	
    public void getStoredPoints(Collection<Point3D> points);
    public void getCellAverageStoredPoints(Collection<Point3D> points);
+   public void getCellAverageStoredPoints(PrimitivePointCloud points);
 
    public abstract void lock();
 
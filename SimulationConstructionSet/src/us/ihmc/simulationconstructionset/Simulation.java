@@ -41,6 +41,7 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
 
    private double SIMULATION_DT = 0.0004;
    private int RECORD_FREQ = 1;
+   private int robotSteppingThreads = 1;
 
    private Robot[] robots;
 
@@ -100,6 +101,18 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
       return RECORD_FREQ;
    }
 
+   /**
+    * Step independent robots in parallel, see {@link Simulator#setParallelRobotStepping(int)}
+    * 
+    * @param numberOfThreads Number of threads to use. 1 or less steps the robots one after another.
+    */
+   public void setParallelRobotStepping(int numberOfThreads)
+   {
+      robotSteppingThreads = numberOfThreads;
+      if (mySimulator != null)
+         mySimulator.setParallelRobotStepping(numberOfThreads);
+   }
+
    public void addScript(Script script)
    {
       this.mySimulator.addScript(script);
@@ -220,13 +233,18 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
       myDataBuffer.closeAndDispose();
 
       myDataBuffer = null;
+      if (mySimulator != null)
+         mySimulator.setParallelRobotStepping(1);
       mySimulator = null;
    }
 
    public void setRobots(Robot[] robots)
    {
       this.robots = robots;
+      if (mySimulator != null)
+         mySimulator.setParallelRobotStepping(1);
       mySimulator = new Simulator(simulationSynchronizer, robots, SIMULATION_DT);
+      mySimulator.setParallelRobotStepping(robotSteppingThreads);
       this.setDT(SIMULATION_DT, RECORD_FREQ);
 
       if (robots != null)
@@ -264,6 +282,7 @@ public class Simulation implements YoVariableHolder, Serializable // Runnable,
       if (mySimulator == null)
       {
          mySimulator = new Simulator(simulationSynchronizer, robots, SIMULATION_DT);
+         mySimulator.setParallelRobotStepping(robotSteppingThreads);
       }
       else
       {
@@ -660,6 +660,17 @@ public class SimulationConstructionSet implements Runnable, YoVariableHolder, Ru
       mySimulation.addScript(script);
    }
 
+   /**
+    * Step the robots of this simulation in parallel. Robots and their controllers should not share mutable state.
+    *
+    * @param numberOfThreads Number of threads to use. 1 or less steps the robots one after another.
+    * @see us.ihmc.simulationconstructionset.Simulator#setParallelRobotStepping(int)
+    */
+   public void setParallelRobotStepping(int numberOfThreads)
+   {
+      mySimulation.setParallelRobotStepping(numberOfThreads);
+   }
+
    /**
     * Set the frame's size to the specified dimension.
     *
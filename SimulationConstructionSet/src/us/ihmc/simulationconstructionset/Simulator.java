@@ -1,6 +1,8 @@
 package us.ihmc.simulationconstructionset;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import us.ihmc.simulationconstructionset.physics.CollisionArbiter;
 import us.ihmc.simulationconstructionset.physics.CollisionHandler;
@@ -25,6 +27,8 @@ public class Simulator implements java.io.Serializable
    private CollisionHandler collisionHandler;
    private DefaultCollisionVisualizer collisionVisualizer;
 
+   private transient ForkJoinPool robotSteppingPool = null;
+
    // private final YoVariable time;
 
    public Simulator(SimulationSynchronizer simulationSynchronizer, Robot[] robots, double dt)
@@ -51,6 +55,38 @@ public class Simulator implements java.io.Serializable
       return this.DT;
    }
 
+   /**
+    * Step robots in parallel on a fork/join pool.
+    * 
+    * Every tick the per robot parts of the state update, the controllers and the integration are run for all robots at
+    * the same time. Collision detection and handling run on the simulation thread in between, after all robots updated
+    * their state. When scripts are added the state update is done in order on the simulation thread, because scripts
+    * can act on any robot.
+    * 
+    * The result is identical to serial stepping as long as robots and their controllers do not share mutable state,
+    * apart from the collision handling. Ground profiles that are shared between robots need to be thread safe.
+    * 
+    * @param numberOfThreads Number of threads to use. 1 or less steps the robots in order on the simulation thread.
+    */
+   public void setParallelRobotStepping(int numberOfThreads)
+   {
+      if (robotSteppingPool != null)
+      {
+         robotSteppingPool.shutdown();
+         robotSteppingPool = null;
+      }
+
+      if (numberOfThreads > 1)
+      {
+         robotSteppingPool = new ForkJoinPool(numberOfThreads);
+      }
+   }
+
+   public boolean isParallelRobotStepping()
+   {
+      return robotSteppingPool != null;
+   }
+
    protected void addScript(Script script)
    {
       if (scripts == null)
@@ -67,35 +103,26 @@ public class Simulator implements java.io.Serializable
 
    private final CollisionDetectionResult newCollisions = new CollisionDetectionResult();
 
-   private void updateState()
+   private void updateState() throws UnreasonableAccelerationException
    {
       synchronized (simulationSynchronizer)
       {
-         for (Robot robot : robots)
+         if (robotSteppingPool != null && scripts == null)
          {
-            // +++JEP090122 This updates the locations and velocities of everything. Need to do this instead of just update so that the ground contact has the
-            // most recent velocities and is rewindable...
-            robot.updateVelocities();
-
-            //          rob.update();
-
-            robot.updateAllGroundContactPointVelocities(); // +++JEP OPTIMIZE: Need to do this once so all point velocities get updated. Otherwise only those in contact will.
-
-
-            if (robot.getGroundContactModel() != null)
+            forEachRobot(Simulator::updateRobotState);
+         }
+         else
+         {
+            for (Robot robot : robots)
             {
-               robot.getGroundContactModel().doGroundContact(); // Do the ground contact model
-            }
+               updateRobotState(robot);
 
-            // Needed to move this outside and do it even if no ground contact model, for
-            // Contact models that are done outside of the robot.
-            robot.decideGroundContactPointsInContact(); // +++JEP OPTIMIZE. This should be in a GroundContactDetector...
-
-            if (scripts != null) // Run the scripts
-            {
-               for (Script script : scripts)
+               if (scripts != null) // Run the scripts
                {
-                  script.doScript(robot.getTime());
+                  for (Script script : scripts)
+                  {
+                     script.doScript(robot.getTime());
+                  }
                }
             }
          }
@@ -115,8 +142,42 @@ public class Simulator implements java.io.Serializable
       }
    }
 
+   private static void updateRobotState(Robot robot)
+   {
+      // +++JEP090122 This updates the locations and velocities of everything. Need to do this instead of just update so that the ground contact has the
+      // most recent velocities and is rewindable...
+      robot.updateVelocities();
+
+      //          rob.update();
+
+      robot.updateAllGroundContactPointVelocities(); // +++JEP OPTIMIZE: Need to do this once so all point velocities get updated. Otherwise only those in contact will.
+
+
+      if (robot.getGroundContactModel() != null)
+      {
+         robot.getGroundContactModel().doGroundContact(); // Do the ground contact model
+      }
+
+      // Needed to move this outside and do it even if no ground contact model, for
+      // Contact models that are done outside of the robot.
+      robot.decideGroundContactPointsInContact(); // +++JEP OPTIMIZE. This should be in a GroundContactDetector...
+   }
+
    protected void doControl()
    {
+      if (robotSteppingPool != null)
+      {
+         try
+         {
+            forEachRobot(Robot::doControllers);
+         }
+         catch (UnreasonableAccelerationException e)
+         {
+            throw new RuntimeException(e);
+         }
+         return;
+      }
+
       for (Robot robot : robots)
       {
          // +++JEP 7/18/2005. Needed to take doControl out of the synchronized block in case the controller is trying
@@ -131,6 +192,15 @@ public class Simulator implements java.io.Serializable
    {
       synchronized (simulationSynchronizer)
       {
+         if (robotSteppingPool != null)
+         {
+            forEachRobot(robot -> {
+               robot.doDynamicsAndIntegrate(DT);
+               robot.updateIMUMountAccelerations();
+            });
+            return;
+         }
+
          for (int i = 0; i < robots.length; i++)
          {
             Robot robot = robots[i];
@@ -140,6 +210,76 @@ public class Simulator implements java.io.Serializable
       }
    }
 
+   private interface RobotStep
+   {
+      public abstract void step(Robot robot) throws UnreasonableAccelerationException;
+   }
+
+   /**
+    * Run a step for all robots on the fork/join pool and wait till all robots are done.
+    * If steps throw an exception, the exception of the robot with the lowest index is rethrown.
+    */
+   private void forEachRobot(RobotStep step) throws UnreasonableAccelerationException
+   {
+      Throwable[] exceptions = new Throwable[robots.length];
+      robotSteppingPool.invoke(new RobotStepAction(step, exceptions, 0, robots.length));
+
+      for (Throwable exception : exceptions)
+      {
+         if (exception instanceof UnreasonableAccelerationException)
+         {
+            throw (UnreasonableAccelerationException) exception;
+         }
+         else if (exception instanceof RuntimeException)
+         {
+            throw (RuntimeException) exception;
+         }
+         else if (exception instanceof Error)
+         {
+            throw (Error) exception;
+         }
+      }
+   }
+
+   private class RobotStepAction extends RecursiveAction
+   {
+      private static final long serialVersionUID = 5207853346129861163L;
+
+      private final RobotStep step;
+      private final Throwable[] exceptions;
+      private final int start;
+      private final int end;
+
+      private RobotStepAction(RobotStep step, Throwable[] exceptions, int start, int end)
+      {
+         this.step = step;
+         this.exceptions = exceptions;
+         this.start = start;
+         this.end = end;
+      }
+
+      @Override
+      protected void compute()
+      {
+         if (end - start == 1)
+         {
+            try
+            {
+               step.step(robots[start]);
+            }
+            catch (Throwable e)
+            {
+               exceptions[start] = e;
+            }
+         }
+         else if (end - start > 1)
+         {
+            int middle = (start + end) >>> 1;
+            invokeAll(new RobotStepAction(step, exceptions, start, middle), new RobotStepAction(step, exceptions, middle, end));
+         }
+      }
+   }
+
    protected void forceClassLoading()
    {
       //
@@ -0,0 +1,23 @@
+package us.ihmc.simulationconstructionset.physics.collision.broadPhase;
+
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * First phase of collision detection. Finds the pairs of shapes whose bounding boxes intersect, so the expensive
+ * narrow phase only has to run on those pairs.
+ *
+ * Implementations can keep state between calls to exploit temporal coherence. They are called every tick with the
+ * bounding boxes of the same shapes in the same order; when the number of shapes changes the state is rebuilt.
+ */
+public interface BroadPhaseCollisionDetector
+{
+   /**
+    * Find all pairs of bounding boxes that intersect, including touching boxes.
+    *
+    * @param boundingBoxes Bounding box of every shape in world coordinates, the index in the list identifies the shape
+    * @param candidatePairsToPack Cleared and filled with the intersecting pairs, sorted by first and then second index
+    */
+   public abstract void computeCandidatePairs(List<BoundingBox3D> boundingBoxes, CollisionPairList candidatePairsToPack);
+}
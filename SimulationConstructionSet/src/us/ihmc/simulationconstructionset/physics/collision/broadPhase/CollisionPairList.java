@@ -0,0 +1,89 @@
+package us.ihmc.simulationconstructionset.physics.collision.broadPhase;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of pairs of shape indices. Pairs are stored packed in a long array to avoid allocating objects every tick.
+ */
+public class CollisionPairList
+{
+   private long[] pairs = new long[64];
+   private int size = 0;
+
+   /**
+    * Add a pair. The pair is stored with the lowest index first.
+    */
+   public void add(int indexOne, int indexTwo)
+   {
+      if (size == pairs.length)
+      {
+         pairs = Arrays.copyOf(pairs, pairs.length * 2);
+      }
+
+      if (indexOne < indexTwo)
+      {
+         pairs[size++] = ((long) indexOne << 32) | indexTwo;
+      }
+      else
+      {
+         pairs[size++] = ((long) indexTwo << 32) | indexOne;
+      }
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   public void clear()
+   {
+      size = 0;
+   }
+
+   /**
+    * @return Lowest shape index of the pair
+    */
+   public int getFirst(int pair)
+   {
+      checkIndex(pair);
+      return (int) (pairs[pair] >>> 32);
+   }
+
+   /**
+    * @return Highest shape index of the pair
+    */
+   public int getSecond(int pair)
+   {
+      checkIndex(pair);
+      return (int) pairs[pair];
+   }
+
+   public boolean contains(int indexOne, int indexTwo)
+   {
+      long pair = indexOne < indexTwo ? ((long) indexOne << 32) | indexTwo : ((long) indexTwo << 32) | indexOne;
+      for (int i = 0; i < size; i++)
+      {
+         if (pairs[i] == pair)
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Sort the pairs by first index and then by second index, which is the order a nested loop over all shapes visits them.
+    */
+   public void sort()
+   {
+      Arrays.sort(pairs, 0, size);
+   }
+
+   private void checkIndex(int pair)
+   {
+      if (pair < 0 || pair >= size)
+      {
+         throw new IndexOutOfBoundsException("Pair " + pair + " is out of bounds, size is " + size);
+      }
+   }
+}
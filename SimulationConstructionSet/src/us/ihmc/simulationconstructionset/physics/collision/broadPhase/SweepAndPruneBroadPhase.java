@@ -0,0 +1,212 @@
+package us.ihmc.simulationconstructionset.physics.collision.broadPhase;
+
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Sweep and prune over axis aligned bounding boxes.
+ *
+ * The minimum and maximum of every box along one axis are kept in a sorted list of endpoints. Sweeping over the list
+ * keeps track of the boxes that overlap along the sweep axis, and only those are tested on the other two axes.
+ *
+ * The endpoint list is kept between ticks and re-sorted with an insertion sort. Shapes move little between ticks, so the
+ * list is nearly sorted and the update costs O(n + swaps) instead of a full sort.
+ */
+public class SweepAndPruneBroadPhase implements BroadPhaseCollisionDetector
+{
+   private int numberOfBoxes = -1;
+   private int sweepAxis = 0;
+
+   private double[] minimums = new double[0];
+   private double[] maximums = new double[0];
+
+   // Endpoint k belongs to box endpoints[k] >>> 1 and is a maximum when the lowest bit is set
+   private int[] endpoints = new int[0];
+   private double[] endpointValues = new double[0];
+
+   private int[] activeBoxes = new int[0];
+   private int[] activeIndices = new int[0];
+
+   private long numberOfSwaps = 0;
+
+   @Override
+   public void computeCandidatePairs(List<BoundingBox3D> boundingBoxes, CollisionPairList candidatePairsToPack)
+   {
+      candidatePairsToPack.clear();
+
+      int n = boundingBoxes.size();
+      if (n != numberOfBoxes)
+      {
+         initialize(n);
+      }
+
+      for (int i = 0; i < n; i++)
+      {
+         BoundingBox3D boundingBox = boundingBoxes.get(i);
+         minimums[3 * i] = boundingBox.getMinX();
+         minimums[3 * i + 1] = boundingBox.getMinY();
+         minimums[3 * i + 2] = boundingBox.getMinZ();
+         maximums[3 * i] = boundingBox.getMaxX();
+         maximums[3 * i + 1] = boundingBox.getMaxY();
+         maximums[3 * i + 2] = boundingBox.getMaxZ();
+      }
+
+      if (n != numberOfBoxes)
+      {
+         selectSweepAxis(n);
+         numberOfBoxes = n;
+      }
+
+      for (int k = 0; k < 2 * n; k++)
+      {
+         endpointValues[k] = getValue(endpoints[k]);
+      }
+
+      insertionSort();
+      sweep(candidatePairsToPack);
+      candidatePairsToPack.sort();
+   }
+
+   /**
+    * @return Axis the endpoints are sorted on, 0 for x, 1 for y and 2 for z
+    */
+   public int getSweepAxis()
+   {
+      return sweepAxis;
+   }
+
+   /**
+    * @return Total number of endpoint swaps done while re-sorting, a measure of how much the scene changes between ticks
+    */
+   public long getNumberOfSwaps()
+   {
+      return numberOfSwaps;
+   }
+
+   private void initialize(int n)
+   {
+      minimums = new double[3 * n];
+      maximums = new double[3 * n];
+      endpoints = new int[2 * n];
+      endpointValues = new double[2 * n];
+      activeBoxes = new int[n];
+      activeIndices = new int[n];
+
+      for (int i = 0; i < n; i++)
+      {
+         endpoints[2 * i] = i << 1;
+         endpoints[2 * i + 1] = (i << 1) | 1;
+      }
+   }
+
+   /**
+    * Sweep along the axis with the largest spread of box centers, this separates the most boxes
+    */
+   private void selectSweepAxis(int n)
+   {
+      double bestVariance = -1.0;
+      for (int axis = 0; axis < 3; axis++)
+      {
+         double sum = 0.0;
+         double sumSquared = 0.0;
+         for (int i = 0; i < n; i++)
+         {
+            double center = 0.5 * (minimums[3 * i + axis] + maximums[3 * i + axis]);
+            sum += center;
+            sumSquared += center * center;
+         }
+
+         double variance = sumSquared - sum * sum / Math.max(1, n);
+         if (variance > bestVariance)
+         {
+            bestVariance = variance;
+            sweepAxis = axis;
+         }
+      }
+   }
+
+   private double getValue(int endpoint)
+   {
+      int box = endpoint >>> 1;
+      return (endpoint & 1) == 0 ? minimums[3 * box + sweepAxis] : maximums[3 * box + sweepAxis];
+   }
+
+   /**
+    * Minimums sort before maximums with the same value, so touching boxes are reported as intersecting
+    */
+   private static boolean isBefore(double valueOne, int endpointOne, double valueTwo, int endpointTwo)
+   {
+      return valueOne < valueTwo || (valueOne == valueTwo && (endpointOne & 1) < (endpointTwo & 1));
+   }
+
+   private void insertionSort()
+   {
+      for (int k = 1; k < endpoints.length; k++)
+      {
+         int endpoint = endpoints[k];
+         double value = endpointValues[k];
+
+         int j = k - 1;
+         while (j >= 0 && isBefore(value, endpoint, endpointValues[j], endpoints[j]))
+         {
+            endpoints[j + 1] = endpoints[j];
+            endpointValues[j + 1] = endpointValues[j];
+            j--;
+            numberOfSwaps++;
+         }
+         endpoints[j + 1] = endpoint;
+         endpointValues[j + 1] = value;
+      }
+   }
+
+   private void sweep(CollisionPairList candidatePairsToPack)
+   {
+      int numberOfActiveBoxes = 0;
+
+      for (int k = 0; k < endpoints.length; k++)
+      {
+         int endpoint = endpoints[k];
+         int box = endpoint >>> 1;
+
+         if ((endpoint & 1) == 0)
+         {
+            for (int a = 0; a < numberOfActiveBoxes; a++)
+            {
+               int other = activeBoxes[a];
+               if (intersectOnOtherAxes(box, other))
+               {
+                  candidatePairsToPack.add(box, other);
+               }
+            }
+
+            activeIndices[box] = numberOfActiveBoxes;
+            activeBoxes[numberOfActiveBoxes++] = box;
+         }
+         else
+         {
+            int index = activeIndices[box];
+            int last = activeBoxes[--numberOfActiveBoxes];
+            activeBoxes[index] = last;
+            activeIndices[last] = index;
+         }
+      }
+   }
+
+   private boolean intersectOnOtherAxes(int boxOne, int boxTwo)
+   {
+      for (int axis = 0; axis < 3; axis++)
+      {
+         if (axis == sweepAxis)
+         {
+            continue;
+         }
+
+         if (minimums[3 * boxOne + axis] > maximums[3 * boxTwo + axis] || minimums[3 * boxTwo + axis] > maximums[3 * boxOne + axis])
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,258 @@
+package us.ihmc.simulationconstructionset.physics.collision.broadPhase;
+
+import java.util.Arrays;
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Broad phase on a uniform grid of cubic cells.
+ *
+ * Every box is added to the cells it overlaps and only boxes that share a cell are tested against each other. A pair is
+ * only reported in the lowest cell the two boxes share, so every pair is reported once. The grid is stored in an open
+ * addressing hash table that is rebuilt every tick without allocating.
+ *
+ * Works best when the shapes have similar sizes and the cell size is close to the size of a typical shape. Boxes that
+ * cover more than {@link #getMaximumCellsPerBox()} cells, like the ground, are not put in the grid but tested against
+ * every other box. The grid holds at most {@link #MAXIMUM_NUMBER_OF_CELLS} cells per tick, the boxes that do not fit
+ * anymore are treated like large boxes.
+ */
+public class UniformGridBroadPhase implements BroadPhaseCollisionDetector
+{
+   public static final int DEFAULT_MAXIMUM_CELLS_PER_BOX = 64;
+   public static final int MAXIMUM_NUMBER_OF_CELLS = 1 << 24;
+
+   private static final int BITS_PER_AXIS = 21;
+   private static final int CELL_OFFSET = 1 << (BITS_PER_AXIS - 1);
+   private static final long EMPTY = Long.MIN_VALUE;
+
+   private final double cellSize;
+   private final int maximumCellsPerBox;
+
+   private double[] minimums = new double[0];
+   private double[] maximums = new double[0];
+   private int[] minimumCells = new int[0];
+   private int[] maximumCells = new int[0];
+   private boolean[] isLarge = new boolean[0];
+   private int[] largeBoxes = new int[0];
+
+   // Hash table from cell key to the first entry in the cell, entries of a cell form a linked list
+   private long[] cellKeys = new long[0];
+   private int[] cellHeads = new int[0];
+   private int tableMask = 0;
+
+   private int[] entryBoxes = new int[64];
+   private int[] entryNext = new int[64];
+   private int numberOfEntries = 0;
+
+   /**
+    * @param cellSize Size of the grid cells
+    */
+   public UniformGridBroadPhase(double cellSize)
+   {
+      this(cellSize, DEFAULT_MAXIMUM_CELLS_PER_BOX);
+   }
+
+   /**
+    * @param cellSize Size of the grid cells
+    * @param maximumCellsPerBox Boxes that overlap more cells are tested against all other boxes instead of put in the grid,
+    *           between 1 and {@link #MAXIMUM_NUMBER_OF_CELLS}
+    */
+   public UniformGridBroadPhase(double cellSize, int maximumCellsPerBox)
+   {
+      if (!(cellSize > 0.0))
+      {
+         throw new IllegalArgumentException("Cell size should be positive");
+      }
+      if (maximumCellsPerBox < 1 || maximumCellsPerBox > MAXIMUM_NUMBER_OF_CELLS)
+      {
+         throw new IllegalArgumentException("Maximum cells per box should be between 1 and " + MAXIMUM_NUMBER_OF_CELLS);
+      }
+      this.cellSize = cellSize;
+      this.maximumCellsPerBox = maximumCellsPerBox;
+   }
+
+   public double getCellSize()
+   {
+      return cellSize;
+   }
+
+   public int getMaximumCellsPerBox()
+   {
+      return maximumCellsPerBox;
+   }
+
+   @Override
+   public void computeCandidatePairs(List<BoundingBox3D> boundingBoxes, CollisionPairList candidatePairsToPack)
+   {
+      candidatePairsToPack.clear();
+
+      int n = boundingBoxes.size();
+      if (isLarge.length != n)
+      {
+         minimums = new double[3 * n];
+         maximums = new double[3 * n];
+         minimumCells = new int[3 * n];
+         maximumCells = new int[3 * n];
+         isLarge = new boolean[n];
+         largeBoxes = new int[n];
+      }
+
+      int numberOfLargeBoxes = 0;
+      int numberOfCells = 0;
+      for (int i = 0; i < n; i++)
+      {
+         BoundingBox3D boundingBox = boundingBoxes.get(i);
+         minimums[3 * i] = boundingBox.getMinX();
+         minimums[3 * i + 1] = boundingBox.getMinY();
+         minimums[3 * i + 2] = boundingBox.getMinZ();
+         maximums[3 * i] = boundingBox.getMaxX();
+         maximums[3 * i + 1] = boundingBox.getMaxY();
+         maximums[3 * i + 2] = boundingBox.getMaxZ();
+
+         // Each axis spans at most 2^21 cells, the product is saturated so it cannot overflow
+         long cells = 1;
+         for (int axis = 0; axis < 3; axis++)
+         {
+            minimumCells[3 * i + axis] = toCell(minimums[3 * i + axis]);
+            maximumCells[3 * i + axis] = toCell(maximums[3 * i + axis]);
+            long cellsOnAxis = (long) maximumCells[3 * i + axis] - (long) minimumCells[3 * i + axis] + 1L;
+            cells = Math.min(cells * Math.max(cellsOnAxis, 1L), MAXIMUM_NUMBER_OF_CELLS + 1L);
+         }
+
+         isLarge[i] = cells > maximumCellsPerBox || numberOfCells + cells > MAXIMUM_NUMBER_OF_CELLS;
+         if (isLarge[i])
+         {
+            largeBoxes[numberOfLargeBoxes++] = i;
+         }
+         else
+         {
+            numberOfCells += (int) cells;
+         }
+      }
+
+      clearTable(numberOfCells);
+
+      for (int i = 0; i < n; i++)
+      {
+         if (!isLarge[i])
+         {
+            insert(i, candidatePairsToPack);
+         }
+      }
+
+      for (int l = 0; l < numberOfLargeBoxes; l++)
+      {
+         int large = largeBoxes[l];
+         for (int i = 0; i < n; i++)
+         {
+            if (i == large || (isLarge[i] && i < large))
+            {
+               continue;
+            }
+
+            if (intersect(large, i))
+            {
+               candidatePairsToPack.add(large, i);
+            }
+         }
+      }
+
+      candidatePairsToPack.sort();
+   }
+
+   private int toCell(double value)
+   {
+      double cell = Math.floor(value / cellSize);
+      return (int) Math.max(-CELL_OFFSET, Math.min(CELL_OFFSET - 1, cell));
+   }
+
+   private static long toKey(int x, int y, int z)
+   {
+      long mask = (1L << BITS_PER_AXIS) - 1;
+      return ((x + CELL_OFFSET) & mask) << (2 * BITS_PER_AXIS) | ((y + CELL_OFFSET) & mask) << BITS_PER_AXIS | ((z + CELL_OFFSET) & mask);
+   }
+
+   private void clearTable(int numberOfCells)
+   {
+      int capacity = Integer.highestOneBit(Math.max(16, numberOfCells * 2) - 1) << 1;
+      if (cellKeys.length < capacity)
+      {
+         cellKeys = new long[capacity];
+         cellHeads = new int[capacity];
+         tableMask = capacity - 1;
+      }
+      Arrays.fill(cellKeys, EMPTY);
+
+      if (entryBoxes.length < numberOfCells)
+      {
+         entryBoxes = new int[numberOfCells];
+         entryNext = new int[numberOfCells];
+      }
+      numberOfEntries = 0;
+   }
+
+   private void insert(int box, CollisionPairList candidatePairsToPack)
+   {
+      for (int x = minimumCells[3 * box]; x <= maximumCells[3 * box]; x++)
+      {
+         for (int y = minimumCells[3 * box + 1]; y <= maximumCells[3 * box + 1]; y++)
+         {
+            for (int z = minimumCells[3 * box + 2]; z <= maximumCells[3 * box + 2]; z++)
+            {
+               int slot = findSlot(toKey(x, y, z));
+
+               for (int entry = cellHeads[slot]; entry != -1; entry = entryNext[entry])
+               {
+                  int other = entryBoxes[entry];
+                  if (isLowestSharedCell(box, other, x, y, z) && intersect(box, other))
+                  {
+                     candidatePairsToPack.add(box, other);
+                  }
+               }
+
+               entryBoxes[numberOfEntries] = box;
+               entryNext[numberOfEntries] = cellHeads[slot];
+               cellHeads[slot] = numberOfEntries++;
+            }
+         }
+      }
+   }
+
+   /**
+    * Find the slot of a cell in the hash table, claims an empty slot if the cell is not in the table yet
+    */
+   private int findSlot(long key)
+   {
+      int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & tableMask;
+      while (cellKeys[slot] != EMPTY && cellKeys[slot] != key)
+      {
+         slot = (slot + 1) & tableMask;
+      }
+
+      if (cellKeys[slot] == EMPTY)
+      {
+         cellKeys[slot] = key;
+         cellHeads[slot] = -1;
+      }
+      return slot;
+   }
+
+   private boolean isLowestSharedCell(int boxOne, int boxTwo, int x, int y, int z)
+   {
+      return x == Math.max(minimumCells[3 * boxOne], minimumCells[3 * boxTwo]) && y == Math.max(minimumCells[3 * boxOne + 1], minimumCells[3 * boxTwo + 1])
+            && z == Math.max(minimumCells[3 * boxOne + 2], minimumCells[3 * boxTwo + 2]);
+   }
+
+   private boolean intersect(int boxOne, int boxTwo)
+   {
+      for (int axis = 0; axis < 3; axis++)
+      {
+         if (minimums[3 * boxOne + axis] > maximums[3 * boxTwo + axis] || minimums[3 * boxTwo + axis] > maximums[3 * boxOne + axis])
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -17,6 +17,10 @@ import us.ihmc.simulationconstructionset.physics.CollisionShapeDescription;
 import us.ihmc.simulationconstructionset.physics.CollisionShapeFactory;
 import us.ihmc.simulationconstructionset.physics.ScsCollisionDetector;
 import us.ihmc.simulationconstructionset.physics.collision.CollisionDetectionResult;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.BroadPhaseCollisionDetector;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.CollisionPairList;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.SweepAndPruneBroadPhase;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.UniformGridBroadPhase;
 
 public class SimpleCollisionDetector implements ScsCollisionDetector
 {
@@ -63,6 +67,26 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
    private final BoundingBox3D boundingBoxOne = new BoundingBox3D(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
    private final BoundingBox3D boundingBoxTwo = new BoundingBox3D(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
 
+   private BroadPhaseCollisionDetector broadPhase = null;
+   private final ArrayList<BoundingBox3D> boundingBoxes = new ArrayList<>();
+   private final CollisionPairList candidatePairs = new CollisionPairList();
+
+   /**
+    * Use a broad phase to select the pairs of shapes that are tested for collision, instead of testing all pairs.
+    * The broad phase reports the same pairs as the bounding box test of the full search, in the same order.
+    * 
+    * @param broadPhase Broad phase, for example {@link SweepAndPruneBroadPhase} or {@link UniformGridBroadPhase}. Null tests all pairs.
+    */
+   public void setBroadPhase(BroadPhaseCollisionDetector broadPhase)
+   {
+      this.broadPhase = broadPhase;
+   }
+
+   public BroadPhaseCollisionDetector getBroadPhase()
+   {
+      return broadPhase;
+   }
+
    @Override
    public void performCollisionDetection(CollisionDetectionResult result)
    {      
@@ -83,153 +107,96 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
          collisionShape.computeTransformedCollisionShape();
       }
 
-      for (int i = 0; i < numberOfObjects; i++)
+      if (broadPhase != null)
       {
-         CollisionShape objectOne = collisionObjects.get(i);
-         CollisionShapeDescription<?> descriptionOne = objectOne.getTransformedCollisionShapeDescription();
+         while (boundingBoxes.size() < numberOfObjects)
+         {
+            boundingBoxes.add(new BoundingBox3D(0.0, 0.0, 0.0, 0.0, 0.0, 0.0));
+         }
+         while (boundingBoxes.size() > numberOfObjects)
+         {
+            boundingBoxes.remove(boundingBoxes.size() - 1);
+         }
+
+         for (int i = 0; i < numberOfObjects; i++)
+         {
+            collisionObjects.get(i).getBoundingBox(boundingBoxes.get(i));
+         }
+
+         broadPhase.computeCandidatePairs(boundingBoxes, candidatePairs);
+         boundingBoxChecks = candidatePairs.size();
 
-         for (int j = i + 1; j < numberOfObjects; j++)
+         for (int pair = 0; pair < candidatePairs.size(); pair++)
          {
+            int i = candidatePairs.getFirst(pair);
+            int j = candidatePairs.getSecond(pair);
+
             if ((useSimpleSpeedupMethod) && (!haveCollided[i][j]) && (random.nextDouble() < percentChanceCheckCollision ))
                continue;
 
+            CollisionShape objectOne = collisionObjects.get(i);
             CollisionShape objectTwo = collisionObjects.get(j);
-            CollisionShapeDescription<?> descriptionTwo = objectTwo.getTransformedCollisionShapeDescription();
-
-            if ((objectOne.getCollisionGroup() & objectTwo.getCollisionMask()) == 0x00)
-            {
-               continue;
-            }
-            
-            if ((objectTwo.getCollisionGroup() & objectOne.getCollisionMask()) == 0x00)
+            if (!canCollide(objectOne, objectTwo))
             {
                continue;
             }
 
-            objectOne.getBoundingBox(boundingBoxOne);
-            objectTwo.getBoundingBox(boundingBoxTwo);
-
-            boundingBoxChecks++;
-            if (!boundingBoxOne.intersectsInclusive(boundingBoxTwo))
-            {
-               continue;
-            }
-            
             collisionChecks++;
-            boolean areColliding = false;
-
-            //TODO: Make this shorter and more efficient...
-            //TODO: Add Plane
-            if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doSphereSphereCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
-                     (SphereShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsuleCapsuleCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (CapsuleShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doPolytopePolytopeCollisionDetection(objectOne, (PolytopeShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
+            if (detectCollision(objectOne, objectTwo, result))
             {
-               areColliding = doCylinderCylinderCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
-                     (CylinderShapeDescription<?>) descriptionTwo, result);
-            }
-
-
-            else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsuleSphereCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
-                     (SphereShapeDescription<?>) descriptionOne, result);
-            }
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doCapsuleSphereCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (SphereShapeDescription<?>) descriptionTwo, result);
-            }
+               numberOfCollisions++;
 
-            else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doSpherePolytopeCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
-            {
-               areColliding = doSpherePolytopeCollisionDetection(objectTwo, (SphereShapeDescription<?>) descriptionTwo, objectOne,
-                     (PolytopeShapeDescription<?>) descriptionOne, result);
+               if (useSimpleSpeedupMethod) haveCollided[i][j] = true;
             }
+         }
+      }
+      else
+      {
+         for (int i = 0; i < numberOfObjects; i++)
+         {
+            CollisionShape objectOne = collisionObjects.get(i);
 
-            else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doSphereCylinderCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
-                     (CylinderShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
+            for (int j = i + 1; j < numberOfObjects; j++)
             {
-               areColliding = doSphereCylinderCollisionDetection(objectTwo, (SphereShapeDescription<?>) descriptionTwo, objectOne,
-                     (CylinderShapeDescription<?>) descriptionOne, result);
-            }
+               if ((useSimpleSpeedupMethod) && (!haveCollided[i][j]) && (random.nextDouble() < percentChanceCheckCollision ))
+                  continue;
 
+               CollisionShape objectTwo = collisionObjects.get(j);
 
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doCapsulePolytopeCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsulePolytopeCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
-                     (PolytopeShapeDescription<?>) descriptionOne, result);
-            }
-            else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doCapsuleCylinderCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
-                     (CylinderShapeDescription<?>) descriptionTwo, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
-            {
-               areColliding = doCapsuleCylinderCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
-                     (CylinderShapeDescription<?>) descriptionOne, result);
-            }
-
-            else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
-            {
-               areColliding = doCylinderPolytopeCollisionDetection(objectTwo, (CylinderShapeDescription<?>) descriptionTwo, objectOne,
-                     (PolytopeShapeDescription<?>) descriptionOne, result);
-            }
-            else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
-            {
-               areColliding = doCylinderPolytopeCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
-                     (PolytopeShapeDescription<?>) descriptionTwo, result);
-            }
+               if (!canCollide(objectOne, objectTwo))
+               {
+                  continue;
+               }
 
-            else if ((descriptionOne instanceof BoxShapeDescription) && (descriptionTwo instanceof BoxShapeDescription))
-            {
-               areColliding = doBoxBoxCollisionDetection(objectOne, (BoxShapeDescription<?>) descriptionOne, objectTwo, (BoxShapeDescription<?>) descriptionTwo,
-                     result);
-            }
+               objectOne.getBoundingBox(boundingBoxOne);
+               objectTwo.getBoundingBox(boundingBoxTwo);
 
-            if (areColliding)
-            {
-               numberOfCollisions++;
+               boundingBoxChecks++;
+               if (!boundingBoxOne.intersectsInclusive(boundingBoxTwo))
+               {
+                  continue;
+               }
+            
+               collisionChecks++;
+               boolean areColliding = detectCollision(objectOne, objectTwo, result);
 
-               if (useSimpleSpeedupMethod) haveCollided[i][j] = true;
-               //               ArrayList<CollisionShape> arrayList = collidingPairs.get(objectOne);
-               //               if (arrayList == null)
-               //               {
-               //                  arrayList = new ArrayList<>();
-               //                  collidingPairs.put(objectOne, arrayList);
-               //               }
-               //
-               //               if (!arrayList.contains(objectTwo))
-               //               {
-               //                  arrayList.add(objectTwo);
-               //               }
+               if (areColliding)
+               {
+                  numberOfCollisions++;
+
+                  if (useSimpleSpeedupMethod) haveCollided[i][j] = true;
+                  //               ArrayList<CollisionShape> arrayList = collidingPairs.get(objectOne);
+                  //               if (arrayList == null)
+                  //               {
+                  //                  arrayList = new ArrayList<>();
+                  //                  collidingPairs.put(objectOne, arrayList);
+                  //               }
+                  //
+                  //               if (!arrayList.contains(objectTwo))
+                  //               {
+                  //                  arrayList.add(objectTwo);
+                  //               }
+               }
             }
          }
       }
@@ -242,6 +209,120 @@ public class SimpleCollisionDetector implements ScsCollisionDetector
       }
    }
 
+   private boolean canCollide(CollisionShape objectOne, CollisionShape objectTwo)
+   {
+      return ((objectOne.getCollisionGroup() & objectTwo.getCollisionMask()) != 0x00) && ((objectTwo.getCollisionGroup() & objectOne.getCollisionMask()) != 0x00);
+   }
+
+   /**
+    * Narrow phase collision detection between two shapes
+    */
+   private boolean detectCollision(CollisionShape objectOne, CollisionShape objectTwo, CollisionDetectionResult result)
+   {
+      CollisionShapeDescription<?> descriptionOne = objectOne.getTransformedCollisionShapeDescription();
+      CollisionShapeDescription<?> descriptionTwo = objectTwo.getTransformedCollisionShapeDescription();
+
+      boolean areColliding = false;
+
+      //TODO: Make this shorter and more efficient...
+      //TODO: Add Plane
+      if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
+      {
+         areColliding = doSphereSphereCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
+               (SphereShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
+      {
+         areColliding = doCapsuleCapsuleCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+               (CapsuleShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
+      {
+         areColliding = doPolytopePolytopeCollisionDetection(objectOne, (PolytopeShapeDescription<?>) descriptionOne, objectTwo,
+               (PolytopeShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
+      {
+         areColliding = doCylinderCylinderCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
+               (CylinderShapeDescription<?>) descriptionTwo, result);
+      }
+
+
+      else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
+      {
+         areColliding = doCapsuleSphereCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
+               (SphereShapeDescription<?>) descriptionOne, result);
+      }
+      else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
+      {
+         areColliding = doCapsuleSphereCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+               (SphereShapeDescription<?>) descriptionTwo, result);
+      }
+
+      else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
+      {
+         areColliding = doSpherePolytopeCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
+               (PolytopeShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
+      {
+         areColliding = doSpherePolytopeCollisionDetection(objectTwo, (SphereShapeDescription<?>) descriptionTwo, objectOne,
+               (PolytopeShapeDescription<?>) descriptionOne, result);
+      }
+
+      else if ((descriptionOne instanceof SphereShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
+      {
+         areColliding = doSphereCylinderCollisionDetection(objectOne, (SphereShapeDescription<?>) descriptionOne, objectTwo,
+               (CylinderShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof SphereShapeDescription))
+      {
+         areColliding = doSphereCylinderCollisionDetection(objectTwo, (SphereShapeDescription<?>) descriptionTwo, objectOne,
+               (CylinderShapeDescription<?>) descriptionOne, result);
+      }
+
+
+      else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
+      {
+         areColliding = doCapsulePolytopeCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+               (PolytopeShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
+      {
+         areColliding = doCapsulePolytopeCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
+               (PolytopeShapeDescription<?>) descriptionOne, result);
+      }
+      else if ((descriptionOne instanceof CapsuleShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
+      {
+         areColliding = doCapsuleCylinderCollisionDetection(objectOne, (CapsuleShapeDescription<?>) descriptionOne, objectTwo,
+               (CylinderShapeDescription<?>) descriptionTwo, result);
+      }
+      else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof CapsuleShapeDescription))
+      {
+         areColliding = doCapsuleCylinderCollisionDetection(objectTwo, (CapsuleShapeDescription<?>) descriptionTwo, objectOne,
+               (CylinderShapeDescription<?>) descriptionOne, result);
+      }
+
+      else if ((descriptionOne instanceof PolytopeShapeDescription) && (descriptionTwo instanceof CylinderShapeDescription))
+      {
+         areColliding = doCylinderPolytopeCollisionDetection(objectTwo, (CylinderShapeDescription<?>) descriptionTwo, objectOne,
+               (PolytopeShapeDescription<?>) descriptionOne, result);
+      }
+      else if ((descriptionOne instanceof CylinderShapeDescription) && (descriptionTwo instanceof PolytopeShapeDescription))
+      {
+         areColliding = doCylinderPolytopeCollisionDetection(objectOne, (CylinderShapeDescription<?>) descriptionOne, objectTwo,
+               (PolytopeShapeDescription<?>) descriptionTwo, result);
+      }
+
+      else if ((descriptionOne instanceof BoxShapeDescription) && (descriptionTwo instanceof BoxShapeDescription))
+      {
+         areColliding = doBoxBoxCollisionDetection(objectOne, (BoxShapeDescription<?>) descriptionOne, objectTwo, (BoxShapeDescription<?>) descriptionTwo,
+               result);
+      }
+
+      return areColliding;
+   }
+
    public ArrayList<CollisionShape> getCollisionObjects()
    {
       return collisionObjects;
@@ -1,6 +1,8 @@
 package us.ihmc.simulationconstructionset.util.ground;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import us.ihmc.euclid.geometry.BoundingBox3D;
 import us.ihmc.euclid.geometry.Box3D;
@@ -11,18 +13,24 @@ import us.ihmc.graphicsDescription.Graphics3DObject;
 import us.ihmc.graphicsDescription.HeightMap;
 import us.ihmc.graphicsDescription.appearance.AppearanceDefinition;
 import us.ihmc.jMonkeyEngineToolkit.HeightMapWithNormals;
+import us.ihmc.simulationconstructionset.util.ground.TerrainObject3DBoundingVolumeHierarchy.CandidateBuffer;
 
 public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNormals
 {
    private BoundingBox3D boundingBox = null;
 
-   private ArrayList<TerrainObject3D> terrainObjects = new ArrayList<TerrainObject3D>();
+   private final ArrayList<TerrainObject3D> terrainObjects = new ArrayList<TerrainObject3D>();
+   private final List<TerrainObject3D> unmodifiableTerrainObjects = Collections.unmodifiableList(terrainObjects);
+   /**
+    * Cleared every time a terrain object is added and built once by the first query that follows,
+    * such that the queries, which can come from several threads, only read it.
+    */
+   private volatile TerrainObject3DBoundingVolumeHierarchy boundingVolumeHierarchy = null;
+   private final ThreadLocal<TerrainQuery> terrainQueries = ThreadLocal.withInitial(TerrainQuery::new);
    private Graphics3DObject linkGraphics;
 
    private final String name;
 
-   private final Point3D tempPointToCheck = new Point3D();
-
    public CombinedTerrainObject3D(String name)
    {
       linkGraphics = new Graphics3DObject();
@@ -125,9 +133,34 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
       addTerrainObject(box);
    }
 
+   private TerrainObject3DBoundingVolumeHierarchy getBoundingVolumeHierarchy()
+   {
+      TerrainObject3DBoundingVolumeHierarchy hierarchy = boundingVolumeHierarchy;
+
+      if (hierarchy == null)
+      {
+         synchronized (terrainObjects)
+         {
+            hierarchy = boundingVolumeHierarchy;
+
+            if (hierarchy == null)
+            {
+               hierarchy = new TerrainObject3DBoundingVolumeHierarchy(terrainObjects);
+               boundingVolumeHierarchy = hierarchy;
+            }
+         }
+      }
+
+      return hierarchy;
+   }
+
    public void addTerrainObject(TerrainObject3D object)
    {
-      terrainObjects.add(object);
+      synchronized (terrainObjects)
+      {
+         terrainObjects.add(object);
+         boundingVolumeHierarchy = null;
+      }
       linkGraphics.combine(object.getLinkGraphics());
 
       if (boundingBox == null)
@@ -145,9 +178,12 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
       this.linkGraphics.combine(linkGraphics);
    }
 
-   public ArrayList<TerrainObject3D> getTerrainObjects()
+   /**
+    * @return a read-only view of the terrain objects, use {@link #addTerrainObject(TerrainObject3D)} to add one.
+    */
+   public List<TerrainObject3D> getTerrainObjects()
    {
-      return terrainObjects;
+      return unmodifiableTerrainObjects;
    }
 
    @Override
@@ -156,24 +192,28 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
       return this.linkGraphics;
    }
 
-   private final Point3D localIntersection = new Point3D();
-   private final Vector3D localNormal = new Vector3D();
-
    @Override
    public boolean checkIfInside(double x, double y, double z, Point3D intersectionToPack, Vector3D normalToPack)
    {
       double smallestDistance = Double.MAX_VALUE;
       boolean isInside = false;
 
+      TerrainQuery query = terrainQueries.get();
+      Point3D tempPointToCheck = query.pointToCheck;
+      Point3D localIntersection = query.localIntersection;
+      Vector3D localNormal = query.localNormal;
+      CandidateBuffer candidates = query.candidates;
       tempPointToCheck.set(x, y, z);
 
       // Pre-set some values, in case no object is close.
       intersectionToPack.set(x, y, 0.0);
       normalToPack.set(0.0, 0.0, 1.0);
 
-      for (int i = 0; i < terrainObjects.size(); i++)
+      int numberOfCandidates = getBoundingVolumeHierarchy().findCandidates(x, y, candidates);
+
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         TerrainObject3D terrainObject = terrainObjects.get(i);
+         TerrainObject3D terrainObject = terrainObjects.get(candidates.getCandidate(i));
          if (terrainObject.isClose(x, y, z))
          {
             boolean localIsInside = terrainObject.checkIfInside(x, y, z, localIntersection, localNormal);
@@ -188,9 +228,6 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
          }
       }
 
-      // Reset pointToCheck for rewindability tests
-      tempPointToCheck.set(0.0, 0.0, 0.0);
-
       return isInside;
    }
 
@@ -278,9 +315,12 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
    {
       double heightAt = Double.NEGATIVE_INFINITY;
 
-      for (int i = 0; i < terrainObjects.size(); i++)
+      CandidateBuffer candidates = terrainQueries.get().candidates;
+      int numberOfCandidates = getBoundingVolumeHierarchy().findCandidates(x, y, candidates);
+
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         TerrainObject3D terrainObject = terrainObjects.get(i);
+         TerrainObject3D terrainObject = terrainObjects.get(candidates.getCandidate(i));
 
          if (terrainObject.isClose(x, y, z))
          {
@@ -304,9 +344,12 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
    {
       double heightAt = Double.NEGATIVE_INFINITY;
 
-      for (int i = 0; i < terrainObjects.size(); i++)
+      CandidateBuffer candidates = terrainQueries.get().candidates;
+      int numberOfCandidates = getBoundingVolumeHierarchy().findCandidates(x, y, candidates);
+
+      for (int i = 0; i < numberOfCandidates; i++)
       {
-         TerrainObject3D terrainObject = terrainObjects.get(i);
+         TerrainObject3D terrainObject = terrainObjects.get(candidates.getCandidate(i));
 
          if (terrainObject.isClose(x, y, z))
          {
@@ -345,4 +388,15 @@ public class CombinedTerrainObject3D implements TerrainObject3D, HeightMapWithNo
       return boundingBox.getMaxY();
    }
 
+   /**
+    * Scratch space of the queries. The terrain objects are only asked about the points that are
+    * inside their bounding box in XY, which is a superset of where they are close.
+    */
+   private static class TerrainQuery
+   {
+      private final CandidateBuffer candidates = new CandidateBuffer();
+      private final Point3D pointToCheck = new Point3D();
+      private final Point3D localIntersection = new Point3D();
+      private final Vector3D localNormal = new Vector3D();
+   }
 }
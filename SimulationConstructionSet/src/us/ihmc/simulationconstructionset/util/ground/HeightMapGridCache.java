@@ -0,0 +1,502 @@
+package us.ihmc.simulationconstructionset.util.ground;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.jMonkeyEngineToolkit.GroundProfile3D;
+import us.ihmc.jMonkeyEngineToolkit.HeightMapWithNormals;
+
+/**
+ * Caches the height and normal of a static ground profile, such as a
+ * {@link CombinedTerrainObject3D}, on a regular grid so ground contact queries cost the same
+ * whatever the number of terrain objects.
+ *
+ * The surface at each vertex of the grid is the first one found going down from the top of the
+ * terrain, and the height and normal are interpolated bilinearly in each cell. When the grid is
+ * built, every cell is checked against the exact profile at a few points and heights, from one
+ * resolution below the surface to the top of the terrain for the contacts and to one resolution
+ * above the surface for the heights. The cells where the interpolation is off, typically at the
+ * edges of objects, under overhangs and outside of the terrain, and the queries outside of those
+ * heights are answered by the exact profile instead. Features smaller than the resolution can be
+ * missed by the checks.
+ *
+ * The grid can be stored in a memory-mapped file, which is reused by the next simulation with the
+ * same grid. The file has to be deleted when the terrain changes.
+ */
+public class HeightMapGridCache implements GroundProfile3D, HeightMapWithNormals
+{
+   private static final long FILE_MAGIC_NUMBER = 0x484D474341434845L;
+   private static final int HEADER_SIZE_IN_BYTES = 8 + 4 * 8 + 2 * 4;
+   private static final int FLOATS_PER_VERTEX = 4;
+
+   private static final double HEIGHT_TOLERANCE = 1.0e-3;
+   private static final double MINIMUM_NORMAL_DOT_PRODUCT = Math.cos(Math.toRadians(2.0));
+   private static final int CHECKS_PER_CELL_EDGE = 2;
+
+   private static final byte CONTACT_IS_CACHED = 1;
+   private static final byte HEIGHT_IS_CACHED = 2;
+
+   private final GroundProfile3D exactProfile;
+   private final HeightMapWithNormals exactHeightMap;
+
+   private final double xMin, yMin;
+   private final double resolution;
+   private final double validDepth;
+   private final int numberOfCellsX, numberOfCellsY;
+
+   /** Height and normal of each vertex, row by row. */
+   private final FloatBuffer vertexData;
+   /** Tells for each cell which queries are answered by the grid. */
+   private final ByteBuffer cellFlags;
+
+   private final Vector3D tempNormal = new Vector3D();
+   private final Vector3D tempInterpolatedNormal = new Vector3D();
+   private final Point3D tempIntersection = new Point3D();
+
+   /**
+    * Builds the grid in memory.
+    *
+    * @param exactProfile the static terrain, it has to provide a height map.
+    * @param resolution size of the cells of the grid.
+    */
+   public HeightMapGridCache(GroundProfile3D exactProfile, double resolution)
+   {
+      this(exactProfile, resolution, null);
+   }
+
+   /**
+    * @param exactProfile the static terrain, it has to provide a height map.
+    * @param resolution size of the cells of the grid. Queries deeper than the resolution below the
+    *           terrain are answered by the exact profile.
+    * @param cacheFile file the grid is memory-mapped from. If it holds a grid with the same bounds
+    *           and resolution, it is used as is, otherwise the grid is built into it. The grid is
+    *           built in memory if {@code null}.
+    */
+   public HeightMapGridCache(GroundProfile3D exactProfile, double resolution, File cacheFile)
+   {
+      this.exactProfile = exactProfile;
+      exactHeightMap = exactProfile.getHeightMapIfAvailable();
+      if (exactHeightMap == null)
+         throw new RuntimeException("The ground profile has to provide a height map to be cached.");
+
+      BoundingBox3D boundingBox = exactProfile.getBoundingBox();
+      this.resolution = resolution;
+      validDepth = resolution;
+      xMin = boundingBox.getMinX();
+      yMin = boundingBox.getMinY();
+      numberOfCellsX = Math.max(1, (int) Math.ceil((boundingBox.getMaxX() - xMin) / resolution));
+      numberOfCellsY = Math.max(1, (int) Math.ceil((boundingBox.getMaxY() - yMin) / resolution));
+
+      long numberOfVertexBytes = 4L * FLOATS_PER_VERTEX * getNumberOfVertices();
+      long numberOfBytes = HEADER_SIZE_IN_BYTES + numberOfVertexBytes + getNumberOfCells();
+      if (numberOfBytes > Integer.MAX_VALUE)
+         throw new RuntimeException("The grid is too large, " + numberOfBytes + " bytes. Use a coarser resolution.");
+
+      ByteBuffer buffer;
+      boolean isBuilt = false;
+
+      if (cacheFile == null)
+      {
+         buffer = ByteBuffer.allocate((int) numberOfBytes);
+      }
+      else
+      {
+         try
+         {
+            isBuilt = cacheFile.length() == numberOfBytes && hasSameGrid(cacheFile);
+            buffer = mapFile(cacheFile, numberOfBytes, isBuilt);
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException("Could not map the grid to " + cacheFile, e);
+         }
+      }
+
+      buffer.order(ByteOrder.nativeOrder());
+      buffer.position(HEADER_SIZE_IN_BYTES);
+      vertexData = buffer.slice().order(ByteOrder.nativeOrder()).asFloatBuffer();
+      buffer.position((int) (HEADER_SIZE_IN_BYTES + numberOfVertexBytes));
+      cellFlags = buffer.slice();
+
+      if (!isBuilt)
+      {
+         buffer.putLong(0, 0L);
+         buildGrid();
+         // The header is written last so an interrupted build is not reused
+         writeHeader(buffer);
+         if (buffer instanceof MappedByteBuffer)
+            ((MappedByteBuffer) buffer).force();
+      }
+   }
+
+   private static MappedByteBuffer mapFile(File cacheFile, long numberOfBytes, boolean readOnly) throws IOException
+   {
+      try (RandomAccessFile file = new RandomAccessFile(cacheFile, readOnly ? "r" : "rw"))
+      {
+         if (!readOnly)
+            file.setLength(numberOfBytes);
+         // The mapping stays valid after the channel is closed
+         return file.getChannel().map(readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE, 0, numberOfBytes);
+      }
+   }
+
+   private boolean hasSameGrid(File cacheFile) throws IOException
+   {
+      try (RandomAccessFile file = new RandomAccessFile(cacheFile, "r"))
+      {
+         ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE_IN_BYTES).order(ByteOrder.nativeOrder());
+         FileChannel channel = file.getChannel();
+         while (header.hasRemaining() && channel.read(header) >= 0)
+            ;
+         header.flip();
+         if (header.remaining() < HEADER_SIZE_IN_BYTES || header.getLong() != FILE_MAGIC_NUMBER)
+            return false;
+
+         return header.getDouble() == xMin && header.getDouble() == yMin && header.getDouble() == resolution && header.getDouble() == validDepth
+               && header.getInt() == numberOfCellsX && header.getInt() == numberOfCellsY;
+      }
+   }
+
+   private void writeHeader(ByteBuffer buffer)
+   {
+      buffer.position(0);
+      buffer.putLong(FILE_MAGIC_NUMBER);
+      buffer.putDouble(xMin);
+      buffer.putDouble(yMin);
+      buffer.putDouble(resolution);
+      buffer.putDouble(validDepth);
+      buffer.putInt(numberOfCellsX);
+      buffer.putInt(numberOfCellsY);
+   }
+
+   private void buildGrid()
+   {
+      BoundingBox3D boundingBox = exactProfile.getBoundingBox();
+
+      for (int yIndex = 0; yIndex <= numberOfCellsY; yIndex++)
+      {
+         for (int xIndex = 0; xIndex <= numberOfCellsX; xIndex++)
+         {
+            double x = xMin + xIndex * resolution;
+            double y = yMin + yIndex * resolution;
+            double height = Double.NaN;
+            tempNormal.set(0.0, 0.0, 1.0);
+
+            // Objects can be close only for some heights, so the surface is the first one found going down
+            for (double z = boundingBox.getMaxZ(); z > boundingBox.getMinZ() - validDepth; z -= validDepth)
+            {
+               if (exactProfile.checkIfInside(x, y, z, tempIntersection, tempNormal))
+               {
+                  height = exactHeightMap.heightAndNormalAt(x, y, z, tempNormal);
+                  break;
+               }
+            }
+
+            int offset = FLOATS_PER_VERTEX * getVertexIndex(xIndex, yIndex);
+            vertexData.put(offset, (float) height);
+            vertexData.put(offset + 1, (float) tempNormal.getX());
+            vertexData.put(offset + 2, (float) tempNormal.getY());
+            vertexData.put(offset + 3, (float) tempNormal.getZ());
+         }
+      }
+
+      for (int yIndex = 0; yIndex < numberOfCellsY; yIndex++)
+      {
+         for (int xIndex = 0; xIndex < numberOfCellsX; xIndex++)
+         {
+            int cell = xIndex + yIndex * numberOfCellsX;
+            byte flags = 0;
+            if (isContactInterpolationValid(xIndex, yIndex))
+               flags |= CONTACT_IS_CACHED;
+            if (isHeightInterpolationValid(xIndex, yIndex))
+               flags |= HEIGHT_IS_CACHED;
+            cellFlags.put(cell, flags);
+         }
+      }
+   }
+
+   /**
+    * Checks that the exact profile finds the interpolated surface below it and nothing above it.
+    */
+   private boolean isContactInterpolationValid(int xIndex, int yIndex)
+   {
+      int cell = xIndex + yIndex * numberOfCellsX;
+      double lowestValidZ = getLowestValidZ(cell);
+      if (!Double.isFinite(lowestValidZ))
+         return false;
+      double zTop = exactProfile.getBoundingBox().getMaxZ();
+
+      for (int i = 0; i <= CHECKS_PER_CELL_EDGE; i++)
+      {
+         for (int j = 0; j <= CHECKS_PER_CELL_EDGE; j++)
+         {
+            double xFraction = i / (double) CHECKS_PER_CELL_EDGE;
+            double yFraction = j / (double) CHECKS_PER_CELL_EDGE;
+            double x = xMin + (xIndex + xFraction) * resolution;
+            double y = yMin + (yIndex + yFraction) * resolution;
+            double height = interpolate(cell, xFraction, yFraction, tempInterpolatedNormal);
+
+            double[] zBelow = {lowestValidZ, 0.5 * (lowestValidZ + height), height - 2.0 * HEIGHT_TOLERANCE};
+            for (double z : zBelow)
+            {
+               if (!exactProfile.checkIfInside(x, y, z, tempIntersection, tempNormal))
+                  return false;
+               if (Math.abs(tempIntersection.getX() - x) > HEIGHT_TOLERANCE || Math.abs(tempIntersection.getY() - y) > HEIGHT_TOLERANCE)
+                  return false;
+               if (!isWithinTolerance(height, tempInterpolatedNormal, tempIntersection.getZ(), tempNormal))
+                  return false;
+            }
+
+            double[] zAbove = {height + 2.0 * HEIGHT_TOLERANCE, height + validDepth, zTop};
+            for (double z : zAbove)
+            {
+               if (z <= zTop && exactProfile.checkIfInside(x, y, z, tempIntersection, tempNormal))
+                  return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * Checks that the exact height and normal match the interpolated ones from the lowest to the
+    * highest valid heights of the cell.
+    */
+   private boolean isHeightInterpolationValid(int xIndex, int yIndex)
+   {
+      int cell = xIndex + yIndex * numberOfCellsX;
+      double lowestValidZ = getLowestValidZ(cell);
+      double highestValidZ = getHighestValidZ(cell);
+      if (!Double.isFinite(lowestValidZ) || !Double.isFinite(highestValidZ))
+         return false;
+
+      for (int i = 0; i <= CHECKS_PER_CELL_EDGE; i++)
+      {
+         for (int j = 0; j <= CHECKS_PER_CELL_EDGE; j++)
+         {
+            double xFraction = i / (double) CHECKS_PER_CELL_EDGE;
+            double yFraction = j / (double) CHECKS_PER_CELL_EDGE;
+            double x = xMin + (xIndex + xFraction) * resolution;
+            double y = yMin + (yIndex + yFraction) * resolution;
+            double height = interpolate(cell, xFraction, yFraction, tempInterpolatedNormal);
+
+            double[] zChecks = {lowestValidZ, height, highestValidZ};
+            for (double z : zChecks)
+            {
+               if (!isWithinTolerance(height, tempInterpolatedNormal, exactHeightMap.heightAndNormalAt(x, y, z, tempNormal), tempNormal))
+                  return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   private static boolean isWithinTolerance(double height, Vector3D normal, double exactHeight, Vector3D exactNormal)
+   {
+      return Math.abs(height - exactHeight) <= HEIGHT_TOLERANCE && normal.dot(exactNormal) >= MINIMUM_NORMAL_DOT_PRODUCT;
+   }
+
+   @Override
+   public double heightAt(double x, double y, double z)
+   {
+      int cell = getCellIndex(x, y);
+      if (!isHeightCached(cell, z))
+         return exactHeightMap.heightAt(x, y, z);
+
+      return interpolate(cell, getXFraction(x), getYFraction(y), null);
+   }
+
+   @Override
+   public double heightAndNormalAt(double x, double y, double z, Vector3D normalToPack)
+   {
+      int cell = getCellIndex(x, y);
+      if (!isHeightCached(cell, z))
+         return exactHeightMap.heightAndNormalAt(x, y, z, normalToPack);
+
+      return interpolate(cell, getXFraction(x), getYFraction(y), normalToPack);
+   }
+
+   @Override
+   public boolean checkIfInside(double x, double y, double z, Point3D intersectionToPack, Vector3D normalToPack)
+   {
+      int cell = getCellIndex(x, y);
+      if (!isContactCached(cell, z))
+         return exactProfile.checkIfInside(x, y, z, intersectionToPack, normalToPack);
+
+      double height = interpolate(cell, getXFraction(x), getYFraction(y), normalToPack);
+      intersectionToPack.set(x, y, height);
+      return z < height;
+   }
+
+   @Override
+   public boolean isClose(double x, double y, double z)
+   {
+      return exactProfile.isClose(x, y, z);
+   }
+
+   @Override
+   public BoundingBox3D getBoundingBox()
+   {
+      return exactProfile.getBoundingBox();
+   }
+
+   @Override
+   public HeightMapWithNormals getHeightMapIfAvailable()
+   {
+      return this;
+   }
+
+   public double getResolution()
+   {
+      return resolution;
+   }
+
+   public int getNumberOfCells()
+   {
+      return numberOfCellsX * numberOfCellsY;
+   }
+
+   /**
+    * @return the number of cells where contacts are answered by the grid, the others are answered by
+    *         the exact profile.
+    */
+   public int getNumberOfCellsWithCachedContacts()
+   {
+      return countCellsWithFlag(CONTACT_IS_CACHED);
+   }
+
+   /**
+    * @return the number of cells where heights are answered by the grid, the others are answered by
+    *         the exact profile.
+    */
+   public int getNumberOfCellsWithCachedHeights()
+   {
+      return countCellsWithFlag(HEIGHT_IS_CACHED);
+   }
+
+   private int countCellsWithFlag(byte flag)
+   {
+      int numberOfCells = 0;
+      for (int cell = 0; cell < getNumberOfCells(); cell++)
+      {
+         if ((cellFlags.get(cell) & flag) != 0)
+            numberOfCells++;
+      }
+      return numberOfCells;
+   }
+
+   /**
+    * @return the index of the cell containing the point, -1 if it is outside of the grid.
+    */
+   private int getCellIndex(double x, double y)
+   {
+      double xIndex = (x - xMin) / resolution;
+      double yIndex = (y - yMin) / resolution;
+      if (!(xIndex >= 0.0 && xIndex < numberOfCellsX && yIndex >= 0.0 && yIndex < numberOfCellsY))
+         return -1;
+
+      return (int) xIndex + (int) yIndex * numberOfCellsX;
+   }
+
+   private boolean isContactCached(int cell, double z)
+   {
+      if (cell < 0 || (cellFlags.get(cell) & CONTACT_IS_CACHED) == 0)
+         return false;
+      return z >= getLowestValidZ(cell) && z <= exactProfile.getBoundingBox().getMaxZ();
+   }
+
+   private boolean isHeightCached(int cell, double z)
+   {
+      if (cell < 0 || (cellFlags.get(cell) & HEIGHT_IS_CACHED) == 0)
+         return false;
+      return z >= getLowestValidZ(cell) && z <= getHighestValidZ(cell);
+   }
+
+   private double getXFraction(double x)
+   {
+      double xIndex = (x - xMin) / resolution;
+      return xIndex - (int) xIndex;
+   }
+
+   private double getYFraction(double y)
+   {
+      double yIndex = (y - yMin) / resolution;
+      return yIndex - (int) yIndex;
+   }
+
+   private double getLowestValidZ(int cell)
+   {
+      int vertex = getVertexIndex(cell % numberOfCellsX, cell / numberOfCellsX);
+      double lowestHeight = Math.min(Math.min(getHeight(vertex), getHeight(vertex + 1)),
+                                     Math.min(getHeight(vertex + numberOfCellsX + 1), getHeight(vertex + numberOfCellsX + 2)));
+      return lowestHeight - validDepth;
+   }
+
+   private double getHighestValidZ(int cell)
+   {
+      int vertex = getVertexIndex(cell % numberOfCellsX, cell / numberOfCellsX);
+      double highestHeight = Math.max(Math.max(getHeight(vertex), getHeight(vertex + 1)),
+                                      Math.max(getHeight(vertex + numberOfCellsX + 1), getHeight(vertex + numberOfCellsX + 2)));
+      return highestHeight + validDepth;
+   }
+
+   private double getHeight(int vertex)
+   {
+      return vertexData.get(FLOATS_PER_VERTEX * vertex);
+   }
+
+   /**
+    * Interpolates the height and, if {@code normalToPack} is not {@code null}, the normal of the
+    * cell at the given fractions of its size from its lower corner.
+    */
+   private double interpolate(int cell, double xFraction, double yFraction, Vector3D normalToPack)
+   {
+      int vertex00 = getVertexIndex(cell % numberOfCellsX, cell / numberOfCellsX);
+      int vertex10 = vertex00 + 1;
+      int vertex01 = vertex00 + numberOfCellsX + 1;
+      int vertex11 = vertex01 + 1;
+
+      double weight00 = (1.0 - xFraction) * (1.0 - yFraction);
+      double weight10 = xFraction * (1.0 - yFraction);
+      double weight01 = (1.0 - xFraction) * yFraction;
+      double weight11 = xFraction * yFraction;
+
+      if (normalToPack != null)
+      {
+         for (int axis = 0; axis < 3; axis++)
+         {
+            int offset = axis + 1;
+            double component = weight00 * vertexData.get(FLOATS_PER_VERTEX * vertex00 + offset)
+                  + weight10 * vertexData.get(FLOATS_PER_VERTEX * vertex10 + offset)
+                  + weight01 * vertexData.get(FLOATS_PER_VERTEX * vertex01 + offset)
+                  + weight11 * vertexData.get(FLOATS_PER_VERTEX * vertex11 + offset);
+            normalToPack.setElement(axis, component);
+         }
+         normalToPack.normalize();
+      }
+
+      return weight00 * getHeight(vertex00) + weight10 * getHeight(vertex10) + weight01 * getHeight(vertex01) + weight11 * getHeight(vertex11);
+   }
+
+   private int getVertexIndex(int xIndex, int yIndex)
+   {
+      return xIndex + yIndex * (numberOfCellsX + 1);
+   }
+
+   private long getNumberOfVertices()
+   {
+      return (long) (numberOfCellsX + 1) * (numberOfCellsY + 1);
+   }
+}
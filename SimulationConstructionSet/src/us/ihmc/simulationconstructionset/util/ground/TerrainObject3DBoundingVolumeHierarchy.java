@@ -0,0 +1,286 @@
+package us.ihmc.simulationconstructionset.util.ground;
+
+import java.util.List;
+
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+/**
+ * Bounding volume hierarchy over the XY extent of the bounding boxes of a list of terrain objects.
+ * It is used to find the objects that may be close to a point without asking every one of them.
+ * An object is assumed to never be close to a point outside of its bounding box in XY, objects
+ * without a bounding box are candidates for every point.
+ * <p>
+ * The hierarchy is immutable once built. The queries write into a {@link CandidateBuffer} provided
+ * by the caller, such that several threads can query the same hierarchy with one buffer each.
+ * </p>
+ */
+class TerrainObject3DBoundingVolumeHierarchy
+{
+   private static final int MAXIMUM_OBJECTS_PER_LEAF = 4;
+
+   private final int numberOfObjects;
+
+   private final double[] objectBounds;
+   private final int[] objectIndices;
+   private final int[] unboundedObjectIndices;
+
+   /** minX, minY, maxX, maxY of each node */
+   private final double[] nodeBounds;
+   /** Index of the first object in {@link #objectIndices} for a leaf, of the right child otherwise. The left child is always the next node. */
+   private final int[] nodeStart;
+   /** Number of objects for a leaf, zero otherwise. */
+   private final int[] nodeSize;
+   private final int maximumNumberOfNodes;
+   private int numberOfNodes = 0;
+
+   public TerrainObject3DBoundingVolumeHierarchy(List<? extends TerrainObject3D> terrainObjects)
+   {
+      numberOfObjects = terrainObjects.size();
+      objectBounds = new double[4 * numberOfObjects];
+
+      int numberOfBoundedObjects = 0;
+      int numberOfUnboundedObjects = 0;
+      int[] boundedObjectIndices = new int[numberOfObjects];
+      int[] unboundedObjectIndices = new int[numberOfObjects];
+
+      for (int i = 0; i < numberOfObjects; i++)
+      {
+         BoundingBox3D boundingBox = terrainObjects.get(i).getBoundingBox();
+
+         if (boundingBox == null)
+         {
+            unboundedObjectIndices[numberOfUnboundedObjects++] = i;
+         }
+         else
+         {
+            objectBounds[4 * i] = boundingBox.getMinX();
+            objectBounds[4 * i + 1] = boundingBox.getMinY();
+            objectBounds[4 * i + 2] = boundingBox.getMaxX();
+            objectBounds[4 * i + 3] = boundingBox.getMaxY();
+            boundedObjectIndices[numberOfBoundedObjects++] = i;
+         }
+      }
+
+      objectIndices = new int[numberOfBoundedObjects];
+      System.arraycopy(boundedObjectIndices, 0, objectIndices, 0, numberOfBoundedObjects);
+      this.unboundedObjectIndices = new int[numberOfUnboundedObjects];
+      System.arraycopy(unboundedObjectIndices, 0, this.unboundedObjectIndices, 0, numberOfUnboundedObjects);
+
+      maximumNumberOfNodes = Math.max(1, 2 * numberOfBoundedObjects - 1);
+      nodeBounds = new double[4 * maximumNumberOfNodes];
+      nodeStart = new int[maximumNumberOfNodes];
+      nodeSize = new int[maximumNumberOfNodes];
+
+      if (numberOfBoundedObjects > 0)
+         buildNode(0, numberOfBoundedObjects);
+   }
+
+   public int getNumberOfObjects()
+   {
+      return numberOfObjects;
+   }
+
+   /**
+    * Finds the objects whose bounding box contains the given point in XY. They are sorted by their
+    * index in the list the hierarchy was built from, so they can be visited in the same order as
+    * the list.
+    *
+    * @param candidatesToPack the buffer in which the candidates are stored. Modified.
+    * @return the number of candidates found, see {@link CandidateBuffer#getCandidate(int)}.
+    */
+   public int findCandidates(double x, double y, CandidateBuffer candidatesToPack)
+   {
+      candidatesToPack.ensureCapacity(numberOfObjects, maximumNumberOfNodes);
+      int[] candidates = candidatesToPack.candidates;
+      int[] nodeStack = candidatesToPack.nodeStack;
+      int numberOfCandidates = 0;
+
+      for (int i = 0; i < unboundedObjectIndices.length; i++)
+         candidates[numberOfCandidates++] = unboundedObjectIndices[i];
+
+      if (numberOfNodes > 0)
+      {
+         int stackSize = 0;
+         nodeStack[stackSize++] = 0;
+
+         while (stackSize > 0)
+         {
+            int node = nodeStack[--stackSize];
+
+            if (isOutside(nodeBounds, node, x, y))
+               continue;
+
+            if (nodeSize[node] == 0)
+            {
+               nodeStack[stackSize++] = nodeStart[node];
+               nodeStack[stackSize++] = node + 1;
+               continue;
+            }
+
+            for (int i = nodeStart[node]; i < nodeStart[node] + nodeSize[node]; i++)
+            {
+               int objectIndex = objectIndices[i];
+               if (!isOutside(objectBounds, objectIndex, x, y))
+                  candidates[numberOfCandidates++] = objectIndex;
+            }
+         }
+      }
+
+      // Few objects overlap at any given point, an insertion sort is enough.
+      for (int i = 1; i < numberOfCandidates; i++)
+      {
+         int candidate = candidates[i];
+         int j = i - 1;
+         while (j >= 0 && candidates[j] > candidate)
+         {
+            candidates[j + 1] = candidates[j];
+            j--;
+         }
+         candidates[j + 1] = candidate;
+      }
+
+      candidatesToPack.numberOfCandidates = numberOfCandidates;
+      return numberOfCandidates;
+   }
+
+   public int getNumberOfNodes()
+   {
+      return numberOfNodes;
+   }
+
+   private int buildNode(int start, int end)
+   {
+      int node = numberOfNodes++;
+
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      double minCenterX = Double.POSITIVE_INFINITY;
+      double minCenterY = Double.POSITIVE_INFINITY;
+      double maxCenterX = Double.NEGATIVE_INFINITY;
+      double maxCenterY = Double.NEGATIVE_INFINITY;
+
+      for (int i = start; i < end; i++)
+      {
+         int objectIndex = objectIndices[i];
+         minX = Math.min(minX, objectBounds[4 * objectIndex]);
+         minY = Math.min(minY, objectBounds[4 * objectIndex + 1]);
+         maxX = Math.max(maxX, objectBounds[4 * objectIndex + 2]);
+         maxY = Math.max(maxY, objectBounds[4 * objectIndex + 3]);
+
+         double centerX = getCenter(objectIndex, 0);
+         double centerY = getCenter(objectIndex, 1);
+         minCenterX = Math.min(minCenterX, centerX);
+         minCenterY = Math.min(minCenterY, centerY);
+         maxCenterX = Math.max(maxCenterX, centerX);
+         maxCenterY = Math.max(maxCenterY, centerY);
+      }
+
+      nodeBounds[4 * node] = minX;
+      nodeBounds[4 * node + 1] = minY;
+      nodeBounds[4 * node + 2] = maxX;
+      nodeBounds[4 * node + 3] = maxY;
+
+      if (end - start <= MAXIMUM_OBJECTS_PER_LEAF)
+      {
+         nodeStart[node] = start;
+         nodeSize[node] = end - start;
+         return node;
+      }
+
+      // Split at the median of the object centers along the axis on which they are the most spread out
+      int axis = maxCenterX - minCenterX >= maxCenterY - minCenterY ? 0 : 1;
+      int middle = (start + end) / 2;
+      selectMedian(start, end, middle, axis);
+
+      buildNode(start, middle);
+      nodeStart[node] = buildNode(middle, end);
+      nodeSize[node] = 0;
+      return node;
+   }
+
+   /**
+    * Reorders the object indices in [start, end) so the object at k has its center in the right
+    * place along the axis, with smaller centers before and larger centers after it.
+    */
+   private void selectMedian(int start, int end, int k, int axis)
+   {
+      int low = start;
+      int high = end - 1;
+
+      while (low < high)
+      {
+         double pivot = getCenter(objectIndices[(low + high) >>> 1], axis);
+         int i = low;
+         int j = high;
+
+         while (i <= j)
+         {
+            while (getCenter(objectIndices[i], axis) < pivot)
+               i++;
+            while (getCenter(objectIndices[j], axis) > pivot)
+               j--;
+
+            if (i <= j)
+            {
+               int temp = objectIndices[i];
+               objectIndices[i] = objectIndices[j];
+               objectIndices[j] = temp;
+               i++;
+               j--;
+            }
+         }
+
+         if (k <= j)
+            high = j;
+         else if (k >= i)
+            low = i;
+         else
+            return;
+      }
+   }
+
+   private double getCenter(int objectIndex, int axis)
+   {
+      return 0.5 * (objectBounds[4 * objectIndex + axis] + objectBounds[4 * objectIndex + 2 + axis]);
+   }
+
+   /**
+    * Written as a test for being outside, so a point with NaN coordinates is never pruned, same as
+    * {@link BoundingBox3D#isXYInsideInclusive(double, double)}.
+    */
+   private static boolean isOutside(double[] bounds, int index, double x, double y)
+   {
+      return x < bounds[4 * index] || y < bounds[4 * index + 1] || x > bounds[4 * index + 2] || y > bounds[4 * index + 3];
+   }
+
+   /**
+    * Result and scratch space of {@link TerrainObject3DBoundingVolumeHierarchy#findCandidates(double, double, CandidateBuffer)}.
+    * A buffer is not to be shared between threads, it can be reused for different hierarchies.
+    */
+   static class CandidateBuffer
+   {
+      private int[] candidates = new int[0];
+      private int[] nodeStack = new int[0];
+      private int numberOfCandidates = 0;
+
+      private void ensureCapacity(int numberOfObjects, int numberOfNodes)
+      {
+         if (candidates.length < numberOfObjects)
+            candidates = new int[numberOfObjects];
+         if (nodeStack.length < numberOfNodes)
+            nodeStack = new int[numberOfNodes];
+      }
+
+      public int getNumberOfCandidates()
+      {
+         return numberOfCandidates;
+      }
+
+      public int getCandidate(int i)
+      {
+         return candidates[i];
+      }
+   }
+}
@@ -0,0 +1,140 @@
+package us.ihmc.simulationconstructionset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.robotics.Axis;
+import us.ihmc.robotics.robotController.RobotController;
+import us.ihmc.simulationconstructionset.synchronization.SimulationSynchronizer;
+import us.ihmc.yoVariables.registry.YoVariableRegistry;
+
+public class SimulatorTest
+{
+   private static final int NUMBER_OF_ROBOTS = 8;
+   private static final int NUMBER_OF_TICKS = 2000;
+   private static final double DT = 0.0001;
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testParallelRobotSteppingIsIdenticalToSerialStepping() throws UnreasonableAccelerationException
+   {
+      PinJoint[][] serialJoints = new PinJoint[NUMBER_OF_ROBOTS][];
+      PinJoint[][] parallelJoints = new PinJoint[NUMBER_OF_ROBOTS][];
+
+      Simulator serialSimulator = new Simulator(new SimulationSynchronizer(), createRobots(serialJoints), DT);
+      Simulator parallelSimulator = new Simulator(new SimulationSynchronizer(), createRobots(parallelJoints), DT);
+      parallelSimulator.setParallelRobotStepping(4);
+
+      assertFalse(serialSimulator.isParallelRobotStepping());
+      assertTrue(parallelSimulator.isParallelRobotStepping());
+
+      for (int tick = 0; tick < NUMBER_OF_TICKS; tick++)
+      {
+         serialSimulator.simulate();
+         parallelSimulator.simulate();
+      }
+
+      for (int robot = 0; robot < NUMBER_OF_ROBOTS; robot++)
+      {
+         for (int joint = 0; joint < serialJoints[robot].length; joint++)
+         {
+            PinJoint serialJoint = serialJoints[robot][joint];
+            PinJoint parallelJoint = parallelJoints[robot][joint];
+
+            // Bit identical
+            assertEquals(Double.doubleToLongBits(serialJoint.getQYoVariable().getDoubleValue()),
+                         Double.doubleToLongBits(parallelJoint.getQYoVariable().getDoubleValue()));
+            assertEquals(Double.doubleToLongBits(serialJoint.getQDYoVariable().getDoubleValue()),
+                         Double.doubleToLongBits(parallelJoint.getQDYoVariable().getDoubleValue()));
+         }
+      }
+
+      parallelSimulator.setParallelRobotStepping(1);
+      assertFalse(parallelSimulator.isParallelRobotStepping());
+   }
+
+   private static Robot[] createRobots(PinJoint[][] jointsToPack)
+   {
+      Random random = new Random(1776L);
+      Robot[] robots = new Robot[NUMBER_OF_ROBOTS];
+      for (int i = 0; i < NUMBER_OF_ROBOTS; i++)
+      {
+         Robot robot = new Robot("doublePendulum" + i);
+
+         PinJoint shoulder = new PinJoint("shoulder", new Vector3D(), robot, Axis.Y);
+         shoulder.setLink(createLink("upperArm", random));
+         robot.addRootJoint(shoulder);
+
+         PinJoint elbow = new PinJoint("elbow", new Vector3D(0.0, 0.0, -0.5), robot, Axis.Y);
+         elbow.setLink(createLink("lowerArm", random));
+         shoulder.addJoint(elbow);
+
+         shoulder.setInitialState(random.nextDouble(), 0.0);
+         elbow.setInitialState(random.nextDouble(), 0.0);
+
+         jointsToPack[i] = new PinJoint[] {shoulder, elbow};
+         robot.setController(new DampingController(jointsToPack[i]));
+         robots[i] = robot;
+      }
+      return robots;
+   }
+
+   private static Link createLink(String name, Random random)
+   {
+      Link link = new Link(name);
+      link.setMass(0.5 + random.nextDouble());
+      link.setComOffset(0.0, 0.0, -0.25);
+      link.setMomentOfInertia(0.01, 0.01, 0.01);
+      return link;
+   }
+
+   private static class DampingController implements RobotController
+   {
+      private final YoVariableRegistry registry = new YoVariableRegistry("DampingController");
+      private final PinJoint[] joints;
+
+      private DampingController(PinJoint[] joints)
+      {
+         this.joints = joints;
+      }
+
+      @Override
+      public void initialize()
+      {
+      }
+
+      @Override
+      public YoVariableRegistry getYoVariableRegistry()
+      {
+         return registry;
+      }
+
+      @Override
+      public String getName()
+      {
+         return getClass().getSimpleName();
+      }
+
+      @Override
+      public String getDescription()
+      {
+         return getName();
+      }
+
+      @Override
+      public void doControl()
+      {
+         for (PinJoint joint : joints)
+         {
+            joint.setTau(-0.1 * joint.getQDYoVariable().getDoubleValue());
+         }
+      }
+   }
+}
@@ -0,0 +1,99 @@
+package us.ihmc.simulationconstructionset.microbenchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import us.ihmc.commons.Conversions;
+import us.ihmc.euclid.transform.RigidBodyTransform;
+import us.ihmc.simulationconstructionset.physics.CollisionShape;
+import us.ihmc.simulationconstructionset.physics.CollisionShapeFactory;
+import us.ihmc.simulationconstructionset.physics.collision.CollisionDetectionResult;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.BroadPhaseCollisionDetector;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.SweepAndPruneBroadPhase;
+import us.ihmc.simulationconstructionset.physics.collision.broadPhase.UniformGridBroadPhase;
+import us.ihmc.simulationconstructionset.physics.collision.simple.SimpleCollisionDetector;
+
+/**
+ * Time per tick of SimpleCollisionDetector for a growing number of spheres, without broad phase, with sweep and prune
+ * and with a uniform grid. The spheres are spread at a constant density and jitter a little every tick. The motion is
+ * generated once per number of spheres, so every option is timed on the same sequence of shapes.
+ */
+public class BroadPhaseCollisionDetectionBenchmark
+{
+   private static final int[] NUMBER_OF_SHAPES = {50, 100, 200, 400, 800, 1600};
+   private static final int WARMUP_TICKS = 100;
+   private static final int TICKS = 200;
+   private static final double RADIUS = 0.1;
+
+   public static void main(String[] args)
+   {
+      System.out.println("shapes, none [ms/tick], sweep and prune [ms/tick], uniform grid [ms/tick], collisions");
+      for (int numberOfShapes : NUMBER_OF_SHAPES)
+      {
+         // Positions of all spheres for every tick
+         Random random = new Random(1776L);
+         double size = Math.cbrt(numberOfShapes) * 4.0 * RADIUS;
+         double[][] trajectories = new double[WARMUP_TICKS + TICKS][3 * numberOfShapes];
+         for (int i = 0; i < 3 * numberOfShapes; i++)
+         {
+            trajectories[0][i] = size * random.nextDouble();
+         }
+         for (int tick = 1; tick < trajectories.length; tick++)
+         {
+            for (int i = 0; i < 3 * numberOfShapes; i++)
+            {
+               trajectories[tick][i] = trajectories[tick - 1][i] + 0.005 * random.nextGaussian();
+            }
+         }
+
+         int[] collisions = new int[3];
+         double none = run(trajectories, null, collisions, 0);
+         double sweepAndPrune = run(trajectories, new SweepAndPruneBroadPhase(), collisions, 1);
+         double grid = run(trajectories, new UniformGridBroadPhase(4.0 * RADIUS), collisions, 2);
+         if (collisions[1] != collisions[0] || collisions[2] != collisions[0])
+         {
+            throw new RuntimeException("The broad phases found " + collisions[1] + " and " + collisions[2] + " collisions instead of " + collisions[0]);
+         }
+         System.out.println(numberOfShapes + ", " + none + ", " + sweepAndPrune + ", " + grid + ", " + collisions[0]);
+      }
+   }
+
+   private static double run(double[][] trajectories, BroadPhaseCollisionDetector broadPhase, int[] collisionsToPack, int index)
+   {
+      SimpleCollisionDetector detector = new SimpleCollisionDetector();
+      detector.setBroadPhase(broadPhase);
+      CollisionShapeFactory shapeFactory = detector.getShapeFactory();
+
+      int numberOfShapes = trajectories[0].length / 3;
+      ArrayList<CollisionShape> shapes = new ArrayList<>();
+      for (int i = 0; i < numberOfShapes; i++)
+      {
+         shapes.add(shapeFactory.addShape(shapeFactory.createSphere(RADIUS)));
+      }
+
+      RigidBodyTransform transform = new RigidBodyTransform();
+
+      CollisionDetectionResult result = new CollisionDetectionResult();
+      long time = 0;
+      for (int tick = 0; tick < WARMUP_TICKS + TICKS; tick++)
+      {
+         double[] positions = trajectories[tick];
+         for (int i = 0; i < numberOfShapes; i++)
+         {
+            transform.setTranslation(positions[3 * i], positions[3 * i + 1], positions[3 * i + 2]);
+            shapes.get(i).setTransformToWorld(transform);
+         }
+
+         result.clear();
+         long start = System.nanoTime();
+         detector.performCollisionDetection(result);
+         if (tick >= WARMUP_TICKS)
+         {
+            time += System.nanoTime() - start;
+         }
+      }
+
+      collisionsToPack[index] = result.getNumberOfCollisions();
+      return Conversions.nanosecondsToMilliseconds((double) time) / TICKS;
+   }
+}
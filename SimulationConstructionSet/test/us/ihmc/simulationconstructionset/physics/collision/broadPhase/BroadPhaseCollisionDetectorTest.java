@@ -0,0 +1,157 @@
+package us.ihmc.simulationconstructionset.physics.collision.broadPhase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.geometry.BoundingBox3D;
+
+public class BroadPhaseCollisionDetectorTest
+{
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testSweepAndPruneAgainstBruteForce()
+   {
+      testAgainstBruteForce(new SweepAndPruneBroadPhase(), new Random(1776L));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.2)
+   @Test(timeout = 30000)
+   public void testUniformGridAgainstBruteForce()
+   {
+      testAgainstBruteForce(new UniformGridBroadPhase(0.5), new Random(1776L));
+      testAgainstBruteForce(new UniformGridBroadPhase(0.05, 8), new Random(1492L));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testTouchingBoxes()
+   {
+      ArrayList<BoundingBox3D> boxes = new ArrayList<>();
+      boxes.add(new BoundingBox3D(0.0, 0.0, 0.0, 1.0, 1.0, 1.0));
+      boxes.add(new BoundingBox3D(1.0, 0.0, 0.0, 2.0, 1.0, 1.0));
+      boxes.add(new BoundingBox3D(2.5, 0.0, 0.0, 3.0, 1.0, 1.0));
+
+      CollisionPairList pairs = new CollisionPairList();
+      BroadPhaseCollisionDetector[] broadPhases = {new SweepAndPruneBroadPhase(), new UniformGridBroadPhase(1.0)};
+      for (BroadPhaseCollisionDetector broadPhase : broadPhases)
+      {
+         broadPhase.computeCandidatePairs(boxes, pairs);
+         assertEquals(1, pairs.size());
+         assertTrue(pairs.contains(1, 0));
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testUniformGridWithHugeBoxes()
+   {
+      ArrayList<BoundingBox3D> boxes = new ArrayList<>();
+      boxes.add(new BoundingBox3D(0.0, 0.0, 0.0, 1.0, 1.0, 1.0));
+      // Spans the whole grid, the number of cells does not fit in a long
+      boxes.add(new BoundingBox3D(-1.0e9, -1.0e9, -1.0e9, 1.0e9, 1.0e9, 1.0e9));
+      boxes.add(new BoundingBox3D(5.0, 5.0, 5.0, 6.0, 6.0, 6.0));
+      boxes.add(new BoundingBox3D(-1.0e9, -1.0e9, -1.0e9, 1.0e9, 1.0e9, -1.0e8));
+
+      CollisionPairList pairs = new CollisionPairList();
+      UniformGridBroadPhase broadPhase = new UniformGridBroadPhase(0.1, UniformGridBroadPhase.MAXIMUM_NUMBER_OF_CELLS);
+      broadPhase.computeCandidatePairs(boxes, pairs);
+
+      assertEquals(3, pairs.size());
+      assertTrue(pairs.contains(0, 1));
+      assertTrue(pairs.contains(1, 2));
+      assertTrue(pairs.contains(1, 3));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.0)
+   @Test(timeout = 30000)
+   public void testUniformGridInvalidParameters()
+   {
+      double[] cellSizes = {0.0, -1.0, Double.NaN, 1.0, 1.0};
+      int[] maximumCellsPerBox = {8, 8, 8, 0, UniformGridBroadPhase.MAXIMUM_NUMBER_OF_CELLS + 1};
+
+      for (int i = 0; i < cellSizes.length; i++)
+      {
+         try
+         {
+            new UniformGridBroadPhase(cellSizes[i], maximumCellsPerBox[i]);
+            fail("Cell size " + cellSizes[i] + " with " + maximumCellsPerBox[i] + " cells per box should be rejected");
+         }
+         catch (IllegalArgumentException e)
+         {
+            // Expected
+         }
+      }
+   }
+
+   private static void testAgainstBruteForce(BroadPhaseCollisionDetector broadPhase, Random random)
+   {
+      ArrayList<BoundingBox3D> boxes = new ArrayList<>();
+      ArrayList<double[]> velocities = new ArrayList<>();
+      CollisionPairList expected = new CollisionPairList();
+      CollisionPairList actual = new CollisionPairList();
+
+      for (int tick = 0; tick < 200; tick++)
+      {
+         // Change the number of shapes now and then
+         if (tick % 50 == 0)
+         {
+            int numberOfBoxes = 50 + random.nextInt(150);
+            boxes.clear();
+            velocities.clear();
+            for (int i = 0; i < numberOfBoxes; i++)
+            {
+               boxes.add(createRandomBox(random));
+               velocities.add(new double[] {0.01 * random.nextGaussian(), 0.01 * random.nextGaussian(), 0.01 * random.nextGaussian()});
+            }
+            // Ground
+            boxes.add(new BoundingBox3D(-100.0, -100.0, -1.0, 100.0, 100.0, 0.0));
+            velocities.add(new double[3]);
+         }
+
+         for (int i = 0; i < boxes.size(); i++)
+         {
+            BoundingBox3D box = boxes.get(i);
+            double[] velocity = velocities.get(i);
+            box.set(box.getMinX() + velocity[0], box.getMinY() + velocity[1], box.getMinZ() + velocity[2], box.getMaxX() + velocity[0],
+                    box.getMaxY() + velocity[1], box.getMaxZ() + velocity[2]);
+         }
+
+         expected.clear();
+         for (int i = 0; i < boxes.size(); i++)
+         {
+            for (int j = i + 1; j < boxes.size(); j++)
+            {
+               if (boxes.get(i).intersectsInclusive(boxes.get(j)))
+               {
+                  expected.add(i, j);
+               }
+            }
+         }
+
+         broadPhase.computeCandidatePairs(boxes, actual);
+
+         assertEquals(expected.size(), actual.size());
+         for (int pair = 0; pair < expected.size(); pair++)
+         {
+            assertEquals(expected.getFirst(pair), actual.getFirst(pair));
+            assertEquals(expected.getSecond(pair), actual.getSecond(pair));
+         }
+      }
+   }
+
+   private static BoundingBox3D createRandomBox(Random random)
+   {
+      double x = -2.0 + 4.0 * random.nextDouble();
+      double y = -2.0 + 4.0 * random.nextDouble();
+      double z = 2.0 * random.nextDouble() - 0.5;
+      double size = 0.05 + 0.3 * random.nextDouble();
+      return new BoundingBox3D(x, y, z, x + size, y + size * random.nextDouble(), z + size);
+   }
+}
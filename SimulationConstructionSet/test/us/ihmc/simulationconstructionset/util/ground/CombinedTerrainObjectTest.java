@@ -1,12 +1,22 @@
 package us.ihmc.simulationconstructionset.util.ground;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 
 import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
 import us.ihmc.euclid.geometry.ConvexPolygon2D;
 import us.ihmc.euclid.tools.EuclidCoreTestTools;
+import us.ihmc.euclid.transform.RigidBodyTransform;
 import us.ihmc.euclid.tuple3D.Point3D;
 import us.ihmc.euclid.tuple3D.Vector3D;
+import us.ihmc.graphicsDescription.appearance.YoAppearance;
 
 public class CombinedTerrainObjectTest
 {
@@ -50,4 +60,202 @@ public class CombinedTerrainObjectTest
       combinedTerrainObject.addTerrainObject(secondBox);
    }
 
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSameResultsAsCheckingAllTerrainObjects()
+   {
+      Random random = new Random(1776L);
+      CombinedTerrainObject3D combinedTerrainObject = createRandomTerrain(random, true);
+
+      Point3D expectedIntersection = new Point3D();
+      Vector3D expectedNormal = new Vector3D();
+      Point3D intersection = new Point3D();
+      Vector3D normal = new Vector3D();
+
+      for (int i = 0; i < 20000; i++)
+      {
+         double x = 22.0 * random.nextDouble() - 11.0;
+         double y = 22.0 * random.nextDouble() - 11.0;
+         double z = 0.8 * random.nextDouble() - 0.2;
+
+         boolean expectedIsInside = checkIfInsideAnyTerrainObject(combinedTerrainObject.getTerrainObjects(), x, y, z, expectedIntersection, expectedNormal);
+         assertEquals(expectedIsInside, combinedTerrainObject.checkIfInside(x, y, z, intersection, normal));
+         assertTrue(expectedIntersection.equals(intersection));
+         assertTrue(expectedNormal.equals(normal));
+
+         double expectedHeight = heightAndNormalAtHighestTerrainObject(combinedTerrainObject.getTerrainObjects(), x, y, z, expectedNormal);
+         assertEquals(expectedHeight, combinedTerrainObject.heightAndNormalAt(x, y, z, normal), 0.0);
+         assertEquals(expectedHeight, combinedTerrainObject.heightAt(x, y, z), 0.0);
+         if (expectedHeight > Double.NEGATIVE_INFINITY)
+            assertTrue(expectedNormal.equals(normal));
+      }
+
+      // Objects added after the first queries are found as well
+      combinedTerrainObject.addTerrainObject(new BoxTerrainObject(20.0, 20.0, 21.0, 21.0, 1.0));
+      assertEquals(1.0, combinedTerrainObject.heightAt(20.5, 20.5, 0.0), 0.0);
+
+      try
+      {
+         combinedTerrainObject.getTerrainObjects().add(new BoxTerrainObject(30.0, 30.0, 31.0, 31.0, 1.0));
+         fail("The terrain objects should only be added through addTerrainObject");
+      }
+      catch (UnsupportedOperationException e)
+      {
+         // Expected
+      }
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 1.0)
+   @Test(timeout = 30000)
+   public void testConcurrentQueries() throws InterruptedException
+   {
+      Random random = new Random(1492L);
+      // The rotatable boxes use temporary variables, only the combined terrain itself is tested here
+      CombinedTerrainObject3D combinedTerrainObject = createRandomTerrain(random, false);
+
+      int numberOfQueries = 5000;
+      double[] queries = new double[3 * numberOfQueries];
+      boolean[] expectedIsInside = new boolean[numberOfQueries];
+      Point3D[] expectedIntersections = new Point3D[numberOfQueries];
+      double[] expectedHeights = new double[numberOfQueries];
+
+      for (int i = 0; i < numberOfQueries; i++)
+      {
+         queries[3 * i] = 22.0 * random.nextDouble() - 11.0;
+         queries[3 * i + 1] = 22.0 * random.nextDouble() - 11.0;
+         queries[3 * i + 2] = 0.8 * random.nextDouble() - 0.2;
+
+         expectedIntersections[i] = new Point3D();
+         expectedIsInside[i] = checkIfInsideAnyTerrainObject(combinedTerrainObject.getTerrainObjects(), queries[3 * i], queries[3 * i + 1], queries[3 * i + 2],
+                                                             expectedIntersections[i], new Vector3D());
+         expectedHeights[i] = heightAndNormalAtHighestTerrainObject(combinedTerrainObject.getTerrainObjects(), queries[3 * i], queries[3 * i + 1],
+                                                                    queries[3 * i + 2], new Vector3D());
+      }
+
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      Thread[] threads = new Thread[4];
+      for (int t = 0; t < threads.length; t++)
+      {
+         int offset = t;
+         threads[t] = new Thread(() ->
+         {
+            try
+            {
+               Point3D intersection = new Point3D();
+               Vector3D normal = new Vector3D();
+
+               for (int n = 0; n < numberOfQueries; n++)
+               {
+                  // Every thread goes through the queries in a different order
+                  int i = (n * 7 + offset * 1231) % numberOfQueries;
+                  double x = queries[3 * i];
+                  double y = queries[3 * i + 1];
+                  double z = queries[3 * i + 2];
+
+                  assertEquals(expectedIsInside[i], combinedTerrainObject.checkIfInside(x, y, z, intersection, normal));
+                  assertTrue(expectedIntersections[i].equals(intersection));
+                  assertEquals(expectedHeights[i], combinedTerrainObject.heightAt(x, y, z), 0.0);
+               }
+            }
+            catch (Throwable e)
+            {
+               failure.compareAndSet(null, e);
+            }
+         });
+         threads[t].start();
+      }
+
+      for (Thread thread : threads)
+         thread.join();
+
+      if (failure.get() != null)
+         throw new AssertionError("Concurrent query failed", failure.get());
+   }
+
+   private static CombinedTerrainObject3D createRandomTerrain(Random random, boolean addRotatableBoxes)
+   {
+      CombinedTerrainObject3D combinedTerrainObject = new CombinedTerrainObject3D("Many Objects");
+      combinedTerrainObject.addBox(-10.0, -10.0, 10.0, 10.0, -0.1, 0.0);
+
+      for (int i = 0; i < 300; i++)
+      {
+         double x = 18.0 * random.nextDouble() - 9.0;
+         double y = 18.0 * random.nextDouble() - 9.0;
+         double length = 0.2 + random.nextDouble();
+         double width = 0.2 + random.nextDouble();
+         double height = 0.5 * random.nextDouble();
+
+         switch (i % 4)
+         {
+         case 0:
+            combinedTerrainObject.addBox(x, y, x + length, y + width, height);
+            break;
+         case 1:
+            combinedTerrainObject.addRamp(x, y, x + length, y + width, height);
+            break;
+         case 2:
+            if (!addRotatableBoxes)
+            {
+               combinedTerrainObject.addBox(x, y, x + length, y + width, 0.0, height);
+               break;
+            }
+            RigidBodyTransform configuration = new RigidBodyTransform();
+            configuration.setRotationYawAndZeroTranslation(Math.PI * random.nextDouble());
+            configuration.setTranslation(x, y, 0.5 * height);
+            combinedTerrainObject.addRotatableBox(configuration, length, width, height, YoAppearance.DarkGray());
+            break;
+         default:
+            CombinedTerrainObject3D step = new CombinedTerrainObject3D("Step" + i);
+            step.addBox(x, y, x + length, y + width, height);
+            step.addBox(x, y, x + 0.5 * length, y + width, height + 0.1);
+            combinedTerrainObject.addTerrainObject(step);
+            break;
+         }
+      }
+
+      return combinedTerrainObject;
+   }
+
+   private static boolean checkIfInsideAnyTerrainObject(List<TerrainObject3D> terrainObjects, double x, double y, double z, Point3D intersectionToPack,
+                                                        Vector3D normalToPack)
+   {
+      Point3D pointToCheck = new Point3D(x, y, z);
+      Point3D localIntersection = new Point3D();
+      Vector3D localNormal = new Vector3D();
+      double smallestDistance = Double.MAX_VALUE;
+      boolean isInside = false;
+
+      intersectionToPack.set(x, y, 0.0);
+      normalToPack.set(0.0, 0.0, 1.0);
+
+      for (TerrainObject3D terrainObject : terrainObjects)
+      {
+         if (terrainObject.isClose(x, y, z) && terrainObject.checkIfInside(x, y, z, localIntersection, localNormal)
+               && pointToCheck.distance(localIntersection) < smallestDistance)
+         {
+            smallestDistance = pointToCheck.distance(localIntersection);
+            intersectionToPack.set(localIntersection);
+            normalToPack.set(localNormal);
+            isInside = true;
+         }
+      }
+
+      return isInside;
+   }
+
+   private static double heightAndNormalAtHighestTerrainObject(List<TerrainObject3D> terrainObjects, double x, double y, double z, Vector3D normalToPack)
+   {
+      double height = Double.NEGATIVE_INFINITY;
+
+      for (TerrainObject3D terrainObject : terrainObjects)
+      {
+         if (terrainObject.isClose(x, y, z) && terrainObject.getHeightMapIfAvailable() != null
+               && terrainObject.getHeightMapIfAvailable().heightAt(x, y, z) > height)
+         {
+            height = terrainObject.getHeightMapIfAvailable().heightAndNormalAt(x, y, z, normalToPack);
+         }
+      }
+
+      return height;
+   }
 }
@@ -0,0 +1,106 @@
+package us.ihmc.simulationconstructionset.util.ground;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import us.ihmc.continuousIntegration.ContinuousIntegrationAnnotations.ContinuousIntegrationTest;
+import us.ihmc.euclid.tuple3D.Point3D;
+import us.ihmc.euclid.tuple3D.Vector3D;
+
+public class HeightMapGridCacheTest
+{
+   private static final double RESOLUTION = 0.05;
+   private static final double EPSILON = 1.0e-3;
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testSameContactsAsCombinedTerrainObject()
+   {
+      CombinedTerrainObject3D terrain = createTerrain();
+      HeightMapGridCache gridCache = new HeightMapGridCache(terrain, RESOLUTION);
+
+      // The edges of the objects are answered by the terrain, most of the ground by the grid
+      assertTrue(gridCache.getNumberOfCellsWithCachedContacts() > gridCache.getNumberOfCells() / 2);
+      assertTrue(gridCache.getNumberOfCellsWithCachedContacts() < gridCache.getNumberOfCells());
+      assertTrue(gridCache.getNumberOfCellsWithCachedHeights() > gridCache.getNumberOfCells() / 2);
+
+      assertSameContacts(terrain, gridCache, new Random(1776L));
+   }
+
+   @ContinuousIntegrationTest(estimatedDuration = 0.5)
+   @Test(timeout = 30000)
+   public void testMemoryMappedGridIsReused() throws IOException
+   {
+      File cacheFile = File.createTempFile("HeightMapGridCacheTest", ".grid");
+      cacheFile.deleteOnExit();
+
+      CombinedTerrainObject3D terrain = createTerrain();
+      HeightMapGridCache builtGridCache = new HeightMapGridCache(terrain, RESOLUTION, cacheFile);
+      HeightMapGridCache reusedGridCache = new HeightMapGridCache(terrain, RESOLUTION, cacheFile);
+      assertEquals(builtGridCache.getNumberOfCellsWithCachedContacts(), reusedGridCache.getNumberOfCellsWithCachedContacts());
+      assertEquals(builtGridCache.getNumberOfCellsWithCachedHeights(), reusedGridCache.getNumberOfCellsWithCachedHeights());
+
+      Random random = new Random(1777L);
+      Vector3D builtNormal = new Vector3D();
+      Vector3D reusedNormal = new Vector3D();
+      for (int i = 0; i < 10000; i++)
+      {
+         double x = terrain.getXMin() + (terrain.getXMax() - terrain.getXMin()) * random.nextDouble();
+         double y = terrain.getYMin() + (terrain.getYMax() - terrain.getYMin()) * random.nextDouble();
+         double z = 0.4 * random.nextDouble() - 0.05;
+         assertEquals(builtGridCache.heightAndNormalAt(x, y, z, builtNormal), reusedGridCache.heightAndNormalAt(x, y, z, reusedNormal), 0.0);
+         assertTrue(builtNormal.equals(reusedNormal));
+      }
+   }
+
+   private static void assertSameContacts(CombinedTerrainObject3D terrain, HeightMapGridCache gridCache, Random random)
+   {
+      Point3D expectedIntersection = new Point3D();
+      Vector3D expectedNormal = new Vector3D();
+      Point3D intersection = new Point3D();
+      Vector3D normal = new Vector3D();
+
+      for (int i = 0; i < 20000; i++)
+      {
+         double x = terrain.getXMin() + (terrain.getXMax() - terrain.getXMin()) * random.nextDouble();
+         double y = terrain.getYMin() + (terrain.getYMax() - terrain.getYMin()) * random.nextDouble();
+         double z = 0.4 * random.nextDouble() - 0.05;
+
+         boolean expectedIsInside = terrain.checkIfInside(x, y, z, expectedIntersection, expectedNormal);
+         boolean isInside = gridCache.checkIfInside(x, y, z, intersection, normal);
+         if (expectedIsInside && isInside)
+         {
+            assertTrue(expectedIntersection.epsilonEquals(intersection, EPSILON));
+            assertTrue(expectedNormal.epsilonEquals(normal, 0.05));
+         }
+         else if (expectedIsInside != isInside)
+         { // Only allowed right at the surface
+            assertEquals(expectedIsInside ? expectedIntersection.getZ() : intersection.getZ(), z, EPSILON);
+         }
+
+         assertEquals(terrain.heightAndNormalAt(x, y, z, expectedNormal), gridCache.heightAndNormalAt(x, y, z, normal), EPSILON);
+         assertEquals(terrain.heightAt(x, y, z), gridCache.heightAt(x, y, z), EPSILON);
+      }
+   }
+
+   private static CombinedTerrainObject3D createTerrain()
+   {
+      CombinedTerrainObject3D terrain = new CombinedTerrainObject3D("GridCacheTerrain");
+      terrain.addBox(-2.0, -2.0, 2.0, 2.0, -0.1, 0.0);
+      terrain.addBox(0.3, -0.5, 0.8, 0.5, 0.2);
+      terrain.addRamp(-1.5, -1.0, -0.5, 1.0, 0.3);
+      terrain.addBox(1.0, 1.0, 1.5, 1.5, 0.1);
+
+      // Only close up to its top, which is below the top of the terrain
+      CombinedTerrainObject3D platform = new CombinedTerrainObject3D("Platform");
+      platform.addBox(-0.2, -1.8, 0.2, -1.4, 0.25);
+      terrain.addTerrainObject(platform);
+      return terrain;
+   }
+}
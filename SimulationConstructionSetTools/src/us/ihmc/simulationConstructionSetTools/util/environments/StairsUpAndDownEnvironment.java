@@ -52,7 +52,7 @@ public class StairsUpAndDownEnvironment implements CommonAvatarEnvironmentInterf
       environment.setCourseStartDistance(startingPosition);
 
       environment.generateTerrains();
-      ArrayList<TerrainObject3D> stairs = ((CombinedTerrainObject3D) environment.getTerrainObject3D()).getTerrainObjects();
+      List<TerrainObject3D> stairs = ((CombinedTerrainObject3D) environment.getTerrainObject3D()).getTerrainObjects();
       for (TerrainObject3D object : stairs)
       {
          if (object instanceof CombinedTerrainObject3D)
@@ -94,7 +94,7 @@ public class StairsUpAndDownEnvironment implements CommonAvatarEnvironmentInterf
       environment.setCourseAngle(180);
 
       environment.generateTerrains();
-      ArrayList<TerrainObject3D> stairs = ((CombinedTerrainObject3D) environment.getTerrainObject3D()).getTerrainObjects();
+      List<TerrainObject3D> stairs = ((CombinedTerrainObject3D) environment.getTerrainObject3D()).getTerrainObjects();
       for (TerrainObject3D object : stairs)
       {
          if (object instanceof CombinedTerrainObject3D)